@@ -0,0 +1,131 @@
+package com.plugway.etl.benchmark;
+
+import com.plugway.etl.model.EtlMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gera registros sintéticos para os benchmarks, no mesmo formato produzido pelo QueryExecutor.
+ * 
+ * Tipos de coluna (parâmetro columnTypes):
+ * - text: VARCHAR
+ * - numeric: inteiros, BIGINT e DECIMAL
+ * - temporal: DATE e TIMESTAMP
+ * - mixed: alterna entre todos os tipos acima, com ~5% de nulos
+ */
+public final class BenchmarkData {
+    
+    private static final LocalDateTime BASE_TIMESTAMP = LocalDateTime.of(2024, 1, 1, 8, 0);
+    
+    private BenchmarkData() {
+    }
+    
+    /**
+     * Cria uma mensagem de extração com os registros gerados.
+     */
+    public static EtlMessage message(int rowCount, int columnCount, String columnTypes) {
+        EtlMessage message = new EtlMessage(rows(rowCount, columnCount, columnTypes));
+        message.addHeader("source", "database");
+        message.addHeader("database", "benchmark");
+        message.addHeader("recordCount", String.valueOf(rowCount));
+        return message;
+    }
+    
+    public static List<Map<String, Object>> rows(int rowCount, int columnCount, String columnTypes) {
+        List<Map<String, Object>> rows = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            Map<String, Object> record = new LinkedHashMap<>((int) (columnCount / 0.75f) + 1);
+            for (int column = 0; column < columnCount; column++) {
+                record.put(columnName(column), value(columnTypes, row, column));
+            }
+            rows.add(record);
+        }
+        return rows;
+    }
+    
+    public static String columnName(int column) {
+        return "COLUMN_" + column;
+    }
+    
+    /**
+     * Tipo SQL (DDL) da coluna, usado para criar a tabela de origem em memória.
+     */
+    public static String sqlType(String columnTypes, int column) {
+        switch (kind(columnTypes, column)) {
+            case 0:
+                return "VARCHAR(64)";
+            case 1:
+                return "INTEGER";
+            case 2:
+                return "BIGINT";
+            case 3:
+                return "DECIMAL(14,2)";
+            case 4:
+                return "DATE";
+            default:
+                return "TIMESTAMP";
+        }
+    }
+    
+    public static Object value(String columnTypes, int row, int column) {
+        if ("mixed".equals(columnTypes) && (row * 31 + column) % 20 == 0) {
+            return null;
+        }
+        switch (kind(columnTypes, column)) {
+            case 0:
+                return "valor " + row + "-" + column;
+            case 1:
+                return row * 7 + column;
+            case 2:
+                return (long) row * 1_000_003L + column;
+            case 3:
+                return BigDecimal.valueOf(row * 100L + column, 2);
+            case 4:
+                return LocalDate.of(2024, 1, 1).plusDays(row % 365);
+            default:
+                return BASE_TIMESTAMP.plusSeconds(row * 60L + column);
+        }
+    }
+    
+    /**
+     * Remove os arquivos gravados pelo Message Store para a mensagem do benchmark.
+     */
+    public static void deleteStoredMessages(String messageId) throws IOException {
+        Path storeDirectory = Paths.get("data", "message-store");
+        if (!Files.isDirectory(storeDirectory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(storeDirectory, "message-" + messageId + "-*.json")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+    
+    /**
+     * 0 = texto, 1 = INTEGER, 2 = BIGINT, 3 = DECIMAL, 4 = DATE, 5 = TIMESTAMP.
+     */
+    private static int kind(String columnTypes, int column) {
+        switch (columnTypes) {
+            case "text":
+                return 0;
+            case "numeric":
+                return 1 + column % 3;
+            case "temporal":
+                return 4 + column % 2;
+            default:
+                return column % 6;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.plugway.etl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.plugway.etl.dao.ConnectionManager;
+import com.plugway.etl.dao.DatabaseWriter;
+import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.model.DatabaseConfig;
+import com.plugway.etl.model.DatabaseType;
+import com.plugway.etl.model.EtlJob;
+import com.plugway.etl.model.JobExecutionInfo;
+import com.plugway.etl.model.JobStatus;
+import com.plugway.etl.service.orchestrator.EtlOrchestrator;
+
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Benchmark ponta a ponta: executa EtlOrchestrator.execute sobre um banco H2 em memória
+ * e envia os lotes para uma API REST local (HttpSink).
+ * 
+ * Não usa JMH: cada execução é um job completo, medido com System.nanoTime e os MXBeans de
+ * memória e GC. O resultado é gravado em JSON para comparação entre versões.
+ * 
+ * Parâmetros (chave=valor):
+ * - rows (100000), columns (20), columnTypes (mixed), batchSize (1000), outputFormat (JSON_ARRAY)
+ * - latencyMs (5), errorRate (0), threads (4), maxRetries (3)
+ * - concurrencyLimit (0): lotes em envio simultâneo pelo ConcurrencyLimiter da API (0 = um a um)
+ * - runs (5), warmupRuns (1), report (target/e2e-report.json)
+ * 
+ * Exemplo:
+ * mvn -Pbenchmark exec:exec -Dbenchmark.mainClass=com.plugway.etl.benchmark.EndToEndBenchmark
+ *     -Dbenchmark.args="rows=200000 latencyMs=10 errorRate=0.01"
+ */
+public final class EndToEndBenchmark {
+    
+    private static final String TABLE = "e2e_rows";
+    private static final int SEED_CHUNK = 10000;
+    
+    private EndToEndBenchmark() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int rows = Integer.parseInt(options.getOrDefault("rows", "100000"));
+        int columns = Integer.parseInt(options.getOrDefault("columns", "20"));
+        String columnTypes = options.getOrDefault("columnTypes", "mixed");
+        int batchSize = Integer.parseInt(options.getOrDefault("batchSize", "1000"));
+        String outputFormat = options.getOrDefault("outputFormat", "JSON_ARRAY");
+        long latencyMs = Long.parseLong(options.getOrDefault("latencyMs", "5"));
+        double errorRate = Double.parseDouble(options.getOrDefault("errorRate", "0"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "4"));
+        int maxRetries = Integer.parseInt(options.getOrDefault("maxRetries", "3"));
+        int concurrencyLimit = Integer.parseInt(options.getOrDefault("concurrencyLimit", "0"));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        int warmupRuns = Integer.parseInt(options.getOrDefault("warmupRuns", "1"));
+        File reportFile = new File(options.getOrDefault("report", "target/e2e-report.json"));
+        
+        DatabaseConfig source = new DatabaseConfig();
+        source.setName("benchmark-e2e");
+        source.setType(DatabaseType.H2);
+        source.setDatabase("mem:e2e");
+        source.setUsername("sa");
+        source.setPassword("");
+        
+        boolean allSucceeded = true;
+        Map<String, Object> report = new LinkedHashMap<>();
+        try (HttpSink sink = new HttpSink(latencyMs, errorRate, threads, 42L)) {
+            seed(source, rows, columns, columnTypes);
+            EtlJob job = createJob(source, sink, batchSize, outputFormat, maxRetries, concurrencyLimit);
+            
+            for (int run = 0; run < warmupRuns; run++) {
+                sink.reset();
+                new EtlOrchestrator().execute(job);
+            }
+            
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                Map<String, Object> result = measure(job, sink, rows);
+                allSucceeded &= JobStatus.SUCCESS.name().equals(result.get("status"));
+                results.add(result);
+            }
+            
+            report.put("benchmark", "end-to-end");
+            report.put("timestamp", Instant.now().toString());
+            report.put("javaVersion", System.getProperty("java.version"));
+            report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+            report.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+            report.put("config", options(rows, columns, columnTypes, batchSize, outputFormat,
+                                         latencyMs, errorRate, threads, maxRetries, runs, warmupRuns));
+            report.put("summary", summarize(results));
+            report.put("runs", results);
+        } finally {
+            ConnectionManager.getInstance().closeAll();
+        }
+        
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        File reportDirectory = reportFile.getAbsoluteFile().getParentFile();
+        if (reportDirectory != null) {
+            reportDirectory.mkdirs();
+        }
+        mapper.writeValue(reportFile, report);
+        System.out.println(mapper.writeValueAsString(report.get("summary")));
+        System.out.println("Relatório gravado em " + reportFile.getPath());
+        
+        System.exit(allSucceeded ? 0 : 1);
+    }
+    
+    /**
+     * Cria a tabela de origem e insere os registros sintéticos em blocos.
+     */
+    private static void seed(DatabaseConfig source, int rows, int columns, String columnTypes) throws SQLException {
+        StringBuilder ddl = new StringBuilder("CREATE TABLE ").append(TABLE).append(" (");
+        for (int column = 0; column < columns; column++) {
+            ddl.append(column == 0 ? "" : ", ").append(BenchmarkData.columnName(column))
+               .append(' ').append(BenchmarkData.sqlType(columnTypes, column));
+        }
+        ddl.append(')');
+        
+        ConnectionManager connectionManager = ConnectionManager.getInstance();
+        try (Connection connection = connectionManager.getConnection(source);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS " + TABLE);
+            stmt.execute(ddl.toString());
+        }
+        
+        DatabaseWriter writer = new DatabaseWriter(connectionManager, SEED_CHUNK);
+        for (int offset = 0; offset < rows; offset += SEED_CHUNK) {
+            int count = Math.min(SEED_CHUNK, rows - offset);
+            List<Map<String, Object>> chunk = BenchmarkData.rows(count, columns, columnTypes);
+            writer.write(source, TABLE, chunk);
+        }
+    }
+    
+    private static EtlJob createJob(DatabaseConfig source, HttpSink sink, int batchSize,
+                                    String outputFormat, int maxRetries, int concurrencyLimit) {
+        ApiConfig target = new ApiConfig();
+        target.setName("benchmark-sink");
+        target.setBaseUrl(sink.getBaseUrl());
+        target.setEndpoint("/sink");
+        target.setMaxRetries(maxRetries);
+        target.setRetryDelay(10);
+        target.setMaxRetryDelay(100);
+        // Com injeção de erros o circuit breaker abriria e mediria o tempo de espera, não a carga
+        target.getCircuitBreaker().setEnabled(false);
+        if (concurrencyLimit > 0) {
+            target.getConcurrencyLimit().setEnabled(true);
+            target.getConcurrencyLimit().setInitialLimit(concurrencyLimit);
+            target.getConcurrencyLimit().setMaxLimit(concurrencyLimit);
+        }
+        
+        EtlJob job = new EtlJob(UUID.randomUUID().toString(), "Benchmark ponta a ponta");
+        job.setSourceConfig(source);
+        job.setSqlQuery("SELECT * FROM " + TABLE);
+        job.setTargetConfig(target);
+        job.getTransformations().put("batchSize", batchSize);
+        job.getTransformations().put("outputFormat", outputFormat);
+        return job;
+    }
+    
+    /**
+     * Executa o job uma vez e coleta as medidas da execução.
+     */
+    private static Map<String, Object> measure(EtlJob job, HttpSink sink, int rows) {
+        sink.reset();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long gcTimeBefore = gcTime();
+        long gcCountBefore = gcCount();
+        
+        long start = System.nanoTime();
+        JobExecutionInfo info = new EtlOrchestrator().execute(job);
+        long elapsedNanos = System.nanoTime() - start;
+        
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        List<Long> latencies = sink.getLatencies();
+        Collections.sort(latencies);
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", info.getStatus().name());
+        result.put("durationMs", elapsedNanos / 1_000_000.0);
+        result.put("rowsPerSecond", rows / seconds);
+        result.put("bytes", sink.getBytesReceived());
+        result.put("bytesPerSecond", sink.getBytesReceived() / seconds);
+        result.put("requests", sink.getRequests());
+        result.put("errorResponses", sink.getErrorResponses());
+        result.put("batchLatencyP50Ms", percentile(latencies, 0.50));
+        result.put("batchLatencyP99Ms", percentile(latencies, 0.99));
+        result.put("batchLatencyMaxMs", latencies.isEmpty() ? 0.0 : latencies.get(latencies.size() - 1) / 1_000_000.0);
+        result.put("peakHeapBytes", peakHeap);
+        result.put("gcTimeMs", gcTime() - gcTimeBefore);
+        result.put("gcCount", gcCount() - gcCountBefore);
+        if (info.getErrorMessage() != null) {
+            result.put("error", info.getErrorMessage());
+        }
+        return result;
+    }
+    
+    /**
+     * Mediana de cada medida entre as execuções, para comparação de tendência.
+     */
+    private static Map<String, Object> summarize(List<Map<String, Object>> results) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("runs", results.size());
+        summary.put("succeeded", results.stream().filter(r -> JobStatus.SUCCESS.name().equals(r.get("status"))).count());
+        for (String metric : new String[] {"durationMs", "rowsPerSecond", "bytesPerSecond", "batchLatencyP50Ms",
+                                           "batchLatencyP99Ms", "peakHeapBytes", "gcTimeMs"}) {
+            summary.put(metric, median(results, r -> ((Number) r.get(metric)).doubleValue()));
+        }
+        return summary;
+    }
+    
+    private static double median(List<Map<String, Object>> results, ToDoubleFunction<Map<String, Object>> metric) {
+        if (results.isEmpty()) {
+            return 0;
+        }
+        double[] values = results.stream().mapToDouble(metric).sorted().toArray();
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+    
+    /**
+     * Percentil pelo método nearest-rank, em milissegundos.
+     */
+    private static double percentile(List<Long> sortedNanos, double quantile) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(0, index)) / 1_000_000.0;
+    }
+    
+    private static long gcTime() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+    
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+    
+    private static Map<String, Object> options(int rows, int columns, String columnTypes, int batchSize,
+                                               String outputFormat, long latencyMs, double errorRate, int threads,
+                                               int maxRetries, int runs, int warmupRuns) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("rows", rows);
+        config.put("columns", columns);
+        config.put("columnTypes", columnTypes);
+        config.put("batchSize", batchSize);
+        config.put("outputFormat", outputFormat);
+        config.put("latencyMs", latencyMs);
+        config.put("errorRate", errorRate);
+        config.put("threads", threads);
+        config.put("maxRetries", maxRetries);
+        config.put("runs", runs);
+        config.put("warmupRuns", warmupRuns);
+        return config;
+    }
+    
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Parâmetro inválido (esperado chave=valor): " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
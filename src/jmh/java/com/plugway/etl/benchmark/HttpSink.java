@@ -0,0 +1,144 @@
+package com.plugway.etl.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * API REST local que recebe os lotes do benchmark ponta a ponta.
+ * 
+ * Cada POST tem o body lido por completo, aguarda a latência configurada e responde 200,
+ * ou 503 com a probabilidade de erro configurada. Requisições GET (teste de conexão explícito)
+ * respondem 200 e não entram nas estatísticas.
+ */
+public class HttpSink implements AutoCloseable {
+    
+    private final long latencyMillis;
+    private final double errorRate;
+    private final Random random;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errorResponses = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final List<Long> latencies = new ArrayList<>();
+    
+    /**
+     * @param latencyMillis Latência adicionada a cada POST
+     * @param errorRate Probabilidade (0 a 1) de responder 503
+     * @param threads Requisições atendidas em paralelo
+     * @param seed Semente do sorteio de erros, para execuções reproduzíveis
+     */
+    public HttpSink(long latencyMillis, double errorRate, int threads, long seed) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.random = new Random(seed);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try (exchange) {
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())
+                && !"PUT".equalsIgnoreCase(exchange.getRequestMethod())
+                && !"PATCH".equalsIgnoreCase(exchange.getRequestMethod())) {
+                respond(exchange, 200, "ok");
+                return;
+            }
+            
+            long bodySize;
+            try (InputStream body = exchange.getRequestBody()) {
+                bodySize = body.transferTo(OutputStream.nullOutputStream());
+            }
+            
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            
+            boolean fail;
+            synchronized (random) {
+                fail = random.nextDouble() < errorRate;
+            }
+            respond(exchange, fail ? 503 : 200, fail ? "{\"error\":\"injected\"}" : "{\"status\":\"ok\"}");
+            
+            requests.incrementAndGet();
+            bytesReceived.addAndGet(bodySize);
+            if (fail) {
+                errorResponses.incrementAndGet();
+            }
+            synchronized (latencies) {
+                latencies.add(System.nanoTime() - start);
+            }
+        }
+    }
+    
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+    
+    /**
+     * Zera as estatísticas entre execuções.
+     */
+    public void reset() {
+        requests.set(0);
+        errorResponses.set(0);
+        bytesReceived.set(0);
+        synchronized (latencies) {
+            latencies.clear();
+        }
+    }
+    
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+    
+    public long getRequests() {
+        return requests.get();
+    }
+    
+    public long getErrorResponses() {
+        return errorResponses.get();
+    }
+    
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+    
+    /**
+     * Latências (nanossegundos) dos POSTs atendidos, do recebimento à resposta.
+     */
+    public List<Long> getLatencies() {
+        synchronized (latencies) {
+            return new ArrayList<>(latencies);
+        }
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
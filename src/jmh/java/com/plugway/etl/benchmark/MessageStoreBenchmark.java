@@ -0,0 +1,63 @@
+package com.plugway.etl.benchmark;
+
+import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.service.monitoring.MessageStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de MessageStore.save, chamado pelo Wire Tap a cada etapa do pipeline.
+ * Inclui a persistência da mensagem em data/message-store (um arquivo por segundo de execução,
+ * removidos ao final do benchmark).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageStoreBenchmark {
+    
+    @Param({"100", "10000"})
+    private int rowCount;
+    
+    @Param({"10", "50"})
+    private int columnCount;
+    
+    @Param({"mixed", "text"})
+    private String columnTypes;
+    
+    private MessageStore messageStore;
+    private EtlMessage message;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        messageStore = MessageStore.getInstance();
+        message = BenchmarkData.message(rowCount, columnCount, columnTypes);
+    }
+    
+    @Benchmark
+    public void save() {
+        messageStore.save(message, "benchmark");
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        messageStore.remove(message.getMessageId());
+        BenchmarkData.deleteStoredMessages(message.getMessageId());
+    }
+}
@@ -0,0 +1,76 @@
+package com.plugway.etl.benchmark;
+
+import com.plugway.etl.eip.EtlPipeline;
+import com.plugway.etl.eip.WireTap;
+import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.model.JsonOutputFormat;
+import com.plugway.etl.service.transform.ContentEnricher;
+import com.plugway.etl.service.transform.DatabaseToJsonTranslator;
+import com.plugway.etl.service.transform.Normalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark do EtlPipeline com os filtros padrão do EtlOrchestrator,
+ * com e sem Wire Tap (que grava cada etapa no Message Store).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+    
+    @Param({"100", "10000"})
+    private int rowCount;
+    
+    @Param({"10", "50"})
+    private int columnCount;
+    
+    @Param({"mixed"})
+    private String columnTypes;
+    
+    @Param({"false", "true"})
+    private boolean wireTap;
+    
+    private EtlMessage message;
+    private EtlPipeline pipeline;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        message = BenchmarkData.message(rowCount, columnCount, columnTypes);
+        
+        pipeline = new EtlPipeline("Pipeline-benchmark");
+        pipeline.addFilter(new Normalizer(true, true, true, true, "keep", ""));
+        pipeline.addFilter(new ContentEnricher(true, true));
+        pipeline.addFilter(new DatabaseToJsonTranslator(false, JsonOutputFormat.JSON_ARRAY));
+        if (wireTap) {
+            pipeline.setWireTap(new WireTap(true));
+        }
+    }
+    
+    @Benchmark
+    public EtlMessage process() throws Exception {
+        return pipeline.process(message);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.deleteStoredMessages(message.getMessageId());
+    }
+}
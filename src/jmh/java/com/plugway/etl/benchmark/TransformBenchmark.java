@@ -0,0 +1,83 @@
+package com.plugway.etl.benchmark;
+
+import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.model.JsonOutputFormat;
+import com.plugway.etl.service.transform.ContentEnricher;
+import com.plugway.etl.service.transform.DatabaseToJsonTranslator;
+import com.plugway.etl.service.transform.Normalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks dos filtros de transformação aplicados a cada mensagem extraída:
+ * Normalizer, ContentEnricher e DatabaseToJsonTranslator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransformBenchmark {
+    
+    @Param({"100", "10000"})
+    private int rowCount;
+    
+    @Param({"10", "50"})
+    private int columnCount;
+    
+    @Param({"mixed", "text", "numeric", "temporal"})
+    private String columnTypes;
+    
+    private EtlMessage message;
+    private Normalizer normalizer;
+    private ContentEnricher enricher;
+    private DatabaseToJsonTranslator translator;
+    private DatabaseToJsonTranslator ndjsonTranslator;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        message = BenchmarkData.message(rowCount, columnCount, columnTypes);
+        // Mesma configuração padrão usada pelo EtlOrchestrator
+        normalizer = new Normalizer(true, true, true, true, "keep", "");
+        enricher = new ContentEnricher(true, true);
+        translator = new DatabaseToJsonTranslator(false, JsonOutputFormat.JSON_ARRAY);
+        ndjsonTranslator = new DatabaseToJsonTranslator(false, JsonOutputFormat.NDJSON);
+    }
+    
+    @Benchmark
+    public EtlMessage normalizer() throws Exception {
+        return normalizer.transform(message);
+    }
+    
+    @Benchmark
+    public EtlMessage contentEnricher() throws Exception {
+        return enricher.transform(message);
+    }
+    
+    @Benchmark
+    public EtlMessage jsonArrayTranslator() throws Exception {
+        return translator.transform(message);
+    }
+    
+    /**
+     * O payload NDJSON é serializado sob demanda; o benchmark mede a geração do body completo.
+     */
+    @Benchmark
+    public byte[] ndjsonBatchBody() throws Exception {
+        return ndjsonTranslator.toBatchBody((List<?>) message.getPayload());
+    }
+}
@@ -0,0 +1,108 @@
+package com.plugway.etl.dao;
+
+import com.plugway.etl.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark do mapeamento de linhas do QueryExecutor (ResultSetPlan) sobre um banco H2 em memória.
+ * Mede a leitura completa do ResultSet para List<Map<String, Object>>, como na etapa de extração.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSetMappingBenchmark {
+    
+    private static final int LOB_MAX_BYTES = 16 * 1024 * 1024;
+    
+    @Param({"100", "10000"})
+    private int rowCount;
+    
+    @Param({"10", "50"})
+    private int columnCount;
+    
+    @Param({"mixed", "text", "numeric", "temporal"})
+    private String columnTypes;
+    
+    private Connection connection;
+    private PreparedStatement select;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        
+        StringBuilder ddl = new StringBuilder("CREATE TABLE BENCHMARK_ROWS (");
+        StringBuilder insert = new StringBuilder("INSERT INTO BENCHMARK_ROWS VALUES (");
+        for (int column = 0; column < columnCount; column++) {
+            ddl.append(column == 0 ? "" : ", ").append(BenchmarkData.columnName(column))
+               .append(' ').append(BenchmarkData.sqlType(columnTypes, column));
+            insert.append(column == 0 ? "?" : ", ?");
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS BENCHMARK_ROWS");
+            stmt.execute(ddl.append(')').toString());
+        }
+        
+        connection.setAutoCommit(false);
+        try (PreparedStatement stmt = connection.prepareStatement(insert.append(')').toString())) {
+            for (Map<String, Object> row : BenchmarkData.rows(rowCount, columnCount, columnTypes)) {
+                int index = 1;
+                for (Object value : row.values()) {
+                    QueryExecutor.setParameter(stmt, index++, value);
+                }
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        
+        select = connection.prepareStatement("SELECT * FROM BENCHMARK_ROWS");
+    }
+    
+    @Benchmark
+    public List<Map<String, Object>> readRows() throws SQLException {
+        List<Map<String, Object>> results = new ArrayList<>();
+        try (ResultSet rs = select.executeQuery()) {
+            ResultSetPlan plan = ResultSetPlan.of(rs.getMetaData(), LOB_MAX_BYTES);
+            while (rs.next()) {
+                results.add(plan.readRow(rs));
+            }
+        }
+        return results;
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        select.close();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE BENCHMARK_ROWS");
+        }
+        connection.close();
+    }
+}
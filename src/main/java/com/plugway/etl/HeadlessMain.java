@@ -0,0 +1,395 @@
+package com.plugway.etl;
+
+import com.plugway.etl.config.ConfigManager;
+import com.plugway.etl.dao.ConnectionManager;
+import com.plugway.etl.eip.ControlBus;
+import com.plugway.etl.model.EtlJob;
+import com.plugway.etl.model.JobExecutionInfo;
+import com.plugway.etl.model.JobStatus;
+import com.plugway.etl.model.ScheduleConfig;
+import com.plugway.etl.service.ApiConfigService;
+import com.plugway.etl.service.ConnectionConfigService;
+import com.plugway.etl.service.JobConfigService;
+import com.plugway.etl.service.monitoring.JmxExporter;
+import com.plugway.etl.service.monitoring.MetricsHttpServer;
+import com.plugway.etl.service.orchestrator.EtlOrchestrator;
+import com.plugway.etl.service.scheduler.JobScheduler;
+import com.plugway.etl.service.scheduler.SchedulerService;
+import com.plugway.etl.util.LoggerUtil;
+import org.quartz.CronExpression;
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ponto de entrada sem interface gráfica, para servidores e containers.
+ * 
+ * Carrega os jobs, conexões e APIs de config/*.json e não referencia nenhuma classe do JavaFX
+ * (por isso é separado de {@link Main}, que estende Application). Comandos:
+ * <ul>
+ *   <li>{@code daemon} (padrão): agenda os jobs habilitados e aguarda até receber SIGTERM/SIGINT
+ *       ou o comando {@code stop} na entrada padrão;</li>
+ *   <li>{@code run <jobId>...}: executa os jobs uma vez e encerra (código 1 se algum falhar);</li>
+ *   <li>{@code list}: lista os jobs configurados;</li>
+ *   <li>{@code check}: valida os jobs e os agendamentos (código 2 se houver problemas). Também é
+ *       a carga de treino do arquivo AppCDS gerado pelo perfil appcds.</li>
+ * </ul>
+ * 
+ * O shutdown hook apenas sinaliza a thread principal e aguarda o encerramento por até
+ * headless.shutdownTimeoutSeconds; o encerramento do scheduler, do Control Bus e dos pools
+ * é feito pela thread principal.
+ */
+public class HeadlessMain {
+    
+    private static final Logger logger = LoggerUtil.getLogger(HeadlessMain.class);
+    
+    static final int EXIT_OK = 0;
+    static final int EXIT_JOB_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+    
+    private static final String USAGE = String.join(System.lineSeparator(),
+        "Uso: java -cp plugway.jar com.plugway.etl.HeadlessMain [comando]",
+        "  daemon                 agenda os jobs habilitados e aguarda (padrão)",
+        "  run <jobId> [...]      executa os jobs uma vez e encerra",
+        "  list                   lista os jobs configurados",
+        "  check                  valida os jobs e os agendamentos",
+        "  help                   mostra esta ajuda");
+    
+    private static final String CONSOLE_HELP = String.join(System.lineSeparator(),
+        "Comandos: status | run <jobId> | pause <jobId> | resume <jobId> | stop");
+    
+    private final Map<String, EtlJob> jobs;
+    private final CountDownLatch shutdownRequested;
+    private final CountDownLatch terminated;
+    private SchedulerService schedulerService;
+    
+    HeadlessMain(List<EtlJob> jobs) {
+        this.jobs = new LinkedHashMap<>();
+        for (EtlJob job : jobs) {
+            this.jobs.put(job.getId(), job);
+        }
+        this.shutdownRequested = new CountDownLatch(1);
+        this.terminated = new CountDownLatch(1);
+    }
+    
+    public static void main(String[] args) {
+        String command = args.length > 0 ? args[0] : "daemon";
+        if ("help".equals(command) || "--help".equals(command) || "-h".equals(command)) {
+            System.out.println(USAGE);
+            return;
+        }
+        
+        logger.info("Iniciando PlugWay ETL em modo headless...");
+        
+        try {
+            ConfigManager.getInstance().loadConfiguration();
+            logger.info("Configurações carregadas com sucesso");
+        } catch (Exception e) {
+            logger.error("Erro ao carregar configurações", e);
+            System.exit(1);
+        }
+        
+        HeadlessMain runner = new HeadlessMain(loadJobs());
+        int exitCode;
+        switch (command) {
+            case "daemon":
+                exitCode = runner.daemon();
+                break;
+            case "run":
+                exitCode = runner.runOnce(Arrays.asList(args).subList(1, args.length));
+                break;
+            case "list":
+                System.out.println(runner.describeJobs());
+                exitCode = EXIT_OK;
+                break;
+            case "check":
+                exitCode = runner.check();
+                break;
+            default:
+                System.err.println("Comando desconhecido: " + command);
+                System.err.println(USAGE);
+                exitCode = EXIT_USAGE;
+        }
+        
+        // Threads não daemon do Control Bus podem manter a JVM ativa após o encerramento
+        System.exit(exitCode);
+    }
+    
+    /**
+     * Carrega os jobs e reconstrói as referências às conexões e APIs salvas.
+     */
+    static List<EtlJob> loadJobs() {
+        JobConfigService jobConfigService = JobConfigService.getInstance();
+        List<EtlJob> jobs = jobConfigService.loadJobs();
+        jobConfigService.resolveReferences(jobs,
+            ConnectionConfigService.getInstance().loadConnections(),
+            ApiConfigService.getInstance().loadApis());
+        return jobs;
+    }
+    
+    /**
+     * Agenda os jobs habilitados e bloqueia até o pedido de encerramento.
+     */
+    int daemon() {
+        installShutdownHook();
+        startMetrics();
+        
+        getSchedulerService().scheduleAllJobs(List.copyOf(jobs.values()));
+        logger.info("Modo daemon iniciado com {} jobs agendados", getSchedulerService().getScheduledJobs().size());
+        
+        startConsole();
+        
+        try {
+            shutdownRequested.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        shutdown();
+        return EXIT_OK;
+    }
+    
+    /**
+     * Executa os jobs informados uma vez, em sequência.
+     * 
+     * @return EXIT_OK se todos terminaram com sucesso
+     */
+    int runOnce(List<String> jobIds) {
+        if (jobIds.isEmpty()) {
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        for (String jobId : jobIds) {
+            if (!jobs.containsKey(jobId)) {
+                System.err.println("Job não encontrado: " + jobId);
+                return EXIT_USAGE;
+            }
+        }
+        
+        installShutdownHook();
+        startMetrics();
+        
+        int exitCode = EXIT_OK;
+        try {
+            EtlOrchestrator orchestrator = new EtlOrchestrator();
+            for (String jobId : jobIds) {
+                if (shutdownRequested.getCount() == 0) {
+                    logger.warn("Encerramento solicitado, jobs restantes não serão executados");
+                    exitCode = EXIT_JOB_FAILED;
+                    break;
+                }
+                JobExecutionInfo executionInfo = orchestrator.execute(jobs.get(jobId));
+                logger.info("Job executado: {} | Status: {} | Registros: {}",
+                           jobId, executionInfo.getStatus(), executionInfo.getRecordsProcessed());
+                if (executionInfo.getStatus() != JobStatus.SUCCESS) {
+                    exitCode = EXIT_JOB_FAILED;
+                }
+            }
+        } finally {
+            shutdown();
+        }
+        return exitCode;
+    }
+    
+    /**
+     * Valida a configuração dos jobs e as expressões cron dos agendamentos habilitados.
+     * 
+     * @return EXIT_OK se não houver problemas
+     */
+    int check() {
+        List<String> problems = new ArrayList<>();
+        for (EtlJob job : jobs.values()) {
+            if (!job.isValid()) {
+                problems.add(job.getId() + ": configuração de origem, consulta ou destino incompleta");
+            }
+            ScheduleConfig schedule = job.getSchedule();
+            if (schedule == null || !schedule.isEnabled()) {
+                continue;
+            }
+            if (!schedule.isValid()) {
+                problems.add(job.getId() + ": agendamento sem expressão cron ou intervalo");
+            } else if (schedule.getCronExpression() != null && !schedule.getCronExpression().isBlank()
+                       && !CronExpression.isValidExpression(schedule.getCronExpression())) {
+                problems.add(job.getId() + ": expressão cron inválida: " + schedule.getCronExpression());
+            }
+        }
+        
+        if (problems.isEmpty()) {
+            System.out.println(jobs.size() + " jobs válidos");
+            return EXIT_OK;
+        }
+        problems.forEach(System.err::println);
+        return EXIT_USAGE;
+    }
+    
+    /**
+     * Interpreta um comando da entrada padrão no modo daemon.
+     * 
+     * @return Resposta a ser exibida
+     */
+    String handleCommand(String line) {
+        String[] parts = line.trim().split("\\s+");
+        String command = parts[0];
+        String jobId = parts.length > 1 ? parts[1] : null;
+        
+        switch (command) {
+            case "":
+                return "";
+            case "help":
+                return CONSOLE_HELP;
+            case "status":
+                return describeJobs();
+            case "stop":
+            case "quit":
+                shutdownRequested.countDown();
+                return "Encerrando...";
+            case "run":
+            case "pause":
+            case "resume":
+                if (jobId == null) {
+                    return "Informe o ID do job: " + command + " <jobId>";
+                }
+                EtlJob job = jobs.get(jobId);
+                if (job == null) {
+                    return "Job não encontrado: " + jobId;
+                }
+                return controlJob(command, job);
+            default:
+                return "Comando desconhecido: " + command + System.lineSeparator() + CONSOLE_HELP;
+        }
+    }
+    
+    private String controlJob(String command, EtlJob job) {
+        switch (command) {
+            case "run":
+                ControlBus.getInstance().startJob(job.getId(), () -> new EtlOrchestrator().execute(job));
+                return "Job iniciado: " + job.getId();
+            case "pause":
+                return getSchedulerService().pauseJob(job.getId())
+                    ? "Agendamento pausado: " + job.getId()
+                    : "Job não está agendado: " + job.getId();
+            default:
+                return getSchedulerService().resumeJob(job.getId())
+                    ? "Agendamento retomado: " + job.getId()
+                    : "Job não está agendado: " + job.getId();
+        }
+    }
+    
+    /**
+     * Descreve os jobs configurados, com o próximo horário de execução dos agendados.
+     */
+    String describeJobs() {
+        if (jobs.isEmpty()) {
+            return "Nenhum job configurado em " + JobConfigService.getInstance().getJobsFilePath();
+        }
+        StringBuilder description = new StringBuilder();
+        for (EtlJob job : jobs.values()) {
+            description.append(String.format("%-24s %-32s", job.getId(), job.getName()));
+            if (job.getSchedule() != null && job.getSchedule().isEnabled()) {
+                description.append(" cron=").append(job.getSchedule().getCronExpression());
+                if (schedulerService != null && schedulerService.isScheduled(job.getId())) {
+                    description.append(" próxima=").append(schedulerService.getNextFireTime(job.getId()));
+                }
+            } else {
+                description.append(" sem agendamento");
+            }
+            JobStatus status = ControlBus.getInstance().getStatus(job.getId());
+            if (status != null) {
+                description.append(" status=").append(status);
+            }
+            description.append(System.lineSeparator());
+        }
+        return description.toString().trim();
+    }
+    
+    /**
+     * Sinaliza o encerramento (usado pelo shutdown hook e pelo comando stop).
+     */
+    void requestShutdown() {
+        shutdownRequested.countDown();
+    }
+    
+    private void installShutdownHook() {
+        int timeoutSeconds = ConfigManager.getInstance().getInt("headless.shutdownTimeoutSeconds", 60);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            // Só sinaliza: o encerramento dos serviços fica com a thread principal
+            requestShutdown();
+            try {
+                if (!terminated.await(timeoutSeconds, TimeUnit.SECONDS)) {
+                    logger.warn("Encerramento não concluído em {}s", timeoutSeconds);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "plugway-shutdown"));
+    }
+    
+    private void startMetrics() {
+        // Publica métricas via JMX e, se habilitado, no endpoint do Prometheus
+        JmxExporter.getInstance();
+        MetricsHttpServer.getInstance().startIfEnabled();
+    }
+    
+    /**
+     * Lê comandos da entrada padrão numa thread daemon. Sem terminal (systemd, containers),
+     * a leitura termina no fim da entrada e o processo segue aguardando sinais.
+     */
+    private void startConsole() {
+        Thread console = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+                String line;
+                while (shutdownRequested.getCount() > 0 && (line = reader.readLine()) != null) {
+                    String response = handleCommand(line);
+                    if (!response.isEmpty()) {
+                        System.out.println(response);
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("Leitura de comandos encerrada: {}", e.getMessage());
+            }
+        }, "plugway-console");
+        console.setDaemon(true);
+        console.start();
+    }
+    
+    private SchedulerService getSchedulerService() {
+        if (schedulerService == null) {
+            schedulerService = new SchedulerService();
+        }
+        return schedulerService;
+    }
+    
+    private void shutdown() {
+        logger.info("Encerrando PlugWay ETL...");
+        
+        // Encerra o JobScheduler aguardando os jobs em execução
+        try {
+            JobScheduler.getInstance().shutdown();
+        } catch (Exception e) {
+            logger.error("Erro ao encerrar JobScheduler", e);
+        }
+        
+        // Encerra o Control Bus
+        try {
+            ControlBus.getInstance().shutdown();
+        } catch (Exception e) {
+            logger.error("Erro ao encerrar Control Bus", e);
+        }
+        
+        // Encerra o endpoint de métricas e os pools de conexão
+        MetricsHttpServer.getInstance().stop();
+        ConnectionManager.getInstance().closeAll();
+        
+        logger.info("PlugWay ETL encerrado");
+        terminated.countDown();
+    }
+}
@@ -2,6 +2,8 @@ package com.plugway.etl;
 
 import com.plugway.etl.config.ConfigManager;
 import com.plugway.etl.eip.ControlBus;
+import com.plugway.etl.service.monitoring.JmxExporter;
+import com.plugway.etl.service.monitoring.MetricsHttpServer;
 import com.plugway.etl.ui.MainController;
 import com.plugway.etl.util.LoggerUtil;
 import javafx.application.Application;
@@ -33,6 +35,10 @@ public class Main extends Application {
             System.exit(1);
         }
         
+        // Publica métricas via JMX e, se habilitado, no endpoint do Prometheus
+        JmxExporter.getInstance();
+        MetricsHttpServer.getInstance().startIfEnabled();
+        
         // Lançar aplicação JavaFX
         launch(args);
     }
@@ -110,6 +116,9 @@ public class Main extends Application {
             logger.error("Erro ao encerrar JobScheduler", e);
         }
         
+        // Encerra o endpoint de métricas
+        MetricsHttpServer.getInstance().stop();
+        
         // Limpar outros recursos se necessário
     }
 }
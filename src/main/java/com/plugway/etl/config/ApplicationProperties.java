@@ -16,18 +16,18 @@ public class ApplicationProperties {
     private static final Logger logger = LoggerUtil.getLogger(ApplicationProperties.class);
     private static final String PROPERTIES_FILE = "application.properties";
     
-    private static ApplicationProperties instance;
     private Properties properties;
     
     private ApplicationProperties() {
         loadProperties();
     }
     
-    public static synchronized ApplicationProperties getInstance() {
-        if (instance == null) {
-            instance = new ApplicationProperties();
-        }
-        return instance;
+    public static ApplicationProperties getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final ApplicationProperties INSTANCE = new ApplicationProperties();
     }
     
     /**
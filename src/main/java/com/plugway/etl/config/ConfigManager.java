@@ -16,7 +16,6 @@ import java.nio.file.Paths;
 public class ConfigManager {
     
     private static final Logger logger = LoggerUtil.getLogger(ConfigManager.class);
-    private static ConfigManager instance;
     
     private Config config;
     private Path configDirectory;
@@ -25,11 +24,12 @@ public class ConfigManager {
         // Construtor privado para singleton
     }
     
-    public static synchronized ConfigManager getInstance() {
-        if (instance == null) {
-            instance = new ConfigManager();
-        }
-        return instance;
+    public static ConfigManager getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final ConfigManager INSTANCE = new ConfigManager();
     }
     
     /**
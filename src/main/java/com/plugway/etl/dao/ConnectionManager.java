@@ -2,68 +2,202 @@ package com.plugway.etl.dao;
 
 import com.plugway.etl.config.ConfigManager;
 import com.plugway.etl.model.DatabaseConfig;
+import com.plugway.etl.model.PoolConfig;
+import com.plugway.etl.service.monitoring.JmxExporter;
 import com.plugway.etl.util.LoggerUtil;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.slf4j.Logger;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Gerenciador de conexões com pool usando HikariCP.
  * Gerencia múltiplas conexões simultâneas para diferentes bancos de dados.
+ * 
+ * Cada pool é criado uma única vez: chamadas concorrentes para a mesma configuração aguardam
+ * a criação em andamento em vez de abrir pools próprios. Se a configuração da conexão for
+ * editada, o próximo uso cria um pool novo e o antigo é fechado quando deixar de ser usado.
+ * Pools sem uso há mais de database.pool.idleShutdownSeconds são fechados e recriados sob
+ * demanda.
  */
 public class ConnectionManager {
     
     private static final Logger logger = LoggerUtil.getLogger(ConnectionManager.class);
-    private static ConnectionManager instance;
     
-    private final Map<String, HikariDataSource> dataSources;
+    // Threads para criar pools em paralelo no aquecimento (daemon: não impedem o encerramento)
+    private static final ExecutorService WARMUP_EXECUTOR = createWarmUpExecutor();
+    
+    private final Map<String, PoolEntry> pools;
+    // Pools substituídos ou removidos que ainda tinham conexões em uso
+    private final Set<PoolEntry> retiredPools;
     private final ConfigManager configManager;
+    private final AtomicBoolean reaperStarted;
+    // Geração dos pools criados: o pool recriado convive com o antigo e precisa de outro nome JMX
+    private final AtomicLong poolGenerations;
     
     private ConnectionManager() {
-        this.dataSources = new ConcurrentHashMap<>();
+        this.pools = new ConcurrentHashMap<>();
+        this.retiredPools = ConcurrentHashMap.newKeySet();
         this.configManager = ConfigManager.getInstance();
+        this.reaperStarted = new AtomicBoolean();
+        this.poolGenerations = new AtomicLong();
     }
     
-    public static synchronized ConnectionManager getInstance() {
-        if (instance == null) {
-            instance = new ConnectionManager();
-        }
-        return instance;
+    public static ConnectionManager getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final ConnectionManager INSTANCE = new ConnectionManager();
     }
     
     /**
      * Obtém ou cria um DataSource para a configuração especificada.
+     * O DataSource pode ser fechado se ficar ocioso ou se a configuração mudar; para uso
+     * contínuo prefira {@link #getConnection(DatabaseConfig)}.
      */
     public DataSource getDataSource(DatabaseConfig config) throws SQLException {
+        return obtain(config).dataSource();
+    }
+    
+    /**
+     * Obtém uma conexão do pool para a configuração especificada.
+     */
+    public Connection getConnection(DatabaseConfig config) throws SQLException {
+        while (true) {
+            PoolEntry entry = obtain(config);
+            
+            // A referência impede que o pool seja fechado entre a busca e o empréstimo da conexão;
+            // depois disso a conexão emprestada conta como uso ativo do pool
+            entry.leases.incrementAndGet();
+            try {
+                if (!entry.retired) {
+                    return entry.dataSource().getConnection();
+                }
+            } finally {
+                entry.leases.decrementAndGet();
+            }
+            closeIfUnused(entry);
+        }
+    }
+    
+    /**
+     * Retorna o pool atual da configuração, criando-o se não existir ou se a configuração
+     * tiver mudado. Apenas um chamador cria o pool; os demais aguardam a mesma criação.
+     */
+    private PoolEntry obtain(DatabaseConfig config) throws SQLException {
         if (config == null || !config.isValid()) {
             throw new IllegalArgumentException("Database configuration is invalid");
         }
         
         String key = config.getName();
+        List<Object> settings = settingsOf(config);
         
-        // Retorna DataSource existente se já estiver criado
-        if (dataSources.containsKey(key)) {
-            HikariDataSource ds = dataSources.get(key);
-            if (ds != null && !ds.isClosed()) {
-                return ds;
+        while (true) {
+            PoolEntry current = pools.get(key);
+            if (current != null && current.settings.equals(settings)) {
+                HikariDataSource ds = await(current, key);
+                if (!ds.isClosed()) {
+                    current.lastUsed = System.currentTimeMillis();
+                    return current;
+                }
+                // Fechado fora do gerenciador: descarta e cria novamente
+                if (pools.remove(key, current)) {
+                    retire(current);
+                }
+                continue;
+            }
+            
+            PoolEntry created = new PoolEntry(settings);
+            boolean installed = current == null
+                ? pools.putIfAbsent(key, created) == null
+                : pools.replace(key, current, created);
+            if (!installed) {
+                continue;
             }
-            // Remove se estiver fechado
-            dataSources.remove(key);
+            
+            if (current != null) {
+                logger.info("Configuração alterada, recriando pool de conexões: {}", key);
+                retire(current);
+            }
+            create(created, config);
+            return created;
+        }
+    }
+    
+    /**
+     * Cria o DataSource de um pool recém-registrado e libera os chamadores que o aguardam.
+     */
+    private void create(PoolEntry entry, DatabaseConfig config) throws SQLException {
+        try {
+            entry.future.complete(createDataSource(config));
+        } catch (SQLException | RuntimeException e) {
+            // Permite nova tentativa na próxima chamada
+            pools.remove(config.getName(), entry);
+            entry.future.completeExceptionally(e);
+            throw e;
         }
-        
-        // Cria novo DataSource
-        HikariDataSource dataSource = createDataSource(config);
-        dataSources.put(key, dataSource);
         
         logger.info("DataSource criado para: {}", config.getName());
-        
-        return dataSource;
+        startReaper();
+        closeIfUnused(entry);
+    }
+    
+    /**
+     * Aguarda a criação do pool em andamento, repassando a falha da criação.
+     */
+    private static HikariDataSource await(PoolEntry entry, String name) throws SQLException {
+        try {
+            return entry.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido ao aguardar criação do pool: " + name, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException("Erro ao criar pool: " + name, cause);
+        }
+    }
+    
+    /**
+     * Configurações que exigem um pool novo quando mudam.
+     */
+    private static List<Object> settingsOf(DatabaseConfig config) {
+        PoolConfig pool = config.getPool();
+        return Arrays.asList(
+            config.getType(), config.buildJdbcUrl(), config.getUsername(), config.getPassword(),
+            new HashMap<>(config.getProperties()),
+            pool.getMinSize(), pool.getMaxSize(), pool.getStatementCacheSize(),
+            pool.isReadOnly(), pool.getTransactionIsolation()
+        );
     }
     
     /**
@@ -78,15 +212,24 @@ public class ConnectionManager {
         hikariConfig.setUsername(config.getUsername());
         hikariConfig.setPassword(config.getPassword());
         
-        // Nome do pool
-        hikariConfig.setPoolName("HikariPool-" + config.getName());
+        // Nome do pool (publicado via JMX pelo HikariCP; o nome não pode conter ':').
+        // A geração distingue o pool recriado do antigo, que ainda pode estar registrado
+        hikariConfig.setPoolName("HikariPool-" + config.getName() + "-" + poolGenerations.incrementAndGet());
+        hikariConfig.setRegisterMbeans(JmxExporter.isEnabled(configManager) && !config.getName().contains(":"));
         
-        // Configurações do pool (com valores padrão do ConfigManager)
-        hikariConfig.setMinimumIdle(configManager.getInt("database.pool.minSize", 2));
-        hikariConfig.setMaximumPoolSize(configManager.getInt("database.pool.maxSize", 10));
+        // Configurações do pool: perfil da conexão, com valores padrão do ConfigManager
+        PoolConfig pool = config.getPool();
+        int maxSize = pool.getMaxSize() != null ? pool.getMaxSize() : configManager.getInt("database.pool.maxSize", 10);
+        int minSize = pool.getMinSize() != null ? pool.getMinSize() : configManager.getInt("database.pool.minSize", 2);
+        hikariConfig.setMaximumPoolSize(maxSize);
+        hikariConfig.setMinimumIdle(Math.min(minSize, maxSize));
         hikariConfig.setConnectionTimeout(configManager.getInt("database.pool.connectionTimeout", 30000));
         hikariConfig.setIdleTimeout(configManager.getInt("database.pool.idleTimeout", 600000));
         hikariConfig.setMaxLifetime(configManager.getInt("database.pool.maxLifetime", 1800000));
+        hikariConfig.setReadOnly(pool.isReadOnly());
+        if (pool.getTransactionIsolation() != null) {
+            hikariConfig.setTransactionIsolation(pool.getTransactionIsolation());
+        }
         
         // Configurações específicas do banco
         configureDatabaseSpecific(hikariConfig, config);
@@ -105,11 +248,14 @@ public class ConnectionManager {
         try {
             HikariDataSource dataSource = new HikariDataSource(hikariConfig);
             
-            // Testa a conexão
+            // Testa a conexão (sem deixar o pool aberto se a validação falhar)
             try (Connection conn = dataSource.getConnection()) {
                 if (conn.isValid(5)) {
                     logger.debug("Conexão validada com sucesso para: {}", config.getName());
                 }
+            } catch (SQLException e) {
+                dataSource.close();
+                throw e;
             }
             
             return dataSource;
@@ -122,22 +268,46 @@ public class ConnectionManager {
     
     /**
      * Configura propriedades específicas de cada tipo de banco.
+     * Inclui o cache nativo de prepared statements por conexão, para que jobs
+     * parametrizados executados com frequência não preparem o SQL novamente,
+     * e a otimização de executeBatch usada pelo DatabaseWriter (MySQL e SQL Server).
+     * As propriedades da configuração do banco são aplicadas depois e podem sobrescrevê-las.
      */
     private void configureDatabaseSpecific(HikariConfig config, DatabaseConfig dbConfig) {
+        Integer poolCacheSize = dbConfig.getPool().getStatementCacheSize();
+        int statementCacheSize = poolCacheSize != null
+            ? poolCacheSize
+            : configManager.getInt("database.statementCacheSize", 250);
+        
         switch (dbConfig.getType()) {
             case FIREBIRD:
                 config.addDataSourceProperty("encoding", "UTF8");
+                // Jaybird não possui cache de statements
                 break;
             case MYSQL:
                 config.addDataSourceProperty("useSSL", "false");
                 config.addDataSourceProperty("serverTimezone", "UTC");
+                config.addDataSourceProperty("cachePrepStmts", "true");
+                config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(statementCacheSize));
+                config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+                config.addDataSourceProperty("useServerPrepStmts", "true");
+                config.addDataSourceProperty("cacheResultSetMetadata", "true");
+                // executeBatch de INSERTs vira um único INSERT multi-linha
+                config.addDataSourceProperty("rewriteBatchedStatements", "true");
                 break;
             case POSTGRESQL:
-                // Configurações padrão do PostgreSQL são adequadas
+                // Statements passam a ser preparados no servidor a partir da 3ª execução
+                config.addDataSourceProperty("prepareThreshold", "3");
+                config.addDataSourceProperty("preparedStatementCacheQueries", String.valueOf(statementCacheSize));
+                config.addDataSourceProperty("preparedStatementCacheSizeMiB", "5");
                 break;
             case SQLSERVER:
                 config.addDataSourceProperty("encrypt", "false");
                 config.addDataSourceProperty("trustServerCertificate", "true");
+                config.addDataSourceProperty("disableStatementPooling", "false");
+                config.addDataSourceProperty("statementPoolingCacheSize", String.valueOf(statementCacheSize));
+                // executeBatch de INSERTs é enviado pela API de bulk copy
+                config.addDataSourceProperty("useBulkCopyForBatchInsert", "true");
                 break;
         }
     }
@@ -162,14 +332,6 @@ public class ConnectionManager {
         }
     }
     
-    /**
-     * Obtém uma conexão do pool para a configuração especificada.
-     */
-    public Connection getConnection(DatabaseConfig config) throws SQLException {
-        DataSource ds = getDataSource(config);
-        return ds.getConnection();
-    }
-    
     /**
      * Valida se uma conexão está disponível.
      */
@@ -185,47 +347,222 @@ public class ConnectionManager {
     }
     
     /**
-     * Fecha e remove um DataSource.
+     * Cria em paralelo os pools das configurações informadas que ainda não estão abertos
+     * (ou cuja configuração mudou), para que a primeira execução de um job não pague o custo
+     * de abrir as conexões. Falhas são registradas e não interrompem o aquecimento dos demais.
+     */
+    public CompletableFuture<Void> warmUp(Collection<DatabaseConfig> configs) {
+        Map<String, DatabaseConfig> pending = new LinkedHashMap<>();
+        for (DatabaseConfig config : configs) {
+            if (config != null && config.isValid()) {
+                pending.putIfAbsent(config.getName(), config);
+            }
+        }
+        
+        List<CompletableFuture<Void>> futures = new ArrayList<>(pending.size());
+        for (DatabaseConfig config : pending.values()) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    getDataSource(config);
+                    logger.debug("Pool aquecido: {}", config.getName());
+                } catch (Exception e) {
+                    logger.warn("Erro ao aquecer pool de conexões para {}: {}", config.getName(), e.getMessage());
+                }
+            }, WARMUP_EXECUTOR));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+    
+    /**
+     * Remove o pool. Ele é fechado imediatamente se não houver conexões emprestadas, ou assim
+     * que a última for devolvida.
      */
     public void closeDataSource(String name) {
-        HikariDataSource ds = dataSources.remove(name);
-        if (ds != null && !ds.isClosed()) {
-            ds.close();
-            logger.info("DataSource fechado: {}", name);
+        PoolEntry entry = pools.remove(name);
+        if (entry != null) {
+            retire(entry);
         }
     }
     
     /**
-     * Fecha todos os DataSources.
+     * Fecha todos os DataSources, inclusive os que ainda têm conexões emprestadas.
      */
     public void closeAll() {
         logger.info("Fechando todos os DataSources...");
-        dataSources.forEach((name, ds) -> {
-            if (ds != null && !ds.isClosed()) {
-                ds.close();
-                logger.debug("DataSource fechado: {}", name);
+        pools.forEach((name, entry) -> {
+            pools.remove(name, entry);
+            entry.retired = true;
+            entry.close(name);
+        });
+        retiredPools.forEach(entry -> entry.close(null));
+        retiredPools.clear();
+    }
+    
+    /**
+     * Fecha os pools sem uso há mais do tempo informado e os pools substituídos que não têm
+     * mais conexões emprestadas.
+     * 
+     * @return Quantidade de pools ociosos fechados
+     */
+    int closeIdlePools(long maxIdleMillis) {
+        retiredPools.forEach(this::closeIfUnused);
+        
+        int closed = 0;
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, PoolEntry> item : pools.entrySet()) {
+            PoolEntry entry = item.getValue();
+            if (entry.isOpen() && !entry.isInUse() && now - entry.lastUsed > maxIdleMillis
+                    && pools.remove(item.getKey(), entry)) {
+                logger.info("Fechando pool de conexões ocioso: {}", item.getKey());
+                retire(entry);
+                closed++;
             }
+        }
+        return closed;
+    }
+    
+    /**
+     * Tira o pool de uso; ele é fechado agora ou pela verificação periódica, quando não houver
+     * conexões emprestadas.
+     */
+    private void retire(PoolEntry entry) {
+        entry.retired = true;
+        retiredPools.add(entry);
+        closeIfUnused(entry);
+    }
+    
+    private void closeIfUnused(PoolEntry entry) {
+        if (entry.retired && entry.future.isDone() && !entry.isInUse()) {
+            retiredPools.remove(entry);
+            entry.close(null);
+        }
+    }
+    
+    /**
+     * Inicia, na criação do primeiro pool, a verificação periódica de pools ociosos e substituídos.
+     */
+    private void startReaper() {
+        if (!reaperStarted.compareAndSet(false, true)) {
+            return;
+        }
+        
+        long idleSeconds = configManager.getInt("database.pool.idleShutdownSeconds", 900);
+        long maxIdleMillis = idleSeconds > 0 ? idleSeconds * 1000 : Long.MAX_VALUE;
+        long periodSeconds = idleSeconds > 0 ? Math.max(1, Math.min(30, idleSeconds / 2)) : 30;
+        
+        ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pool-reaper");
+            thread.setDaemon(true);
+            return thread;
         });
-        dataSources.clear();
+        reaper.scheduleWithFixedDelay(() -> {
+            try {
+                closeIdlePools(maxIdleMillis);
+            } catch (RuntimeException e) {
+                logger.warn("Erro ao verificar pools de conexões ociosos: {}", e.getMessage());
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Retorna os nomes das configurações com pool de conexões aberto.
+     */
+    public Set<String> getPoolNames() {
+        Set<String> names = new TreeSet<>();
+        pools.forEach((name, entry) -> {
+            if (entry.isOpen()) {
+                names.add(name);
+            }
+        });
+        return names;
+    }
+    
+    /**
+     * Retorna as estatísticas do pool de conexões, ou null se o pool não existir ou estiver fechado.
+     */
+    public HikariPoolMXBean getPoolMXBean(String name) {
+        PoolEntry entry = pools.get(name);
+        return entry == null || !entry.isOpen() ? null : entry.future.join().getHikariPoolMXBean();
     }
     
     /**
      * Retorna informações sobre o pool de conexões.
      */
     public String getPoolInfo(String name) {
-        HikariDataSource ds = dataSources.get(name);
-        if (ds == null || ds.isClosed()) {
+        HikariPoolMXBean pool = getPoolMXBean(name);
+        if (pool == null) {
             return "Pool não encontrado ou fechado";
         }
         
         return String.format(
             "Pool: %s | Active: %d | Idle: %d | Total: %d | Waiting: %d",
             name,
-            ds.getHikariPoolMXBean().getActiveConnections(),
-            ds.getHikariPoolMXBean().getIdleConnections(),
-            ds.getHikariPoolMXBean().getTotalConnections(),
-            ds.getHikariPoolMXBean().getThreadsAwaitingConnection()
+            pool.getActiveConnections(),
+            pool.getIdleConnections(),
+            pool.getTotalConnections(),
+            pool.getThreadsAwaitingConnection()
         );
     }
+    
+    private static ExecutorService createWarmUpExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "pool-warmup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Pool registrado para uma configuração: a criação em andamento (ou concluída), as
+     * configurações usadas e as referências que impedem o fechamento.
+     */
+    private static final class PoolEntry {
+        
+        private final CompletableFuture<HikariDataSource> future;
+        private final List<Object> settings;
+        // Chamadores entre a busca do pool e o empréstimo da conexão
+        private final AtomicInteger leases;
+        private final AtomicBoolean closed;
+        private volatile boolean retired;
+        private volatile long lastUsed;
+        
+        PoolEntry(List<Object> settings) {
+            this.future = new CompletableFuture<>();
+            this.settings = settings;
+            this.leases = new AtomicInteger();
+            this.closed = new AtomicBoolean();
+            this.lastUsed = System.currentTimeMillis();
+        }
+        
+        HikariDataSource dataSource() {
+            return future.join();
+        }
+        
+        boolean isOpen() {
+            return future.isDone() && !future.isCompletedExceptionally() && !future.join().isClosed();
+        }
+        
+        /**
+         * Indica se há chamadores obtendo conexão, conexões emprestadas ou threads aguardando.
+         */
+        boolean isInUse() {
+            if (leases.get() > 0) {
+                return true;
+            }
+            if (!isOpen()) {
+                return false;
+            }
+            HikariPoolMXBean pool = future.join().getHikariPoolMXBean();
+            return pool != null && (pool.getActiveConnections() > 0 || pool.getThreadsAwaitingConnection() > 0);
+        }
+        
+        void close(String name) {
+            if (isOpen() && closed.compareAndSet(false, true)) {
+                HikariDataSource ds = future.join();
+                ds.close();
+                logger.info("DataSource fechado: {}", name != null ? name : ds.getPoolName());
+            }
+        }
+    }
 }
-
@@ -13,7 +13,8 @@ import java.util.Map;
 
 /**
  * Implementação de MessageEndpoint para bancos de dados.
- * Permite extrair dados de bancos de dados usando o padrão EIP Message Endpoint.
+ * Permite extrair dados de bancos de dados usando o padrão EIP Message Endpoint
+ * e gravar registros em uma tabela de destino (carga banco a banco) com o DatabaseWriter.
  * 
  * Padrão EIP: Message Endpoint
  * - Encapsula a lógica de comunicação com banco de dados
@@ -23,15 +24,46 @@ public class DatabaseEndpoint implements MessageEndpoint {
     
     private static final Logger logger = LoggerUtil.getLogger(DatabaseEndpoint.class);
     
+    /**
+     * Header com a tabela de destino de uma mensagem enviada ao endpoint.
+     */
+    public static final String TARGET_TABLE_HEADER = "targetTable";
+    
     private final DatabaseConfig config;
     private final ConnectionManager connectionManager;
     private final QueryExecutor queryExecutor;
+    private final DatabaseWriter databaseWriter;
+    private final String targetTable;
+    private final List<String> upsertKeyColumns;
     private boolean connected;
     
     public DatabaseEndpoint(DatabaseConfig config) {
+        this(config, null);
+    }
+    
+    /**
+     * @param config Configuração do banco
+     * @param targetTable Tabela de destino usada quando a mensagem não informa o header targetTable
+     */
+    public DatabaseEndpoint(DatabaseConfig config, String targetTable) {
+        this(config, targetTable, new DatabaseWriter(ConnectionManager.getInstance()));
+    }
+    
+    public DatabaseEndpoint(DatabaseConfig config, String targetTable, DatabaseWriter databaseWriter) {
+        this(config, targetTable, databaseWriter, null);
+    }
+    
+    /**
+     * @param upsertKeyColumns Colunas da chave para gravação em modo upsert; vazio ou null grava com INSERT
+     */
+    public DatabaseEndpoint(DatabaseConfig config, String targetTable, DatabaseWriter databaseWriter,
+                            List<String> upsertKeyColumns) {
         this.config = config;
         this.connectionManager = ConnectionManager.getInstance();
         this.queryExecutor = new QueryExecutor(connectionManager);
+        this.databaseWriter = databaseWriter;
+        this.targetTable = targetTable;
+        this.upsertKeyColumns = upsertKeyColumns != null ? upsertKeyColumns : java.util.Collections.emptyList();
         this.connected = false;
     }
     
@@ -87,11 +119,47 @@ public class DatabaseEndpoint implements MessageEndpoint {
         }
     }
     
+    /**
+     * Grava os registros da mensagem na tabela de destino, em lotes.
+     * O payload deve ser a lista de registros (List<Map<String, Object>>), sem serialização JSON.
+     * Com colunas de chave configuradas, os registros são gravados em modo upsert.
+     * 
+     * @param message Mensagem com os registros
+     * @return true se todos os registros foram gravados
+     * @throws SQLException Se ocorrer erro na gravação (lotes já confirmados permanecem gravados)
+     */
     @Override
     public boolean send(EtlMessage message) throws Exception {
-        // DatabaseEndpoint é principalmente para receber dados (extract)
-        // Envio seria para inserção/atualização, que não é o foco principal do ETL
-        throw new UnsupportedOperationException("DatabaseEndpoint não suporta envio de mensagens. Use QueryExecutor para operações de escrita.");
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+        
+        String table = message.getHeader(TARGET_TABLE_HEADER);
+        if (table == null || table.trim().isEmpty()) {
+            table = targetTable;
+        }
+        if (table == null || table.trim().isEmpty()) {
+            throw new IllegalArgumentException("Tabela de destino não informada para: " + getName());
+        }
+        
+        Object payload = message.getPayload();
+        if (!(payload instanceof List)) {
+            throw new IllegalArgumentException("Payload deve ser uma lista de registros para gravação em banco");
+        }
+        
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> rows = (List<Map<String, Object>>) payload;
+        
+        logger.debug("Gravando mensagem no endpoint: {} | Tabela: {} | MessageId: {}", 
+                    getName(), table, message.getMessageId());
+        
+        if (!upsertKeyColumns.isEmpty()) {
+            databaseWriter.upsert(config, table.trim(), upsertKeyColumns, rows);
+            return true;
+        }
+        
+        int written = databaseWriter.write(config, table.trim(), rows);
+        return written == rows.size();
     }
     
     @Override
@@ -181,5 +249,17 @@ public class DatabaseEndpoint implements MessageEndpoint {
     public QueryExecutor getQueryExecutor() {
         return queryExecutor;
     }
+    
+    public DatabaseWriter getDatabaseWriter() {
+        return databaseWriter;
+    }
+    
+    public String getTargetTable() {
+        return targetTable;
+    }
+    
+    public List<String> getUpsertKeyColumns() {
+        return upsertKeyColumns;
+    }
 }
 
@@ -0,0 +1,495 @@
+package com.plugway.etl.dao;
+
+import com.plugway.etl.config.ConfigManager;
+import com.plugway.etl.model.DatabaseConfig;
+import com.plugway.etl.model.DatabaseType;
+import com.plugway.etl.util.LoggerUtil;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Gravação em lote de registros em uma tabela de destino.
+ * 
+ * Os registros são enviados em lotes de tamanho configurável, cada um em sua própria transação:
+ * uma falha desfaz apenas o lote corrente e os lotes anteriores permanecem gravados.
+ * 
+ * Caminho por banco:
+ * - PostgreSQL: COPY ... FROM STDIN (formato CSV), um COPY por lote
+ * - MySQL: addBatch/executeBatch, reescrito em INSERT multi-linha pelo driver (rewriteBatchedStatements)
+ * - SQL Server: addBatch/executeBatch, convertido em bulk copy pelo driver (useBulkCopyForBatchInsert)
+ * - Firebird: addBatch/executeBatch
+ * As propriedades de driver são configuradas pelo ConnectionManager.
+ * 
+ * No modo upsert ({@link #upsert}) cada statement cobre várias linhas:
+ * - PostgreSQL: INSERT ... VALUES (...), (...) ON CONFLICT (chave) DO UPDATE
+ * - MySQL: INSERT ... VALUES (...), (...) AS new ON DUPLICATE KEY UPDATE (alias de linha, MySQL 8.0.19+)
+ * - SQL Server: MERGE ... USING (VALUES (...), (...)) AS source
+ * - Firebird: UPDATE OR INSERT ... MATCHING (chave), uma linha por statement agrupada em executeBatch
+ */
+public class DatabaseWriter {
+    
+    private static final Logger logger = LoggerUtil.getLogger(DatabaseWriter.class);
+    
+    /**
+     * Nomes de tabela e coluna aceitos (opcionalmente qualificados por schema).
+     * Os identificadores não são citados, para seguir a regra de maiúsculas/minúsculas de cada banco.
+     */
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*(\\.[A-Za-z_][A-Za-z0-9_$]*)?");
+    
+    /**
+     * Limite de linhas do construtor VALUES do SQL Server.
+     */
+    private static final int SQLSERVER_MAX_VALUES_ROWS = 1000;
+    
+    private final ConnectionManager connectionManager;
+    private final int batchSize;
+    
+    public DatabaseWriter(ConnectionManager connectionManager) {
+        this(connectionManager, ConfigManager.getInstance().getInt("database.write.batchSize", 1000));
+    }
+    
+    public DatabaseWriter(ConnectionManager connectionManager, int batchSize) {
+        this.connectionManager = connectionManager;
+        this.batchSize = batchSize > 0 ? batchSize : 1000;
+    }
+    
+    /**
+     * Insere os registros na tabela de destino.
+     * As colunas são as chaves do primeiro registro; chaves ausentes nos demais são gravadas como NULL.
+     * 
+     * @param config Configuração do banco de destino
+     * @param table Tabela de destino
+     * @param rows Registros a gravar
+     * @return Número de registros gravados
+     * @throws SQLException Se ocorrer erro na gravação (os lotes já confirmados permanecem gravados)
+     */
+    public int write(DatabaseConfig config, String table, List<Map<String, Object>> rows) throws SQLException {
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+        
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        validateIdentifier(table);
+        for (String column : columns) {
+            validateIdentifier(column);
+        }
+        
+        long start = System.nanoTime();
+        int written;
+        try (Connection connection = connectionManager.getConnection(config)) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                written = config.getType() == DatabaseType.POSTGRESQL
+                    ? copyIn(connection, table, columns, rows)
+                    : executeBatches(connection, buildInsert(table, columns), table, columns, rows);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            logger.error("Erro ao gravar registros em: {}.{}", config.getName(), table, e);
+            throw e;
+        }
+        
+        logger.info("Gravados {} registros em {}.{} em {} ms (lotes de {})", written, config.getName(), table,
+                   (System.nanoTime() - start) / 1_000_000, batchSize);
+        return written;
+    }
+    
+    /**
+     * Insere ou atualiza os registros pela chave informada (upsert), com statements multi-linha.
+     * Registros repetidos para a mesma chave são reduzidos ao último, pois um mesmo statement
+     * não pode alterar a mesma linha duas vezes.
+     * 
+     * @param config Configuração do banco de destino
+     * @param table Tabela de destino
+     * @param keyColumns Colunas da chave (devem existir nos registros e ter índice único no destino)
+     * @param rows Registros a gravar
+     * @return Número de registros enviados ao banco (após remover chaves repetidas)
+     * @throws SQLException Se ocorrer erro na gravação (os lotes já confirmados permanecem gravados)
+     */
+    public int upsert(DatabaseConfig config, String table, List<String> keyColumns,
+                      List<Map<String, Object>> rows) throws SQLException {
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+        if (keyColumns == null || keyColumns.isEmpty()) {
+            throw new SQLException("Upsert requer ao menos uma coluna de chave: " + table);
+        }
+        
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        validateIdentifier(table);
+        for (String column : columns) {
+            validateIdentifier(column);
+        }
+        List<String> keys = resolveKeyColumns(columns, keyColumns);
+        List<Map<String, Object>> uniqueRows = lastByKey(rows, keys);
+        
+        long start = System.nanoTime();
+        int written;
+        try (Connection connection = connectionManager.getConnection(config)) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                DatabaseType type = config.getType();
+                written = type == DatabaseType.FIREBIRD
+                    ? executeBatches(connection, buildUpsert(type, table, columns, keys, 1), table, columns, uniqueRows)
+                    : executeMultiRow(connection, type, table, columns, keys, uniqueRows);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            logger.error("Erro ao gravar (upsert) registros em: {}.{}", config.getName(), table, e);
+            throw e;
+        }
+        
+        logger.info("Upsert de {} registros em {}.{} em {} ms ({} registros repetidos ignorados)", written,
+                   config.getName(), table, (System.nanoTime() - start) / 1_000_000, rows.size() - uniqueRows.size());
+        return written;
+    }
+    
+    /**
+     * Executa o upsert em statements multi-linha, um por lote/transação.
+     * O tamanho do lote respeita o limite de parâmetros por statement de cada banco.
+     */
+    private int executeMultiRow(Connection connection, DatabaseType type, String table, List<String> columns,
+                                List<String> keys, List<Map<String, Object>> rows) throws SQLException {
+        int rowsPerStatement = rowsPerStatement(type, columns.size(), batchSize);
+        
+        int written = 0;
+        PreparedStatement stmt = null;
+        int preparedRows = 0;
+        try {
+            for (int start = 0; start < rows.size(); start += rowsPerStatement) {
+                int end = Math.min(start + rowsPerStatement, rows.size());
+                int rowCount = end - start;
+                // O statement é reaproveitado entre lotes cheios; só o último lote costuma ser menor
+                if (stmt == null || preparedRows != rowCount) {
+                    if (stmt != null) {
+                        stmt.close();
+                    }
+                    stmt = connection.prepareStatement(buildUpsert(type, table, columns, keys, rowCount));
+                    preparedRows = rowCount;
+                }
+                
+                try {
+                    int index = 1;
+                    for (Map<String, Object> row : rows.subList(start, end)) {
+                        for (String column : columns) {
+                            QueryExecutor.setParameter(stmt, index++, row.get(column));
+                        }
+                    }
+                    stmt.executeUpdate();
+                    connection.commit();
+                } catch (SQLException e) {
+                    rollbackQuietly(connection);
+                    throw batchFailure(table, written, e);
+                }
+                written = end;
+            }
+        } finally {
+            if (stmt != null) {
+                stmt.close();
+            }
+        }
+        return written;
+    }
+    
+    /**
+     * Linhas por statement multi-linha, limitadas pelo máximo de parâmetros de cada banco.
+     */
+    static int rowsPerStatement(DatabaseType type, int columnCount, int batchSize) {
+        int maxParameters;
+        switch (type) {
+            case POSTGRESQL:
+                maxParameters = 32767;
+                break;
+            case MYSQL:
+                maxParameters = 65535;
+                break;
+            case SQLSERVER:
+                maxParameters = 2099;
+                break;
+            default:
+                maxParameters = 1000;
+                break;
+        }
+        int rows = Math.min(batchSize, Math.max(1, maxParameters / columnCount));
+        return type == DatabaseType.SQLSERVER ? Math.min(rows, SQLSERVER_MAX_VALUES_ROWS) : rows;
+    }
+    
+    /**
+     * Monta o statement de upsert para o banco e o número de linhas informados.
+     */
+    static String buildUpsert(DatabaseType type, String table, List<String> columns, List<String> keys,
+                              int rowCount) {
+        List<String> updateColumns = new ArrayList<>(columns);
+        updateColumns.removeAll(keys);
+        String columnList = String.join(", ", columns);
+        StringBuilder sql = new StringBuilder();
+        
+        switch (type) {
+            case POSTGRESQL:
+                sql.append("INSERT INTO ").append(table).append(" (").append(columnList).append(") VALUES ");
+                appendValueRows(sql, columns.size(), rowCount);
+                sql.append(" ON CONFLICT (").append(String.join(", ", keys)).append(')');
+                if (updateColumns.isEmpty()) {
+                    sql.append(" DO NOTHING");
+                } else {
+                    sql.append(" DO UPDATE SET ");
+                    appendAssignments(sql, updateColumns, "EXCLUDED.");
+                }
+                break;
+                
+            case MYSQL:
+                sql.append("INSERT INTO ").append(table).append(" (").append(columnList).append(") VALUES ");
+                appendValueRows(sql, columns.size(), rowCount);
+                // Alias de linha no lugar de VALUES(coluna), obsoleto desde o MySQL 8.0.20
+                sql.append(" AS new ON DUPLICATE KEY UPDATE ");
+                if (updateColumns.isEmpty()) {
+                    // Sem colunas fora da chave: atribuição neutra mantém a linha existente
+                    sql.append(keys.get(0)).append(" = ").append(keys.get(0));
+                } else {
+                    appendAssignments(sql, updateColumns, "new.");
+                }
+                break;
+                
+            case SQLSERVER:
+                sql.append("MERGE INTO ").append(table).append(" AS target USING (VALUES ");
+                appendValueRows(sql, columns.size(), rowCount);
+                sql.append(") AS source (").append(columnList).append(") ON ");
+                for (int i = 0; i < keys.size(); i++) {
+                    sql.append(i == 0 ? "" : " AND ").append("target.").append(keys.get(i))
+                       .append(" = source.").append(keys.get(i));
+                }
+                if (!updateColumns.isEmpty()) {
+                    sql.append(" WHEN MATCHED THEN UPDATE SET ");
+                    for (int i = 0; i < updateColumns.size(); i++) {
+                        sql.append(i == 0 ? "" : ", ").append("target.").append(updateColumns.get(i))
+                           .append(" = source.").append(updateColumns.get(i));
+                    }
+                }
+                sql.append(" WHEN NOT MATCHED THEN INSERT (").append(columnList).append(") VALUES (");
+                for (int i = 0; i < columns.size(); i++) {
+                    sql.append(i == 0 ? "" : ", ").append("source.").append(columns.get(i));
+                }
+                sql.append(");");
+                break;
+                
+            case FIREBIRD:
+                // UPDATE OR INSERT é de uma linha; o agrupamento fica a cargo do executeBatch
+                sql.append("UPDATE OR INSERT INTO ").append(table).append(" (").append(columnList).append(") VALUES ");
+                appendValueRows(sql, columns.size(), 1);
+                sql.append(" MATCHING (").append(String.join(", ", keys)).append(')');
+                break;
+                
+            default:
+                throw new IllegalArgumentException("Upsert não suportado para: " + type);
+        }
+        return sql.toString();
+    }
+    
+    private static void appendValueRows(StringBuilder sql, int columnCount, int rowCount) {
+        for (int row = 0; row < rowCount; row++) {
+            sql.append(row == 0 ? "(" : ", (");
+            for (int i = 0; i < columnCount; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+        }
+    }
+    
+    private static void appendAssignments(StringBuilder sql, List<String> columns, String prefix) {
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(columns.get(i)).append(" = ")
+               .append(prefix).append(columns.get(i));
+        }
+    }
+    
+    /**
+     * Resolve as colunas da chave para os nomes usados nos registros (sem diferenciar maiúsculas).
+     */
+    private static List<String> resolveKeyColumns(List<String> columns, List<String> keyColumns) throws SQLException {
+        List<String> keys = new ArrayList<>();
+        for (String keyColumn : keyColumns) {
+            String resolved = columns.stream()
+                .filter(column -> column.equalsIgnoreCase(keyColumn.trim()))
+                .findFirst()
+                .orElseThrow(() -> new SQLException("Coluna de chave não encontrada nos registros: " + keyColumn));
+            keys.add(resolved);
+        }
+        return keys;
+    }
+    
+    /**
+     * Mantém apenas o último registro de cada chave, na posição da primeira ocorrência.
+     */
+    private static List<Map<String, Object>> lastByKey(List<Map<String, Object>> rows, List<String> keys) {
+        Map<List<Object>, Map<String, Object>> byKey = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            List<Object> key = new ArrayList<>(keys.size());
+            for (String column : keys) {
+                key.add(row.get(column));
+            }
+            byKey.put(key, row);
+        }
+        return byKey.size() == rows.size() ? rows : new ArrayList<>(byKey.values());
+    }
+    
+    /**
+     * Executa o statement com addBatch/executeBatch, confirmando a transação a cada lote.
+     */
+    private int executeBatches(Connection connection, String sql, String table, List<String> columns,
+                               List<Map<String, Object>> rows) throws SQLException {
+        int written = 0;
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int start = 0; start < rows.size(); start += batchSize) {
+                int end = Math.min(start + batchSize, rows.size());
+                try {
+                    for (Map<String, Object> row : rows.subList(start, end)) {
+                        for (int i = 0; i < columns.size(); i++) {
+                            QueryExecutor.setParameter(stmt, i + 1, row.get(columns.get(i)));
+                        }
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    connection.commit();
+                } catch (SQLException e) {
+                    rollbackQuietly(connection);
+                    throw batchFailure(table, written, e);
+                }
+                written = end;
+            }
+        }
+        return written;
+    }
+    
+    /**
+     * Grava os registros com COPY FROM STDIN do PostgreSQL, um COPY por lote.
+     */
+    private int copyIn(Connection connection, String table, List<String> columns,
+                       List<Map<String, Object>> rows) throws SQLException {
+        String sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        
+        int written = 0;
+        StringBuilder csv = new StringBuilder();
+        for (int start = 0; start < rows.size(); start += batchSize) {
+            int end = Math.min(start + batchSize, rows.size());
+            csv.setLength(0);
+            for (Map<String, Object> row : rows.subList(start, end)) {
+                appendCsvRow(csv, columns, row);
+            }
+            
+            try {
+                CopyIn copy = pgConnection.getCopyAPI().copyIn(sql);
+                try {
+                    byte[] data = csv.toString().getBytes(StandardCharsets.UTF_8);
+                    copy.writeToCopy(data, 0, data.length);
+                    copy.endCopy();
+                } finally {
+                    if (copy.isActive()) {
+                        copy.cancelCopy();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                rollbackQuietly(connection);
+                throw batchFailure(table, written, e);
+            }
+            written = end;
+        }
+        return written;
+    }
+    
+    /**
+     * Monta o INSERT parametrizado para as colunas informadas.
+     */
+    static String buildInsert(String table, List<String> columns) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (")
+            .append(String.join(", ", columns)).append(") VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+    
+    /**
+     * Acrescenta um registro no formato CSV do COPY.
+     * NULL é um campo vazio sem aspas; strings vazias são gravadas entre aspas.
+     */
+    static void appendCsvRow(StringBuilder csv, List<String> columns, Map<String, Object> row) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            Object value = row.get(columns.get(i));
+            if (value == null) {
+                continue;
+            }
+            
+            String text;
+            if (value instanceof byte[]) {
+                text = toByteaHex((byte[]) value);
+            } else {
+                text = value.toString();
+            }
+            
+            csv.append('"');
+            for (int c = 0; c < text.length(); c++) {
+                char ch = text.charAt(c);
+                if (ch == '"') {
+                    csv.append('"');
+                }
+                csv.append(ch);
+            }
+            csv.append('"');
+        }
+        csv.append('\n');
+    }
+    
+    /**
+     * Formato hexadecimal de entrada do tipo bytea (\x...).
+     */
+    private static String toByteaHex(byte[] value) {
+        StringBuilder hex = new StringBuilder(2 + value.length * 2).append("\\x");
+        for (byte b : value) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+    
+    static void validateIdentifier(String identifier) throws SQLException {
+        if (identifier == null || !IDENTIFIER.matcher(identifier).matches()) {
+            throw new SQLException("Identificador inválido para gravação: " + identifier);
+        }
+    }
+    
+    private static SQLException batchFailure(String table, int written, SQLException cause) {
+        return new SQLException("Falha ao gravar lote em " + table + " após " + written
+                                + " registros confirmados: " + cause.getMessage(), cause.getSQLState(), cause);
+    }
+    
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.warn("Erro ao desfazer lote: {}", e.getMessage());
+        }
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
@@ -1,6 +1,8 @@
 package com.plugway.etl.dao;
 
+import com.plugway.etl.config.ConfigManager;
 import com.plugway.etl.model.DatabaseConfig;
+import com.plugway.etl.service.monitoring.EtlEvents;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
@@ -11,25 +13,30 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Executor de queries SQL.
  * Converte ResultSet em List<Map<String, Object>> para facilitar transformação.
+ * 
+ * Os statements são preparados a cada execução; o reaproveitamento fica a cargo do
+ * cache nativo de prepared statements de cada driver (ver ConnectionManager).
+ * Cada execução é registrada no JFR (evento JdbcQuery) quando há gravação ativa.
  */
 public class QueryExecutor {
     
     private static final Logger logger = LoggerUtil.getLogger(QueryExecutor.class);
     private final ConnectionManager connectionManager;
+    private final int lobMaxBytes;
     
     public QueryExecutor() {
-        this.connectionManager = ConnectionManager.getInstance();
+        this(ConnectionManager.getInstance());
     }
     
     public QueryExecutor(ConnectionManager connectionManager) {
         this.connectionManager = connectionManager;
+        this.lobMaxBytes = ConfigManager.getInstance().getInt("database.lobMaxBytes", 16 * 1024 * 1024);
     }
     
     /**
@@ -57,37 +64,39 @@ public class QueryExecutor {
         logger.debug("Executando query em: {} | Query: {}", config.getName(), sqlQuery);
         
         List<Map<String, Object>> results = new ArrayList<>();
+        EtlEvents.JdbcQuery event = new EtlEvents.JdbcQuery();
+        event.begin();
         
         try (Connection connection = connectionManager.getConnection(config);
              PreparedStatement stmt = connection.prepareStatement(sqlQuery)) {
             
+            // Linhas buscadas por ida ao banco, conforme o perfil do pool (padrão do driver se ausente)
+            if (config.getPool().getFetchSize() != null) {
+                stmt.setFetchSize(config.getPool().getFetchSize());
+            }
+            
             // Define parâmetros
             setParameters(stmt, parameters);
             
             // Executa query
             try (ResultSet rs = stmt.executeQuery()) {
-                ResultSetMetaData metaData = rs.getMetaData();
-                int columnCount = metaData.getColumnCount();
+                // Rótulos, tipos e leitores das colunas são resolvidos uma única vez
+                ResultSetPlan plan = ResultSetPlan.of(rs.getMetaData(), lobMaxBytes);
                 
                 // Processa cada linha
                 while (rs.next()) {
-                    Map<String, Object> row = new LinkedHashMap<>();
-                    
-                    for (int i = 1; i <= columnCount; i++) {
-                        String columnName = metaData.getColumnLabel(i);
-                        Object value = getValue(rs, i, metaData.getColumnType(i));
-                        row.put(columnName, value);
-                    }
-                    
-                    results.add(row);
+                    results.add(plan.readRow(rs));
                 }
             }
             
             logger.debug("Query executada com sucesso. {} registros retornados.", results.size());
+            event.success = true;
             
         } catch (SQLException e) {
             logger.error("Erro ao executar query em: {}", config.getName(), e);
             throw e;
+        } finally {
+            commitEvent(event, config, sqlQuery, false, results.size());
         }
         
         return results;
@@ -98,87 +107,43 @@ public class QueryExecutor {
      */
     private void setParameters(PreparedStatement stmt, List<Object> parameters) throws SQLException {
         for (int i = 0; i < parameters.size(); i++) {
-            Object param = parameters.get(i);
-            int index = i + 1;
-            
-            if (param == null) {
-                stmt.setNull(index, Types.NULL);
-            } else if (param instanceof String) {
-                stmt.setString(index, (String) param);
-            } else if (param instanceof Integer) {
-                stmt.setInt(index, (Integer) param);
-            } else if (param instanceof Long) {
-                stmt.setLong(index, (Long) param);
-            } else if (param instanceof Double) {
-                stmt.setDouble(index, (Double) param);
-            } else if (param instanceof BigDecimal) {
-                stmt.setBigDecimal(index, (BigDecimal) param);
-            } else if (param instanceof Boolean) {
-                stmt.setBoolean(index, (Boolean) param);
-            } else if (param instanceof java.sql.Date) {
-                stmt.setDate(index, (java.sql.Date) param);
-            } else if (param instanceof Timestamp) {
-                stmt.setTimestamp(index, (Timestamp) param);
-            } else if (param instanceof LocalDate) {
-                stmt.setDate(index, java.sql.Date.valueOf((LocalDate) param));
-            } else if (param instanceof LocalDateTime) {
-                stmt.setTimestamp(index, Timestamp.valueOf((LocalDateTime) param));
-            } else if (param instanceof LocalTime) {
-                stmt.setTime(index, Time.valueOf((LocalTime) param));
-            } else {
-                stmt.setObject(index, param);
-            }
+            setParameter(stmt, i + 1, parameters.get(i));
         }
     }
     
     /**
-     * Extrai o valor do ResultSet tratando diferentes tipos de dados.
+     * Define um parâmetro no PreparedStatement conforme o tipo Java do valor.
+     * Também usado pelo DatabaseWriter na gravação em lote.
      */
-    private Object getValue(ResultSet rs, int columnIndex, int sqlType) throws SQLException {
-        Object value = rs.getObject(columnIndex);
-        
-        if (value == null) {
-            return null;
-        }
-        
-        // Tratamento específico para alguns tipos
-        switch (sqlType) {
-            case Types.DATE:
-                java.sql.Date date = rs.getDate(columnIndex);
-                return date != null ? date.toLocalDate() : null;
-                
-            case Types.TIME:
-                Time time = rs.getTime(columnIndex);
-                return time != null ? time.toLocalTime() : null;
-                
-            case Types.TIMESTAMP:
-                Timestamp timestamp = rs.getTimestamp(columnIndex);
-                return timestamp != null ? timestamp.toLocalDateTime() : null;
-                
-            case Types.DECIMAL:
-            case Types.NUMERIC:
-                BigDecimal decimal = rs.getBigDecimal(columnIndex);
-                return decimal;
-                
-            case Types.BLOB:
-            case Types.BINARY:
-            case Types.VARBINARY:
-            case Types.LONGVARBINARY:
-                Blob blob = rs.getBlob(columnIndex);
-                if (blob != null) {
-                    return blob.getBytes(1, (int) blob.length());
-                }
-                return null;
-                
-            case Types.CLOB:
-                Clob clob = rs.getClob(columnIndex);
-                if (clob != null) {
-                    return clob.getSubString(1, (int) clob.length());
-                }
-                return null;
-                
-            default:
-                return value;
+    static void setParameter(PreparedStatement stmt, int index, Object param) throws SQLException {
+        if (param == null) {
+            stmt.setNull(index, Types.NULL);
+        } else if (param instanceof String) {
+            stmt.setString(index, (String) param);
+        } else if (param instanceof Integer) {
+            stmt.setInt(index, (Integer) param);
+        } else if (param instanceof Long) {
+            stmt.setLong(index, (Long) param);
+        } else if (param instanceof Double) {
+            stmt.setDouble(index, (Double) param);
+        } else if (param instanceof BigDecimal) {
+            stmt.setBigDecimal(index, (BigDecimal) param);
+        } else if (param instanceof Boolean) {
+            stmt.setBoolean(index, (Boolean) param);
+        } else if (param instanceof java.sql.Date) {
+            stmt.setDate(index, (java.sql.Date) param);
+        } else if (param instanceof Timestamp) {
+            stmt.setTimestamp(index, (Timestamp) param);
+        } else if (param instanceof LocalDate) {
+            stmt.setDate(index, java.sql.Date.valueOf((LocalDate) param));
+        } else if (param instanceof LocalDateTime) {
+            stmt.setTimestamp(index, Timestamp.valueOf((LocalDateTime) param));
+        } else if (param instanceof LocalTime) {
+            stmt.setTime(index, Time.valueOf((LocalTime) param));
+        } else if (param instanceof byte[]) {
+            stmt.setBytes(index, (byte[]) param);
+        } else {
+            stmt.setObject(index, param);
         }
     }
     
@@ -211,19 +176,41 @@ public class QueryExecutor {
     public int executeUpdate(DatabaseConfig config, String sqlQuery, List<Object> parameters) throws SQLException {
         logger.debug("Executando update em: {} | Query: {}", config.getName(), sqlQuery);
         
+        EtlEvents.JdbcQuery event = new EtlEvents.JdbcQuery();
+        event.begin();
+        int rowsAffected = 0;
+        
         try (Connection connection = connectionManager.getConnection(config);
              PreparedStatement stmt = connection.prepareStatement(sqlQuery)) {
             
             setParameters(stmt, parameters);
-            int rowsAffected = stmt.executeUpdate();
+            rowsAffected = stmt.executeUpdate();
             
             logger.debug("Update executado. {} linhas afetadas.", rowsAffected);
+            event.success = true;
             
             return rowsAffected;
             
         } catch (SQLException e) {
             logger.error("Erro ao executar update em: {}", config.getName(), e);
             throw e;
+        } finally {
+            commitEvent(event, config, sqlQuery, true, rowsAffected);
+        }
+    }
+    
+    /**
+     * Grava o evento JFR da execução, se houver gravação ativa.
+     */
+    private static void commitEvent(EtlEvents.JdbcQuery event, DatabaseConfig config, String sqlQuery,
+                                    boolean update, long rows) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.connection = config.getName();
+            event.sql = sqlQuery;
+            event.update = update;
+            event.rows = rows;
+            event.commit();
         }
     }
 }
@@ -0,0 +1,224 @@
+package com.plugway.etl.dao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Plano de leitura de um ResultSet.
+ * Resolve uma única vez os rótulos, tipos e a função de leitura de cada coluna,
+ * evitando consultar o ResultSetMetaData a cada linha.
+ * 
+ * Cada coluna é lida uma única vez: colunas numéricas usam getters primitivos com wasNull()
+ * e LOBs são lidos em streaming até um tamanho máximo, acima do qual a leitura falha.
+ */
+final class ResultSetPlan {
+    
+    /**
+     * Lê o valor de uma coluna já convertido para o tipo Java usado no pipeline.
+     */
+    @FunctionalInterface
+    interface ColumnReader {
+        Object read(ResultSet rs, int columnIndex) throws SQLException;
+    }
+    
+    private final String[] labels;
+    private final int[] types;
+    private final ColumnReader[] readers;
+    
+    private ResultSetPlan(String[] labels, int[] types, ColumnReader[] readers) {
+        this.labels = labels;
+        this.types = types;
+        this.readers = readers;
+    }
+    
+    /**
+     * Monta o plano a partir dos metadados do ResultSet.
+     * 
+     * @param metaData Metadados do ResultSet
+     * @param lobMaxBytes Tamanho máximo de um BLOB/CLOB lido para memória
+     */
+    static ResultSetPlan of(ResultSetMetaData metaData, int lobMaxBytes) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        String[] labels = new String[columnCount];
+        int[] types = new int[columnCount];
+        ColumnReader[] readers = new ColumnReader[columnCount];
+        
+        for (int i = 0; i < columnCount; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+            types[i] = metaData.getColumnType(i + 1);
+            readers[i] = readerFor(types[i], metaData.isSigned(i + 1), labels[i], lobMaxBytes);
+        }
+        
+        return new ResultSetPlan(labels, types, readers);
+    }
+    
+    /**
+     * Lê a linha atual do ResultSet.
+     */
+    Map<String, Object> readRow(ResultSet rs) throws SQLException {
+        // Capacidade suficiente para não redimensionar com o fator de carga padrão
+        Map<String, Object> row = new LinkedHashMap<>((int) (labels.length / 0.75f) + 1);
+        for (int i = 0; i < labels.length; i++) {
+            row.put(labels[i], readers[i].read(rs, i + 1));
+        }
+        return row;
+    }
+    
+    int getColumnCount() {
+        return labels.length;
+    }
+    
+    String getLabel(int index) {
+        return labels[index];
+    }
+    
+    int getType(int index) {
+        return types[index];
+    }
+    
+    /**
+     * Escolhe a função de leitura para o tipo SQL da coluna.
+     */
+    static ColumnReader readerFor(int sqlType, boolean signed, String label, int lobMaxBytes) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+                return ResultSetPlan::readInt;
+                
+            case Types.INTEGER:
+                // INT UNSIGNED (MySQL) não cabe em int
+                return signed ? ResultSetPlan::readInt : ResultSetPlan::readLong;
+                
+            case Types.BIGINT:
+                // BIGINT UNSIGNED (MySQL) é devolvido como BigInteger pelo driver
+                return signed ? ResultSetPlan::readLong : ResultSet::getObject;
+                
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return (rs, index) -> {
+                    double value = rs.getDouble(index);
+                    return rs.wasNull() ? null : value;
+                };
+                
+            case Types.REAL:
+                return (rs, index) -> {
+                    float value = rs.getFloat(index);
+                    return rs.wasNull() ? null : value;
+                };
+                
+            case Types.BOOLEAN:
+                return (rs, index) -> {
+                    boolean value = rs.getBoolean(index);
+                    return rs.wasNull() ? null : value;
+                };
+                
+            case Types.DATE:
+                return (rs, index) -> {
+                    java.sql.Date date = rs.getDate(index);
+                    return date != null ? date.toLocalDate() : null;
+                };
+                
+            case Types.TIME:
+                return (rs, index) -> {
+                    Time time = rs.getTime(index);
+                    return time != null ? time.toLocalTime() : null;
+                };
+                
+            case Types.TIMESTAMP:
+                return (rs, index) -> {
+                    Timestamp timestamp = rs.getTimestamp(index);
+                    return timestamp != null ? timestamp.toLocalDateTime() : null;
+                };
+                
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return ResultSet::getBigDecimal;
+                
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                return ResultSet::getBytes;
+                
+            case Types.BLOB:
+                return (rs, index) -> readBlob(rs.getBlob(index), label, lobMaxBytes);
+                
+            case Types.CLOB:
+            case Types.NCLOB:
+                return (rs, index) -> readClob(rs.getClob(index), label, lobMaxBytes);
+                
+            default:
+                return ResultSet::getObject;
+        }
+    }
+    
+    private static Object readInt(ResultSet rs, int index) throws SQLException {
+        int value = rs.getInt(index);
+        return rs.wasNull() ? null : value;
+    }
+    
+    private static Object readLong(ResultSet rs, int index) throws SQLException {
+        long value = rs.getLong(index);
+        return rs.wasNull() ? null : value;
+    }
+    
+    /**
+     * Lê um BLOB em streaming, sem consultar o tamanho antes, até o limite configurado.
+     */
+    private static byte[] readBlob(Blob blob, String label, int lobMaxBytes) throws SQLException {
+        if (blob == null) {
+            return null;
+        }
+        try (InputStream in = blob.getBinaryStream()) {
+            byte[] value = in.readNBytes(lobMaxBytes);
+            if (in.read() != -1) {
+                throw lobTooLarge(label, lobMaxBytes);
+            }
+            return value;
+        } catch (IOException e) {
+            throw new SQLException("Erro ao ler BLOB da coluna " + label, e);
+        } finally {
+            blob.free();
+        }
+    }
+    
+    /**
+     * Lê um CLOB em streaming até o limite configurado (em caracteres).
+     */
+    private static String readClob(Clob clob, String label, int lobMaxBytes) throws SQLException {
+        if (clob == null) {
+            return null;
+        }
+        try (Reader reader = clob.getCharacterStream()) {
+            StringBuilder value = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                if (value.length() + read > lobMaxBytes) {
+                    throw lobTooLarge(label, lobMaxBytes);
+                }
+                value.append(buffer, 0, read);
+            }
+            return value.toString();
+        } catch (IOException e) {
+            throw new SQLException("Erro ao ler CLOB da coluna " + label, e);
+        } finally {
+            clob.free();
+        }
+    }
+    
+    private static SQLException lobTooLarge(String label, int lobMaxBytes) {
+        return new SQLException("Coluna " + label + " excede o tamanho máximo de LOB (" + lobMaxBytes
+                                + "). Ajuste database.lobMaxBytes ou remova a coluna da query.");
+    }
+}
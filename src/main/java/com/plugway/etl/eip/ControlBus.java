@@ -22,7 +22,6 @@ import java.util.concurrent.Future;
 public class ControlBus {
     
     private static final Logger logger = LoggerUtil.getLogger(ControlBus.class);
-    private static ControlBus instance;
     
     private final Map<String, JobExecutionControl> runningJobs;
     private final ExecutorService executorService;
@@ -32,11 +31,12 @@ public class ControlBus {
         this.executorService = Executors.newCachedThreadPool();
     }
     
-    public static synchronized ControlBus getInstance() {
-        if (instance == null) {
-            instance = new ControlBus();
-        }
-        return instance;
+    public static ControlBus getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final ControlBus INSTANCE = new ControlBus();
     }
     
     /**
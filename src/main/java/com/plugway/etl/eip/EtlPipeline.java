@@ -1,6 +1,10 @@
 package com.plugway.etl.eip;
 
 import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.service.monitoring.EtlEvents;
+import com.plugway.etl.service.monitoring.Span;
+import com.plugway.etl.service.monitoring.TraceContext;
+import com.plugway.etl.service.monitoring.Tracer;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
@@ -15,6 +19,9 @@ import java.util.List;
  * - Cada transformer é um filtro
  * - Mensagens fluem através dos filtros sequencialmente
  * - Permite composição flexível de transformações
+ * - Cada aplicação de filtro é registrada no JFR (evento FilterApply) quando há gravação ativa
+ * - Cada filtro é um span do trace da mensagem (header traceparent); o correlation id e o
+ *   contexto de rastreamento são mantidos nas mensagens criadas pelos filtros
  */
 public class EtlPipeline {
     
@@ -102,11 +109,28 @@ public class EtlPipeline {
                 wireTap.intercept(currentMessage, "pipeline-filter-" + filter.getName());
             }
             
+            EtlEvents.FilterApply event = new EtlEvents.FilterApply();
+            event.begin();
+            Span span = Tracer.getInstance().startSpan("filter:" + filter.getName(), currentMessage);
+            span.setAttribute("pipeline", name);
             try {
+                EtlMessage inputMessage = currentMessage;
                 currentMessage = filter.transform(currentMessage);
+                propagateContext(inputMessage, currentMessage);
+                event.success = true;
             } catch (Exception e) {
+                span.setError(e.getMessage());
                 logger.error("Erro ao aplicar filtro {} no pipeline {}", filter.getName(), name, e);
                 throw new Exception("Erro no pipeline ao aplicar filtro: " + filter.getName(), e);
+            } finally {
+                span.end();
+                event.end();
+                if (event.shouldCommit()) {
+                    event.pipeline = name;
+                    event.filter = filter.getName();
+                    event.messageId = message.getMessageId();
+                    event.commit();
+                }
             }
         }
         
@@ -120,6 +144,23 @@ public class EtlPipeline {
         return currentMessage;
     }
     
+    /**
+     * Mantém o correlation id e o contexto de rastreamento da mensagem de entrada na mensagem
+     * produzida por um filtro, caso ele não os tenha copiado.
+     */
+    private static void propagateContext(EtlMessage input, EtlMessage output) {
+        if (output == null || output == input) {
+            return;
+        }
+        if (output.getCorrelationId() == null) {
+            output.setCorrelationId(input.getCorrelationId());
+        }
+        String traceparent = input.getHeader(TraceContext.TRACEPARENT_HEADER);
+        if (traceparent != null && output.getHeader(TraceContext.TRACEPARENT_HEADER) == null) {
+            output.addHeader(TraceContext.TRACEPARENT_HEADER, traceparent);
+        }
+    }
+    
     /**
      * Retorna a lista de filtros do pipeline.
      */
@@ -24,6 +24,14 @@ public class ApiConfig {
     private int maxRetries;
     private long retryDelay;
     private boolean useExponentialBackoff;
+    private RetryJitter retryJitter;
+    private long maxRetryDelay;
+    private CircuitBreakerConfig circuitBreaker;
+    private RateLimitConfig rateLimit;
+    private ConcurrencyLimitConfig concurrencyLimit;
+    private RequestCompression compression;
+    private int compressionThreshold; // Tamanho mínimo (bytes) do body para comprimir
+    private boolean idempotentDelivery; // Envia Idempotency-Key e não reenvia lotes já confirmados
     
     public ApiConfig() {
         this.method = "POST";
@@ -33,6 +41,14 @@ public class ApiConfig {
         this.maxRetries = 3;
         this.retryDelay = 1000; // 1 segundo
         this.useExponentialBackoff = true;
+        this.retryJitter = RetryJitter.FULL;
+        this.maxRetryDelay = 30000; // 30 segundos
+        this.circuitBreaker = new CircuitBreakerConfig();
+        this.rateLimit = new RateLimitConfig();
+        this.concurrencyLimit = new ConcurrencyLimitConfig();
+        this.compression = RequestCompression.NONE;
+        this.compressionThreshold = 1024; // 1 KB
+        this.idempotentDelivery = false;
     }
     
     /**
@@ -215,6 +231,70 @@ public class ApiConfig {
         this.useExponentialBackoff = useExponentialBackoff;
     }
     
+    public RetryJitter getRetryJitter() {
+        return retryJitter;
+    }
+    
+    public void setRetryJitter(RetryJitter retryJitter) {
+        this.retryJitter = retryJitter != null ? retryJitter : RetryJitter.FULL;
+    }
+    
+    public long getMaxRetryDelay() {
+        return maxRetryDelay;
+    }
+    
+    public void setMaxRetryDelay(long maxRetryDelay) {
+        this.maxRetryDelay = maxRetryDelay > 0 ? maxRetryDelay : 30000;
+    }
+    
+    public CircuitBreakerConfig getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    public void setCircuitBreaker(CircuitBreakerConfig circuitBreaker) {
+        this.circuitBreaker = circuitBreaker != null ? circuitBreaker : new CircuitBreakerConfig();
+    }
+    
+    public RateLimitConfig getRateLimit() {
+        return rateLimit;
+    }
+    
+    public void setRateLimit(RateLimitConfig rateLimit) {
+        this.rateLimit = rateLimit != null ? rateLimit : new RateLimitConfig();
+    }
+    
+    public ConcurrencyLimitConfig getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+    
+    public void setConcurrencyLimit(ConcurrencyLimitConfig concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit != null ? concurrencyLimit : new ConcurrencyLimitConfig();
+    }
+    
+    public RequestCompression getCompression() {
+        return compression;
+    }
+    
+    public void setCompression(RequestCompression compression) {
+        this.compression = compression != null ? compression : RequestCompression.NONE;
+    }
+    
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+    
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold >= 0 ? compressionThreshold : 1024;
+    }
+    
+    public boolean isIdempotentDelivery() {
+        return idempotentDelivery;
+    }
+    
+    public void setIdempotentDelivery(boolean idempotentDelivery) {
+        this.idempotentDelivery = idempotentDelivery;
+    }
+    
     @Override
     public String toString() {
         return "ApiConfig{" +
@@ -0,0 +1,93 @@
+package com.plugway.etl.model;
+
+/**
+ * Configuração do Circuit Breaker aplicado a uma API REST de destino.
+ */
+public class CircuitBreakerConfig {
+    
+    private boolean enabled;
+    private int failureRateThreshold;       // Percentual de falhas que abre o circuito
+    private int slowCallRateThreshold;      // Percentual de chamadas lentas que abre o circuito
+    private long slowCallDurationThreshold; // Duração (ms) a partir da qual a chamada é lenta
+    private int slidingWindowSize;          // Número de chamadas avaliadas
+    private int minimumNumberOfCalls;       // Mínimo de chamadas antes de avaliar as taxas (até slidingWindowSize)
+    private long waitDurationInOpenState;   // Tempo (ms) em OPEN antes de ir para HALF_OPEN
+    private int permittedCallsInHalfOpenState;
+    
+    public CircuitBreakerConfig() {
+        this.enabled = true;
+        this.failureRateThreshold = 50;
+        this.slowCallRateThreshold = 100;
+        this.slowCallDurationThreshold = 10000; // 10 segundos
+        this.slidingWindowSize = 20;
+        this.minimumNumberOfCalls = 5;
+        this.waitDurationInOpenState = 30000; // 30 segundos
+        this.permittedCallsInHalfOpenState = 3;
+    }
+    
+    // Getters e Setters
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+    
+    public void setFailureRateThreshold(int failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold > 0 && failureRateThreshold <= 100 ? failureRateThreshold : 50;
+    }
+    
+    public int getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+    
+    public void setSlowCallRateThreshold(int slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold > 0 && slowCallRateThreshold <= 100 ? slowCallRateThreshold : 100;
+    }
+    
+    public long getSlowCallDurationThreshold() {
+        return slowCallDurationThreshold;
+    }
+    
+    public void setSlowCallDurationThreshold(long slowCallDurationThreshold) {
+        this.slowCallDurationThreshold = slowCallDurationThreshold > 0 ? slowCallDurationThreshold : 10000;
+    }
+    
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+    
+    public void setSlidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = slidingWindowSize > 0 ? slidingWindowSize : 20;
+    }
+    
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+    
+    public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+        this.minimumNumberOfCalls = minimumNumberOfCalls > 0 ? minimumNumberOfCalls : 5;
+    }
+    
+    public long getWaitDurationInOpenState() {
+        return waitDurationInOpenState;
+    }
+    
+    public void setWaitDurationInOpenState(long waitDurationInOpenState) {
+        this.waitDurationInOpenState = waitDurationInOpenState > 0 ? waitDurationInOpenState : 30000;
+    }
+    
+    public int getPermittedCallsInHalfOpenState() {
+        return permittedCallsInHalfOpenState;
+    }
+    
+    public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState > 0 ? permittedCallsInHalfOpenState : 3;
+    }
+}
@@ -0,0 +1,73 @@
+package com.plugway.etl.model;
+
+/**
+ * Configuração do controle adaptativo de concorrência (AIMD) para uma API REST de destino.
+ */
+public class ConcurrencyLimitConfig {
+    
+    private boolean enabled;
+    private int initialLimit;          // Requisições simultâneas iniciais
+    private int minLimit;
+    private int maxLimit;
+    private double backoffRatio;       // Fator multiplicativo aplicado ao reduzir o limite
+    private double latencyTolerance;   // Razão p50/latência base a partir da qual a latência é considerada inflada
+    
+    public ConcurrencyLimitConfig() {
+        this.enabled = false;
+        this.initialLimit = 4;
+        this.minLimit = 1;
+        this.maxLimit = 64;
+        this.backoffRatio = 0.5;
+        this.latencyTolerance = 2.0;
+    }
+    
+    // Getters e Setters
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+    
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit > 0 ? initialLimit : 4;
+    }
+    
+    public int getMinLimit() {
+        return minLimit;
+    }
+    
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit > 0 ? minLimit : 1;
+    }
+    
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+    
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit > 0 ? maxLimit : 64;
+    }
+    
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+    
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio > 0 && backoffRatio < 1 ? backoffRatio : 0.5;
+    }
+    
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+    
+    public void setLatencyTolerance(double latencyTolerance) {
+        this.latencyTolerance = latencyTolerance > 1 ? latencyTolerance : 2.0;
+    }
+}
@@ -17,9 +17,11 @@ public class DatabaseConfig {
     private String username;
     private String password;
     private Map<String, String> properties;
+    private PoolConfig pool;
     
     public DatabaseConfig() {
         this.properties = new HashMap<>();
+        this.pool = new PoolConfig();
     }
     
     public DatabaseConfig(String name, DatabaseType type, String host, int port, 
@@ -65,6 +67,12 @@ public class DatabaseConfig {
                 url.append(host).append(":").append(port)
                    .append(";databaseName=").append(database);
                 break;
+                
+            case H2:
+                // jdbc:h2:mem:database (ou caminho de arquivo), em modo de compatibilidade PostgreSQL
+                url.append(database)
+                   .append(";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+                break;
         }
         
         return url.toString();
@@ -75,6 +83,10 @@ public class DatabaseConfig {
      */
     @JsonIgnore
     public boolean isValid() {
+        if (type != null && type.isEmbedded()) {
+            return name != null && !name.trim().isEmpty() &&
+                   database != null && !database.trim().isEmpty();
+        }
         return name != null && !name.trim().isEmpty() &&
                type != null &&
                host != null && !host.trim().isEmpty() &&
@@ -157,6 +169,14 @@ public class DatabaseConfig {
         return this.properties.get(key);
     }
     
+    public PoolConfig getPool() {
+        return pool;
+    }
+    
+    public void setPool(PoolConfig pool) {
+        this.pool = pool != null ? pool : new PoolConfig();
+    }
+    
     @Override
     public String toString() {
         return "DatabaseConfig{" +
@@ -7,7 +7,9 @@ public enum DatabaseType {
     FIREBIRD("Firebird", "org.firebirdsql.jdbc.FBDriver", "jdbc:firebirdsql://"),
     MYSQL("MySQL", "com.mysql.cj.jdbc.Driver", "jdbc:mysql://"),
     POSTGRESQL("PostgreSQL", "org.postgresql.Driver", "jdbc:postgresql://"),
-    SQLSERVER("SQL Server", "com.microsoft.sqlserver.jdbc.SQLServerDriver", "jdbc:sqlserver://");
+    SQLSERVER("SQL Server", "com.microsoft.sqlserver.jdbc.SQLServerDriver", "jdbc:sqlserver://"),
+    // Banco embarcado em modo de compatibilidade PostgreSQL, usado em testes e benchmarks
+    H2("H2 (embarcado)", "org.h2.Driver", "jdbc:h2:");
     
     private final String displayName;
     private final String driverClass;
@@ -31,6 +33,14 @@ public enum DatabaseType {
         return jdbcPrefix;
     }
     
+    /**
+     * Indica se o banco é embarcado (sem host/porta).
+     * Bancos embarcados não são oferecidos na interface, pois o driver só está presente em testes.
+     */
+    public boolean isEmbedded() {
+        return this == H2;
+    }
+    
     /**
      * Retorna o DatabaseType baseado no nome (case-insensitive).
      */
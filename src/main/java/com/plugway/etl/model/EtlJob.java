@@ -20,8 +20,10 @@ public class EtlJob {
     private String sqlQuery;
     private Map<String, Object> queryParameters;
     
-    // Configuração de destino (Load)
+    // Configuração de destino (Load): API REST ou tabela de banco de dados
     private ApiConfig targetConfig;
+    private DatabaseConfig targetDatabaseConfig;
+    private String targetTable;
     
     // Configuração de transformação
     private Map<String, Object> transformations;
@@ -62,6 +64,10 @@ public class EtlJob {
             return false;
         }
         
+        if (isDatabaseTarget()) {
+            return targetDatabaseConfig.isValid() && targetTable != null && !targetTable.trim().isEmpty();
+        }
+        
         if (targetConfig == null || !targetConfig.isValid()) {
             return false;
         }
@@ -69,6 +75,14 @@ public class EtlJob {
         return true;
     }
     
+    /**
+     * Indica se o destino do job é uma tabela de banco de dados em vez de uma API REST.
+     */
+    @JsonIgnore
+    public boolean isDatabaseTarget() {
+        return targetDatabaseConfig != null;
+    }
+    
     // Getters e Setters
     
     public String getId() {
@@ -135,6 +149,22 @@ public class EtlJob {
         this.targetConfig = targetConfig;
     }
     
+    public DatabaseConfig getTargetDatabaseConfig() {
+        return targetDatabaseConfig;
+    }
+    
+    public void setTargetDatabaseConfig(DatabaseConfig targetDatabaseConfig) {
+        this.targetDatabaseConfig = targetDatabaseConfig;
+    }
+    
+    public String getTargetTable() {
+        return targetTable;
+    }
+    
+    public void setTargetTable(String targetTable) {
+        this.targetTable = targetTable;
+    }
+    
     public Map<String, Object> getTransformations() {
         return transformations;
     }
@@ -1,6 +1,7 @@
 package com.plugway.etl.model;
 
 import java.time.Instant;
+import java.util.UUID;
 
 /**
  * Informações sobre a execução de um job ETL.
@@ -8,6 +9,7 @@ import java.time.Instant;
 public class JobExecutionInfo {
     
     private String jobId;
+    private String executionId;
     private JobStatus status;
     private Instant startTime;
     private Instant endTime;
@@ -15,9 +17,11 @@ public class JobExecutionInfo {
     private int recordsProcessed;
     private String errorMessage;
     private Exception exception;
+    private String traceId;
     
     public JobExecutionInfo(String jobId) {
         this.jobId = jobId;
+        this.executionId = UUID.randomUUID().toString();
         this.status = JobStatus.PENDING;
         this.recordsProcessed = 0;
     }
@@ -60,6 +64,13 @@ public class JobExecutionInfo {
         return jobId;
     }
     
+    /**
+     * Identificador único da execução; delimita a janela das chaves de idempotência dos lotes.
+     */
+    public String getExecutionId() {
+        return executionId;
+    }
+    
     public JobStatus getStatus() {
         return status;
     }
@@ -88,6 +99,17 @@ public class JobExecutionInfo {
         return exception;
     }
     
+    /**
+     * Trace id da execução, para localizar os spans e as mensagens correlacionadas.
+     */
+    public String getTraceId() {
+        return traceId;
+    }
+    
+    public void setTraceId(String traceId) {
+        this.traceId = traceId;
+    }
+    
     public boolean isRunning() {
         return status == JobStatus.RUNNING;
     }
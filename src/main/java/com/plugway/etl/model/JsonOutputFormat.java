@@ -0,0 +1,41 @@
+package com.plugway.etl.model;
+
+/**
+ * Enum que representa o formato do JSON gerado para a carga.
+ */
+public enum JsonOutputFormat {
+    JSON_ARRAY("JSON (array)", "application/json"),
+    NDJSON("NDJSON (JSON Lines)", "application/x-ndjson");
+    
+    private final String displayName;
+    private final String contentType;
+    
+    JsonOutputFormat(String displayName, String contentType) {
+        this.displayName = displayName;
+        this.contentType = contentType;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    /**
+     * Retorna o JsonOutputFormat baseado no nome (case-insensitive).
+     */
+    public static JsonOutputFormat fromString(String name) {
+        if (name == null) {
+            return JSON_ARRAY;
+        }
+        for (JsonOutputFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name) ||
+                format.displayName.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return JSON_ARRAY;
+    }
+}
@@ -0,0 +1,85 @@
+package com.plugway.etl.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Perfil do pool de conexões de um banco de dados.
+ * Valores nulos usam os padrões globais (database.pool.*, database.statementCacheSize);
+ * fetchSize nulo mantém o padrão do driver.
+ */
+public class PoolConfig {
+    
+    private Integer minSize;
+    private Integer maxSize;
+    private Integer fetchSize;
+    private Integer statementCacheSize;
+    private boolean readOnly; // Apenas para conexões usadas como origem
+    private String isolationLevel; // Ex.: READ_COMMITTED, REPEATABLE_READ
+    
+    public PoolConfig() {
+        this.readOnly = false;
+    }
+    
+    /**
+     * Retorna o nível de isolamento no formato esperado pelo HikariCP (TRANSACTION_*),
+     * ou null para manter o padrão do banco.
+     */
+    @JsonIgnore
+    public String getTransactionIsolation() {
+        if (isolationLevel == null || isolationLevel.trim().isEmpty()) {
+            return null;
+        }
+        String level = isolationLevel.trim().toUpperCase().replace(' ', '_');
+        return level.startsWith("TRANSACTION_") ? level : "TRANSACTION_" + level;
+    }
+    
+    // Getters e Setters
+    
+    public Integer getMinSize() {
+        return minSize;
+    }
+    
+    public void setMinSize(Integer minSize) {
+        this.minSize = minSize != null && minSize >= 0 ? minSize : null;
+    }
+    
+    public Integer getMaxSize() {
+        return maxSize;
+    }
+    
+    public void setMaxSize(Integer maxSize) {
+        this.maxSize = maxSize != null && maxSize > 0 ? maxSize : null;
+    }
+    
+    public Integer getFetchSize() {
+        return fetchSize;
+    }
+    
+    public void setFetchSize(Integer fetchSize) {
+        this.fetchSize = fetchSize != null && fetchSize > 0 ? fetchSize : null;
+    }
+    
+    public Integer getStatementCacheSize() {
+        return statementCacheSize;
+    }
+    
+    public void setStatementCacheSize(Integer statementCacheSize) {
+        this.statementCacheSize = statementCacheSize != null && statementCacheSize >= 0 ? statementCacheSize : null;
+    }
+    
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+    
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+    
+    public String getIsolationLevel() {
+        return isolationLevel;
+    }
+    
+    public void setIsolationLevel(String isolationLevel) {
+        this.isolationLevel = isolationLevel;
+    }
+}
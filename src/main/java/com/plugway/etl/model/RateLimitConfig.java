@@ -0,0 +1,74 @@
+package com.plugway.etl.model;
+
+/**
+ * Configuração de limitação de taxa (token bucket) para uma API REST de destino.
+ * Valores zerados significam "sem limite" para a respectiva dimensão.
+ */
+public class RateLimitConfig {
+    
+    private boolean enabled;
+    private double requestsPerSecond;
+    private int requestBurst;
+    private long bytesPerSecond;
+    private long byteBurst;
+    private boolean adaptive; // Reduz a taxa automaticamente ao receber HTTP 429
+    
+    public RateLimitConfig() {
+        this.enabled = false;
+        this.requestsPerSecond = 0;
+        this.requestBurst = 1;
+        this.bytesPerSecond = 0;
+        this.byteBurst = 0;
+        this.adaptive = true;
+    }
+    
+    // Getters e Setters
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+    
+    public void setRequestsPerSecond(double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond > 0 ? requestsPerSecond : 0;
+    }
+    
+    public int getRequestBurst() {
+        return requestBurst;
+    }
+    
+    public void setRequestBurst(int requestBurst) {
+        this.requestBurst = requestBurst > 0 ? requestBurst : 1;
+    }
+    
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+    
+    public void setBytesPerSecond(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond > 0 ? bytesPerSecond : 0;
+    }
+    
+    public long getByteBurst() {
+        return byteBurst;
+    }
+    
+    public void setByteBurst(long byteBurst) {
+        this.byteBurst = byteBurst > 0 ? byteBurst : 0;
+    }
+    
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+    
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+}
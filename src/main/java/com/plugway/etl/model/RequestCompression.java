@@ -0,0 +1,45 @@
+package com.plugway.etl.model;
+
+/**
+ * Enum que representa os algoritmos de compressão do body das requisições (Content-Encoding).
+ */
+public enum RequestCompression {
+    NONE("Sem compressão", null),
+    GZIP("Gzip", "gzip"),
+    DEFLATE("Deflate", "deflate");
+    
+    private final String displayName;
+    private final String contentEncoding;
+    
+    RequestCompression(String displayName, String contentEncoding) {
+        this.displayName = displayName;
+        this.contentEncoding = contentEncoding;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    /**
+     * Retorna o valor do header Content-Encoding (null quando não há compressão).
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+    
+    /**
+     * Retorna o RequestCompression baseado no nome (case-insensitive).
+     */
+    public static RequestCompression fromString(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        for (RequestCompression compression : values()) {
+            if (compression.name().equalsIgnoreCase(name) ||
+                compression.displayName.equalsIgnoreCase(name)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+}
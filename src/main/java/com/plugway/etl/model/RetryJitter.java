@@ -0,0 +1,36 @@
+package com.plugway.etl.model;
+
+/**
+ * Enum que representa as estratégias de jitter aplicadas ao backoff de retry.
+ */
+public enum RetryJitter {
+    NONE("Sem jitter"),
+    FULL("Full Jitter"),
+    DECORRELATED("Decorrelated Jitter");
+    
+    private final String displayName;
+    
+    RetryJitter(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    /**
+     * Retorna o RetryJitter baseado no nome (case-insensitive).
+     */
+    public static RetryJitter fromString(String name) {
+        if (name == null) {
+            return FULL;
+        }
+        for (RetryJitter jitter : values()) {
+            if (jitter.name().equalsIgnoreCase(name) ||
+                jitter.displayName.equalsIgnoreCase(name)) {
+                return jitter;
+            }
+        }
+        return FULL;
+    }
+}
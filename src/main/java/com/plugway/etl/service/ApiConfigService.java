@@ -1,10 +1,13 @@
 package com.plugway.etl.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.service.load.CircuitBreakerRegistry;
+import com.plugway.etl.service.load.ConcurrencyLimiterRegistry;
+import com.plugway.etl.service.load.RateLimiterRegistry;
+import com.plugway.etl.util.JsonUtil;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
@@ -25,18 +28,14 @@ public class ApiConfigService {
     private static final String CONFIG_DIR = "config";
     private static final String APIS_FILE = "apis.json";
     
-    private final ObjectMapper objectMapper;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
     private final Path apisFilePath;
     
-    private static ApiConfigService instance;
-    
     private ApiConfigService() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT); // Formatação bonita do JSON
-        // Ignora propriedades desconhecidas ao deserializar (como campos que não existem mais)
-        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        // Ignora propriedades vazias
-        this.objectMapper.configure(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS, false);
+        // Leitura tolerante a campos que não existem mais e gravação indentada
+        this.reader = JsonUtil.configReader(new TypeReference<List<ApiConfig>>() {});
+        this.writer = JsonUtil.configWriter();
         
         // Garante que o diretório config existe
         Path configDir = Paths.get(CONFIG_DIR);
@@ -52,11 +51,12 @@ public class ApiConfigService {
         this.apisFilePath = configDir.resolve(APIS_FILE);
     }
     
-    public static synchronized ApiConfigService getInstance() {
-        if (instance == null) {
-            instance = new ApiConfigService();
-        }
-        return instance;
+    public static ApiConfigService getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final ApiConfigService INSTANCE = new ApiConfigService();
     }
     
     /**
@@ -80,7 +80,7 @@ public class ApiConfigService {
                 return apis;
             }
             
-            apis = objectMapper.readValue(file, new TypeReference<List<ApiConfig>>() {});
+            apis = reader.readValue(file);
             logger.info("Carregadas {} APIs do arquivo: {}", 
                       apis.size(), apisFilePath.toAbsolutePath());
             
@@ -110,7 +110,7 @@ public class ApiConfigService {
                 Files.createFile(apisFilePath);
             }
             
-            objectMapper.writeValue(apisFilePath.toFile(), apis);
+            writer.writeValue(apisFilePath.toFile(), apis);
             logger.info("Salvas {} APIs no arquivo: {}", 
                        apis.size(), apisFilePath.toAbsolutePath());
             return true;
@@ -151,7 +151,11 @@ public class ApiConfigService {
             logger.debug("Nova API adicionada: {}", api.getName());
         }
         
-        return saveApis(allApis);
+        boolean saved = saveApis(allApis);
+        if (saved) {
+            resetRuntimeState(api.getName());
+        }
+        return saved;
     }
     
     /**
@@ -168,6 +172,7 @@ public class ApiConfigService {
         }
         
         boolean removed = allApis.removeIf(api -> apiName.equals(api.getName()));
+        resetRuntimeState(apiName);
         
         if (removed) {
             logger.debug("API removida: {}", apiName);
@@ -178,6 +183,18 @@ public class ApiConfigService {
         }
     }
     
+    /**
+     * Descarta o Circuit Breaker e os limitadores mantidos em memória para a API,
+     * para que a próxima execução os recrie com a configuração salva.
+     * Execuções em andamento continuam com as instâncias que já obtiveram.
+     */
+    private void resetRuntimeState(String apiName) {
+        CircuitBreakerRegistry.getInstance().remove(apiName);
+        RateLimiterRegistry.getInstance().remove(apiName);
+        ConcurrencyLimiterRegistry.getInstance().remove(apiName);
+        logger.debug("Estado de resiliência descartado para a API: {}", apiName);
+    }
+    
     /**
      * Retorna o caminho do arquivo de APIs.
      * 
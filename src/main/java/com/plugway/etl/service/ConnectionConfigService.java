@@ -1,10 +1,10 @@
 package com.plugway.etl.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.plugway.etl.model.DatabaseConfig;
+import com.plugway.etl.util.JsonUtil;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
@@ -25,18 +25,14 @@ public class ConnectionConfigService {
     private static final String CONFIG_DIR = "config";
     private static final String CONNECTIONS_FILE = "connections.json";
     
-    private final ObjectMapper objectMapper;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
     private final Path connectionsFilePath;
     
-    private static ConnectionConfigService instance;
-    
     private ConnectionConfigService() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT); // Formatação bonita do JSON
-        // Ignora propriedades desconhecidas ao deserializar (como campos que não existem mais)
-        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        // Ignora propriedades vazias
-        this.objectMapper.configure(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS, false);
+        // Leitura tolerante a campos que não existem mais e gravação indentada
+        this.reader = JsonUtil.configReader(new TypeReference<List<DatabaseConfig>>() {});
+        this.writer = JsonUtil.configWriter();
         
         // Garante que o diretório config existe
         Path configDir = Paths.get(CONFIG_DIR);
@@ -52,11 +48,12 @@ public class ConnectionConfigService {
         this.connectionsFilePath = configDir.resolve(CONNECTIONS_FILE);
     }
     
-    public static synchronized ConnectionConfigService getInstance() {
-        if (instance == null) {
-            instance = new ConnectionConfigService();
-        }
-        return instance;
+    public static ConnectionConfigService getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final ConnectionConfigService INSTANCE = new ConnectionConfigService();
     }
     
     /**
@@ -80,7 +77,7 @@ public class ConnectionConfigService {
                 return connections;
             }
             
-            connections = objectMapper.readValue(file, new TypeReference<List<DatabaseConfig>>() {});
+            connections = reader.readValue(file);
             logger.info("Carregadas {} conexões do arquivo: {}", 
                       connections.size(), connectionsFilePath.toAbsolutePath());
             
@@ -110,7 +107,7 @@ public class ConnectionConfigService {
                 Files.createFile(connectionsFilePath);
             }
             
-            objectMapper.writeValue(connectionsFilePath.toFile(), connections);
+            writer.writeValue(connectionsFilePath.toFile(), connections);
             logger.info("Salvas {} conexões no arquivo: {}", 
                        connections.size(), connectionsFilePath.toAbsolutePath());
             return true;
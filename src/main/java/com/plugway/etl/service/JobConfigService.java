@@ -1,10 +1,12 @@
 package com.plugway.etl.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.model.DatabaseConfig;
 import com.plugway.etl.model.EtlJob;
+import com.plugway.etl.util.JsonUtil;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
@@ -25,18 +27,14 @@ public class JobConfigService {
     private static final String CONFIG_DIR = "config";
     private static final String JOBS_FILE = "jobs.json";
     
-    private final ObjectMapper objectMapper;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
     private final Path jobsFilePath;
     
-    private static JobConfigService instance;
-    
     private JobConfigService() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT); // Formatação bonita do JSON
-        // Ignora propriedades desconhecidas ao deserializar (como campos que não existem mais)
-        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        // Ignora propriedades vazias
-        this.objectMapper.configure(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS, false);
+        // Leitura tolerante a campos que não existem mais e gravação indentada
+        this.reader = JsonUtil.configReader(new TypeReference<List<EtlJob>>() {});
+        this.writer = JsonUtil.configWriter();
         
         // Garante que o diretório config existe
         Path configDir = Paths.get(CONFIG_DIR);
@@ -52,11 +50,12 @@ public class JobConfigService {
         this.jobsFilePath = configDir.resolve(JOBS_FILE);
     }
     
-    public static synchronized JobConfigService getInstance() {
-        if (instance == null) {
-            instance = new JobConfigService();
-        }
-        return instance;
+    public static JobConfigService getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final JobConfigService INSTANCE = new JobConfigService();
     }
     
     /**
@@ -80,7 +79,7 @@ public class JobConfigService {
                 return jobs;
             }
             
-            jobs = objectMapper.readValue(file, new TypeReference<List<EtlJob>>() {});
+            jobs = reader.readValue(file);
             logger.info("Carregados {} jobs do arquivo: {}", 
                       jobs.size(), jobsFilePath.toAbsolutePath());
             
@@ -110,7 +109,7 @@ public class JobConfigService {
                 Files.createFile(jobsFilePath);
             }
             
-            objectMapper.writeValue(jobsFilePath.toFile(), jobs);
+            writer.writeValue(jobsFilePath.toFile(), jobs);
             logger.info("Salvos {} jobs no arquivo: {}", 
                        jobs.size(), jobsFilePath.toAbsolutePath());
             return true;
@@ -178,6 +177,52 @@ public class JobConfigService {
         }
     }
     
+    /**
+     * Reconstrói as referências de DatabaseConfig e ApiConfig dos jobs a partir das conexões
+     * e APIs salvas, casando pelo nome. O JSON dos jobs guarda cópias das configurações; com
+     * isso os jobs passam a usar a versão atual de connections.json e apis.json.
+     * 
+     * @param jobs Jobs carregados do arquivo
+     * @param connections Conexões salvas
+     * @param apis APIs salvas
+     */
+    public void resolveReferences(List<EtlJob> jobs, List<DatabaseConfig> connections, List<ApiConfig> apis) {
+        for (EtlJob job : jobs) {
+            // Reconstrói referência de DatabaseConfig
+            if (job.getSourceConfig() != null) {
+                String sourceName = job.getSourceConfig().getName();
+                connections.stream()
+                    .filter(c -> c.getName().equals(sourceName))
+                    .findFirst()
+                    .ifPresentOrElse(job::setSourceConfig,
+                        () -> logger.warn("Conexão '{}' referenciada no job '{}' não encontrada",
+                                          sourceName, job.getId()));
+            }
+            
+            // Reconstrói referência do banco de destino (jobs banco a banco)
+            if (job.getTargetDatabaseConfig() != null) {
+                String targetDatabaseName = job.getTargetDatabaseConfig().getName();
+                connections.stream()
+                    .filter(c -> c.getName().equals(targetDatabaseName))
+                    .findFirst()
+                    .ifPresentOrElse(job::setTargetDatabaseConfig,
+                        () -> logger.warn("Conexão de destino '{}' referenciada no job '{}' não encontrada",
+                                          targetDatabaseName, job.getId()));
+            }
+            
+            // Reconstrói referência de ApiConfig
+            if (job.getTargetConfig() != null) {
+                String targetName = job.getTargetConfig().getName();
+                apis.stream()
+                    .filter(a -> a.getName().equals(targetName))
+                    .findFirst()
+                    .ifPresentOrElse(job::setTargetConfig,
+                        () -> logger.warn("API '{}' referenciada no job '{}' não encontrada",
+                                          targetName, job.getId()));
+            }
+        }
+    }
+    
     /**
      * Retorna o caminho do arquivo de jobs.
      * 
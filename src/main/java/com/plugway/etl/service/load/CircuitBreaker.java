@@ -0,0 +1,304 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.CircuitBreakerConfig;
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit Breaker para proteger APIs de destino indisponíveis.
+ * 
+ * Estados:
+ * - CLOSED: chamadas passam normalmente; os resultados são registrados em uma janela deslizante
+ * - OPEN: chamadas falham imediatamente até o tempo de espera expirar
+ * - HALF_OPEN: um número limitado de chamadas de teste decide se o circuito fecha ou reabre
+ * 
+ * O circuito abre quando a taxa de falhas ou a taxa de chamadas lentas da janela
+ * atinge o limite configurado (após o mínimo de chamadas).
+ */
+public class CircuitBreaker {
+    
+    private static final Logger logger = LoggerUtil.getLogger(CircuitBreaker.class);
+    
+    /**
+     * Estados possíveis do circuito.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+    
+    private final String name;
+    private final CircuitBreakerConfig config;
+    private final LongSupplier nanoClock;
+    
+    // Janela deslizante baseada em contagem (ring buffer)
+    private final boolean[] failureWindow;
+    private final boolean[] slowWindow;
+    // Limitado ao tamanho da janela: acima dele o circuito nunca abriria
+    private final int minimumNumberOfCalls;
+    private int windowIndex;
+    private int windowCount;
+    private int failureCount;
+    private int slowCount;
+    
+    private volatile State state;
+    private long openedAtNanos;
+    private int halfOpenPermitsIssued;
+    private int halfOpenCallsCompleted;
+    private int halfOpenFailures;
+    private int halfOpenSlowCalls;
+    
+    private final AtomicLong rejectedCalls;
+    
+    public CircuitBreaker(String name, CircuitBreakerConfig config) {
+        this(name, config, System::nanoTime);
+    }
+    
+    CircuitBreaker(String name, CircuitBreakerConfig config, LongSupplier nanoClock) {
+        this.name = name;
+        this.config = config;
+        this.nanoClock = nanoClock;
+        this.failureWindow = new boolean[config.getSlidingWindowSize()];
+        this.slowWindow = new boolean[config.getSlidingWindowSize()];
+        this.minimumNumberOfCalls = Math.min(config.getMinimumNumberOfCalls(), config.getSlidingWindowSize());
+        if (minimumNumberOfCalls < config.getMinimumNumberOfCalls()) {
+            logger.warn("Circuit Breaker {}: minimumNumberOfCalls ({}) maior que slidingWindowSize ({}). Usando {}.",
+                       name, config.getMinimumNumberOfCalls(), config.getSlidingWindowSize(), minimumNumberOfCalls);
+        }
+        this.state = State.CLOSED;
+        this.rejectedCalls = new AtomicLong();
+    }
+    
+    /**
+     * Verifica se uma chamada pode ser executada e reserva a permissão.
+     * Em HALF_OPEN, apenas o número configurado de chamadas de teste é permitido.
+     * 
+     * @return true se a chamada pode prosseguir
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (!config.isEnabled()) {
+            return true;
+        }
+        
+        if (state == State.OPEN && waitDurationElapsed()) {
+            transitionTo(State.HALF_OPEN);
+        }
+        
+        switch (state) {
+            case CLOSED:
+                return true;
+                
+            case HALF_OPEN:
+                if (halfOpenPermitsIssued < config.getPermittedCallsInHalfOpenState()) {
+                    halfOpenPermitsIssued++;
+                    return true;
+                }
+                rejectedCalls.incrementAndGet();
+                return false;
+                
+            case OPEN:
+            default:
+                rejectedCalls.incrementAndGet();
+                return false;
+        }
+    }
+    
+    /**
+     * Devolve uma permissão que não chegou a ser usada (ex: erro ao montar a requisição).
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermitsIssued > 0) {
+            halfOpenPermitsIssued--;
+        }
+    }
+    
+    /**
+     * Verifica, sem reservar permissão, se o circuito está rejeitando chamadas.
+     */
+    public synchronized boolean isRejecting() {
+        return config.isEnabled() && state == State.OPEN && !waitDurationElapsed();
+    }
+    
+    /**
+     * Registra uma chamada bem-sucedida.
+     * 
+     * @param durationNanos Duração da chamada em nanossegundos
+     */
+    public void onSuccess(long durationNanos) {
+        record(false, durationNanos);
+    }
+    
+    /**
+     * Registra uma chamada com falha.
+     * 
+     * @param durationNanos Duração da chamada em nanossegundos
+     */
+    public void onError(long durationNanos) {
+        record(true, durationNanos);
+    }
+    
+    private synchronized void record(boolean failure, long durationNanos) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        
+        boolean slow = durationNanos >= TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDurationThreshold());
+        
+        switch (state) {
+            case CLOSED:
+                addToWindow(failure, slow);
+                if (windowCount >= minimumNumberOfCalls && thresholdsExceeded(
+                        failureCount, slowCount, windowCount)) {
+                    logger.warn("Circuit Breaker {} aberto | Falhas: {}% | Lentas: {}%",
+                               name, getFailureRate(), getSlowCallRate());
+                    transitionTo(State.OPEN);
+                }
+                break;
+                
+            case HALF_OPEN:
+                halfOpenCallsCompleted++;
+                if (failure) {
+                    halfOpenFailures++;
+                }
+                if (slow) {
+                    halfOpenSlowCalls++;
+                }
+                if (halfOpenCallsCompleted >= config.getPermittedCallsInHalfOpenState()) {
+                    if (thresholdsExceeded(halfOpenFailures, halfOpenSlowCalls, halfOpenCallsCompleted)) {
+                        logger.warn("Circuit Breaker {} reaberto após chamadas de teste", name);
+                        transitionTo(State.OPEN);
+                    } else {
+                        logger.info("Circuit Breaker {} fechado após chamadas de teste", name);
+                        transitionTo(State.CLOSED);
+                    }
+                }
+                break;
+                
+            case OPEN:
+            default:
+                // Chamadas iniciadas antes da abertura do circuito são ignoradas
+                break;
+        }
+    }
+    
+    private void addToWindow(boolean failure, boolean slow) {
+        if (windowCount == failureWindow.length) {
+            // Remove o resultado mais antigo da janela
+            if (failureWindow[windowIndex]) {
+                failureCount--;
+            }
+            if (slowWindow[windowIndex]) {
+                slowCount--;
+            }
+        } else {
+            windowCount++;
+        }
+        
+        failureWindow[windowIndex] = failure;
+        slowWindow[windowIndex] = slow;
+        if (failure) {
+            failureCount++;
+        }
+        if (slow) {
+            slowCount++;
+        }
+        windowIndex = (windowIndex + 1) % failureWindow.length;
+    }
+    
+    private boolean thresholdsExceeded(int failures, int slowCalls, int total) {
+        if (total == 0) {
+            return false;
+        }
+        return failures * 100 >= config.getFailureRateThreshold() * total
+            || slowCalls * 100 >= config.getSlowCallRateThreshold() * total;
+    }
+    
+    private boolean waitDurationElapsed() {
+        long waitNanos = TimeUnit.MILLISECONDS.toNanos(config.getWaitDurationInOpenState());
+        return nanoClock.getAsLong() - openedAtNanos >= waitNanos;
+    }
+    
+    private void transitionTo(State newState) {
+        State previous = state;
+        state = newState;
+        
+        switch (newState) {
+            case OPEN:
+                openedAtNanos = nanoClock.getAsLong();
+                break;
+            case HALF_OPEN:
+                halfOpenPermitsIssued = 0;
+                halfOpenCallsCompleted = 0;
+                halfOpenFailures = 0;
+                halfOpenSlowCalls = 0;
+                break;
+            case CLOSED:
+                resetWindow();
+                break;
+        }
+        
+        logger.info("Circuit Breaker {}: {} -> {}", name, previous, newState);
+    }
+    
+    private void resetWindow() {
+        windowIndex = 0;
+        windowCount = 0;
+        failureCount = 0;
+        slowCount = 0;
+    }
+    
+    /**
+     * Força o fechamento do circuito e limpa a janela.
+     */
+    public synchronized void reset() {
+        transitionTo(State.CLOSED);
+        rejectedCalls.set(0);
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Retorna a taxa de falhas (%) da janela atual.
+     */
+    public synchronized int getFailureRate() {
+        return windowCount == 0 ? 0 : failureCount * 100 / windowCount;
+    }
+    
+    /**
+     * Retorna a taxa de chamadas lentas (%) da janela atual.
+     */
+    public synchronized int getSlowCallRate() {
+        return windowCount == 0 ? 0 : slowCount * 100 / windowCount;
+    }
+    
+    /**
+     * Retorna o número de chamadas registradas na janela atual.
+     */
+    public synchronized int getBufferedCalls() {
+        return windowCount;
+    }
+    
+    /**
+     * Retorna o número de chamadas rejeitadas pelo circuito.
+     */
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: %s | Falhas: %d%% | Lentas: %d%% | Chamadas: %d | Rejeitadas: %d",
+            name, state, getFailureRate(), getSlowCallRate(), getBufferedCalls(), getRejectedCalls());
+    }
+}
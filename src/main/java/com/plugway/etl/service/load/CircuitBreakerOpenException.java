@@ -0,0 +1,18 @@
+package com.plugway.etl.service.load;
+
+/**
+ * Exceção lançada quando uma chamada é rejeitada por um Circuit Breaker aberto.
+ */
+public class CircuitBreakerOpenException extends Exception {
+    
+    private final String circuitBreakerName;
+    
+    public CircuitBreakerOpenException(String circuitBreakerName) {
+        super("Circuit Breaker aberto para: " + circuitBreakerName + ". Chamada rejeitada.");
+        this.circuitBreakerName = circuitBreakerName;
+    }
+    
+    public String getCircuitBreakerName() {
+        return circuitBreakerName;
+    }
+}
@@ -0,0 +1,66 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.service.monitoring.JmxExporter;
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro global de Circuit Breakers, um por API de destino.
+ * Compartilhado entre todos os jobs que enviam para a mesma API.
+ */
+public class CircuitBreakerRegistry {
+    
+    private static final Logger logger = LoggerUtil.getLogger(CircuitBreakerRegistry.class);
+    
+    private final Map<String, CircuitBreaker> circuitBreakers;
+    
+    private CircuitBreakerRegistry() {
+        this.circuitBreakers = new ConcurrentHashMap<>();
+    }
+    
+    public static CircuitBreakerRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final CircuitBreakerRegistry INSTANCE = new CircuitBreakerRegistry();
+    }
+    
+    /**
+     * Obtém ou cria o Circuit Breaker da API informada.
+     */
+    public CircuitBreaker getCircuitBreaker(ApiConfig config) {
+        return circuitBreakers.computeIfAbsent(getKey(config), key -> {
+            logger.debug("Circuit Breaker criado para: {}", key);
+            CircuitBreaker circuitBreaker = new CircuitBreaker(key, config.getCircuitBreaker());
+            JmxExporter.getInstance().registerApiTarget(circuitBreaker, config);
+            return circuitBreaker;
+        });
+    }
+    
+    /**
+     * Retorna todos os Circuit Breakers registrados.
+     */
+    public List<CircuitBreaker> getAll() {
+        return new ArrayList<>(circuitBreakers.values());
+    }
+    
+    /**
+     * Remove o Circuit Breaker de uma API (ex: após alteração da configuração).
+     */
+    public void remove(String name) {
+        if (circuitBreakers.remove(name) != null) {
+            JmxExporter.getInstance().unregisterApiTarget(name);
+        }
+    }
+    
+    private String getKey(ApiConfig config) {
+        return config.getName() != null ? config.getName() : config.buildFullUrl();
+    }
+}
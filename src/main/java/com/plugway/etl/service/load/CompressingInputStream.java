@@ -0,0 +1,167 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.RequestCompression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * InputStream que comprime (gzip ou deflate) os bytes de outro InputStream sob demanda.
+ * Usado como fonte do BodyPublisher: a saída comprimida é gerada em blocos conforme
+ * o HttpClient consome o body, sem materializar o payload comprimido em memória.
+ * 
+ * Ao final do stream registra os bytes de entrada/saída e o tempo de CPU gasto na compressão.
+ */
+class CompressingInputStream extends InputStream {
+    
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] GZIP_HEADER = {
+        0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    
+    private final InputStream source;
+    private final boolean gzip;
+    private final Deflater deflater;
+    private final CRC32 crc;
+    private final CompressionStats stats;
+    
+    private final byte[] inputBuffer;
+    private final byte[] outputBuffer;
+    private int outputPosition;
+    private int outputLimit;
+    
+    private boolean headerWritten;
+    private boolean trailerWritten;
+    private boolean sourceExhausted;
+    private boolean recorded;
+    
+    private long bytesIn;
+    private long bytesOut;
+    private long cpuNanos;
+    
+    CompressingInputStream(InputStream source, RequestCompression compression, CompressionStats stats) {
+        if (compression == RequestCompression.NONE) {
+            throw new IllegalArgumentException("Compressão não definida");
+        }
+        this.source = source;
+        this.gzip = compression == RequestCompression.GZIP;
+        // Gzip usa deflate "raw" com header/trailer próprios; deflate usa o formato zlib
+        this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, gzip);
+        this.crc = gzip ? new CRC32() : null;
+        this.stats = stats;
+        this.inputBuffer = new byte[BUFFER_SIZE];
+        this.outputBuffer = new byte[BUFFER_SIZE];
+    }
+    
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n < 0 ? -1 : single[0] & 0xff;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        
+        while (outputPosition == outputLimit) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        
+        int n = Math.min(len, outputLimit - outputPosition);
+        System.arraycopy(outputBuffer, outputPosition, b, off, n);
+        outputPosition += n;
+        return n;
+    }
+    
+    /**
+     * Gera o próximo bloco de saída comprimida.
+     * 
+     * @return false quando o stream terminou
+     */
+    private boolean fill() throws IOException {
+        long cpuStart = currentCpuTime();
+        try {
+            outputPosition = 0;
+            outputLimit = 0;
+            
+            if (gzip && !headerWritten) {
+                System.arraycopy(GZIP_HEADER, 0, outputBuffer, 0, GZIP_HEADER.length);
+                outputLimit = GZIP_HEADER.length;
+                headerWritten = true;
+                bytesOut += outputLimit;
+                return true;
+            }
+            
+            if (deflater.finished()) {
+                if (gzip && !trailerWritten) {
+                    writeInt((int) crc.getValue(), 0);
+                    writeInt((int) bytesIn, 4);
+                    outputLimit = 8;
+                    trailerWritten = true;
+                    bytesOut += outputLimit;
+                    return true;
+                }
+                recordStats();
+                return false;
+            }
+            
+            if (deflater.needsInput() && !sourceExhausted) {
+                int n = source.read(inputBuffer);
+                if (n < 0) {
+                    sourceExhausted = true;
+                    deflater.finish();
+                } else if (n > 0) {
+                    if (crc != null) {
+                        crc.update(inputBuffer, 0, n);
+                    }
+                    deflater.setInput(inputBuffer, 0, n);
+                    bytesIn += n;
+                }
+            }
+            
+            outputLimit = deflater.deflate(outputBuffer);
+            bytesOut += outputLimit;
+            return true;
+            
+        } finally {
+            cpuNanos += currentCpuTime() - cpuStart;
+        }
+    }
+    
+    private void writeInt(int value, int offset) {
+        // Little-endian, conforme RFC 1952
+        outputBuffer[offset] = (byte) value;
+        outputBuffer[offset + 1] = (byte) (value >> 8);
+        outputBuffer[offset + 2] = (byte) (value >> 16);
+        outputBuffer[offset + 3] = (byte) (value >> 24);
+    }
+    
+    private void recordStats() {
+        if (!recorded && stats != null) {
+            stats.recordCompressed(bytesIn, bytesOut, cpuNanos);
+        }
+        recorded = true;
+    }
+    
+    private static long currentCpuTime() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()
+            ? THREAD_MX_BEAN.getCurrentThreadCpuTime()
+            : System.nanoTime();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        source.close();
+    }
+}
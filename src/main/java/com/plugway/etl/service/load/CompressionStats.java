@@ -0,0 +1,84 @@
+package com.plugway.etl.service.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estatísticas acumuladas de compressão das requisições enviadas para uma API.
+ */
+public class CompressionStats {
+    
+    private final String name;
+    private final AtomicLong compressedRequests;
+    private final AtomicLong skippedRequests;
+    private final AtomicLong uncompressedBytes;
+    private final AtomicLong compressedBytes;
+    private final AtomicLong cpuNanos;
+    
+    public CompressionStats(String name) {
+        this.name = name;
+        this.compressedRequests = new AtomicLong();
+        this.skippedRequests = new AtomicLong();
+        this.uncompressedBytes = new AtomicLong();
+        this.compressedBytes = new AtomicLong();
+        this.cpuNanos = new AtomicLong();
+    }
+    
+    /**
+     * Registra uma requisição comprimida.
+     */
+    void recordCompressed(long bytesIn, long bytesOut, long nanos) {
+        compressedRequests.incrementAndGet();
+        uncompressedBytes.addAndGet(bytesIn);
+        compressedBytes.addAndGet(bytesOut);
+        cpuNanos.addAndGet(nanos);
+    }
+    
+    /**
+     * Registra uma requisição enviada sem compressão (abaixo do limite mínimo).
+     */
+    void recordSkipped() {
+        skippedRequests.incrementAndGet();
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public long getCompressedRequests() {
+        return compressedRequests.get();
+    }
+    
+    public long getSkippedRequests() {
+        return skippedRequests.get();
+    }
+    
+    public long getUncompressedBytes() {
+        return uncompressedBytes.get();
+    }
+    
+    public long getCompressedBytes() {
+        return compressedBytes.get();
+    }
+    
+    /**
+     * Retorna o tempo de CPU total gasto comprimindo, em milissegundos.
+     */
+    public long getCpuTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(cpuNanos.get());
+    }
+    
+    /**
+     * Retorna a razão de compressão (bytes originais / bytes comprimidos).
+     */
+    public double getCompressionRatio() {
+        long compressed = compressedBytes.get();
+        return compressed == 0 ? 0 : (double) uncompressedBytes.get() / compressed;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: Comprimidas: %d | Sem compressão: %d | Razão: %.1f:1 | CPU: %dms",
+            name, getCompressedRequests(), getSkippedRequests(), getCompressionRatio(), getCpuTimeMillis());
+    }
+}
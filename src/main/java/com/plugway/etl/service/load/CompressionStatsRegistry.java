@@ -0,0 +1,61 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro global das estatísticas de compressão, um por API de destino.
+ * Compartilhado entre todos os jobs que enviam para a mesma API.
+ */
+public class CompressionStatsRegistry {
+    
+    private static final Logger logger = LoggerUtil.getLogger(CompressionStatsRegistry.class);
+    
+    private final Map<String, CompressionStats> compressionStats;
+    
+    private CompressionStatsRegistry() {
+        this.compressionStats = new ConcurrentHashMap<>();
+    }
+    
+    public static CompressionStatsRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final CompressionStatsRegistry INSTANCE = new CompressionStatsRegistry();
+    }
+    
+    /**
+     * Obtém ou cria as estatísticas de compressão da API informada.
+     */
+    public CompressionStats getStats(ApiConfig config) {
+        return compressionStats.computeIfAbsent(getKey(config), key -> {
+            logger.debug("Estatísticas de compressão criadas para: {}", key);
+            return new CompressionStats(key);
+        });
+    }
+    
+    /**
+     * Retorna as estatísticas de todas as APIs.
+     */
+    public List<CompressionStats> getAll() {
+        return new ArrayList<>(compressionStats.values());
+    }
+    
+    /**
+     * Remove as estatísticas de uma API.
+     */
+    public void remove(String name) {
+        compressionStats.remove(name);
+    }
+    
+    private String getKey(ApiConfig config) {
+        return config.getName() != null ? config.getName() : config.buildFullUrl();
+    }
+}
@@ -0,0 +1,240 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.ConcurrencyLimitConfig;
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Controle adaptativo de concorrência (AIMD) para uma API de destino.
+ * Compartilhado por todos os jobs que enviam para a mesma API.
+ * 
+ * Funciona como o controle de congestionamento do TCP:
+ * - Aumento aditivo: a cada janela de amostras sem falhas, com o limite totalmente utilizado
+ *   e a latência p50 estável, o limite cresce em 1
+ * - Redução multiplicativa: respostas 429/5xx, falhas de I/O ou p50 acima da latência base
+ *   multiplicada pela tolerância reduzem o limite (no máximo uma vez por janela)
+ * 
+ * Requisições acima do limite aguardam em fila sem bloquear threads.
+ */
+public class ConcurrencyLimiter {
+    
+    private static final Logger logger = LoggerUtil.getLogger(ConcurrencyLimiter.class);
+    
+    private static final CompletableFuture<Void> NO_WAIT = CompletableFuture.completedFuture(null);
+    private static final int MIN_WINDOW_SIZE = 10;
+    private static final double BASELINE_DRIFT = 0.05;
+    
+    /**
+     * Resultado de uma requisição, usado para ajustar o limite.
+     */
+    public enum Outcome {
+        SUCCESS,  // Resposta recebida (a latência entra na amostra)
+        DROPPED,  // Sobrecarga: 429, 5xx ou falha de I/O
+        IGNORED   // Requisição não chegou à API (ex: rejeitada pelo Circuit Breaker)
+    }
+    
+    private final String name;
+    private final ConcurrencyLimitConfig config;
+    private final Queue<CompletableFuture<Void>> waiters;
+    
+    private int limit;
+    private int inFlight;
+    
+    // Janela de amostras de latência (nanossegundos)
+    private final long[] samples;
+    private int sampleCount;
+    private boolean windowSaturated;
+    private boolean windowDecreased;
+    
+    private long baselineLatencyNanos;
+    private long lastP50Nanos;
+    private final AtomicLong droppedCalls;
+    
+    public ConcurrencyLimiter(String name, ConcurrencyLimitConfig config) {
+        this.name = name;
+        this.config = config;
+        this.waiters = new ArrayDeque<>();
+        this.limit = Math.max(config.getMinLimit(), Math.min(config.getInitialLimit(), config.getMaxLimit()));
+        this.samples = new long[Math.max(MIN_WINDOW_SIZE, config.getMaxLimit())];
+        this.droppedCalls = new AtomicLong();
+    }
+    
+    /**
+     * Solicita permissão para iniciar uma requisição.
+     * Toda permissão obtida deve ser devolvida com {@link #release(long, Outcome)}.
+     * 
+     * @return Future que completa quando há capacidade disponível
+     */
+    public CompletableFuture<Void> acquire() {
+        if (!config.isEnabled()) {
+            return NO_WAIT;
+        }
+        
+        synchronized (this) {
+            if (inFlight < limit) {
+                inFlight++;
+                if (inFlight >= limit) {
+                    windowSaturated = true;
+                }
+                return NO_WAIT;
+            }
+            
+            windowSaturated = true;
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            return waiter;
+        }
+    }
+    
+    /**
+     * Devolve uma permissão e registra o resultado da requisição.
+     * 
+     * @param latencyNanos Latência da requisição em nanossegundos
+     * @param outcome Resultado da requisição
+     */
+    public void release(long latencyNanos, Outcome outcome) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        
+        List<CompletableFuture<Void>> ready = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            
+            switch (outcome) {
+                case SUCCESS:
+                    addSample(latencyNanos);
+                    break;
+                case DROPPED:
+                    droppedCalls.incrementAndGet();
+                    if (!windowDecreased) {
+                        decrease("sobrecarga (429/5xx/erro de I/O)");
+                    }
+                    break;
+                case IGNORED:
+                default:
+                    break;
+            }
+            
+            while (inFlight < limit && !waiters.isEmpty()) {
+                inFlight++;
+                ready.add(waiters.poll());
+            }
+        }
+        
+        // Completa fora do lock: os chamadores continuam o envio na thread atual
+        for (CompletableFuture<Void> waiter : ready) {
+            if (!waiter.complete(null)) {
+                release(0, Outcome.IGNORED);
+            }
+        }
+    }
+    
+    private void addSample(long latencyNanos) {
+        samples[sampleCount++] = latencyNanos;
+        if (sampleCount >= Math.min(samples.length, Math.max(MIN_WINDOW_SIZE, limit))) {
+            evaluateWindow();
+        }
+    }
+    
+    /**
+     * Avalia a janela de amostras e aplica o aumento aditivo ou a redução multiplicativa.
+     */
+    private void evaluateWindow() {
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        long p50 = sorted[sorted.length / 2];
+        lastP50Nanos = p50;
+        
+        boolean latencyInflated = baselineLatencyNanos > 0
+            && p50 > baselineLatencyNanos * config.getLatencyTolerance();
+        
+        if (latencyInflated && !windowDecreased) {
+            decrease("latência p50 " + TimeUnit.NANOSECONDS.toMillis(p50) + "ms acima da base "
+                     + TimeUnit.NANOSECONDS.toMillis(baselineLatencyNanos) + "ms");
+        } else if (!latencyInflated && !windowDecreased && windowSaturated && limit < config.getMaxLimit()) {
+            limit++;
+            logger.debug("Limite de concorrência de {} aumentado para {}", name, limit);
+        }
+        
+        // A latência base acompanha o menor p50 e sobe lentamente para se adaptar a mudanças da API
+        if (baselineLatencyNanos == 0 || p50 < baselineLatencyNanos) {
+            baselineLatencyNanos = p50;
+        } else {
+            baselineLatencyNanos += (long) ((p50 - baselineLatencyNanos) * BASELINE_DRIFT);
+        }
+        
+        sampleCount = 0;
+        windowSaturated = inFlight >= limit;
+        windowDecreased = false;
+    }
+    
+    private void decrease(String reason) {
+        int previous = limit;
+        limit = Math.max(config.getMinLimit(), (int) (limit * config.getBackoffRatio()));
+        windowDecreased = true;
+        logger.warn("Limite de concorrência de {} reduzido de {} para {} | Motivo: {}", name, previous, limit, reason);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+    
+    /**
+     * Retorna o limite atual de requisições simultâneas.
+     */
+    public synchronized int getLimit() {
+        return limit;
+    }
+    
+    /**
+     * Retorna o número de requisições em andamento.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+    
+    /**
+     * Retorna o número de requisições aguardando capacidade.
+     */
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+    
+    /**
+     * Retorna a latência base (ms) usada para detectar inflação de latência.
+     */
+    public synchronized long getBaselineLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(baselineLatencyNanos);
+    }
+    
+    /**
+     * Retorna a latência p50 (ms) da última janela avaliada.
+     */
+    public synchronized long getLastP50Millis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastP50Nanos);
+    }
+    
+    public long getDroppedCalls() {
+        return droppedCalls.get();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: Limite: %d | Em andamento: %d | Na fila: %d | p50: %dms | Base: %dms | Sobrecargas: %d",
+            name, getLimit(), getInFlight(), getQueued(), getLastP50Millis(), getBaselineLatencyMillis(), getDroppedCalls());
+    }
+}
@@ -0,0 +1,61 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro global de controles de concorrência, um por API de destino.
+ * Compartilhado entre todos os jobs que enviam para a mesma API.
+ */
+public class ConcurrencyLimiterRegistry {
+    
+    private static final Logger logger = LoggerUtil.getLogger(ConcurrencyLimiterRegistry.class);
+    
+    private final Map<String, ConcurrencyLimiter> concurrencyLimiters;
+    
+    private ConcurrencyLimiterRegistry() {
+        this.concurrencyLimiters = new ConcurrentHashMap<>();
+    }
+    
+    public static ConcurrencyLimiterRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final ConcurrencyLimiterRegistry INSTANCE = new ConcurrencyLimiterRegistry();
+    }
+    
+    /**
+     * Obtém ou cria o controle de concorrência da API informada.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter(ApiConfig config) {
+        return concurrencyLimiters.computeIfAbsent(getKey(config), key -> {
+            logger.debug("Controle de concorrência criado para: {}", key);
+            return new ConcurrencyLimiter(key, config.getConcurrencyLimit());
+        });
+    }
+    
+    /**
+     * Retorna todos os controles de concorrência registrados.
+     */
+    public List<ConcurrencyLimiter> getAll() {
+        return new ArrayList<>(concurrencyLimiters.values());
+    }
+    
+    /**
+     * Remove o controle de concorrência de uma API (ex: após alteração da configuração).
+     */
+    public void remove(String name) {
+        concurrencyLimiters.remove(name);
+    }
+    
+    private String getKey(ApiConfig config) {
+        return config.getName() != null ? config.getName() : config.buildFullUrl();
+    }
+}
@@ -0,0 +1,74 @@
+package com.plugway.etl.service.load;
+
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BodyPublisher que conta os bytes entregues ao HttpClient para escrita no socket.
+ * Bodies comprimidos ou em streaming não têm tamanho conhecido antes do envio;
+ * a contagem registra o tamanho real do body (após a compressão).
+ * 
+ * Cada nova assinatura (ex: reenvio em redirect 307/308) reinicia a contagem.
+ */
+final class CountingBodyPublisher implements HttpRequest.BodyPublisher {
+    
+    private final HttpRequest.BodyPublisher delegate;
+    private final AtomicLong bytesSent;
+    
+    CountingBodyPublisher(HttpRequest.BodyPublisher delegate) {
+        this.delegate = delegate;
+        this.bytesSent = new AtomicLong(-1);
+    }
+    
+    /**
+     * Retorna os bytes enviados na requisição, ou -1 se ela não tem body contado
+     * ou o body ainda não começou a ser escrito.
+     */
+    static long bytesSent(HttpRequest request) {
+        if (request == null) {
+            return -1;
+        }
+        return request.bodyPublisher()
+                .filter(CountingBodyPublisher.class::isInstance)
+                .map(publisher -> ((CountingBodyPublisher) publisher).getBytesSent())
+                .orElse(-1L);
+    }
+    
+    long getBytesSent() {
+        return bytesSent.get();
+    }
+    
+    @Override
+    public long contentLength() {
+        return delegate.contentLength();
+    }
+    
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        bytesSent.set(0);
+        delegate.subscribe(new Flow.Subscriber<ByteBuffer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscriber.onSubscribe(subscription);
+            }
+            
+            @Override
+            public void onNext(ByteBuffer item) {
+                bytesSent.addAndGet(item.remaining());
+                subscriber.onNext(item);
+            }
+            
+            @Override
+            public void onError(Throwable throwable) {
+                subscriber.onError(throwable);
+            }
+            
+            @Override
+            public void onComplete() {
+                subscriber.onComplete();
+            }
+        });
+    }
+}
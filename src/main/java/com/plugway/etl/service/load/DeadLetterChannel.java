@@ -1,19 +1,40 @@
 package com.plugway.etl.service.load;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plugway.etl.model.ApiConfig;
 import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.model.RateLimitConfig;
+import com.plugway.etl.util.JsonUtil;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * Dead Letter Channel para armazenar mensagens que falharam ao ser enviadas.
@@ -23,152 +44,864 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * - Armazena mensagens que não puderam ser entregues
  * - Permite reprocessamento posterior
  * - Evita perda de dados
+ * 
+ * Instância única por processo, persistida em um log append-only segmentado
+ * (data/dead-letter/segment-NNNNNNNN.log). Cada registro é uma linha JSON de metadados
+ * seguida do payload bruto; mensagens reprocessadas recebem um registro de confirmação.
+ * Em memória fica apenas o índice de metadados das mensagens pendentes (por API, job e motivo),
+ * e segmentos sem mensagens pendentes são removidos.
  */
 public class DeadLetterChannel {
     
     private static final Logger logger = LoggerUtil.getLogger(DeadLetterChannel.class);
     
-    private final List<FailedMessage> failedMessages;
-    private final Path deadLetterDirectory;
-    private final boolean persistToFile;
+    private static final Path DEFAULT_DIRECTORY = Paths.get("data", "dead-letter");
+    private static final long DEFAULT_SEGMENT_MAX_BYTES = 16L * 1024 * 1024; // 16MB
+    private static final int DEFAULT_MAX_SEGMENTS = 64;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    
+    private static final String TYPE_ENTRY = "entry";
+    private static final String TYPE_ACK = "ack";
+    private static final String PAYLOAD_TEXT = "text";
+    private static final String PAYLOAD_STREAM = "stream";
+    
+    /**
+     * Header com o número de vezes que a mensagem foi reprocessada a partir do DLQ.
+     */
+    public static final String REPLAY_COUNT_HEADER = "deadLetter.replays";
+    
+    /**
+     * Operação usada para reenviar uma mensagem pelo caminho de carga.
+     */
+    @FunctionalInterface
+    interface ReplaySender {
+        boolean send(ApiConfig config, EtlMessage message) throws Exception;
+    }
+    
+    private final Path directory;
+    private final long segmentMaxBytes;
+    private final int maxSegments;
+    private final ObjectMapper objectMapper;
     
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    // Índice das mensagens pendentes (somente metadados; os payloads ficam nos segmentos)
+    private final Map<Long, FailedMessage> pending;
+    private final Map<String, Integer> countsByTarget;
+    private final Map<String, Integer> countsByJob;
+    private final Map<String, Integer> countsByReason;
+    private final TreeMap<Long, Integer> pendingBySegment;
+    private final TreeSet<Long> segments;
     
-    public DeadLetterChannel() {
-        this(true);
+    private FileChannel activeSegment;
+    private long activeSegmentId;
+    private long activeSegmentSize;
+    private long nextSequence;
+    private long droppedMessages;
+    
+    private DeadLetterChannel() {
+        this(DEFAULT_DIRECTORY, DEFAULT_SEGMENT_MAX_BYTES, DEFAULT_MAX_SEGMENTS);
     }
     
-    public DeadLetterChannel(boolean persistToFile) {
-        this.failedMessages = new CopyOnWriteArrayList<>();
-        this.persistToFile = persistToFile;
-        this.deadLetterDirectory = Paths.get("data", "dead-letter");
+    DeadLetterChannel(Path directory, long segmentMaxBytes, int maxSegments) {
+        this.directory = directory;
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.maxSegments = Math.max(1, maxSegments);
+        this.objectMapper = JsonUtil.mapper();
+        this.pending = new LinkedHashMap<>();
+        this.countsByTarget = new HashMap<>();
+        this.countsByJob = new HashMap<>();
+        this.countsByReason = new HashMap<>();
+        this.pendingBySegment = new TreeMap<>();
+        this.segments = new TreeSet<>();
+        this.nextSequence = 1;
         
-        if (persistToFile) {
-            try {
-                Files.createDirectories(deadLetterDirectory);
-                logger.info("Dead Letter Channel inicializado. Diretório: {}", deadLetterDirectory);
-            } catch (IOException e) {
-                logger.error("Erro ao criar diretório de Dead Letter Channel", e);
-            }
+        try {
+            Files.createDirectories(directory);
+            recover();
+            logger.info("Dead Letter Channel inicializado. Diretório: {} | Pendentes: {}", directory, pending.size());
+        } catch (IOException e) {
+            logger.error("Erro ao inicializar Dead Letter Channel", e);
         }
     }
     
+    /**
+     * Obtém instância singleton do Dead Letter Channel.
+     */
+    public static DeadLetterChannel getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final DeadLetterChannel INSTANCE = new DeadLetterChannel();
+    }
+    
     /**
      * Envia uma mensagem para o Dead Letter Channel.
      * 
+     * @param target Nome da API de destino
      * @param message Mensagem que falhou
      * @param reason Motivo da falha
      */
-    public void send(EtlMessage message, String reason) {
+    public synchronized void send(String target, EtlMessage message, String reason) {
         if (message == null) {
             logger.warn("Tentativa de enviar mensagem null para Dead Letter Channel");
             return;
         }
         
-        FailedMessage failedMessage = new FailedMessage(message, reason, LocalDateTime.now());
-        failedMessages.add(failedMessage);
-        
-        logger.warn("Mensagem enviada para Dead Letter Channel: {} | Motivo: {}", 
+        logger.warn("Mensagem enviada para Dead Letter Channel: {} | Motivo: {}",
                    message.getMessageId(), reason);
         
-        // Persiste em arquivo se configurado
-        if (persistToFile) {
-            persistToFile(failedMessage);
+        try {
+            append(target, message, reason);
+        } catch (IOException e) {
+            logger.error("Erro ao persistir mensagem falhada no Dead Letter Channel", e);
         }
     }
     
     /**
-     * Persiste uma mensagem falhada em arquivo.
+     * Grava o registro da mensagem no segmento ativo e atualiza o índice.
      */
-    private void persistToFile(FailedMessage failedMessage) {
+    private void append(String target, EtlMessage message, String reason) throws IOException {
+        if (activeSegment == null) {
+            throw new IOException("Dead Letter Channel não inicializado");
+        }
+        if (activeSegmentSize >= segmentMaxBytes) {
+            rollSegment();
+        }
+        
+        Object payload = message.getPayload();
+        StreamingPayload streamingPayload = null;
+        boolean ownsStreamingPayload = false;
+        byte[] textPayload = null;
+        
+        if (payload instanceof StreamingPayload) {
+            streamingPayload = (StreamingPayload) payload;
+            if (streamingPayload.getLength() < 0) {
+                // Tamanho desconhecido: grava em spill para conhecer o tamanho antes do registro
+                try (InputStream in = streamingPayload.openStream()) {
+                    streamingPayload = StreamingPayload.spill(in).withContentType(streamingPayload.getContentType());
+                }
+                ownsStreamingPayload = true;
+            }
+        } else if (payload instanceof String) {
+            textPayload = ((String) payload).getBytes(StandardCharsets.UTF_8);
+        } else if (payload != null) {
+            textPayload = objectMapper.writeValueAsBytes(payload);
+        } else {
+            textPayload = new byte[0];
+        }
+        
         try {
-            String timestamp = failedMessage.getTimestamp().format(DATE_FORMATTER);
-            String filename = String.format("failed_%s_%s.json", 
-                                           failedMessage.getMessage().getMessageId(), 
-                                           timestamp);
-            Path filePath = deadLetterDirectory.resolve(filename);
+            long sequence = nextSequence++;
+            long timestamp = System.currentTimeMillis();
+            String jobId = message.getHeader("jobId");
+            long length = streamingPayload != null ? streamingPayload.getLength() : textPayload.length;
             
-            // Cria JSON com informações da mensagem falhada
-            StringBuilder json = new StringBuilder();
-            json.append("{\n");
-            json.append("  \"messageId\": \"").append(failedMessage.getMessage().getMessageId()).append("\",\n");
-            json.append("  \"correlationId\": \"").append(failedMessage.getMessage().getCorrelationId()).append("\",\n");
-            json.append("  \"timestamp\": \"").append(failedMessage.getTimestamp()).append("\",\n");
-            json.append("  \"reason\": \"").append(escapeJson(failedMessage.getReason())).append("\",\n");
-            json.append("  \"payload\": ").append(failedMessage.getMessage().getPayload()).append("\n");
-            json.append("}\n");
+            Map<String, Object> header = new LinkedHashMap<>();
+            header.put("type", TYPE_ENTRY);
+            header.put("seq", sequence);
+            header.put("ts", timestamp);
+            header.put("target", target);
+            header.put("jobId", jobId);
+            header.put("reason", reason);
+            header.put("messageId", message.getMessageId());
+            header.put("correlationId", message.getCorrelationId());
+            header.put("headers", message.getHeaders());
+            header.put("payloadType", streamingPayload != null ? PAYLOAD_STREAM : PAYLOAD_TEXT);
+            if (streamingPayload != null) {
+                header.put("contentType", streamingPayload.getContentType());
+            }
+            header.put("length", length);
             
-            Files.writeString(filePath, json.toString(), StandardOpenOption.CREATE, 
-                            StandardOpenOption.WRITE);
+            long recordOffset = activeSegmentSize;
+            long position = recordOffset;
+            try {
+                position += writeFully(headerLine(header), position);
+                long payloadOffset = position;
+                if (streamingPayload != null) {
+                    try (InputStream in = streamingPayload.openStream()) {
+                        position += copyPayload(in, length, position);
+                    }
+                } else {
+                    position += writeFully(ByteBuffer.wrap(textPayload), position);
+                }
+                position += writeFully(ByteBuffer.wrap(new byte[] {'\n'}), position);
+                activeSegment.force(false);
+                
+                activeSegmentSize = position;
+                index(new FailedMessage(sequence, toLocalDateTime(timestamp), target, jobId, reason,
+                                        message.getMessageId(), activeSegmentId, recordOffset,
+                                        payloadOffset, length));
+                                        
+            } catch (IOException e) {
+                // Descarta o registro parcial para manter o log consistente
+                activeSegment.truncate(recordOffset);
+                throw e;
+            }
             
-            logger.debug("Mensagem falhada persistida em: {}", filePath);
+        } finally {
+            if (ownsStreamingPayload) {
+                streamingPayload.close();
+            }
+        }
+    }
+    
+    /**
+     * Confirma o reprocessamento de uma mensagem, removendo-a das pendentes.
+     */
+    public synchronized void acknowledge(FailedMessage failedMessage) throws IOException {
+        if (failedMessage == null || !pending.containsKey(failedMessage.getSequence())) {
+            return;
+        }
+        if (activeSegment == null) {
+            throw new IOException("Dead Letter Channel não inicializado");
+        }
+        
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("type", TYPE_ACK);
+        header.put("seq", failedMessage.getSequence());
+        header.put("ts", System.currentTimeMillis());
+        
+        activeSegmentSize += writeFully(headerLine(header), activeSegmentSize);
+        activeSegment.force(false);
+        
+        unindex(failedMessage.getSequence());
+        deleteObsoleteSegments();
+    }
+    
+    /**
+     * Lista as mensagens pendentes que atendem aos filtros (null = qualquer valor),
+     * da mais antiga para a mais recente.
+     * 
+     * @param target Nome da API de destino
+     * @param jobId ID do job
+     * @param reasonCategory Categoria do motivo (ex: "HTTP 503", "HttpTimeoutException")
+     * @param limit Número máximo de mensagens
+     */
+    public synchronized List<FailedMessage> list(String target, String jobId, String reasonCategory, int limit) {
+        List<FailedMessage> result = new ArrayList<>();
+        for (FailedMessage failedMessage : pending.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (failedMessage.matches(target, jobId, reasonCategory)) {
+                result.add(failedMessage);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Reconstrói a mensagem original a partir do log.
+     * Payloads em streaming são relidos do segmento a cada tentativa de envio.
+     */
+    public EtlMessage readMessage(FailedMessage failedMessage) throws IOException {
+        Path segmentFile = segmentPath(failedMessage.getSegmentId());
+        JsonNode header;
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+            int headerLength = (int) (failedMessage.getPayloadOffset() - failedMessage.getRecordOffset() - 1);
+            header = objectMapper.readTree(readBytes(channel, failedMessage.getRecordOffset(), headerLength));
             
-        } catch (IOException e) {
-            logger.error("Erro ao persistir mensagem falhada em arquivo", e);
+            EtlMessage message;
+            long payloadOffset = failedMessage.getPayloadOffset();
+            long length = failedMessage.getPayloadLength();
+            if (PAYLOAD_STREAM.equals(header.path("payloadType").asText())) {
+                StreamingPayload payload = StreamingPayload.of(
+                    () -> openSlice(segmentFile, payloadOffset, length), length)
+                    .withContentType(textOrNull(header, "contentType"));
+                message = new EtlMessage(payload);
+            } else {
+                message = new EtlMessage(new String(readBytes(channel, payloadOffset, (int) length),
+                                                    StandardCharsets.UTF_8));
+            }
+            
+            message.setMessageId(failedMessage.getMessageId());
+            message.setCorrelationId(textOrNull(header, "correlationId"));
+            Iterator<Map.Entry<String, JsonNode>> headers = header.path("headers").fields();
+            while (headers.hasNext()) {
+                Map.Entry<String, JsonNode> entry = headers.next();
+                message.addHeader(entry.getKey(), entry.getValue().asText());
+            }
+            return message;
         }
     }
     
     /**
-     * Escapa caracteres especiais para JSON.
+     * Reenvia pelo caminho de carga as mensagens pendentes de uma API, com limite de taxa.
+     * 
+     * @param config Configuração da API de destino
+     * @param jobId Filtro por job (null = todos)
+     * @param reasonCategory Filtro por categoria do motivo (null = todos)
+     * @param messagesPerSecond Taxa máxima de reenvio (0 = sem limite)
+     * @param maxMessages Número máximo de mensagens a reenviar
+     * @return Resultado do reprocessamento
      */
-    private String escapeJson(String str) {
-        if (str == null) {
-            return "";
+    public ReplayResult replay(ApiConfig config, String jobId, String reasonCategory,
+                               double messagesPerSecond, int maxMessages) {
+        // Um único endpoint para todas as mensagens, reaproveitando as conexões HTTP;
+        // falhas do reenvio voltam para este mesmo canal
+        LoadService loadService = new LoadService();
+        RestApiEndpoint endpoint = new RestApiEndpoint(config, this);
+        return replay(config, jobId, reasonCategory, messagesPerSecond, maxMessages,
+                      (target, message) -> loadService.load(endpoint, message));
+    }
+    
+    ReplayResult replay(ApiConfig config, String jobId, String reasonCategory,
+                        double messagesPerSecond, int maxMessages, ReplaySender sender) {
+        List<FailedMessage> candidates = list(config.getName(), jobId, reasonCategory, maxMessages);
+        ReplayResult result = new ReplayResult(candidates.size());
+        RateLimiter throttle = createThrottle(messagesPerSecond);
+        
+        logger.info("Reprocessando {} mensagens do Dead Letter Channel para: {}", candidates.size(), config.getName());
+        
+        for (FailedMessage failedMessage : candidates) {
+            if (throttle != null) {
+                throttle.acquire(0).join();
+            }
+            
+            EtlMessage message;
+            try {
+                message = readMessage(failedMessage);
+            } catch (IOException e) {
+                logger.error("Erro ao ler mensagem {} do Dead Letter Channel", failedMessage.getSequence(), e);
+                result.unreadable++;
+                continue;
+            }
+            
+            String replays = message.getHeader(REPLAY_COUNT_HEADER);
+            message.addHeader(REPLAY_COUNT_HEADER, String.valueOf(replays != null ? Integer.parseInt(replays) + 1 : 1));
+            
+            long sequenceBefore = getNextSequence();
+            try {
+                if (sender.send(config, message)) {
+                    acknowledge(failedMessage);
+                    result.delivered++;
+                    continue;
+                }
+            } catch (Exception e) {
+                if (!wasRequeuedSince(sequenceBefore, message.getMessageId())) {
+                    // API indisponível (ex: Circuit Breaker aberto): mantém as mensagens e interrompe
+                    logger.warn("Reprocessamento interrompido para {}: {}", config.getName(), e.getMessage());
+                    result.aborted = true;
+                    break;
+                }
+            }
+            
+            // A falha já gerou um novo registro no DLQ; o registro original é confirmado
+            try {
+                acknowledge(failedMessage);
+            } catch (IOException e) {
+                logger.error("Erro ao confirmar mensagem {} do Dead Letter Channel", failedMessage.getSequence(), e);
+            }
+            result.failed++;
+        }
+        
+        logger.info("Reprocessamento do Dead Letter Channel concluído para {}: {}", config.getName(), result);
+        return result;
+    }
+    
+    private RateLimiter createThrottle(double messagesPerSecond) {
+        if (messagesPerSecond <= 0) {
+            return null;
         }
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
+        RateLimitConfig rateLimitConfig = new RateLimitConfig();
+        rateLimitConfig.setEnabled(true);
+        rateLimitConfig.setRequestsPerSecond(messagesPerSecond);
+        rateLimitConfig.setRequestBurst(1);
+        rateLimitConfig.setAdaptive(false);
+        return new RateLimiter("dead-letter-replay", rateLimitConfig);
+    }
+    
+    private synchronized long getNextSequence() {
+        return nextSequence;
+    }
+    
+    private synchronized boolean wasRequeuedSince(long sequence, String messageId) {
+        return pending.values().stream()
+            .anyMatch(failedMessage -> failedMessage.getSequence() >= sequence
+                                       && messageId.equals(failedMessage.getMessageId()));
     }
     
     /**
-     * Retorna todas as mensagens falhadas.
+     * Retorna o número de mensagens pendentes.
      */
-    public List<FailedMessage> getFailedMessages() {
-        return new ArrayList<>(failedMessages);
+    public synchronized int getFailedMessageCount() {
+        return pending.size();
     }
     
     /**
-     * Retorna o número de mensagens falhadas.
+     * Retorna o número de mensagens pendentes de uma API.
      */
-    public int getFailedMessageCount() {
-        return failedMessages.size();
+    public synchronized int countByTarget(String target) {
+        return countsByTarget.getOrDefault(target, 0);
+    }
+    
+    /**
+     * Retorna o número de mensagens pendentes de um job.
+     */
+    public synchronized int countByJob(String jobId) {
+        return countsByJob.getOrDefault(jobId, 0);
+    }
+    
+    /**
+     * Retorna o número de mensagens pendentes por categoria de motivo.
+     */
+    public synchronized Map<String, Integer> getCountsByReason() {
+        return new HashMap<>(countsByReason);
+    }
+    
+    /**
+     * Retorna o número de mensagens descartadas por exceder a retenção de segmentos.
+     */
+    public synchronized long getDroppedMessages() {
+        return droppedMessages;
+    }
+    
+    /**
+     * Retorna todas as mensagens pendentes (somente metadados).
+     */
+    public List<FailedMessage> getFailedMessages() {
+        return list(null, null, null, Integer.MAX_VALUE);
     }
     
     /**
      * Limpa todas as mensagens falhadas.
      */
-    public void clear() {
-        failedMessages.clear();
-        logger.info("Dead Letter Channel limpo");
+    public synchronized void clear() {
+        try {
+            closeActiveSegment();
+            for (Long segmentId : new ArrayList<>(segments)) {
+                Files.deleteIfExists(segmentPath(segmentId));
+            }
+            segments.clear();
+            pending.clear();
+            pendingBySegment.clear();
+            countsByTarget.clear();
+            countsByJob.clear();
+            countsByReason.clear();
+            openSegment(activeSegmentId + 1);
+            logger.info("Dead Letter Channel limpo");
+        } catch (IOException e) {
+            logger.error("Erro ao limpar Dead Letter Channel", e);
+        }
+    }
+    
+    /**
+     * Reconstrói o índice lendo os segmentos existentes e abre o segmento ativo.
+     */
+    private void recover() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                                               name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.debug("Arquivo ignorado no Dead Letter Channel: {}", name);
+                }
+            }
+        }
+        
+        for (Long segmentId : segments) {
+            recoverSegment(segmentId);
+        }
+        
+        if (segments.isEmpty()) {
+            openSegment(1);
+        } else {
+            openSegment(segments.last());
+        }
+        deleteObsoleteSegments();
+    }
+    
+    private void recoverSegment(long segmentId) throws IOException {
+        Path file = segmentPath(segmentId);
+        long validLength = 0;
+        
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), COPY_BUFFER_SIZE)) {
+            byte[] line;
+            while ((line = readLine(in)) != null) {
+                JsonNode header = objectMapper.readTree(line);
+                long payloadOffset = validLength + line.length + 1;
+                String type = header.path("type").asText();
+                long sequence = header.path("seq").asLong();
+                nextSequence = Math.max(nextSequence, sequence + 1);
+                
+                if (TYPE_ENTRY.equals(type)) {
+                    long length = header.path("length").asLong();
+                    skipFully(in, length + 1);
+                    index(new FailedMessage(sequence, toLocalDateTime(header.path("ts").asLong()),
+                                            textOrNull(header, "target"), textOrNull(header, "jobId"),
+                                            textOrNull(header, "reason"), textOrNull(header, "messageId"),
+                                            segmentId, validLength, payloadOffset, length));
+                    validLength = payloadOffset + length + 1;
+                } else {
+                    if (TYPE_ACK.equals(type)) {
+                        unindex(sequence);
+                    }
+                    validLength = payloadOffset;
+                }
+            }
+        } catch (IOException e) {
+            // Registro incompleto (ex: queda durante a gravação): descarta o final do segmento
+            logger.warn("Segmento do Dead Letter Channel truncado em {} bytes: {}", validLength, file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+    }
+    
+    private void openSegment(long segmentId) throws IOException {
+        activeSegmentId = segmentId;
+        activeSegment = FileChannel.open(segmentPath(segmentId), StandardOpenOption.CREATE,
+                                         StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeSegmentSize = activeSegment.size();
+        segments.add(segmentId);
+    }
+    
+    private void closeActiveSegment() throws IOException {
+        if (activeSegment != null) {
+            activeSegment.close();
+            activeSegment = null;
+        }
+    }
+    
+    /**
+     * Fecha o segmento ativo, abre o próximo e aplica o limite de segmentos retidos.
+     */
+    private void rollSegment() throws IOException {
+        closeActiveSegment();
+        openSegment(activeSegmentId + 1);
+        
+        while (segments.size() > maxSegments) {
+            long oldest = segments.first();
+            int dropped = 0;
+            Iterator<FailedMessage> iterator = pending.values().iterator();
+            while (iterator.hasNext()) {
+                FailedMessage failedMessage = iterator.next();
+                if (failedMessage.getSegmentId() == oldest) {
+                    iterator.remove();
+                    decrementCounts(failedMessage);
+                    dropped++;
+                }
+            }
+            pendingBySegment.remove(oldest);
+            droppedMessages += dropped;
+            segments.remove(oldest);
+            Files.deleteIfExists(segmentPath(oldest));
+            logger.warn("Limite de segmentos do Dead Letter Channel atingido. {} mensagens descartadas", dropped);
+        }
+        
+        deleteObsoleteSegments();
+    }
+    
+    /**
+     * Remove os segmentos anteriores ao mais antigo com mensagens pendentes.
+     * As confirmações de um segmento só referenciam registros dele ou de segmentos anteriores,
+     * portanto a remoção nunca "ressuscita" mensagens já reprocessadas.
+     */
+    private void deleteObsoleteSegments() {
+        long oldestPending = pendingBySegment.isEmpty() ? activeSegmentId : pendingBySegment.firstKey();
+        while (!segments.isEmpty() && segments.first() < oldestPending) {
+            long segmentId = segments.pollFirst();
+            try {
+                Files.deleteIfExists(segmentPath(segmentId));
+                logger.debug("Segmento do Dead Letter Channel removido: {}", segmentId);
+            } catch (IOException e) {
+                logger.warn("Erro ao remover segmento do Dead Letter Channel: {}", segmentId, e);
+            }
+        }
+    }
+    
+    private void index(FailedMessage failedMessage) {
+        pending.put(failedMessage.getSequence(), failedMessage);
+        pendingBySegment.merge(failedMessage.getSegmentId(), 1, Integer::sum);
+        countsByTarget.merge(String.valueOf(failedMessage.getTarget()), 1, Integer::sum);
+        countsByJob.merge(String.valueOf(failedMessage.getJobId()), 1, Integer::sum);
+        countsByReason.merge(failedMessage.getReasonCategory(), 1, Integer::sum);
+    }
+    
+    private void unindex(long sequence) {
+        FailedMessage failedMessage = pending.remove(sequence);
+        if (failedMessage != null) {
+            pendingBySegment.computeIfPresent(failedMessage.getSegmentId(), (key, count) -> count > 1 ? count - 1 : null);
+            decrementCounts(failedMessage);
+        }
+    }
+    
+    private void decrementCounts(FailedMessage failedMessage) {
+        countsByTarget.computeIfPresent(String.valueOf(failedMessage.getTarget()), (key, count) -> count > 1 ? count - 1 : null);
+        countsByJob.computeIfPresent(String.valueOf(failedMessage.getJobId()), (key, count) -> count > 1 ? count - 1 : null);
+        countsByReason.computeIfPresent(failedMessage.getReasonCategory(), (key, count) -> count > 1 ? count - 1 : null);
+    }
+    
+    private ByteBuffer headerLine(Map<String, Object> header) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(header);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1);
+        buffer.put(json).put((byte) '\n').flip();
+        return buffer;
+    }
+    
+    private int writeFully(ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += activeSegment.write(buffer, position + written);
+        }
+        return written;
+    }
+    
+    private long copyPayload(InputStream in, long length, long position) throws IOException {
+        byte[] chunk = new byte[COPY_BUFFER_SIZE];
+        long copied = 0;
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            if (copied + read > length) {
+                throw new IOException("Payload maior que o tamanho informado: " + length);
+            }
+            copied += writeFully(ByteBuffer.wrap(chunk, 0, read), position + copied);
+        }
+        if (copied != length) {
+            throw new IOException("Payload menor que o tamanho informado: " + copied + " de " + length);
+        }
+        return copied;
+    }
+    
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+    
+    /**
+     * Lê uma linha terminada em '\n'. Retorna null no fim do arquivo.
+     */
+    private static byte[] readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                return line.toByteArray();
+            }
+            line.write(b);
+        }
+        if (line.size() > 0) {
+            throw new EOFException("Linha incompleta");
+        }
+        return null;
+    }
+    
+    private static void skipFully(InputStream in, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    throw new EOFException("Payload incompleto");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+    
+    private static byte[] readBytes(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                throw new EOFException("Registro incompleto no Dead Letter Channel");
+            }
+        }
+        return buffer.array();
+    }
+    
+    /**
+     * Abre um stream limitado a um trecho do segmento.
+     */
+    private static InputStream openSlice(Path file, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        channel.position(offset);
+        return new FilterInputStream(Channels.newInputStream(channel)) {
+            private long remaining = length;
+            
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int b = super.read();
+                if (b != -1) {
+                    remaining--;
+                }
+                return b;
+            }
+            
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int read = super.read(buffer, off, (int) Math.min(len, remaining));
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            }
+        };
+    }
+    
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+    
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+    
+    /**
+     * Extrai a categoria do motivo (ex: "HTTP 503 (após retries): ..." → "HTTP 503").
+     */
+    static String categorize(String reason) {
+        if (reason == null || reason.isEmpty()) {
+            return "Desconhecido";
+        }
+        String category = reason;
+        int colon = category.indexOf(':');
+        if (colon > 0) {
+            category = category.substring(0, colon);
+        }
+        int parenthesis = category.indexOf(" (");
+        if (parenthesis > 0) {
+            category = category.substring(0, parenthesis);
+        }
+        return category.trim();
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("Dead Letter Channel: %d pendentes | Segmentos: %d | Descartadas: %d | Motivos: %s",
+            pending.size(), segments.size(), droppedMessages, countsByReason);
     }
     
     /**
-     * Classe interna para representar uma mensagem falhada.
+     * Metadados de uma mensagem falhada e sua posição no log.
      */
     public static class FailedMessage {
-        private final EtlMessage message;
-        private final String reason;
+        private final long sequence;
         private final LocalDateTime timestamp;
+        private final String target;
+        private final String jobId;
+        private final String reason;
+        private final String reasonCategory;
+        private final String messageId;
+        private final long segmentId;
+        private final long recordOffset;
+        private final long payloadOffset;
+        private final long payloadLength;
         
-        public FailedMessage(EtlMessage message, String reason, LocalDateTime timestamp) {
-            this.message = message;
-            this.reason = reason;
+        FailedMessage(long sequence, LocalDateTime timestamp, String target, String jobId, String reason,
+                      String messageId, long segmentId, long recordOffset, long payloadOffset, long payloadLength) {
+            this.sequence = sequence;
             this.timestamp = timestamp;
+            this.target = target;
+            this.jobId = jobId;
+            this.reason = reason;
+            this.reasonCategory = categorize(reason);
+            this.messageId = messageId;
+            this.segmentId = segmentId;
+            this.recordOffset = recordOffset;
+            this.payloadOffset = payloadOffset;
+            this.payloadLength = payloadLength;
         }
         
-        public EtlMessage getMessage() {
-            return message;
+        boolean matches(String target, String jobId, String reasonCategory) {
+            return (target == null || target.equals(this.target))
+                && (jobId == null || jobId.equals(this.jobId))
+                && (reasonCategory == null || reasonCategory.equals(this.reasonCategory));
         }
         
-        public String getReason() {
-            return reason;
+        public long getSequence() {
+            return sequence;
         }
         
         public LocalDateTime getTimestamp() {
             return timestamp;
         }
+        
+        public String getTarget() {
+            return target;
+        }
+        
+        public String getJobId() {
+            return jobId;
+        }
+        
+        public String getReason() {
+            return reason;
+        }
+        
+        public String getReasonCategory() {
+            return reasonCategory;
+        }
+        
+        public String getMessageId() {
+            return messageId;
+        }
+        
+        public long getPayloadLength() {
+            return payloadLength;
+        }
+        
+        long getSegmentId() {
+            return segmentId;
+        }
+        
+        long getRecordOffset() {
+            return recordOffset;
+        }
+        
+        long getPayloadOffset() {
+            return payloadOffset;
+        }
     }
-}
 
+    /**
+     * Resultado de um reprocessamento em lote.
+     */
+    public static class ReplayResult {
+        private final int candidates;
+        private int delivered;
+        private int failed;
+        private int unreadable;
+        private boolean aborted;
+        
+        ReplayResult(int candidates) {
+            this.candidates = candidates;
+        }
+        
+        public int getCandidates() {
+            return candidates;
+        }
+        
+        public int getDelivered() {
+            return delivered;
+        }
+        
+        public int getFailed() {
+            return failed;
+        }
+        
+        public int getUnreadable() {
+            return unreadable;
+        }
+        
+        public boolean isAborted() {
+            return aborted;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Candidatas: %d | Entregues: %d | Falharam novamente: %d | Ilegíveis: %d%s",
+                candidates, delivered, failed, unreadable, aborted ? " | Interrompido" : "");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro local dos lotes já confirmados pelas APIs de destino.
+ * Permite que reexecuções pulem lotes entregues em vez de reenviá-los.
+ * 
+ * Os registros são mantidos em memória e persistidos em um arquivo append-only
+ * (data/ledger/delivered-batches.log, uma linha "timestamp TAB api TAB chave" por lote).
+ * Registros mais antigos que o período de retenção são descartados ao carregar o arquivo.
+ */
+public class DeliveryLedger {
+    
+    private static final Logger logger = LoggerUtil.getLogger(DeliveryLedger.class);
+    private static final String LEDGER_FILE = "delivered-batches.log";
+    private static final Duration DEFAULT_RETENTION = Duration.ofDays(30);
+    
+    private final Map<String, Long> deliveredBatches;
+    private final Path ledgerFile;
+    private final Duration retention;
+    
+    private DeliveryLedger() {
+        this(Paths.get("data", "ledger"), DEFAULT_RETENTION);
+    }
+    
+    DeliveryLedger(Path directory, Duration retention) {
+        this.deliveredBatches = new ConcurrentHashMap<>();
+        this.ledgerFile = directory.resolve(LEDGER_FILE);
+        this.retention = retention;
+        
+        try {
+            Files.createDirectories(directory);
+            load();
+        } catch (IOException e) {
+            logger.error("Erro ao carregar o registro de lotes entregues: {}", ledgerFile, e);
+        }
+    }
+    
+    public static DeliveryLedger getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final DeliveryLedger INSTANCE = new DeliveryLedger();
+    }
+    
+    /**
+     * Verifica se o lote já foi confirmado pela API.
+     */
+    public boolean isDelivered(String apiName, String idempotencyKey) {
+        return deliveredBatches.containsKey(ledgerKey(apiName, idempotencyKey));
+    }
+    
+    /**
+     * Registra um lote confirmado pela API.
+     */
+    public synchronized void markDelivered(String apiName, String idempotencyKey) {
+        String key = ledgerKey(apiName, idempotencyKey);
+        long now = System.currentTimeMillis();
+        if (deliveredBatches.putIfAbsent(key, now) != null) {
+            return;
+        }
+        
+        try {
+            Files.writeString(ledgerFile, now + "\t" + key + "\n", StandardCharsets.UTF_8,
+                              StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.error("Erro ao registrar lote entregue: {}", key, e);
+        }
+    }
+    
+    /**
+     * Retorna o número de lotes registrados.
+     */
+    public int size() {
+        return deliveredBatches.size();
+    }
+    
+    /**
+     * Carrega o arquivo, descartando registros expirados e reescrevendo-o se necessário.
+     */
+    private void load() throws IOException {
+        if (!Files.exists(ledgerFile)) {
+            return;
+        }
+        
+        long cutoff = Instant.now().minus(retention).toEpochMilli();
+        List<String> retained = new ArrayList<>();
+        int expired = 0;
+        
+        for (String line : Files.readAllLines(ledgerFile, StandardCharsets.UTF_8)) {
+            int separator = line.indexOf('\t');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                long timestamp = Long.parseLong(line.substring(0, separator));
+                if (timestamp < cutoff) {
+                    expired++;
+                    continue;
+                }
+                deliveredBatches.put(line.substring(separator + 1), timestamp);
+                retained.add(line);
+            } catch (NumberFormatException e) {
+                logger.debug("Linha inválida no registro de lotes entregues: {}", line);
+            }
+        }
+        
+        if (expired > 0) {
+            Path tempFile = ledgerFile.resolveSibling(LEDGER_FILE + ".tmp");
+            Files.write(tempFile, retained, StandardCharsets.UTF_8);
+            Files.move(tempFile, ledgerFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        
+        logger.info("Registro de lotes entregues carregado: {} lotes | {} expirados", retained.size(), expired);
+    }
+    
+    private String ledgerKey(String apiName, String idempotencyKey) {
+        return apiName + "\t" + idempotencyKey;
+    }
+}
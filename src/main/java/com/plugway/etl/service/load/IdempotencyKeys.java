@@ -0,0 +1,78 @@
+package com.plugway.etl.service.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Geração de chaves de idempotência determinísticas por lote.
+ * A mesma combinação de job, execução, lote e conteúdo sempre gera a mesma chave,
+ * permitindo que a API de destino e o DeliveryLedger descartem reenvios da mesma execução.
+ * Execuções diferentes geram chaves diferentes, mesmo com dados idênticos (ex: carga completa agendada).
+ */
+public final class IdempotencyKeys {
+    
+    public static final String HEADER_NAME = "Idempotency-Key";
+    
+    /**
+     * Headers da EtlMessage usados para montar e transportar a chave.
+     */
+    public static final String MESSAGE_HEADER = "idempotencyKey";
+    public static final String EXECUTION_HEADER = "executionId";
+    public static final String BATCH_ORDINAL_HEADER = "batchOrdinal";
+    
+    private static final int HASH_PREFIX_BYTES = 16;
+    
+    private IdempotencyKeys() {
+    }
+    
+    /**
+     * Monta a chave de um lote.
+     * 
+     * @param jobId ID do job
+     * @param executionId Janela de execução (ID da execução do job)
+     * @param batchOrdinal Posição do lote na execução (0-based)
+     * @param contentHash Hash do conteúdo do lote
+     * @return Chave no formato jobId:execução:lote:hash
+     */
+    public static String forBatch(String jobId, String executionId, int batchOrdinal, String contentHash) {
+        return (jobId != null ? jobId : "job") + ":" + executionId + ":" + batchOrdinal + ":" + contentHash;
+    }
+    
+    /**
+     * Calcula o hash (SHA-256 truncado) do body de um payload.
+     * Payloads em streaming são lidos uma vez sem serem materializados em memória.
+     * 
+     * @param payload JSON em String ou StreamingPayload
+     * @return Hash em hexadecimal
+     */
+    public static String contentHash(Object payload) throws IOException {
+        MessageDigest digest = newDigest();
+        
+        if (payload instanceof StreamingPayload) {
+            byte[] buffer = new byte[8192];
+            try (InputStream in = ((StreamingPayload) payload).openStream()) {
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, n);
+                }
+            }
+        } else if (payload != null) {
+            digest.update(payload.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        
+        byte[] hash = digest.digest();
+        return HexFormat.of().formatHex(hash, 0, HASH_PREFIX_BYTES);
+    }
+    
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+}
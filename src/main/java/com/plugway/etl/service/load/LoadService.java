@@ -5,6 +5,9 @@ import com.plugway.etl.model.EtlMessage;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
 /**
  * Serviço de carga de dados para APIs REST.
  * Facilita o uso do RestApiEndpoint para enviar dados.
@@ -13,8 +16,20 @@ public class LoadService {
     
     private static final Logger logger = LoggerUtil.getLogger(LoadService.class);
     
+    private final DeliveryLedger deliveryLedger;
+    
+    public LoadService() {
+        this(DeliveryLedger.getInstance());
+    }
+    
+    LoadService(DeliveryLedger deliveryLedger) {
+        this.deliveryLedger = deliveryLedger;
+    }
+    
     /**
      * Envia dados para uma API REST usando a configuração fornecida.
+     * Para vários envios à mesma API use {@link #load(RestApiEndpoint, EtlMessage)} com um único
+     * endpoint, reaproveitando o HttpClient e suas conexões.
      * 
      * @param config Configuração da API
      * @param message Mensagem ETL com dados JSON
@@ -22,29 +37,104 @@ public class LoadService {
      * @throws Exception Se ocorrer erro durante o envio
      */
     public boolean load(ApiConfig config, EtlMessage message) throws Exception {
+        return load(new RestApiEndpoint(config), message);
+    }
+    
+    /**
+     * Envia dados pelo endpoint informado.
+     * O endpoint pode ser compartilhado entre os lotes de uma execução.
+     * 
+     * @param endpoint Endpoint da API de destino
+     * @param message Mensagem ETL com dados JSON
+     * @return true se o envio foi bem-sucedido
+     * @throws Exception Se ocorrer erro durante o envio
+     */
+    public boolean load(RestApiEndpoint endpoint, EtlMessage message) throws Exception {
+        try {
+            return loadAsync(endpoint, message).get();
+        } catch (ExecutionException e) {
+            Throwable cause = RetryHandler.unwrap(e);
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Envia dados pelo endpoint informado sem bloquear a thread chamadora.
+     * Permite manter vários lotes de uma execução em envio ao mesmo tempo; quantos chegam
+     * à API simultaneamente é decidido pelo ConcurrencyLimiter do endpoint.
+     * 
+     * @param endpoint Endpoint da API de destino
+     * @param message Mensagem ETL com dados JSON
+     * @return Future que completa com true se o envio foi bem-sucedido
+     */
+    public CompletableFuture<Boolean> loadAsync(RestApiEndpoint endpoint, EtlMessage message) {
+        ApiConfig config = endpoint.getConfig();
         logger.info("Iniciando carga de dados para API: {} | MessageId: {}", 
                    config.getName(), message.getMessageId());
         
-        RestApiEndpoint endpoint = new RestApiEndpoint(config);
-        
         try {
-            endpoint.connect();
-            boolean success = endpoint.send(message);
-            
-            if (success) {
-                logger.info("Carga concluída com sucesso para: {}", config.getName());
-            } else {
-                logger.warn("Carga concluída com falha para: {}", config.getName());
+            String idempotencyKey = null;
+            if (config.isIdempotentDelivery()) {
+                idempotencyKey = prepareIdempotencyKey(message);
+                if (deliveryLedger.isDelivered(config.getName(), idempotencyKey)) {
+                    logger.info("Lote já entregue anteriormente para: {} | Chave: {}. Envio ignorado.",
+                               config.getName(), idempotencyKey);
+                    return CompletableFuture.completedFuture(true);
+                }
             }
             
-            return success;
+            String deliveredKey = idempotencyKey;
+            return endpoint.sendAsync(message).thenApply(success -> {
+                if (success) {
+                    if (deliveredKey != null) {
+                        deliveryLedger.markDelivered(config.getName(), deliveredKey);
+                    }
+                    logger.info("Carga concluída com sucesso para: {}", config.getName());
+                } else {
+                    logger.warn("Carga concluída com falha para: {}", config.getName());
+                }
+                return success;
+            }).whenComplete((success, throwable) -> {
+                if (throwable != null) {
+                    logger.error("Erro ao carregar dados para API: {}", config.getName(), RetryHandler.unwrap(throwable));
+                }
+            });
             
         } catch (Exception e) {
             logger.error("Erro ao carregar dados para API: {}", config.getName(), e);
-            throw e;
-        } finally {
-            // Não desconecta para manter conexão HTTP reutilizável
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Obtém a chave de idempotência da mensagem, gerando-a a partir do job, da execução,
+     * da posição do lote e do hash do conteúdo quando ainda não definida.
+     * Sem ID de execução a janela é a própria mensagem: só o reenvio dela é descartado.
+     */
+    private String prepareIdempotencyKey(EtlMessage message) throws Exception {
+        String idempotencyKey = message.getHeader(IdempotencyKeys.MESSAGE_HEADER);
+        if (idempotencyKey != null) {
+            return idempotencyKey;
         }
+        
+        int batchOrdinal = 0;
+        String ordinalHeader = message.getHeader(IdempotencyKeys.BATCH_ORDINAL_HEADER);
+        if (ordinalHeader != null) {
+            batchOrdinal = Integer.parseInt(ordinalHeader);
+        }
+        
+        String executionId = message.getHeader(IdempotencyKeys.EXECUTION_HEADER);
+        if (executionId == null) {
+            executionId = message.getMessageId();
+        }
+        
+        idempotencyKey = IdempotencyKeys.forBatch(message.getHeader("jobId"), executionId, batchOrdinal,
+                                                  IdempotencyKeys.contentHash(message.getPayload()));
+        message.addHeader(IdempotencyKeys.MESSAGE_HEADER, idempotencyKey);
+        return idempotencyKey;
     }
     
     /**
@@ -78,8 +168,20 @@ public class LoadService {
      * Retorna informações sobre mensagens falhadas (Dead Letter Channel).
      */
     public int getFailedMessageCount(ApiConfig config) {
-        RestApiEndpoint endpoint = new RestApiEndpoint(config);
-        return endpoint.getDeadLetterChannel().getFailedMessageCount();
+        return DeadLetterChannel.getInstance().countByTarget(config.getName());
+    }
+    
+    /**
+     * Reenvia as mensagens falhadas de uma API pelo caminho de carga, com limite de taxa.
+     * 
+     * @param config Configuração da API
+     * @param messagesPerSecond Taxa máxima de reenvio (0 = sem limite)
+     * @param maxMessages Número máximo de mensagens a reenviar
+     * @return Resultado do reprocessamento
+     */
+    public DeadLetterChannel.ReplayResult replayFailedMessages(ApiConfig config, double messagesPerSecond,
+                                                               int maxMessages) {
+        return DeadLetterChannel.getInstance().replay(config, null, null, messagesPerSecond, maxMessages);
     }
 }
 
@@ -0,0 +1,193 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.RateLimitConfig;
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador de taxa (token bucket) para uma API de destino.
+ * Compartilhado por todos os jobs que enviam para a mesma API.
+ * 
+ * - Limita requisições/s e bytes/s, cada um com sua capacidade de burst
+ * - Não bloqueia: a espera é agendada no scheduler compartilhado e devolvida como CompletableFuture
+ * - Adaptativo: ao receber HTTP 429 pausa os envios pelo tempo do Retry-After e reduz a taxa,
+ *   recuperando-a gradualmente a cada resposta bem-sucedida
+ */
+public class RateLimiter {
+    
+    private static final Logger logger = LoggerUtil.getLogger(RateLimiter.class);
+    
+    private static final CompletableFuture<Void> NO_WAIT = CompletableFuture.completedFuture(null);
+    private static final long DEFAULT_THROTTLE_PAUSE_MILLIS = 1000;
+    private static final double MIN_RATE_FACTOR = 0.1;
+    private static final double RATE_RECOVERY_STEP = 0.05;
+    
+    private final String name;
+    private final RateLimitConfig config;
+    private final LongSupplier nanoClock;
+    private final TokenBucket requestBucket;
+    private final TokenBucket byteBucket;
+    
+    private long pausedUntilNanos;
+    private double rateFactor;
+    private final AtomicLong throttledResponses;
+    private final AtomicLong delayedRequests;
+    
+    public RateLimiter(String name, RateLimitConfig config) {
+        this(name, config, System::nanoTime);
+    }
+    
+    RateLimiter(String name, RateLimitConfig config, LongSupplier nanoClock) {
+        this.name = name;
+        this.config = config;
+        this.nanoClock = nanoClock;
+        long now = nanoClock.getAsLong();
+        
+        this.requestBucket = config.getRequestsPerSecond() > 0
+            ? new TokenBucket(config.getRequestsPerSecond(), config.getRequestBurst(), now)
+            : null;
+        
+        long byteBurst = config.getByteBurst() > 0 ? config.getByteBurst() : config.getBytesPerSecond();
+        this.byteBucket = config.getBytesPerSecond() > 0
+            ? new TokenBucket(config.getBytesPerSecond(), byteBurst, now)
+            : null;
+        
+        this.pausedUntilNanos = now;
+        this.rateFactor = 1.0;
+        this.throttledResponses = new AtomicLong();
+        this.delayedRequests = new AtomicLong();
+    }
+    
+    /**
+     * Solicita permissão para enviar uma requisição com o tamanho informado.
+     * 
+     * @param bytes Tamanho aproximado do body da requisição
+     * @return Future que completa quando a requisição pode ser enviada
+     */
+    public CompletableFuture<Void> acquire(long bytes) {
+        if (!config.isEnabled()) {
+            return NO_WAIT;
+        }
+        
+        long waitNanos = reserve(bytes);
+        if (waitNanos <= 0) {
+            return NO_WAIT;
+        }
+        
+        delayedRequests.incrementAndGet();
+        logger.debug("Rate limit atingido para {}. Aguardando {}ms", name, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        RetryHandler.getScheduler().schedule(() -> permit.complete(null), waitNanos, TimeUnit.NANOSECONDS);
+        return permit;
+    }
+    
+    /**
+     * Reserva tokens para uma requisição e retorna quanto tempo esperar antes de enviá-la.
+     * 
+     * @return Tempo de espera em nanossegundos (0 se pode enviar imediatamente)
+     */
+    synchronized long reserve(long bytes) {
+        long now = nanoClock.getAsLong();
+        long wait = Math.max(0, pausedUntilNanos - now);
+        
+        if (requestBucket != null) {
+            wait = Math.max(wait, requestBucket.reserve(1, now, rateFactor));
+        }
+        if (byteBucket != null && bytes > 0) {
+            wait = Math.max(wait, byteBucket.reserve(bytes, now, rateFactor));
+        }
+        
+        return wait;
+    }
+    
+    /**
+     * Ajusta o limitador com base na resposta recebida da API.
+     * 
+     * @param statusCode Status HTTP da resposta
+     * @param retryAfterMillis Valor do header Retry-After em milissegundos (0 se ausente)
+     */
+    public synchronized void onResponse(int statusCode, long retryAfterMillis) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        
+        if (statusCode == 429) {
+            throttledResponses.incrementAndGet();
+            
+            long pauseMillis = retryAfterMillis > 0 ? retryAfterMillis : DEFAULT_THROTTLE_PAUSE_MILLIS;
+            pausedUntilNanos = Math.max(pausedUntilNanos,
+                nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(pauseMillis));
+            
+            if (config.isAdaptive()) {
+                rateFactor = Math.max(MIN_RATE_FACTOR, rateFactor / 2);
+            }
+            
+            logger.warn("API {} retornou 429. Envios pausados por {}ms | Taxa atual: {}%",
+                       name, pauseMillis, Math.round(rateFactor * 100));
+                       
+        } else if (statusCode >= 200 && statusCode < 300 && config.isAdaptive() && rateFactor < 1.0) {
+            rateFactor = Math.min(1.0, rateFactor + RATE_RECOVERY_STEP);
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Retorna a taxa efetiva de requisições/s (considerando a redução adaptativa).
+     */
+    public synchronized double getCurrentRequestsPerSecond() {
+        return config.getRequestsPerSecond() * rateFactor;
+    }
+    
+    /**
+     * Retorna o fator atual aplicado às taxas configuradas (0.1 a 1.0).
+     */
+    public synchronized double getRateFactor() {
+        return rateFactor;
+    }
+    
+    public long getThrottledResponses() {
+        return throttledResponses.get();
+    }
+    
+    public long getDelayedRequests() {
+        return delayedRequests.get();
+    }
+    
+    /**
+     * Token bucket com reserva: os tokens podem ficar negativos e o déficit
+     * determina o tempo de espera, garantindo ordem de chegada entre os chamadores.
+     */
+    private static class TokenBucket {
+        private final double nanosPerToken;
+        private final double capacity;
+        private double tokens;
+        private long lastRefillNanos;
+        
+        TokenBucket(double tokensPerSecond, double capacity, long now) {
+            this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / tokensPerSecond;
+            this.capacity = Math.max(1, capacity);
+            this.tokens = this.capacity;
+            this.lastRefillNanos = now;
+        }
+        
+        long reserve(double amount, long now, double rateFactor) {
+            double effectiveNanosPerToken = nanosPerToken / rateFactor;
+            if (now > lastRefillNanos) {
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / effectiveNanosPerToken);
+                lastRefillNanos = now;
+            }
+            
+            tokens -= amount;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens * effectiveNanosPerToken);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro global de Rate Limiters, um por API de destino.
+ * Compartilhado entre todos os jobs que enviam para a mesma API.
+ */
+public class RateLimiterRegistry {
+    
+    private static final Logger logger = LoggerUtil.getLogger(RateLimiterRegistry.class);
+    
+    private final Map<String, RateLimiter> rateLimiters;
+    
+    private RateLimiterRegistry() {
+        this.rateLimiters = new ConcurrentHashMap<>();
+    }
+    
+    public static RateLimiterRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final RateLimiterRegistry INSTANCE = new RateLimiterRegistry();
+    }
+    
+    /**
+     * Obtém ou cria o Rate Limiter da API informada.
+     */
+    public RateLimiter getRateLimiter(ApiConfig config) {
+        return rateLimiters.computeIfAbsent(getKey(config), key -> {
+            logger.debug("Rate Limiter criado para: {}", key);
+            return new RateLimiter(key, config.getRateLimit());
+        });
+    }
+    
+    /**
+     * Retorna todos os Rate Limiters registrados.
+     */
+    public List<RateLimiter> getAll() {
+        return new ArrayList<>(rateLimiters.values());
+    }
+    
+    /**
+     * Remove o Rate Limiter de uma API (ex: após alteração da configuração).
+     */
+    public void remove(String name) {
+        rateLimiters.remove(name);
+    }
+    
+    private String getKey(ApiConfig config) {
+        return config.getName() != null ? config.getName() : config.buildFullUrl();
+    }
+}
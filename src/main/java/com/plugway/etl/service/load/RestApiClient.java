@@ -2,10 +2,14 @@ package com.plugway.etl.service.load;
 
 import com.plugway.etl.model.ApiConfig;
 import com.plugway.etl.model.AuthType;
+import com.plugway.etl.model.RequestCompression;
+import com.plugway.etl.service.monitoring.EtlEvents;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -14,10 +18,14 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Base64;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Cliente HTTP para comunicação com APIs REST.
  * Utiliza o HttpClient nativo do Java 11+.
+ * Cada requisição é registrada no JFR (evento HttpSend) quando há gravação ativa.
  */
 public class RestApiClient {
     
@@ -66,13 +74,156 @@ public class RestApiClient {
     public HttpResponse<String> sendJson(String jsonData, Map<String, String> additionalHeaders) 
             throws IOException, InterruptedException {
         
+        HttpRequest request = buildJsonRequest(jsonData, additionalHeaders);
+        
+        // Envia a requisição
+        return send(request);
+    }
+    
+    /**
+     * Envia dados JSON de forma assíncrona, sem bloquear a thread chamadora.
+     * 
+     * @param jsonData Dados JSON como string
+     * @return Future com a resposta do servidor
+     */
+    public CompletableFuture<HttpResponse<String>> sendJsonAsync(String jsonData) {
+        return sendJsonAsync(jsonData, null);
+    }
+    
+    /**
+     * Envia dados JSON de forma assíncrona com headers adicionais.
+     * 
+     * @param jsonData Dados JSON como string
+     * @param additionalHeaders Headers adicionais (sobrescrevem os da configuração)
+     * @return Future com a resposta do servidor
+     */
+    public CompletableFuture<HttpResponse<String>> sendJsonAsync(String jsonData, Map<String, String> additionalHeaders) {
+        HttpRequest request = buildJsonRequest(jsonData, additionalHeaders);
+        
+        return sendAsync(request);
+    }
+    
+    /**
+     * Envia um payload em streaming: o body é lido do stream enquanto é escrito no socket,
+     * sem materializar o JSON completo em memória.
+     * 
+     * @param payload Payload em streaming
+     * @return HttpResponse com a resposta do servidor
+     * @throws IOException Se ocorrer erro de I/O
+     * @throws InterruptedException Se a requisição for interrompida
+     */
+    public HttpResponse<String> sendStream(StreamingPayload payload) throws IOException, InterruptedException {
+        HttpRequest request = buildRequest(payload.getContentType(), null,
+                                           builder -> createStreamBodyPublisher(payload, builder));
+        
+        return send(request);
+    }
+    
+    /**
+     * Envia um payload em streaming de forma assíncrona.
+     * Cada chamada abre um novo stream do payload, permitindo retries sem cópia em memória.
+     * 
+     * @param payload Payload em streaming
+     * @return Future com a resposta do servidor
+     */
+    public CompletableFuture<HttpResponse<String>> sendStreamAsync(StreamingPayload payload) {
+        return sendStreamAsync(payload, null);
+    }
+    
+    /**
+     * Envia um payload em streaming de forma assíncrona com headers adicionais.
+     * 
+     * @param payload Payload em streaming
+     * @param additionalHeaders Headers adicionais (sobrescrevem os da configuração)
+     * @return Future com a resposta do servidor
+     */
+    public CompletableFuture<HttpResponse<String>> sendStreamAsync(StreamingPayload payload,
+                                                                  Map<String, String> additionalHeaders) {
+        HttpRequest request = buildRequest(payload.getContentType(), additionalHeaders,
+                                           builder -> createStreamBodyPublisher(payload, builder));
+        
+        return sendAsync(request);
+    }
+    
+    /**
+     * Envia a requisição de forma síncrona.
+     */
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        EtlEvents.HttpSend event = new EtlEvents.HttpSend();
+        event.begin();
+        HttpResponse<String> response = null;
+        Throwable error = null;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            commitEvent(event, request, response, error);
+        }
+        
+        logger.debug("Resposta recebida: {} | Status: {}", request.uri(), response.statusCode());
+        
+        return response;
+    }
+    
+    /**
+     * Envia a requisição de forma assíncrona. O evento JFR só é criado com gravação ativa,
+     * evitando a captura no callback quando o JFR está desligado.
+     */
+    private CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest request) {
+        EtlEvents.HttpSend event = new EtlEvents.HttpSend();
+        boolean recording = event.isEnabled();
+        if (recording) {
+            event.begin();
+        }
+        
+        CompletableFuture<HttpResponse<String>> future = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        if (recording) {
+            future = future.whenComplete((response, throwable) -> commitEvent(event, request, response, throwable));
+        }
+        return future.thenApply(response -> {
+            logger.debug("Resposta recebida: {} | Status: {}", request.uri(), response.statusCode());
+            return response;
+        });
+    }
+    
+    /**
+     * Grava o evento JFR da requisição, se houver gravação ativa.
+     */
+    private void commitEvent(EtlEvents.HttpSend event, HttpRequest request, HttpResponse<?> response,
+                             Throwable error) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.api = config.getName();
+            event.method = request.method();
+            event.url = request.uri().toString();
+            event.status = response != null ? response.statusCode() : 0;
+            event.bytes = CountingBodyPublisher.bytesSent(request);
+            event.error = error != null ? error.toString() : null;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Monta a requisição HTTP com headers, autenticação e body JSON.
+     */
+    private HttpRequest buildJsonRequest(String jsonData, Map<String, String> additionalHeaders) {
+        return buildRequest("application/json", additionalHeaders, builder -> createBodyPublisher(jsonData, builder));
+    }
+    
+    /**
+     * Monta a requisição HTTP com headers e autenticação; o body é criado pela função informada.
+     */
+    private HttpRequest buildRequest(String contentType, Map<String, String> additionalHeaders,
+                                     Function<HttpRequest.Builder, HttpRequest.BodyPublisher> bodyFactory) {
         String url = config.buildFullUrl();
         logger.debug("Enviando JSON para: {} | Método: {}", url, config.getMethod());
         
         HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .timeout(Duration.ofMillis(config.getTimeout()))
-                .header("Content-Type", "application/json");
+                .header("Content-Type", contentType);
         
         // Adiciona headers da configuração
         for (Map.Entry<String, String> header : config.getHeaders().entrySet()) {
@@ -89,9 +240,8 @@ public class RestApiClient {
         // Adiciona autenticação
         addAuthentication(requestBuilder);
         
-        // Configura o método HTTP e body
-        HttpRequest.BodyPublisher bodyPublisher = HttpRequest.BodyPublishers
-                .ofString(jsonData, StandardCharsets.UTF_8);
+        // Configura o método HTTP e body (contando os bytes enviados, inclusive comprimidos/streaming)
+        HttpRequest.BodyPublisher bodyPublisher = new CountingBodyPublisher(bodyFactory.apply(requestBuilder));
         
         switch (config.getMethod().toUpperCase()) {
             case "POST":
@@ -107,14 +257,65 @@ public class RestApiClient {
                 throw new IllegalArgumentException("Método HTTP não suportado: " + config.getMethod());
         }
         
-        HttpRequest request = requestBuilder.build();
+        return requestBuilder.build();
+    }
+    
+    /**
+     * Cria o BodyPublisher do JSON, comprimindo o body quando configurado.
+     * A codificação UTF-8 e a compressão são feitas em streaming conforme o HttpClient
+     * consome o body, sem copiar o JSON inteiro para bytes; payloads abaixo do limite
+     * mínimo são enviados sem compressão.
+     */
+    private HttpRequest.BodyPublisher createBodyPublisher(String jsonData, HttpRequest.Builder requestBuilder) {
+        RequestCompression compression = config.getCompression();
+        if (compression == RequestCompression.NONE) {
+            return HttpRequest.BodyPublishers.ofString(jsonData, StandardCharsets.UTF_8);
+        }
+        
+        CompressionStats stats = CompressionStatsRegistry.getInstance().getStats(config);
         
-        // Envia a requisição
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        // Cada char gera ao menos um byte: só payloads curtos precisam do tamanho exato em UTF-8
+        int threshold = config.getCompressionThreshold();
+        if (jsonData.length() < threshold && RestApiEndpoint.utf8Length(jsonData) < threshold) {
+            stats.recordSkipped();
+            return HttpRequest.BodyPublishers.ofString(jsonData, StandardCharsets.UTF_8);
+        }
+        
+        requestBuilder.header("Content-Encoding", compression.getContentEncoding());
+        return HttpRequest.BodyPublishers.ofInputStream(
+            () -> new CompressingInputStream(new Utf8InputStream(jsonData), compression, stats));
+    }
+    
+    /**
+     * Cria o BodyPublisher de um payload em streaming, comprimindo o body quando configurado.
+     * O stream só é aberto quando o HttpClient começa a escrever o body.
+     */
+    private HttpRequest.BodyPublisher createStreamBodyPublisher(StreamingPayload payload,
+                                                                HttpRequest.Builder requestBuilder) {
+        RequestCompression compression = config.getCompression();
+        long length = payload.getLength();
+        Supplier<InputStream> source = () -> {
+            try {
+                return payload.openStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao abrir o payload: " + payload.getDescription(), e);
+            }
+        };
         
-        logger.debug("Resposta recebida: {} | Status: {}", url, response.statusCode());
+        boolean belowThreshold = length >= 0 && length < config.getCompressionThreshold();
+        if (compression == RequestCompression.NONE || belowThreshold) {
+            if (compression != RequestCompression.NONE) {
+                CompressionStatsRegistry.getInstance().getStats(config).recordSkipped();
+            }
+            HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofInputStream(source);
+            // Com tamanho conhecido envia Content-Length em vez de chunked
+            return length > 0 ? HttpRequest.BodyPublishers.fromPublisher(publisher, length) : publisher;
+        }
         
-        return response;
+        CompressionStats stats = CompressionStatsRegistry.getInstance().getStats(config);
+        requestBuilder.header("Content-Encoding", compression.getContentEncoding());
+        return HttpRequest.BodyPublishers.ofInputStream(
+            () -> new CompressingInputStream(source.get(), compression, stats));
     }
     
     /**
@@ -3,11 +3,23 @@ package com.plugway.etl.service.load;
 import com.plugway.etl.eip.MessageEndpoint;
 import com.plugway.etl.model.ApiConfig;
 import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.service.monitoring.JobMetrics;
+import com.plugway.etl.service.monitoring.MetricsRegistry;
+import com.plugway.etl.service.monitoring.Span;
+import com.plugway.etl.service.monitoring.TraceContext;
+import com.plugway.etl.service.monitoring.Tracer;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
-import java.io.IOException;
 import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Implementação de MessageEndpoint para APIs REST.
@@ -25,34 +37,40 @@ public class RestApiEndpoint implements MessageEndpoint {
     private final RestApiClient client;
     private final RetryHandler retryHandler;
     private final DeadLetterChannel deadLetterChannel;
-    private boolean connected;
+    private final CircuitBreaker circuitBreaker;
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private volatile boolean connected;
     
     public RestApiEndpoint(ApiConfig config) {
+        this(config, DeadLetterChannel.getInstance());
+    }
+    
+    /**
+     * Cria o endpoint enviando as falhas para o Dead Letter Channel informado
+     * (ex: replay de um canal específico ou diretório temporário em testes).
+     */
+    RestApiEndpoint(ApiConfig config, DeadLetterChannel deadLetterChannel) {
         this.config = config;
         this.client = new RestApiClient(config);
         this.retryHandler = new RetryHandler(config);
-        this.deadLetterChannel = new DeadLetterChannel();
+        this.deadLetterChannel = deadLetterChannel;
+        this.circuitBreaker = CircuitBreakerRegistry.getInstance().getCircuitBreaker(config);
+        this.rateLimiter = RateLimiterRegistry.getInstance().getRateLimiter(config);
+        this.concurrencyLimiter = ConcurrencyLimiterRegistry.getInstance().getConcurrencyLimiter(config);
         this.connected = false;
     }
     
+    /**
+     * Prepara o endpoint para envio. Não faz requisição à API: falhas de conexão aparecem no
+     * próprio envio e são tratadas pelos retries e pelo Circuit Breaker. Para verificar a API
+     * explicitamente use {@link #testConnection()}.
+     */
     @Override
     public void connect() throws Exception {
-        if (isAvailable()) {
-            logger.debug("Endpoint já está conectado: {}", getName());
-            return;
-        }
-        
-        try {
-            if (client.testConnection()) {
-                connected = true;
-                logger.info("Conectado à API REST: {}", getName());
-            } else {
-                throw new Exception("Falha ao conectar à API REST: " + getName());
-            }
-        } catch (Exception e) {
-            logger.error("Erro ao conectar à API REST: {}", getName(), e);
-            connected = false;
-            throw e;
+        if (!connected) {
+            connected = true;
+            logger.debug("Endpoint pronto para envio: {}", getName());
         }
     }
     
@@ -62,85 +80,291 @@ public class RestApiEndpoint implements MessageEndpoint {
         logger.info("Desconectado da API REST: {}", getName());
     }
     
+    /**
+     * Indica se o endpoint aceita envios: conectado e com o Circuit Breaker fechado.
+     * Não faz requisição à API.
+     */
     @Override
     public boolean isAvailable() {
-        if (!connected) {
-            return false;
-        }
-        
-        try {
-            return client.testConnection();
-        } catch (Exception e) {
-            logger.debug("Erro ao verificar disponibilidade: {}", getName(), e);
-            return false;
-        }
+        return connected && !circuitBreaker.isRejecting();
     }
     
     @Override
     public boolean send(EtlMessage message) throws Exception {
+        try {
+            return sendAsync(message).get();
+        } catch (ExecutionException e) {
+            Throwable cause = RetryHandler.unwrap(e);
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Envia uma mensagem de forma assíncrona.
+     * Os retries são agendados pelo RetryHandler sem bloquear a thread chamadora.
+     * Com o header "jobId", latências, esperas e retries são registrados nas métricas do job.
+     * Cada tentativa é um span filho do contexto da mensagem (header traceparent), propagado
+     * à API no header HTTP traceparent.
+     * 
+     * @param message Mensagem a ser enviada
+     * @return Future que completa com true se o envio foi bem-sucedido
+     * @throws Exception Se o circuito estiver aberto ou o payload for inválido
+     */
+    public CompletableFuture<Boolean> sendAsync(EtlMessage message) throws Exception {
         if (message == null) {
             throw new IllegalArgumentException("Message cannot be null");
         }
         
-        if (!isAvailable()) {
-            try {
-                connect();
-            } catch (Exception e) {
-                throw new Exception("Não foi possível conectar à API REST", e);
-            }
+        // Falha rápida enquanto o circuito estiver aberto (sem retries)
+        if (circuitBreaker.isRejecting()) {
+            logger.warn("Envio rejeitado pelo Circuit Breaker: {} | MessageId: {}", getName(), message.getMessageId());
+            throw new CircuitBreakerOpenException(getName());
         }
         
+        // Sem requisição de teste: a falha da requisição real é classificada pelo retry e pelo Circuit Breaker
+        connect();
+        
         logger.debug("Enviando mensagem para API REST: {} | MessageId: {}", getName(), message.getMessageId());
         
-        // Extrai JSON do payload
+        // Extrai o body do payload: JSON em String ou payload em streaming (arquivo/stream regenerável)
         Object payload = message.getPayload();
-        if (!(payload instanceof String)) {
-            throw new IllegalArgumentException("Payload deve ser uma string JSON");
+        Map<String, String> requestHeaders = buildRequestHeaders(message);
+        Function<Map<String, String>, CompletableFuture<HttpResponse<String>>> send;
+        long bodySize;
+        if (payload instanceof String) {
+            String jsonData = (String) payload;
+            send = headers -> client.sendJsonAsync(jsonData, headers);
+            bodySize = utf8Length(jsonData);
+        } else if (payload instanceof StreamingPayload) {
+            StreamingPayload streamingPayload = (StreamingPayload) payload;
+            send = headers -> client.sendStreamAsync(streamingPayload, headers);
+            bodySize = Math.max(0, streamingPayload.getLength());
+        } else {
+            throw new IllegalArgumentException("Payload deve ser uma string JSON ou StreamingPayload");
         }
         
-        String jsonData = (String) payload;
+        JobMetrics jobMetrics = message.getHeader("jobId") != null
+            ? MetricsRegistry.getInstance().getJobMetrics(message.getHeader("jobId"))
+            : null;
+        TraceContext traceContext = TraceContext.parse(message.getHeader(TraceContext.TRACEPARENT_HEADER));
+        AtomicInteger attempts = new AtomicInteger();
+        long batchStart = System.nanoTime();
         
-        // Tenta enviar com retry
-        try {
-            HttpResponse<String> response = retryHandler.executeWithRetry(() -> {
-                try {
-                    return client.sendJson(jsonData);
-                } catch (IOException | InterruptedException e) {
-                    throw new RuntimeException("Erro ao enviar requisição HTTP", e);
-                }
-            });
-            
-            // Verifica se foi bem-sucedido
-            int statusCode = response.statusCode();
-            boolean success = statusCode >= 200 && statusCode < 300;
+        // Tenta enviar com retry (4xx não recuperáveis não consomem tentativas)
+        return retryHandler.executeWithRetryAsync(() -> {
+                    int attempt = attempts.getAndIncrement();
+                    if (attempt > 0 && jobMetrics != null) {
+                        jobMetrics.recordRetry();
+                    }
+                    Span span = Tracer.getInstance().startSpan("http-request", traceContext);
+                    span.setAttribute("api", getName())
+                        .setAttribute("method", config.getMethod())
+                        .setAttribute("attempt", attempt + 1)
+                        .setAttribute("bytes", bodySize);
+                    Map<String, String> headers = withTraceparent(requestHeaders, span);
+                    return sendRateLimited(() -> send.apply(headers), bodySize, jobMetrics)
+                        .whenComplete((response, throwable) -> endSpan(span, response, throwable));
+                })
+                .handle((response, throwable) -> {
+                    if (jobMetrics != null) {
+                        jobMetrics.recordBatch(System.nanoTime() - batchStart,
+                                               throwable == null && isSuccessStatus(response.statusCode()));
+                    }
+                    if (throwable != null) {
+                        Throwable cause = RetryHandler.unwrap(throwable);
+                        
+                        if (cause instanceof CircuitBreakerOpenException) {
+                            // Os dados permanecem na origem; não polui o Dead Letter Channel
+                            logger.warn("Envio interrompido pelo Circuit Breaker: {}", getName());
+                            throw new CompletionException(cause);
+                        }
+                        
+                        logger.error("Erro ao enviar mensagem para API REST: {}", getName(), cause);
+                        
+                        // Envia para Dead Letter Channel
+                        deadLetterChannel.send(getName(), message,
+                                               cause.getClass().getSimpleName() + ": " + cause.getMessage());
+                        
+                        throw new CompletionException(cause);
+                    }
+                    return handleResponse(message, response);
+                });
+    }
+    
+    /**
+     * Monta os headers HTTP derivados da mensagem (ex: Idempotency-Key do lote).
+     */
+    private Map<String, String> buildRequestHeaders(EtlMessage message) {
+        String idempotencyKey = message.getHeader(IdempotencyKeys.MESSAGE_HEADER);
+        if (idempotencyKey == null) {
+            return null;
+        }
+        return Map.of(IdempotencyKeys.HEADER_NAME, idempotencyKey);
+    }
+    
+    /**
+     * Acrescenta o header traceparent do span da tentativa aos headers da requisição.
+     */
+    private static Map<String, String> withTraceparent(Map<String, String> requestHeaders, Span span) {
+        Map<String, String> headers = requestHeaders != null ? new HashMap<>(requestHeaders) : new HashMap<>();
+        headers.put(TraceContext.TRACEPARENT_HEADER, span.getContext().toTraceparent());
+        return headers;
+    }
+    
+    private static void endSpan(Span span, HttpResponse<String> response, Throwable throwable) {
+        if (throwable != null) {
+            span.setError(RetryHandler.unwrap(throwable).toString());
+        } else {
+            span.setAttribute("status", response.statusCode());
+            if (!isSuccessStatus(response.statusCode())) {
+                span.setError("HTTP " + response.statusCode());
+            }
+        }
+        span.end();
+    }
+    
+    /**
+     * Executa uma tentativa de envio respeitando o Rate Limiter da API.
+     * Cada retry passa novamente pelo limitador; respostas 429 ajustam a taxa.
+     */
+    private CompletableFuture<HttpResponse<String>> sendRateLimited(
+            Supplier<CompletableFuture<HttpResponse<String>>> request, long bodySize, JobMetrics jobMetrics) {
+        long waitStart = System.nanoTime();
+        return rateLimiter.acquire(bodySize)
+                .thenCompose(ignored -> sendWithConcurrencyLimit(request, bodySize, jobMetrics, waitStart))
+                .whenComplete((response, throwable) -> {
+                    if (response != null) {
+                        rateLimiter.onResponse(response.statusCode(), RetryHandler.parseRetryAfter(response));
+                    }
+                });
+    }
+    
+    /**
+     * Executa uma tentativa de envio dentro do limite adaptativo de concorrência da API.
+     * A latência e o resultado de cada tentativa ajustam o limite (AIMD).
+     */
+    private CompletableFuture<HttpResponse<String>> sendWithConcurrencyLimit(
+            Supplier<CompletableFuture<HttpResponse<String>>> request, long bodySize, JobMetrics jobMetrics,
+            long waitStart) {
+        return concurrencyLimiter.acquire().thenCompose(ignored -> {
+            long start = System.nanoTime();
+            if (jobMetrics != null) {
+                jobMetrics.recordThrottleWait(start - waitStart);
+            }
+            CompletableFuture<HttpResponse<String>> future;
+            try {
+                future = sendThroughCircuitBreaker(request);
+            } catch (RuntimeException e) {
+                concurrencyLimiter.release(0, ConcurrencyLimiter.Outcome.IGNORED);
+                throw e;
+            }
             
-            if (success) {
-                logger.info("Mensagem enviada com sucesso para: {} | Status: {}", getName(), statusCode);
-                return true;
-            } else {
-                logger.warn("API retornou status de erro: {} | Status: {} | Response: {}", 
-                           getName(), statusCode, response.body());
-                
-                // Para alguns status codes, não tenta novamente
-                if (statusCode >= 400 && statusCode < 500) {
-                    // Erro do cliente (não deve tentar novamente)
-                    deadLetterChannel.send(message, "HTTP " + statusCode + ": " + response.body());
-                    return false;
+            return future.whenComplete((response, throwable) -> {
+                long duration = System.nanoTime() - start;
+                ConcurrencyLimiter.Outcome outcome;
+                if (throwable != null) {
+                    outcome = RetryHandler.unwrap(throwable) instanceof CircuitBreakerOpenException
+                        ? ConcurrencyLimiter.Outcome.IGNORED
+                        : ConcurrencyLimiter.Outcome.DROPPED;
+                } else if (response.statusCode() == 429 || response.statusCode() >= 500) {
+                    outcome = ConcurrencyLimiter.Outcome.DROPPED;
                 } else {
-                    // Erro do servidor (pode tentar novamente, mas já tentou com retry)
-                    deadLetterChannel.send(message, "HTTP " + statusCode + ": " + response.body());
-                    return false;
+                    outcome = ConcurrencyLimiter.Outcome.SUCCESS;
                 }
-            }
-            
-        } catch (Exception e) {
-            logger.error("Erro ao enviar mensagem para API REST: {}", getName(), e);
-            
-            // Envia para Dead Letter Channel
-            deadLetterChannel.send(message, "Exception: " + e.getMessage());
-            
+                concurrencyLimiter.release(duration, outcome);
+                if (jobMetrics != null && outcome != ConcurrencyLimiter.Outcome.IGNORED) {
+                    long bytesSent = response != null ? CountingBodyPublisher.bytesSent(response.request()) : -1;
+                    jobMetrics.recordRequest(duration, bytesSent >= 0 ? bytesSent : bodySize,
+                                             throwable == null && isSuccessStatus(response.statusCode()));
+                }
+            });
+        });
+    }
+    
+    /**
+     * Executa uma tentativa de envio protegida pelo Circuit Breaker.
+     * Falhas de I/O e status recuperáveis (5xx, 429, 408) contam como falha.
+     */
+    private CompletableFuture<HttpResponse<String>> sendThroughCircuitBreaker(
+            Supplier<CompletableFuture<HttpResponse<String>>> request) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(new CircuitBreakerOpenException(getName()));
+        }
+        
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            circuitBreaker.releasePermission();
             throw e;
         }
+        
+        return future.whenComplete((response, throwable) -> {
+            long duration = System.nanoTime() - start;
+            if (throwable != null || RetryHandler.isRetryableStatus(response.statusCode())) {
+                circuitBreaker.onError(duration);
+            } else {
+                circuitBreaker.onSuccess(duration);
+            }
+        });
+    }
+    
+    /**
+     * Avalia a resposta final da API, enviando falhas para o Dead Letter Channel.
+     */
+    private boolean handleResponse(EtlMessage message, HttpResponse<String> response) {
+        int statusCode = response.statusCode();
+        boolean success = isSuccessStatus(statusCode);
+        
+        if (success) {
+            logger.info("Mensagem enviada com sucesso para: {} | Status: {}", getName(), statusCode);
+            return true;
+        }
+        
+        logger.warn("API retornou status de erro: {} | Status: {} | Response: {}", 
+                   getName(), statusCode, response.body());
+        
+        if (RetryHandler.isRetryableStatus(statusCode)) {
+            // Erro temporário (já tentou com retry)
+            deadLetterChannel.send(getName(), message, "HTTP " + statusCode + " (após retries): " + response.body());
+        } else {
+            // Erro do cliente (não deve tentar novamente)
+            deadLetterChannel.send(getName(), message, "HTTP " + statusCode + ": " + response.body());
+        }
+        return false;
+    }
+    
+    /**
+     * Tamanho do texto codificado em UTF-8, sem criar a cópia em bytes.
+     */
+    static long utf8Length(String text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                       && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // Surrogate isolado é codificado como '?'
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+    
+    private static boolean isSuccessStatus(int statusCode) {
+        return statusCode >= 200 && statusCode < 300;
     }
     
     @Override
@@ -151,8 +375,10 @@ public class RestApiEndpoint implements MessageEndpoint {
     
     /**
      * Testa a conexão com a API REST.
+     * A requisição de teste também consome a cota do Rate Limiter da API.
      */
     public boolean testConnection() {
+        rateLimiter.acquire(0).join();
         return client.testConnection();
     }
     
@@ -168,5 +394,17 @@ public class RestApiEndpoint implements MessageEndpoint {
     public DeadLetterChannel getDeadLetterChannel() {
         return deadLetterChannel;
     }
+    
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+    
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
 }
 
@@ -1,9 +1,25 @@
 package com.plugway.etl.service.load;
 
 import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.model.RetryJitter;
+import com.plugway.etl.service.monitoring.EtlEvents;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 /**
@@ -12,18 +28,53 @@ import java.util.function.Supplier;
  * 
  * Padrão EIP: Guaranteed Delivery
  * - Garante que mensagens sejam entregues mesmo em caso de falha temporária
- * - Retry automático com backoff exponencial
+ * - Retry automático com backoff exponencial e jitter
+ * - Modo assíncrono: as esperas entre tentativas são agendadas em um
+ *   ScheduledExecutorService compartilhado, sem bloquear a thread do job
+ * - Respeita o header Retry-After e não consome tentativas com erros não recuperáveis (4xx)
+ * - Cada espera entre tentativas é registrada no JFR (evento RetryWait) quando há gravação ativa
  */
 public class RetryHandler {
     
     private static final Logger logger = LoggerUtil.getLogger(RetryHandler.class);
     
+    /**
+     * Status HTTP que indicam falha temporária e podem ser reenviados.
+     */
+    private static final Set<Integer> RETRYABLE_STATUS_CODES = Set.of(408, 425, 429, 500, 502, 503, 504);
+    
+    /**
+     * Limite máximo para o tempo solicitado pelo servidor via Retry-After.
+     */
+    private static final long MAX_RETRY_AFTER_MILLIS = 300000; // 5 minutos
+    
+    private static final ScheduledExecutorService RETRY_SCHEDULER = createScheduler();
+    
     private final ApiConfig config;
     
     public RetryHandler(ApiConfig config) {
         this.config = config;
     }
     
+    /**
+     * Cria o scheduler compartilhado por todas as instâncias para agendar retries.
+     */
+    private static ScheduledExecutorService createScheduler() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newScheduledThreadPool(1, runnable -> {
+            Thread thread = new Thread(runnable, "retry-scheduler-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Retorna o scheduler compartilhado usado para agendar retries assíncronos.
+     */
+    public static ScheduledExecutorService getScheduler() {
+        return RETRY_SCHEDULER;
+    }
+    
     /**
      * Executa uma operação com retry automático.
      * 
@@ -33,8 +84,7 @@ public class RetryHandler {
      */
     public <T> T executeWithRetry(Supplier<T> operation) throws Exception {
         int maxRetries = config.getMaxRetries();
-        long baseDelay = config.getRetryDelay();
-        boolean useExponentialBackoff = config.isUseExponentialBackoff();
+        long previousDelay = config.getRetryDelay();
         
         Exception lastException = null;
         
@@ -46,15 +96,19 @@ public class RetryHandler {
                 lastException = e;
                 
                 if (attempt < maxRetries) {
-                    long delay = calculateDelay(attempt, baseDelay, useExponentialBackoff);
-                    logger.warn("Tentativa {} falhou. Tentando novamente em {}ms... Erro: {}", 
+                    long delay = calculateDelay(attempt, previousDelay);
+                    previousDelay = delay;
+                    logger.warn("Tentativa {} falhou. Tentando novamente em {}ms... Erro: {}",
                                attempt + 1, delay, e.getMessage());
                     
+                    EtlEvents.RetryWait event = beginRetryWait();
                     try {
                         Thread.sleep(delay);
                     } catch (InterruptedException ie) {
                         Thread.currentThread().interrupt();
                         throw new Exception("Retry interrompido", ie);
+                    } finally {
+                        commitRetryWait(event, attempt + 1, delay, e.toString());
                     }
                 } else {
                     logger.error("Todas as {} tentativas falharam", maxRetries + 1);
@@ -66,24 +120,214 @@ public class RetryHandler {
     }
     
     /**
-     * Calcula o delay para o próximo retry usando backoff exponencial.
+     * Executa uma requisição HTTP assíncrona com retry automático.
+     * As esperas entre tentativas são agendadas no scheduler compartilhado,
+     * sem bloquear nenhuma thread.
+     * 
+     * Respostas com status recuperável (408, 425, 429, 5xx) e falhas de I/O
+     * são reenviadas; demais respostas (ex: 4xx) são devolvidas imediatamente.
+     * Se as tentativas se esgotarem com uma resposta de erro, a última resposta é devolvida.
+     * 
+     * @param operation Operação que inicia uma requisição HTTP assíncrona
+     * @return Future com a resposta final
+     */
+    public <T> CompletableFuture<HttpResponse<T>> executeWithRetryAsync(
+            Supplier<CompletableFuture<HttpResponse<T>>> operation) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        attemptAsync(operation, 0, config.getRetryDelay(), result);
+        return result;
+    }
+    
+    /**
+     * Executa uma tentativa e agenda a próxima se necessário.
+     */
+    private <T> void attemptAsync(Supplier<CompletableFuture<HttpResponse<T>>> operation, int attempt,
+                                  long previousDelay, CompletableFuture<HttpResponse<T>> result) {
+        if (result.isDone()) {
+            // Cancelado pelo chamador
+            return;
+        }
+        
+        int maxRetries = config.getMaxRetries();
+        CompletableFuture<HttpResponse<T>> future;
+        try {
+            future = operation.get();
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        
+        future.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                Throwable cause = unwrap(throwable);
+                
+                if (!isRetryable(cause)) {
+                    logger.error("Falha não recuperável na tentativa {}: {}", attempt + 1, cause.getMessage());
+                    result.completeExceptionally(cause);
+                } else if (attempt < maxRetries) {
+                    long delay = calculateDelay(attempt, previousDelay);
+                    logger.warn("Tentativa {} falhou. Tentando novamente em {}ms... Erro: {}",
+                               attempt + 1, delay, cause.getMessage());
+                    scheduleRetry(operation, attempt + 1, delay, cause.toString(), result);
+                } else {
+                    logger.error("Todas as {} tentativas falharam", maxRetries + 1);
+                    result.completeExceptionally(new Exception(
+                        "Operação falhou após " + (maxRetries + 1) + " tentativas", cause));
+                }
+                return;
+            }
+            
+            int statusCode = response.statusCode();
+            if (!isRetryableStatus(statusCode)) {
+                result.complete(response);
+            } else if (attempt < maxRetries) {
+                long delay = calculateDelay(attempt, previousDelay);
+                long retryAfter = parseRetryAfter(response);
+                if (retryAfter > delay) {
+                    logger.debug("Respeitando Retry-After de {}ms", retryAfter);
+                    delay = retryAfter;
+                }
+                logger.warn("Tentativa {} retornou status {}. Tentando novamente em {}ms...",
+                           attempt + 1, statusCode, delay);
+                scheduleRetry(operation, attempt + 1, delay, "HTTP " + statusCode, result);
+            } else {
+                logger.error("Todas as {} tentativas retornaram erro. Último status: {}",
+                            maxRetries + 1, statusCode);
+                result.complete(response);
+            }
+        });
+    }
+    
+    /**
+     * Agenda a próxima tentativa no scheduler compartilhado.
+     */
+    private <T> void scheduleRetry(Supplier<CompletableFuture<HttpResponse<T>>> operation, int attempt,
+                                   long delay, String reason, CompletableFuture<HttpResponse<T>> result) {
+        EtlEvents.RetryWait event = beginRetryWait();
+        RETRY_SCHEDULER.schedule(() -> {
+            commitRetryWait(event, attempt, delay, reason);
+            attemptAsync(operation, attempt, delay, result);
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Inicia o evento JFR de espera, ou retorna null se não houver gravação ativa.
+     */
+    private static EtlEvents.RetryWait beginRetryWait() {
+        EtlEvents.RetryWait event = new EtlEvents.RetryWait();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+    
+    private void commitRetryWait(EtlEvents.RetryWait event, int attempt, long delay, String reason) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.api = config.getName();
+            event.attempt = attempt;
+            event.plannedDelay = delay;
+            event.reason = reason;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Calcula o delay para o próximo retry usando backoff exponencial com jitter.
      * 
      * @param attempt Número da tentativa atual (0-based)
-     * @param baseDelay Delay base em milissegundos
-     * @param useExponentialBackoff Se deve usar backoff exponencial
+     * @param previousDelay Delay usado na tentativa anterior (usado pelo jitter decorrelacionado)
      * @return Delay em milissegundos
      */
-    private long calculateDelay(int attempt, long baseDelay, boolean useExponentialBackoff) {
-        if (!useExponentialBackoff) {
-            return baseDelay;
+    long calculateDelay(int attempt, long previousDelay) {
+        long baseDelay = config.getRetryDelay();
+        long maxDelay = config.getMaxRetryDelay();
+        
+        if (!config.isUseExponentialBackoff()) {
+            return Math.min(baseDelay, maxDelay);
+        }
+        
+        // Backoff exponencial: delay = baseDelay * 2^attempt (com limite máximo)
+        long exponential = baseDelay * (1L << Math.min(attempt, 30));
+        long ceiling = exponential > 0 ? Math.min(exponential, maxDelay) : maxDelay;
+        
+        RetryJitter jitter = config.getRetryJitter();
+        switch (jitter) {
+            case FULL:
+                // delay = random(0, min(max, base * 2^attempt))
+                return ThreadLocalRandom.current().nextLong(ceiling + 1);
+                
+            case DECORRELATED:
+                // delay = min(max, random(base, previous * 3))
+                long upper = Math.max(baseDelay, previousDelay * 3);
+                long delay = baseDelay + ThreadLocalRandom.current().nextLong(upper - baseDelay + 1);
+                return Math.min(delay, maxDelay);
+                
+            case NONE:
+            default:
+                return ceiling;
+        }
+    }
+    
+    /**
+     * Verifica se um status HTTP indica falha temporária que pode ser reenviada.
+     */
+    public static boolean isRetryableStatus(int statusCode) {
+        return RETRYABLE_STATUS_CODES.contains(statusCode);
+    }
+    
+    /**
+     * Verifica se uma exceção pode ser reenviada.
+     * Erros de programação/configuração (ex: método HTTP inválido) e rejeições
+     * do Circuit Breaker não são reenviados.
+     */
+    static boolean isRetryable(Throwable throwable) {
+        return !(throwable instanceof IllegalArgumentException)
+            && !(throwable instanceof IllegalStateException)
+            && !(throwable instanceof CircuitBreakerOpenException);
+    }
+    
+    /**
+     * Lê o header Retry-After da resposta (segundos ou data HTTP).
+     * 
+     * @return Tempo de espera em milissegundos, ou 0 se ausente/inválido
+     */
+    static long parseRetryAfter(HttpResponse<?> response) {
+        String value = response.headers().firstValue("Retry-After").orElse(null);
+        if (value == null || value.trim().isEmpty()) {
+            return 0;
         }
         
-        // Backoff exponencial: delay = baseDelay * 2^attempt
-        // Com limite máximo para evitar delays muito longos
-        long delay = baseDelay * (1L << attempt);
-        long maxDelay = 30000; // 30 segundos máximo
+        value = value.trim();
+        long millis;
+        try {
+            millis = Long.parseLong(value) * 1000;
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                millis = Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis();
+            } catch (DateTimeParseException pe) {
+                logger.debug("Header Retry-After inválido: {}", value);
+                return 0;
+            }
+        }
         
-        return Math.min(delay, maxDelay);
+        return Math.max(0, Math.min(millis, MAX_RETRY_AFTER_MILLIS));
+    }
+    
+    /**
+     * Remove os wrappers de CompletionException/ExecutionException.
+     */
+    static Throwable unwrap(Throwable throwable) {
+        Throwable current = throwable;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+               && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
     }
     
     /**
@@ -96,4 +340,3 @@ public class RetryHandler {
         });
     }
 }
-
@@ -0,0 +1,287 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Fila FIFO de lotes serializados entre as etapas de transformação e carga.
+ * 
+ * Enquanto os lotes em memória somam menos que o limite configurado, eles ficam no heap.
+ * Acima do limite, os lotes seguintes são gravados em segmentos temporários mapeados em memória
+ * (data/spill-buffer) e devolvidos como fatias do mapeamento, sem cópia para o heap.
+ * Um segmento é removido quando todos os seus lotes foram liberados pelo consumidor.
+ * 
+ * Um produtor e um consumidor: {@link #put} nunca bloqueia e {@link #take} aguarda
+ * até haver um lote ou a produção ser finalizada.
+ */
+public class SpillBuffer implements AutoCloseable {
+    
+    private static final Logger logger = LoggerUtil.getLogger(SpillBuffer.class);
+    
+    private static final Path DEFAULT_DIRECTORY = Paths.get("data", "spill-buffer");
+    private static final int DEFAULT_SEGMENT_SIZE = 32 * 1024 * 1024; // 32MB
+    
+    private final String name;
+    private final long memoryLimitBytes;
+    private final Path directory;
+    private final int segmentSize;
+    private final Deque<Batch> queue;
+    private final List<Segment> segments;
+    
+    private Segment writeSegment;
+    private long memoryBytes;
+    private long peakMemoryBytes;
+    private long spilledBatches;
+    private long spilledBytes;
+    private boolean finished;
+    private boolean closed;
+    
+    public SpillBuffer(String name, long memoryLimitBytes) {
+        this(name, memoryLimitBytes, DEFAULT_DIRECTORY, DEFAULT_SEGMENT_SIZE);
+    }
+    
+    SpillBuffer(String name, long memoryLimitBytes, Path directory, int segmentSize) {
+        this.name = name;
+        this.memoryLimitBytes = Math.max(0, memoryLimitBytes);
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.queue = new ArrayDeque<>();
+        this.segments = new ArrayList<>();
+    }
+    
+    /**
+     * Adiciona um lote ao final da fila, gravando-o em disco se o limite de memória for excedido.
+     * 
+     * @param body Body serializado do lote
+     * @param recordCount Número de registros do lote
+     */
+    public synchronized void put(byte[] body, int recordCount) throws IOException {
+        if (closed || finished) {
+            throw new IllegalStateException("SpillBuffer já finalizado: " + name);
+        }
+        
+        Batch batch;
+        if (memoryBytes + body.length <= memoryLimitBytes) {
+            batch = new Batch(ByteBuffer.wrap(body), recordCount, null);
+            memoryBytes += body.length;
+            peakMemoryBytes = Math.max(peakMemoryBytes, memoryBytes);
+        } else {
+            batch = spill(body, recordCount);
+        }
+        
+        queue.addLast(batch);
+        notifyAll();
+    }
+    
+    /**
+     * Grava o lote no segmento mapeado atual, abrindo um novo segmento se necessário.
+     */
+    private Batch spill(byte[] body, int recordCount) throws IOException {
+        if (writeSegment == null || writeSegment.remaining() < body.length) {
+            if (writeSegment != null) {
+                writeSegment.sealed = true;
+                releaseIfDone(writeSegment);
+            }
+            writeSegment = new Segment(directory, name, Math.max(segmentSize, body.length));
+            segments.add(writeSegment);
+        }
+        
+        ByteBuffer slice = writeSegment.append(body);
+        spilledBatches++;
+        spilledBytes += body.length;
+        if (spilledBatches == 1) {
+            logger.info("SpillBuffer {}: limite de memória de {} bytes atingido. Gravando lotes em disco.",
+                       name, memoryLimitBytes);
+        }
+        return new Batch(slice, recordCount, writeSegment);
+    }
+    
+    /**
+     * Sinaliza que não haverá novos lotes.
+     */
+    public synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+    
+    /**
+     * Retira o próximo lote da fila, aguardando se necessário.
+     * O lote deve ser liberado com {@link Batch#release()} após o envio.
+     * 
+     * @return Próximo lote, ou null se a produção terminou e a fila está vazia
+     */
+    public synchronized Batch take() throws InterruptedException {
+        while (queue.isEmpty() && !finished && !closed) {
+            wait();
+        }
+        return queue.pollFirst();
+    }
+    
+    private synchronized void release(Batch batch) {
+        if (batch.released) {
+            return;
+        }
+        batch.released = true;
+        
+        if (batch.segment == null) {
+            memoryBytes -= batch.size();
+        } else {
+            batch.segment.pending--;
+            releaseIfDone(batch.segment);
+        }
+    }
+    
+    private void releaseIfDone(Segment segment) {
+        if (segment.sealed && segment.pending == 0) {
+            segment.delete();
+            segments.remove(segment);
+        }
+    }
+    
+    /**
+     * Descarta os lotes restantes e remove os segmentos em disco.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.clear();
+        for (Segment segment : segments) {
+            segment.delete();
+        }
+        segments.clear();
+        writeSegment = null;
+        notifyAll();
+        
+        if (spilledBatches > 0) {
+            logger.info("SpillBuffer {} encerrado | Lotes em disco: {} ({} bytes) | Pico em memória: {} bytes",
+                       name, spilledBatches, spilledBytes, peakMemoryBytes);
+        }
+    }
+    
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+    
+    public synchronized long getPeakMemoryBytes() {
+        return peakMemoryBytes;
+    }
+    
+    public synchronized long getSpilledBatches() {
+        return spilledBatches;
+    }
+    
+    public synchronized long getSpilledBytes() {
+        return spilledBytes;
+    }
+    
+    synchronized int getSegmentCount() {
+        return segments.size();
+    }
+    
+    /**
+     * Lote serializado retirado da fila.
+     */
+    public class Batch {
+        private final ByteBuffer body;
+        private final int recordCount;
+        private final Segment segment;
+        private final long enqueuedNanos;
+        private boolean released;
+        
+        private Batch(ByteBuffer body, int recordCount, Segment segment) {
+            this.body = body;
+            this.recordCount = recordCount;
+            this.segment = segment;
+            this.enqueuedNanos = System.nanoTime();
+        }
+        
+        /**
+         * Cria um payload que lê o lote diretamente do buffer (heap ou mapeamento).
+         */
+        public StreamingPayload toPayload(String contentType) {
+            return StreamingPayload.ofBuffer(body).withContentType(contentType);
+        }
+        
+        public int size() {
+            return body.remaining();
+        }
+        
+        public int getRecordCount() {
+            return recordCount;
+        }
+        
+        public boolean isSpilled() {
+            return segment != null;
+        }
+        
+        /**
+         * Tempo (nanossegundos) desde que o lote entrou na fila.
+         */
+        public long getQueuedNanos() {
+            return System.nanoTime() - enqueuedNanos;
+        }
+        
+        /**
+         * Libera a memória ou o espaço em disco ocupado pelo lote.
+         */
+        public void release() {
+            SpillBuffer.this.release(this);
+        }
+    }
+    
+    /**
+     * Arquivo temporário mapeado em memória que recebe lotes em sequência.
+     */
+    private static class Segment {
+        private final Path file;
+        private MappedByteBuffer buffer;
+        private int pending;
+        private boolean sealed;
+        
+        Segment(Path directory, String name, int size) throws IOException {
+            Files.createDirectories(directory);
+            this.file = Files.createTempFile(directory, name.replaceAll("[^A-Za-z0-9_-]", "_") + "-", ".seg");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        }
+        
+        int remaining() {
+            return buffer.remaining();
+        }
+        
+        ByteBuffer append(byte[] body) {
+            int offset = buffer.position();
+            buffer.put(body);
+            pending++;
+            return buffer.duplicate().position(offset).limit(offset + body.length).slice().asReadOnlyBuffer();
+        }
+        
+        void delete() {
+            buffer = null;
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Em alguns sistemas o arquivo mapeado só pode ser removido após o GC liberar o mapeamento
+                logger.debug("Segmento de spill será removido ao encerrar: {}", file);
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Payload JSON produzido sob demanda para envio em streaming.
+ * Evita manter o body inteiro em memória como String: a cada tentativa de envio
+ * um novo InputStream é aberto, regenerando o conteúdo ou relendo um arquivo de spill.
+ * 
+ * Formas de criação:
+ * - {@link #of(StreamSupplier, long)}: regenera o body a cada tentativa
+ * - {@link #ofFile(Path)}: relê um arquivo existente a cada tentativa
+ * - {@link #spill(BodyWriter)} / {@link #spill(InputStream)}: grava o body uma única vez em
+ *   um arquivo temporário (data/spill) e o relê a cada tentativa; o arquivo é removido em {@link #close()}
+ * 
+ * Quem cria o payload é responsável por fechá-lo após o envio.
+ */
+public final class StreamingPayload implements AutoCloseable {
+    
+    private static final Logger logger = LoggerUtil.getLogger(StreamingPayload.class);
+    private static final Path DEFAULT_SPILL_DIRECTORY = Paths.get("data", "spill");
+    private static final String DEFAULT_CONTENT_TYPE = "application/json";
+    
+    /**
+     * Abre um novo stream com o conteúdo completo do body.
+     */
+    @FunctionalInterface
+    public interface StreamSupplier {
+        InputStream open() throws IOException;
+    }
+    
+    /**
+     * Escreve o body em um OutputStream (ex: JsonGenerator do Jackson).
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+    
+    private final StreamSupplier supplier;
+    private final long length;
+    private final String description;
+    private final Path spillFile;
+    private final String contentType;
+    
+    private StreamingPayload(StreamSupplier supplier, long length, String description, Path spillFile) {
+        this(supplier, length, description, spillFile, DEFAULT_CONTENT_TYPE);
+    }
+    
+    private StreamingPayload(StreamSupplier supplier, long length, String description, Path spillFile,
+                             String contentType) {
+        this.supplier = supplier;
+        this.length = length;
+        this.description = description;
+        this.spillFile = spillFile;
+        this.contentType = contentType;
+    }
+    
+    /**
+     * Cria um payload regenerado a cada tentativa de envio.
+     * 
+     * @param supplier Abre um novo stream com o body
+     * @param length Tamanho em bytes, ou -1 se desconhecido
+     */
+    public static StreamingPayload of(StreamSupplier supplier, long length) {
+        if (supplier == null) {
+            throw new IllegalArgumentException("Supplier cannot be null");
+        }
+        return new StreamingPayload(supplier, length, "stream", null);
+    }
+    
+    /**
+     * Cria um payload que relê o arquivo informado a cada tentativa de envio.
+     */
+    public static StreamingPayload ofFile(Path file) throws IOException {
+        return new StreamingPayload(() -> Files.newInputStream(file), Files.size(file), file.toString(), null);
+    }
+    
+    /**
+     * Cria um payload sobre um ByteBuffer (ex: trecho mapeado de um segmento do SpillBuffer).
+     * Cada tentativa lê uma visão independente do buffer, sem copiá-lo para o heap.
+     */
+    public static StreamingPayload ofBuffer(ByteBuffer buffer) {
+        ByteBuffer source = buffer.asReadOnlyBuffer();
+        return new StreamingPayload(() -> new ByteBufferInputStream(source.duplicate()), source.remaining(),
+                                    "buffer", null);
+    }
+    
+    /**
+     * Grava o body em um arquivo de spill e cria um payload que o relê a cada tentativa.
+     */
+    public static StreamingPayload spill(BodyWriter writer) throws IOException {
+        return spill(writer, DEFAULT_SPILL_DIRECTORY);
+    }
+    
+    /**
+     * Grava o body em um arquivo de spill no diretório informado.
+     */
+    public static StreamingPayload spill(BodyWriter writer, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "payload-", ".json");
+        
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            writer.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        
+        long size = Files.size(file);
+        logger.debug("Payload gravado em spill: {} | Tamanho: {} bytes", file, size);
+        return new StreamingPayload(() -> Files.newInputStream(file), size, file.toString(), file);
+    }
+    
+    /**
+     * Grava um stream de leitura única em um arquivo de spill para permitir retries.
+     */
+    public static StreamingPayload spill(InputStream stream) throws IOException {
+        return spill(stream::transferTo, DEFAULT_SPILL_DIRECTORY);
+    }
+    
+    /**
+     * Retorna uma cópia do payload com outro Content-Type (ex: application/x-ndjson).
+     */
+    public StreamingPayload withContentType(String contentType) {
+        return new StreamingPayload(supplier, length, description, spillFile,
+                                    contentType != null ? contentType : DEFAULT_CONTENT_TYPE);
+    }
+    
+    /**
+     * Abre um novo stream com o conteúdo completo do body.
+     */
+    public InputStream openStream() throws IOException {
+        return supplier.open();
+    }
+    
+    /**
+     * Retorna o tamanho do body em bytes, ou -1 se desconhecido.
+     */
+    public long getLength() {
+        return length;
+    }
+    
+    /**
+     * Retorna a origem do payload (arquivo ou stream), usada em logs e no Dead Letter Channel.
+     */
+    public String getDescription() {
+        return description;
+    }
+    
+    /**
+     * Retorna o Content-Type do body.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+    
+    /**
+     * Remove o arquivo de spill, se houver.
+     */
+    @Override
+    public void close() {
+        if (spillFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            logger.warn("Não foi possível remover o arquivo de spill: {}", spillFile, e);
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "StreamingPayload{" + description + ", " + length + " bytes}";
+    }
+}
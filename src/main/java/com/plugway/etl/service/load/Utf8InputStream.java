@@ -0,0 +1,94 @@
+package com.plugway.etl.service.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * InputStream que codifica uma String em UTF-8 sob demanda, em blocos.
+ * Usado como fonte do CompressingInputStream: o JSON é comprimido sem gerar
+ * uma cópia completa em bytes (String.getBytes) antes do envio.
+ * 
+ * Surrogates isolados são substituídos por '?', como em String.getBytes.
+ */
+class Utf8InputStream extends InputStream {
+    
+    private static final int BUFFER_SIZE = 8192;
+    
+    private final CharBuffer source;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer buffer;
+    
+    private boolean encoded;
+    private boolean finished;
+    
+    Utf8InputStream(String text) {
+        this.source = CharBuffer.wrap(text);
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+    
+    @Override
+    public int read() throws IOException {
+        while (!buffer.hasRemaining()) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        return buffer.get() & 0xff;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        
+        while (!buffer.hasRemaining()) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        
+        int n = Math.min(len, buffer.remaining());
+        buffer.get(b, off, n);
+        return n;
+    }
+    
+    /**
+     * Codifica o próximo bloco da String.
+     * 
+     * @return false quando não há mais bytes
+     */
+    private boolean fill() throws CharacterCodingException {
+        if (finished) {
+            return false;
+        }
+        
+        buffer.clear();
+        CoderResult result = CoderResult.UNDERFLOW;
+        if (!encoded) {
+            // A String inteira está disponível: cada chamada é o fim da entrada
+            result = encoder.encode(source, buffer, true);
+            encoded = result.isUnderflow();
+        }
+        if (encoded) {
+            result = encoder.flush(buffer);
+            finished = result.isUnderflow();
+        }
+        if (result.isError()) {
+            result.throwException();
+        }
+        buffer.flip();
+        return true;
+    }
+}
@@ -0,0 +1,174 @@
+package com.plugway.etl.service.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Eventos customizados do Java Flight Recorder (categoria "PlugWay ETL").
+ * 
+ * Permitem analisar uma execução lenta numa gravação JFR (JDK Mission Control ou {@code jfr print}):
+ * jobs, etapas, filtros do pipeline, queries JDBC, requisições HTTP, esperas de retry
+ * e gravações no Message Store.
+ * 
+ * Os eventos ficam habilitados nas configurações padrão do JFR e só têm custo quando há uma
+ * gravação ativa: fora dela {@code isEnabled()}/{@code shouldCommit()} retornam false e
+ * os campos não são preenchidos. Exemplo:
+ * {@code java -XX:StartFlightRecording=filename=plugway.jfr,settings=profile ...}
+ */
+public final class EtlEvents {
+    
+    private static final String CATEGORY = "PlugWay ETL";
+    
+    private EtlEvents() {
+    }
+    
+    @Name("com.plugway.etl.JobExecution")
+    @Label("Job Execution")
+    @Description("Execução completa de um job ETL")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class JobExecution extends Event {
+        @Label("Job")
+        public String jobId;
+        
+        @Label("Success")
+        public boolean success;
+        
+        @Label("Records")
+        public long records;
+        
+        @Label("Error")
+        public String error;
+    }
+    
+    @Name("com.plugway.etl.StageExecution")
+    @Label("Stage Execution")
+    @Description("Etapa de extração, transformação ou carga de uma execução")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class StageExecution extends Event {
+        @Label("Job")
+        public String jobId;
+        
+        @Label("Stage")
+        public String stage;
+        
+        @Label("Records")
+        public long records;
+        
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+    }
+    
+    @Name("com.plugway.etl.FilterApply")
+    @Label("Filter Apply")
+    @Description("Aplicação de um MessageTransformer no pipeline")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class FilterApply extends Event {
+        @Label("Pipeline")
+        public String pipeline;
+        
+        @Label("Filter")
+        public String filter;
+        
+        @Label("Message Id")
+        public String messageId;
+        
+        @Label("Success")
+        public boolean success;
+    }
+    
+    @Name("com.plugway.etl.JdbcQuery")
+    @Label("JDBC Query")
+    @Description("Execução de uma query ou update via QueryExecutor, incluindo a leitura das linhas")
+    @Category(CATEGORY)
+    public static class JdbcQuery extends Event {
+        @Label("Connection")
+        public String connection;
+        
+        @Label("SQL")
+        public String sql;
+        
+        @Label("Update")
+        public boolean update;
+        
+        @Label("Rows")
+        public long rows;
+        
+        @Label("Success")
+        public boolean success;
+    }
+    
+    @Name("com.plugway.etl.HttpSend")
+    @Label("HTTP Send")
+    @Description("Requisição HTTP enviada pelo RestApiClient, do envio à resposta")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class HttpSend extends Event {
+        @Label("API")
+        public String api;
+        
+        @Label("Method")
+        public String method;
+        
+        @Label("URL")
+        public String url;
+        
+        @Label("Status")
+        @Description("Status HTTP da resposta, ou 0 em caso de erro de I/O")
+        public int status;
+        
+        @Label("Request Bytes")
+        @Description("Bytes do body efetivamente enviados (após a compressão), ou -1 se o body não foi escrito")
+        @DataAmount
+        public long bytes;
+        
+        @Label("Error")
+        public String error;
+    }
+    
+    @Name("com.plugway.etl.RetryWait")
+    @Label("Retry Wait")
+    @Description("Espera entre tentativas no RetryHandler")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class RetryWait extends Event {
+        @Label("API")
+        public String api;
+        
+        @Label("Attempt")
+        @Description("Tentativa que será executada após a espera (1 = primeiro retry)")
+        public int attempt;
+        
+        @Label("Planned Delay")
+        @Timespan(Timespan.MILLISECONDS)
+        public long plannedDelay;
+        
+        @Label("Reason")
+        public String reason;
+    }
+    
+    @Name("com.plugway.etl.MessageStoreWrite")
+    @Label("Message Store Write")
+    @Description("Gravação de uma mensagem no Message Store")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class MessageStoreWrite extends Event {
+        @Label("Message Id")
+        public String messageId;
+        
+        @Label("Context")
+        public String context;
+        
+        @Label("Persisted To File")
+        public boolean persisted;
+    }
+}
@@ -1,49 +1,66 @@
 package com.plugway.etl.service.monitoring;
 
+import com.plugway.etl.service.monitoring.JobMetrics.Stage;
+
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Métricas de execução de um job ETL.
+ * 
+ * As durações são medidas com System.nanoTime (monotônico) entre o início e o fim de cada etapa.
+ * Ao final da execução as medidas são acumuladas nas métricas do job no {@link MetricsRegistry}
+ * e, com uma gravação JFR ativa, emitidas como eventos {@link EtlEvents.JobExecution}
+ * e {@link EtlEvents.StageExecution}.
  */
 public class ExecutionMetrics {
     
     private final String jobId;
     private final Instant startTime;
+    private final long startNanos;
     private Instant endTime;
+    private long endNanos;
     private final AtomicLong recordsProcessed;
-    private final AtomicLong recordsExtracted;
-    private final AtomicLong recordsTransformed;
-    private final AtomicLong recordsLoaded;
-    private long extractDuration;
-    private long transformDuration;
-    private long loadDuration;
+    private final long[] stageStartNanos;
+    private final boolean[] stageStarted;
+    private final long[] stageNanos;
+    private final long[] stageRecords;
+    private final long[] stageBytes;
     private boolean success;
     private String errorMessage;
+    private boolean published;
+    private final EtlEvents.JobExecution jobEvent;
+    private final EtlEvents.StageExecution[] stageEvents;
     
     public ExecutionMetrics(String jobId) {
         this.jobId = jobId;
         this.startTime = Instant.now();
+        this.startNanos = System.nanoTime();
         this.recordsProcessed = new AtomicLong(0);
-        this.recordsExtracted = new AtomicLong(0);
-        this.recordsTransformed = new AtomicLong(0);
-        this.recordsLoaded = new AtomicLong(0);
+        this.stageStartNanos = new long[Stage.values().length];
+        this.stageStarted = new boolean[Stage.values().length];
+        this.stageNanos = new long[Stage.values().length];
+        this.stageRecords = new long[Stage.values().length];
+        this.stageBytes = new long[Stage.values().length];
         this.success = false;
+        this.jobEvent = new EtlEvents.JobExecution();
+        this.jobEvent.begin();
+        this.stageEvents = new EtlEvents.StageExecution[Stage.values().length];
     }
     
     /**
      * Marca o início da etapa de extração.
      */
     public void startExtract() {
-        // Pode ser usado para medir tempo de extração
+        startStage(Stage.EXTRACT);
     }
     
     /**
      * Marca o fim da etapa de extração.
      */
-    public void endExtract(long durationMillis, long recordCount) {
-        this.extractDuration = durationMillis;
-        this.recordsExtracted.set(recordCount);
+    public void endExtract(long recordCount) {
+        endStage(Stage.EXTRACT, recordCount);
         this.recordsProcessed.set(recordCount);
     }
     
@@ -51,30 +68,56 @@ public class ExecutionMetrics {
      * Marca o início da etapa de transformação.
      */
     public void startTransform() {
-        // Pode ser usado para medir tempo de transformação
+        startStage(Stage.TRANSFORM);
     }
     
     /**
      * Marca o fim da etapa de transformação.
      */
-    public void endTransform(long durationMillis, long recordCount) {
-        this.transformDuration = durationMillis;
-        this.recordsTransformed.set(recordCount);
+    public void endTransform(long recordCount) {
+        endStage(Stage.TRANSFORM, recordCount);
     }
     
     /**
      * Marca o início da etapa de carga.
      */
     public void startLoad() {
-        // Pode ser usado para medir tempo de carga
+        startStage(Stage.LOAD);
     }
     
     /**
      * Marca o fim da etapa de carga.
      */
-    public void endLoad(long durationMillis, long recordCount) {
-        this.loadDuration = durationMillis;
-        this.recordsLoaded.set(recordCount);
+    public void endLoad(long recordCount) {
+        endStage(Stage.LOAD, recordCount);
+    }
+    
+    /**
+     * Soma bytes produzidos (transformação) ou enviados (carga) na etapa.
+     */
+    public void addBytes(Stage stage, long bytes) {
+        stageBytes[stage.ordinal()] += bytes;
+    }
+    
+    private void startStage(Stage stage) {
+        stageStartNanos[stage.ordinal()] = System.nanoTime();
+        stageStarted[stage.ordinal()] = true;
+        EtlEvents.StageExecution event = new EtlEvents.StageExecution();
+        if (event.isEnabled()) {
+            event.begin();
+            stageEvents[stage.ordinal()] = event;
+        }
+    }
+    
+    private void endStage(Stage stage, long recordCount) {
+        if (stageStarted[stage.ordinal()]) {
+            stageNanos[stage.ordinal()] = Math.max(1, System.nanoTime() - stageStartNanos[stage.ordinal()]);
+        }
+        stageRecords[stage.ordinal()] = recordCount;
+        if (stageEvents[stage.ordinal()] != null) {
+            // Bytes ainda podem ser somados após o fim da etapa; o evento é gravado em finish()
+            stageEvents[stage.ordinal()].end();
+        }
     }
     
     /**
@@ -82,7 +125,7 @@ public class ExecutionMetrics {
      */
     public void markSuccess() {
         this.success = true;
-        this.endTime = Instant.now();
+        finish();
     }
     
     /**
@@ -91,17 +134,64 @@ public class ExecutionMetrics {
     public void markFailure(String errorMessage) {
         this.success = false;
         this.errorMessage = errorMessage;
+        finish();
+    }
+    
+    private void finish() {
         this.endTime = Instant.now();
+        this.endNanos = System.nanoTime();
+        if (!published) {
+            published = true;
+            MetricsRegistry.getInstance().getJobMetrics(jobId).recordExecution(this);
+            commitEvents();
+        }
+    }
+    
+    private void commitEvents() {
+        for (Stage stage : Stage.values()) {
+            EtlEvents.StageExecution event = stageEvents[stage.ordinal()];
+            if (event != null && event.shouldCommit()) {
+                event.jobId = jobId;
+                event.stage = stage.name();
+                event.records = getStageRecords(stage);
+                event.bytes = getStageBytes(stage);
+                event.commit();
+            }
+        }
+        jobEvent.end();
+        if (jobEvent.shouldCommit()) {
+            jobEvent.jobId = jobId;
+            jobEvent.success = success;
+            jobEvent.records = getRecordsProcessed();
+            jobEvent.error = errorMessage;
+            jobEvent.commit();
+        }
     }
     
     /**
      * Retorna a duração total em milissegundos.
      */
     public long getTotalDuration() {
-        if (endTime != null) {
-            return endTime.toEpochMilli() - startTime.toEpochMilli();
-        }
-        return Instant.now().toEpochMilli() - startTime.toEpochMilli();
+        return TimeUnit.NANOSECONDS.toMillis(getTotalNanos());
+    }
+    
+    /**
+     * Retorna a duração total em nanossegundos.
+     */
+    public long getTotalNanos() {
+        return (endTime != null ? endNanos : System.nanoTime()) - startNanos;
+    }
+    
+    public long getStageNanos(Stage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+    
+    public long getStageRecords(Stage stage) {
+        return stageRecords[stage.ordinal()];
+    }
+    
+    public long getStageBytes(Stage stage) {
+        return stageBytes[stage.ordinal()];
     }
     
     // Getters
@@ -123,27 +213,27 @@ public class ExecutionMetrics {
     }
     
     public long getRecordsExtracted() {
-        return recordsExtracted.get();
+        return getStageRecords(Stage.EXTRACT);
     }
     
     public long getRecordsTransformed() {
-        return recordsTransformed.get();
+        return getStageRecords(Stage.TRANSFORM);
     }
     
     public long getRecordsLoaded() {
-        return recordsLoaded.get();
+        return getStageRecords(Stage.LOAD);
     }
     
     public long getExtractDuration() {
-        return extractDuration;
+        return TimeUnit.NANOSECONDS.toMillis(getStageNanos(Stage.EXTRACT));
     }
     
     public long getTransformDuration() {
-        return transformDuration;
+        return TimeUnit.NANOSECONDS.toMillis(getStageNanos(Stage.TRANSFORM));
     }
     
     public long getLoadDuration() {
-        return loadDuration;
+        return TimeUnit.NANOSECONDS.toMillis(getStageNanos(Stage.LOAD));
     }
     
     public boolean isSuccess() {
@@ -154,4 +244,3 @@ public class ExecutionMetrics {
         return errorMessage;
     }
 }
-
@@ -0,0 +1,198 @@
+package com.plugway.etl.service.monitoring;
+
+import com.plugway.etl.config.ConfigManager;
+import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.service.load.CircuitBreaker;
+import com.plugway.etl.service.load.CompressionStatsRegistry;
+import com.plugway.etl.service.load.ConcurrencyLimiterRegistry;
+import com.plugway.etl.service.load.DeadLetterChannel;
+import com.plugway.etl.service.load.RateLimiterRegistry;
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publica as métricas da aplicação como MBeans na plataforma JMX (domínio com.plugway.etl),
+ * para consulta por JConsole, VisualVM ou agentes de monitoramento sem abrir a interface.
+ * 
+ * - com.plugway.etl:type=Job,name=&lt;jobId&gt;: execuções, etapas, lotes, requisições e retries
+ * - com.plugway.etl:type=ApiTarget,name=&lt;api&gt;: Circuit Breaker, limitadores e compressão
+ * - com.plugway.etl:type=DeadLetterChannel e com.plugway.etl:type=MessageStore
+ * 
+ * Os pools de conexão são publicados pelo próprio HikariCP (com.zaxxer.hikari:type=Pool (...)).
+ * Desabilitado com metrics.jmx.enabled=false.
+ */
+public class JmxExporter {
+    
+    private static final Logger logger = LoggerUtil.getLogger(JmxExporter.class);
+    private static final String DOMAIN = "com.plugway.etl";
+    
+    private final MBeanServer server;
+    private final boolean enabled;
+    
+    private JmxExporter() {
+        this.server = ManagementFactory.getPlatformMBeanServer();
+        this.enabled = isEnabled(ConfigManager.getInstance());
+        if (enabled) {
+            registerDeadLetterChannel();
+            registerMessageStore();
+        }
+    }
+    
+    public static JmxExporter getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final JmxExporter INSTANCE = new JmxExporter();
+    }
+    
+    /**
+     * Indica se a publicação via JMX está habilitada (metrics.jmx.enabled, padrão true).
+     */
+    public static boolean isEnabled(ConfigManager configManager) {
+        return configManager.getBoolean("metrics.jmx.enabled", true);
+    }
+    
+    /**
+     * Publica as métricas acumuladas de um job.
+     */
+    public void registerJob(JobMetrics metrics) {
+        if (!enabled) {
+            return;
+        }
+        MetricsMBean mbean = new MetricsMBean("Métricas do job " + metrics.getJobId())
+            .addLong("Executions", "Execuções finalizadas", metrics::getExecutions)
+            .addLong("Failures", "Execuções com falha", metrics::getFailures)
+            .addDouble("ExecutionP50Millis", "Duração p50 das execuções (ms)",
+                       () -> millis(metrics.getExecutionLatency().getValueAtPercentile(50)))
+            .addDouble("ExecutionP99Millis", "Duração p99 das execuções (ms)",
+                       () -> millis(metrics.getExecutionLatency().getValueAtPercentile(99)));
+        for (JobMetrics.Stage stage : JobMetrics.Stage.values()) {
+            JobMetrics.StageMetrics stageMetrics = metrics.getStage(stage);
+            String prefix = stage.name().charAt(0) + stage.name().substring(1).toLowerCase();
+            mbean.addLong(prefix + "Records", "Registros da etapa", stageMetrics::getRecords)
+                 .addLong(prefix + "Bytes", "Bytes da etapa", stageMetrics::getBytes)
+                 .addDouble(prefix + "RecordsPerSecond", "Registros/s da etapa", stageMetrics::getRecordsPerSecond)
+                 .addDouble(prefix + "BytesPerSecond", "Bytes/s da etapa", stageMetrics::getBytesPerSecond);
+        }
+        mbean.addLong("Batches", "Lotes enviados", metrics::getBatches)
+             .addLong("FailedBatches", "Lotes com falha", metrics::getFailedBatches)
+             .addDouble("BatchP50Millis", "Latência p50 por lote (ms)",
+                        () -> millis(metrics.getBatchLatency().getValueAtPercentile(50)))
+             .addDouble("BatchP99Millis", "Latência p99 por lote (ms)",
+                        () -> millis(metrics.getBatchLatency().getValueAtPercentile(99)))
+             .addLong("Requests", "Requisições HTTP", metrics::getRequests)
+             .addLong("FailedRequests", "Requisições HTTP com falha", metrics::getFailedRequests)
+             .addLong("Retries", "Retries", metrics::getRetries)
+             .addDouble("RequestP50Millis", "Latência p50 por requisição (ms)",
+                        () -> millis(metrics.getRequestLatency().getValueAtPercentile(50)))
+             .addDouble("RequestP99Millis", "Latência p99 por requisição (ms)",
+                        () -> millis(metrics.getRequestLatency().getValueAtPercentile(99)))
+             .addDouble("QueueWaitP99Millis", "Espera p99 na fila de lotes (ms)",
+                        () -> millis(metrics.getQueueWait().getValueAtPercentile(99)))
+             .addDouble("ThrottleWaitP99Millis", "Espera p99 nos limitadores (ms)",
+                        () -> millis(metrics.getThrottleWait().getValueAtPercentile(99)));
+        register(objectName("Job", metrics.getJobId()), mbean);
+    }
+    
+    public void unregisterJob(String jobId) {
+        unregister(objectName("Job", jobId));
+    }
+    
+    /**
+     * Publica o estado de uma API de destino. Os limitadores e as estatísticas de compressão
+     * são obtidos dos registros a cada leitura.
+     */
+    public void registerApiTarget(CircuitBreaker circuitBreaker, ApiConfig config) {
+        if (!enabled) {
+            return;
+        }
+        MetricsMBean mbean = new MetricsMBean("API de destino " + circuitBreaker.getName())
+            .addString("CircuitBreakerState", "Estado do Circuit Breaker", () -> circuitBreaker.getState().name())
+            .addLong("CircuitBreakerRejectedCalls", "Chamadas rejeitadas pelo circuito",
+                     circuitBreaker::getRejectedCalls)
+            .addLong("ConcurrencyLimit", "Limite atual de requisições simultâneas",
+                     () -> (long) ConcurrencyLimiterRegistry.getInstance().getConcurrencyLimiter(config).getLimit())
+            .addLong("InFlightRequests", "Requisições em andamento",
+                     () -> (long) ConcurrencyLimiterRegistry.getInstance().getConcurrencyLimiter(config).getInFlight())
+            .addLong("QueuedRequests", "Requisições aguardando capacidade",
+                     () -> (long) ConcurrencyLimiterRegistry.getInstance().getConcurrencyLimiter(config).getQueued())
+            .addLong("RateLimitDelayedRequests", "Requisições atrasadas pelo Rate Limiter",
+                     () -> RateLimiterRegistry.getInstance().getRateLimiter(config).getDelayedRequests())
+            .addLong("ThrottledResponses", "Respostas 429 recebidas",
+                     () -> RateLimiterRegistry.getInstance().getRateLimiter(config).getThrottledResponses())
+            .addLong("UncompressedBytes", "Bytes antes da compressão",
+                     () -> CompressionStatsRegistry.getInstance().getStats(config).getUncompressedBytes())
+            .addLong("CompressedBytes", "Bytes após a compressão",
+                     () -> CompressionStatsRegistry.getInstance().getStats(config).getCompressedBytes());
+        register(objectName("ApiTarget", circuitBreaker.getName()), mbean);
+    }
+    
+    public void unregisterApiTarget(String name) {
+        unregister(objectName("ApiTarget", name));
+    }
+    
+    private void registerDeadLetterChannel() {
+        MetricsMBean mbean = new MetricsMBean("Dead Letter Channel")
+            .addLong("FailedMessages", "Mensagens pendentes",
+                     () -> (long) DeadLetterChannel.getInstance().getFailedMessageCount())
+            .addLong("DroppedMessages", "Mensagens descartadas por limite de capacidade",
+                     () -> DeadLetterChannel.getInstance().getDroppedMessages());
+        register(objectName("DeadLetterChannel", null), mbean);
+    }
+    
+    private void registerMessageStore() {
+        MetricsMBean mbean = new MetricsMBean("Message Store")
+            .addLong("Messages", "Mensagens em memória", () -> (long) MessageStore.getInstance().size());
+        register(objectName("MessageStore", null), mbean);
+    }
+    
+    private void register(ObjectName name, Object mbean) {
+        if (name == null) {
+            return;
+        }
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+            logger.debug("MBean registrado: {}", name);
+        } catch (InstanceAlreadyExistsException e) {
+            logger.debug("MBean já registrado: {}", name);
+        } catch (Exception e) {
+            logger.warn("Erro ao registrar MBean: {}", name, e);
+        }
+    }
+    
+    private void unregister(ObjectName name) {
+        if (!enabled || name == null) {
+            return;
+        }
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (Exception e) {
+            logger.warn("Erro ao remover MBean: {}", name, e);
+        }
+    }
+    
+    static ObjectName objectName(String type, String name) {
+        try {
+            return new ObjectName(DOMAIN + ":type=" + type + (name != null ? ",name=" + ObjectName.quote(name) : ""));
+        } catch (MalformedObjectNameException e) {
+            logger.warn("Nome de MBean inválido: {} {}", type, name);
+            return null;
+        }
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,243 @@
+package com.plugway.etl.service.monitoring;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Métricas acumuladas de um job ao longo de todas as suas execuções no processo.
+ * 
+ * Por etapa: duração das execuções (histograma), registros, bytes e throughput.
+ * Na carga: latência por lote e por requisição HTTP, espera na fila de lotes e nos limitadores
+ * de taxa/concorrência, e número de retries.
+ */
+public class JobMetrics {
+    
+    /**
+     * Etapas de uma execução ETL.
+     */
+    public enum Stage {
+        EXTRACT, TRANSFORM, LOAD
+    }
+    
+    private final String jobId;
+    private final Map<Stage, StageMetrics> stages;
+    private final AtomicLong executions;
+    private final AtomicLong failures;
+    private final LatencyHistogram executionLatency;
+    private final LatencyHistogram batchLatency;
+    private final LatencyHistogram requestLatency;
+    private final LatencyHistogram queueWait;
+    private final LatencyHistogram throttleWait;
+    private final AtomicLong batches;
+    private final AtomicLong failedBatches;
+    private final AtomicLong requests;
+    private final AtomicLong failedRequests;
+    private final AtomicLong retries;
+    
+    public JobMetrics(String jobId) {
+        this.jobId = jobId;
+        this.stages = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new StageMetrics());
+        }
+        this.executions = new AtomicLong();
+        this.failures = new AtomicLong();
+        this.executionLatency = new LatencyHistogram();
+        this.batchLatency = new LatencyHistogram();
+        this.requestLatency = new LatencyHistogram();
+        this.queueWait = new LatencyHistogram();
+        this.throttleWait = new LatencyHistogram();
+        this.batches = new AtomicLong();
+        this.failedBatches = new AtomicLong();
+        this.requests = new AtomicLong();
+        this.failedRequests = new AtomicLong();
+        this.retries = new AtomicLong();
+    }
+    
+    /**
+     * Acumula as medidas de uma execução finalizada.
+     */
+    void recordExecution(ExecutionMetrics metrics) {
+        executions.incrementAndGet();
+        if (!metrics.isSuccess()) {
+            failures.incrementAndGet();
+        }
+        executionLatency.record(metrics.getTotalNanos());
+        for (Stage stage : Stage.values()) {
+            if (metrics.getStageNanos(stage) > 0) {
+                stages.get(stage).record(metrics.getStageNanos(stage), metrics.getStageRecords(stage),
+                                         metrics.getStageBytes(stage));
+            }
+        }
+    }
+    
+    /**
+     * Registra o envio de um lote (do primeiro envio à resposta final, incluindo retries).
+     */
+    public void recordBatch(long nanos, boolean success) {
+        batches.incrementAndGet();
+        if (!success) {
+            failedBatches.incrementAndGet();
+        }
+        batchLatency.record(nanos);
+    }
+    
+    /**
+     * Registra uma tentativa HTTP. Os bytes enviados contam no throughput da etapa de carga.
+     */
+    public void recordRequest(long nanos, long bytes, boolean success) {
+        requests.incrementAndGet();
+        if (!success) {
+            failedRequests.incrementAndGet();
+        }
+        requestLatency.record(nanos);
+        stages.get(Stage.LOAD).addBytes(bytes);
+    }
+    
+    /**
+     * Registra o tempo que um lote serializado aguardou na fila até ser consumido pela carga.
+     */
+    public void recordQueueWait(long nanos) {
+        queueWait.record(nanos);
+    }
+    
+    /**
+     * Registra o tempo que uma tentativa aguardou o Rate Limiter e o limite de concorrência.
+     */
+    public void recordThrottleWait(long nanos) {
+        throttleWait.record(nanos);
+    }
+    
+    public void recordRetry() {
+        retries.incrementAndGet();
+    }
+    
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public StageMetrics getStage(Stage stage) {
+        return stages.get(stage);
+    }
+    
+    public long getExecutions() {
+        return executions.get();
+    }
+    
+    public long getFailures() {
+        return failures.get();
+    }
+    
+    public LatencyHistogram getExecutionLatency() {
+        return executionLatency;
+    }
+    
+    public LatencyHistogram getBatchLatency() {
+        return batchLatency;
+    }
+    
+    public LatencyHistogram getRequestLatency() {
+        return requestLatency;
+    }
+    
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+    
+    public LatencyHistogram getThrottleWait() {
+        return throttleWait;
+    }
+    
+    public long getBatches() {
+        return batches.get();
+    }
+    
+    public long getFailedBatches() {
+        return failedBatches.get();
+    }
+    
+    public long getRequests() {
+        return requests.get();
+    }
+    
+    public long getFailedRequests() {
+        return failedRequests.get();
+    }
+    
+    public long getRetries() {
+        return retries.get();
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%s: Execuções: %d | Falhas: %d | Duração: %s%n",
+            jobId, getExecutions(), getFailures(), executionLatency));
+        for (Stage stage : Stage.values()) {
+            summary.append("    ").append(stage).append(": ").append(stages.get(stage)).append(System.lineSeparator());
+        }
+        summary.append(String.format("    Lotes: %d (falhas: %d) | %s%n", getBatches(), getFailedBatches(), batchLatency));
+        summary.append(String.format("    Requisições: %d (falhas: %d, retries: %d) | %s%n",
+            getRequests(), getFailedRequests(), getRetries(), requestLatency));
+        summary.append(String.format("    Espera na fila: %s | Espera nos limitadores: %s", queueWait, throttleWait));
+        return summary.toString();
+    }
+    
+    /**
+     * Medidas acumuladas de uma etapa.
+     */
+    public static class StageMetrics {
+        private final LatencyHistogram duration = new LatencyHistogram();
+        private final AtomicLong records = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        
+        void record(long nanos, long recordCount, long byteCount) {
+            duration.record(nanos);
+            records.addAndGet(recordCount);
+            bytes.addAndGet(byteCount);
+        }
+        
+        void addBytes(long byteCount) {
+            bytes.addAndGet(byteCount);
+        }
+        
+        public LatencyHistogram getDuration() {
+            return duration;
+        }
+        
+        public long getRecords() {
+            return records.get();
+        }
+        
+        public long getBytes() {
+            return bytes.get();
+        }
+        
+        /**
+         * Registros por segundo sobre o tempo total gasto na etapa.
+         */
+        public double getRecordsPerSecond() {
+            return perSecond(records.get());
+        }
+        
+        /**
+         * Bytes por segundo sobre o tempo total gasto na etapa.
+         */
+        public double getBytesPerSecond() {
+            return perSecond(bytes.get());
+        }
+        
+        private double perSecond(long amount) {
+            long nanos = duration.getTotalNanos();
+            return nanos == 0 ? 0 : amount * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%d registros (%.0f/s) | %d bytes (%.0f/s) | %s",
+                getRecords(), getRecordsPerSecond(), getBytes(), getBytesPerSecond(), duration);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.plugway.etl.service.monitoring;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latências em nanossegundos, no estilo HdrHistogram.
+ * 
+ * Os buckets são log-lineares: valores até 127ns têm bucket próprio e, acima disso, cada potência
+ * de 2 é dividida em 64 buckets, o que limita o erro relativo dos percentis a ~1,6%
+ * com tamanho fixo (~30KB) para qualquer faixa de valores.
+ * 
+ * Thread-safe e sem locks: {@link #record} só faz incrementos atômicos.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS; // 64
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT * 2; // 128
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+    
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount;
+    private final AtomicLong totalNanos;
+    private final AtomicLong maxNanos;
+    
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.totalCount = new AtomicLong();
+        this.totalNanos = new AtomicLong();
+        this.maxNanos = new AtomicLong();
+    }
+    
+    /**
+     * Registra uma medida. Valores negativos são tratados como zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(value);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+    
+    /**
+     * Retorna o valor (nanossegundos) abaixo do qual estão as medidas do percentil informado.
+     * 
+     * @param percentile Percentil entre 0 e 100
+     * @return Maior valor equivalente do bucket do percentil, ou 0 se não houver medidas
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            seen += counts.get(index);
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(index), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+    
+    public long getCount() {
+        return totalCount.get();
+    }
+    
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+    
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+    
+    public long getMeanNanos() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : totalNanos.get() / count;
+    }
+    
+    /**
+     * Resumo em milissegundos (p50, p90, p99 e máximo).
+     */
+    @Override
+    public String toString() {
+        return String.format("n: %d | p50: %.1fms | p90: %.1fms | p99: %.1fms | máx: %.1fms",
+            getCount(), toMillis(getValueAtPercentile(50)), toMillis(getValueAtPercentile(90)),
+            toMillis(getValueAtPercentile(99)), toMillis(getMaxNanos()));
+    }
+    
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+    
+    static long highestEquivalentValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+    
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -1,8 +1,9 @@
 package com.plugway.etl.service.monitoring;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.util.JsonUtil;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
@@ -35,15 +36,13 @@ public class MessageStore {
     private static final Logger logger = LoggerUtil.getLogger(MessageStore.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
     
-    private static MessageStore instance;
-    private static final Object instanceLock = new Object();
-    
     private final Map<String, StoredMessage> messages;
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
     private final Path storeDirectory;
     private final boolean persistToFile;
     private final ReadWriteLock lock;
     private final int maxInMemoryMessages;
+    private volatile boolean directoryCreated;
     
     private MessageStore() {
         this(true, 1000);
@@ -51,35 +50,25 @@ public class MessageStore {
     
     private MessageStore(boolean persistToFile, int maxInMemoryMessages) {
         this.messages = new ConcurrentHashMap<>();
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        // Mantém datas como timestamps numéricos, formato histórico dos arquivos do store
+        this.writer = JsonUtil.mapper().writer()
+            .with(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .withDefaultPrettyPrinter();
         this.persistToFile = persistToFile;
         this.maxInMemoryMessages = maxInMemoryMessages;
         this.lock = new ReentrantReadWriteLock();
         this.storeDirectory = Paths.get("data", "message-store");
-        
-        if (persistToFile) {
-            try {
-                Files.createDirectories(storeDirectory);
-                logger.info("Message Store inicializado. Diretório: {}", storeDirectory);
-            } catch (IOException e) {
-                logger.error("Erro ao criar diretório do Message Store", e);
-            }
-        }
     }
     
     /**
      * Obtém instância singleton do Message Store.
      */
     public static MessageStore getInstance() {
-        if (instance == null) {
-            synchronized (instanceLock) {
-                if (instance == null) {
-                    instance = new MessageStore();
-                }
-            }
-        }
-        return instance;
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final MessageStore INSTANCE = new MessageStore();
     }
     
     /**
@@ -90,6 +79,8 @@ public class MessageStore {
             return;
         }
         
+        EtlEvents.MessageStoreWrite event = new EtlEvents.MessageStoreWrite();
+        event.begin();
         this.lock.writeLock().lock();
         try {
             StoredMessage stored = new StoredMessage(message, context, Instant.now());
@@ -110,6 +101,13 @@ public class MessageStore {
             
         } finally {
             this.lock.writeLock().unlock();
+            event.end();
+            if (event.shouldCommit()) {
+                event.messageId = message.getMessageId();
+                event.context = context;
+                event.persisted = persistToFile;
+                event.commit();
+            }
         }
     }
     
@@ -216,6 +214,13 @@ public class MessageStore {
      */
     private void persistToFile(StoredMessage stored) {
         try {
+            // Diretório criado na primeira gravação, e não na inicialização da aplicação
+            if (!directoryCreated) {
+                Files.createDirectories(storeDirectory);
+                directoryCreated = true;
+                logger.info("Message Store inicializado. Diretório: {}", storeDirectory);
+            }
+            
             String filename = String.format("message-%s-%s.json",
                 stored.getMessage().getMessageId(),
                 DATE_FORMATTER.format(LocalDateTime.now()));
@@ -230,7 +235,7 @@ public class MessageStore {
             data.put("payload", stored.getMessage().getPayload());
             data.put("headers", stored.getMessage().getHeaders());
             
-            String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(data);
+            String json = writer.writeValueAsString(data);
             Files.write(filePath, json.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
             
         } catch (IOException e) {
@@ -0,0 +1,117 @@
+package com.plugway.etl.service.monitoring;
+
+import com.plugway.etl.config.ConfigManager;
+import com.plugway.etl.util.LoggerUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Endpoint HTTP de métricas no formato do Prometheus (GET /metrics).
+ * 
+ * Desabilitado por padrão; habilitado com metrics.http.enabled=true. Escuta em
+ * metrics.http.host (padrão 127.0.0.1) e metrics.http.port (padrão 9464).
+ */
+public class MetricsHttpServer {
+    
+    private static final Logger logger = LoggerUtil.getLogger(MetricsHttpServer.class);
+    
+    private final PrometheusExporter exporter;
+    private HttpServer server;
+    private ExecutorService executor;
+    
+    private MetricsHttpServer() {
+        this.exporter = new PrometheusExporter();
+    }
+    
+    public static MetricsHttpServer getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final MetricsHttpServer INSTANCE = new MetricsHttpServer();
+    }
+    
+    /**
+     * Inicia o endpoint se metrics.http.enabled estiver habilitado.
+     */
+    public void startIfEnabled() {
+        ConfigManager configManager = ConfigManager.getInstance();
+        if (!configManager.getBoolean("metrics.http.enabled", false)) {
+            return;
+        }
+        try {
+            start(configManager.getString("metrics.http.host", "127.0.0.1"),
+                  configManager.getInt("metrics.http.port", 9464));
+        } catch (IOException e) {
+            logger.error("Erro ao iniciar endpoint de métricas", e);
+        }
+    }
+    
+    /**
+     * Inicia o endpoint no endereço informado. Porta 0 usa uma porta livre.
+     */
+    public synchronized void start(String host, int port) throws IOException {
+        if (server != null) {
+            return;
+        }
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+        httpServer.createContext("/metrics", this::handle);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        server = httpServer;
+        logger.info("Endpoint de métricas disponível em http://{}:{}/metrics", host, getPort());
+    }
+    
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+            executor.shutdown();
+            logger.info("Endpoint de métricas encerrado");
+        }
+    }
+    
+    /**
+     * Porta em que o endpoint está escutando, ou -1 se não estiver ativo.
+     */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body;
+            try {
+                body = exporter.scrape().getBytes(StandardCharsets.UTF_8);
+            } catch (RuntimeException e) {
+                logger.warn("Erro ao gerar métricas", e);
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", PrometheusExporter.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
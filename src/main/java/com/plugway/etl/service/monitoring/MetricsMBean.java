@@ -0,0 +1,99 @@
+package com.plugway.etl.service.monitoring;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * MBean somente leitura cujos atributos são lidos sob demanda das métricas em memória.
+ * Usado pelo {@link JmxExporter} para expor jobs, APIs de destino, Dead Letter Channel e Message Store.
+ */
+public class MetricsMBean implements DynamicMBean {
+    
+    private final String description;
+    private final Map<String, Supplier<?>> suppliers;
+    private final Map<String, MBeanAttributeInfo> attributes;
+    
+    public MetricsMBean(String description) {
+        this.description = description;
+        this.suppliers = new LinkedHashMap<>();
+        this.attributes = new LinkedHashMap<>();
+    }
+    
+    /**
+     * Adiciona um atributo numérico (long).
+     */
+    public MetricsMBean addLong(String name, String attributeDescription, Supplier<Long> supplier) {
+        return add(name, Long.class, attributeDescription, supplier);
+    }
+    
+    /**
+     * Adiciona um atributo numérico (double).
+     */
+    public MetricsMBean addDouble(String name, String attributeDescription, Supplier<Double> supplier) {
+        return add(name, Double.class, attributeDescription, supplier);
+    }
+    
+    /**
+     * Adiciona um atributo texto.
+     */
+    public MetricsMBean addString(String name, String attributeDescription, Supplier<String> supplier) {
+        return add(name, String.class, attributeDescription, supplier);
+    }
+    
+    private MetricsMBean add(String name, Class<?> type, String attributeDescription, Supplier<?> supplier) {
+        suppliers.put(name, supplier);
+        attributes.put(name, new MBeanAttributeInfo(name, type.getName(), attributeDescription, true, false, false));
+        return this;
+    }
+    
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Supplier<?> supplier = suppliers.get(attribute);
+        if (supplier == null) {
+            throw new AttributeNotFoundException("Atributo não encontrado: " + attribute);
+        }
+        return supplier.get();
+    }
+    
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        AttributeList list = new AttributeList();
+        for (String name : names) {
+            Supplier<?> supplier = suppliers.get(name);
+            if (supplier != null) {
+                list.add(new Attribute(name, supplier.get()));
+            }
+        }
+        return list;
+    }
+    
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Atributo somente leitura: " + attribute.getName());
+    }
+    
+    @Override
+    public AttributeList setAttributes(AttributeList attributeList) {
+        return new AttributeList();
+    }
+    
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("MetricsMBean não possui operações");
+    }
+    
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        return new MBeanInfo(getClass().getName(), description,
+                             attributes.values().toArray(new MBeanAttributeInfo[0]),
+                             null, new MBeanOperationInfo[0], null);
+    }
+}
@@ -0,0 +1,67 @@
+package com.plugway.etl.service.monitoring;
+
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro global das métricas de execução, um por job.
+ * As métricas acumulam todas as execuções do job desde o início do processo.
+ */
+public class MetricsRegistry {
+    
+    private static final Logger logger = LoggerUtil.getLogger(MetricsRegistry.class);
+    
+    private final Map<String, JobMetrics> jobMetrics;
+    
+    private MetricsRegistry() {
+        this.jobMetrics = new ConcurrentHashMap<>();
+    }
+    
+    public static MetricsRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    }
+    
+    /**
+     * Obtém ou cria as métricas do job informado.
+     */
+    public JobMetrics getJobMetrics(String jobId) {
+        return jobMetrics.computeIfAbsent(jobId, key -> {
+            logger.debug("Métricas criadas para o job: {}", key);
+            JobMetrics metrics = new JobMetrics(key);
+            JmxExporter.getInstance().registerJob(metrics);
+            return metrics;
+        });
+    }
+    
+    /**
+     * Retorna as métricas do job, ou null se ele ainda não foi executado.
+     */
+    public JobMetrics find(String jobId) {
+        return jobMetrics.get(jobId);
+    }
+    
+    /**
+     * Retorna as métricas de todos os jobs.
+     */
+    public List<JobMetrics> getAll() {
+        return new ArrayList<>(jobMetrics.values());
+    }
+    
+    /**
+     * Remove as métricas de um job.
+     */
+    public void remove(String jobId) {
+        if (jobMetrics.remove(jobId) != null) {
+            JmxExporter.getInstance().unregisterJob(jobId);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.plugway.etl.service.monitoring;
+
+import com.plugway.etl.dao.ConnectionManager;
+import com.plugway.etl.service.load.CircuitBreaker;
+import com.plugway.etl.service.load.CircuitBreakerRegistry;
+import com.plugway.etl.service.load.CompressionStats;
+import com.plugway.etl.service.load.CompressionStatsRegistry;
+import com.plugway.etl.service.load.ConcurrencyLimiter;
+import com.plugway.etl.service.load.ConcurrencyLimiterRegistry;
+import com.plugway.etl.service.load.DeadLetterChannel;
+import com.plugway.etl.service.load.RateLimiter;
+import com.plugway.etl.service.load.RateLimiterRegistry;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gera as métricas da aplicação no formato texto do Prometheus (versão 0.0.4).
+ * 
+ * Latências são expostas como summary em segundos (quantis 0.5, 0.9 e 0.99, _sum e _count),
+ * calculados dos histogramas acumulados no {@link MetricsRegistry}.
+ */
+public class PrometheusExporter {
+    
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    
+    /**
+     * Coleta o estado atual de todas as métricas.
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+        writeJobs(out, MetricsRegistry.getInstance().getAll());
+        writeApiTargets(out);
+        writeConnectionPools(out, ConnectionManager.getInstance());
+        writeDeadLetterChannel(out, DeadLetterChannel.getInstance());
+        
+        header(out, "plugway_message_store_messages", "gauge", "Mensagens em memória no Message Store");
+        sample(out, "plugway_message_store_messages", "", MessageStore.getInstance().size());
+        return out.toString();
+    }
+    
+    private void writeJobs(StringBuilder out, List<JobMetrics> jobs) {
+        header(out, "plugway_job_executions_total", "counter", "Execuções finalizadas do job");
+        for (JobMetrics job : jobs) {
+            sample(out, "plugway_job_executions_total", labels("job", job.getJobId()), job.getExecutions());
+        }
+        header(out, "plugway_job_failures_total", "counter", "Execuções do job com falha");
+        for (JobMetrics job : jobs) {
+            sample(out, "plugway_job_failures_total", labels("job", job.getJobId()), job.getFailures());
+        }
+        header(out, "plugway_job_execution_seconds", "summary", "Duração das execuções do job");
+        for (JobMetrics job : jobs) {
+            summary(out, "plugway_job_execution_seconds", labels("job", job.getJobId()), job.getExecutionLatency());
+        }
+        
+        header(out, "plugway_stage_duration_seconds", "summary", "Duração de cada etapa por execução");
+        for (JobMetrics job : jobs) {
+            for (JobMetrics.Stage stage : JobMetrics.Stage.values()) {
+                summary(out, "plugway_stage_duration_seconds", stageLabels(job, stage),
+                        job.getStage(stage).getDuration());
+            }
+        }
+        header(out, "plugway_stage_records_total", "counter", "Registros processados por etapa");
+        for (JobMetrics job : jobs) {
+            for (JobMetrics.Stage stage : JobMetrics.Stage.values()) {
+                sample(out, "plugway_stage_records_total", stageLabels(job, stage), job.getStage(stage).getRecords());
+            }
+        }
+        header(out, "plugway_stage_bytes_total", "counter", "Bytes produzidos (transformação) ou enviados (carga)");
+        for (JobMetrics job : jobs) {
+            for (JobMetrics.Stage stage : JobMetrics.Stage.values()) {
+                sample(out, "plugway_stage_bytes_total", stageLabels(job, stage), job.getStage(stage).getBytes());
+            }
+        }
+        
+        header(out, "plugway_load_batches_total", "counter", "Lotes enviados");
+        for (JobMetrics job : jobs) {
+            sample(out, "plugway_load_batches_total", labels("job", job.getJobId()), job.getBatches());
+        }
+        header(out, "plugway_load_batch_failures_total", "counter", "Lotes com falha após os retries");
+        for (JobMetrics job : jobs) {
+            sample(out, "plugway_load_batch_failures_total", labels("job", job.getJobId()), job.getFailedBatches());
+        }
+        header(out, "plugway_load_batch_seconds", "summary", "Latência por lote, incluindo retries");
+        for (JobMetrics job : jobs) {
+            summary(out, "plugway_load_batch_seconds", labels("job", job.getJobId()), job.getBatchLatency());
+        }
+        header(out, "plugway_load_queue_wait_seconds", "summary", "Espera dos lotes na fila até a carga");
+        for (JobMetrics job : jobs) {
+            summary(out, "plugway_load_queue_wait_seconds", labels("job", job.getJobId()), job.getQueueWait());
+        }
+        header(out, "plugway_load_throttle_wait_seconds", "summary", "Espera nos limitadores de taxa e concorrência");
+        for (JobMetrics job : jobs) {
+            summary(out, "plugway_load_throttle_wait_seconds", labels("job", job.getJobId()), job.getThrottleWait());
+        }
+        
+        header(out, "plugway_http_requests_total", "counter", "Requisições HTTP (tentativas)");
+        for (JobMetrics job : jobs) {
+            sample(out, "plugway_http_requests_total", labels("job", job.getJobId()), job.getRequests());
+        }
+        header(out, "plugway_http_request_failures_total", "counter", "Requisições HTTP com erro ou status fora de 2xx");
+        for (JobMetrics job : jobs) {
+            sample(out, "plugway_http_request_failures_total", labels("job", job.getJobId()), job.getFailedRequests());
+        }
+        header(out, "plugway_http_retries_total", "counter", "Retries de requisições HTTP");
+        for (JobMetrics job : jobs) {
+            sample(out, "plugway_http_retries_total", labels("job", job.getJobId()), job.getRetries());
+        }
+        header(out, "plugway_http_request_seconds", "summary", "Latência por requisição HTTP");
+        for (JobMetrics job : jobs) {
+            summary(out, "plugway_http_request_seconds", labels("job", job.getJobId()), job.getRequestLatency());
+        }
+    }
+    
+    private void writeApiTargets(StringBuilder out) {
+        List<CircuitBreaker> circuitBreakers = CircuitBreakerRegistry.getInstance().getAll();
+        header(out, "plugway_api_circuit_breaker_state", "gauge", "Estado do Circuit Breaker (1 = estado atual)");
+        for (CircuitBreaker circuitBreaker : circuitBreakers) {
+            for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                sample(out, "plugway_api_circuit_breaker_state",
+                       labels("api", circuitBreaker.getName(), "state", state.name()),
+                       circuitBreaker.getState() == state ? 1 : 0);
+            }
+        }
+        header(out, "plugway_api_circuit_breaker_rejected_total", "counter", "Chamadas rejeitadas pelo Circuit Breaker");
+        for (CircuitBreaker circuitBreaker : circuitBreakers) {
+            sample(out, "plugway_api_circuit_breaker_rejected_total", labels("api", circuitBreaker.getName()),
+                   circuitBreaker.getRejectedCalls());
+        }
+        
+        List<ConcurrencyLimiter> concurrencyLimiters = ConcurrencyLimiterRegistry.getInstance().getAll();
+        header(out, "plugway_api_concurrency_limit", "gauge", "Limite atual de requisições simultâneas");
+        for (ConcurrencyLimiter limiter : concurrencyLimiters) {
+            sample(out, "plugway_api_concurrency_limit", labels("api", limiter.getName()), limiter.getLimit());
+        }
+        header(out, "plugway_api_requests_in_flight", "gauge", "Requisições em andamento");
+        for (ConcurrencyLimiter limiter : concurrencyLimiters) {
+            sample(out, "plugway_api_requests_in_flight", labels("api", limiter.getName()), limiter.getInFlight());
+        }
+        header(out, "plugway_api_requests_queued", "gauge", "Requisições aguardando capacidade");
+        for (ConcurrencyLimiter limiter : concurrencyLimiters) {
+            sample(out, "plugway_api_requests_queued", labels("api", limiter.getName()), limiter.getQueued());
+        }
+        
+        List<RateLimiter> rateLimiters = RateLimiterRegistry.getInstance().getAll();
+        header(out, "plugway_api_rate_limit_delayed_total", "counter", "Requisições atrasadas pelo Rate Limiter");
+        for (RateLimiter rateLimiter : rateLimiters) {
+            sample(out, "plugway_api_rate_limit_delayed_total", labels("api", rateLimiter.getName()),
+                   rateLimiter.getDelayedRequests());
+        }
+        header(out, "plugway_api_throttled_responses_total", "counter", "Respostas 429 recebidas");
+        for (RateLimiter rateLimiter : rateLimiters) {
+            sample(out, "plugway_api_throttled_responses_total", labels("api", rateLimiter.getName()),
+                   rateLimiter.getThrottledResponses());
+        }
+        
+        List<CompressionStats> compressionStats = CompressionStatsRegistry.getInstance().getAll();
+        header(out, "plugway_api_compression_input_bytes_total", "counter", "Bytes antes da compressão");
+        for (CompressionStats stats : compressionStats) {
+            sample(out, "plugway_api_compression_input_bytes_total", labels("api", stats.getName()),
+                   stats.getUncompressedBytes());
+        }
+        header(out, "plugway_api_compression_output_bytes_total", "counter", "Bytes após a compressão");
+        for (CompressionStats stats : compressionStats) {
+            sample(out, "plugway_api_compression_output_bytes_total", labels("api", stats.getName()),
+                   stats.getCompressedBytes());
+        }
+    }
+    
+    private void writeConnectionPools(StringBuilder out, ConnectionManager connectionManager) {
+        String[][] gauges = {
+            {"plugway_db_pool_active_connections", "Conexões em uso"},
+            {"plugway_db_pool_idle_connections", "Conexões ociosas"},
+            {"plugway_db_pool_total_connections", "Conexões abertas"},
+            {"plugway_db_pool_pending_threads", "Threads aguardando conexão"}
+        };
+        for (int metric = 0; metric < gauges.length; metric++) {
+            header(out, gauges[metric][0], "gauge", gauges[metric][1]);
+            for (String name : connectionManager.getPoolNames()) {
+                HikariPoolMXBean pool = connectionManager.getPoolMXBean(name);
+                if (pool != null) {
+                    sample(out, gauges[metric][0], labels("pool", name), poolValue(pool, metric));
+                }
+            }
+        }
+    }
+    
+    private static int poolValue(HikariPoolMXBean pool, int metric) {
+        switch (metric) {
+            case 0:
+                return pool.getActiveConnections();
+            case 1:
+                return pool.getIdleConnections();
+            case 2:
+                return pool.getTotalConnections();
+            default:
+                return pool.getThreadsAwaitingConnection();
+        }
+    }
+    
+    private void writeDeadLetterChannel(StringBuilder out, DeadLetterChannel deadLetterChannel) {
+        header(out, "plugway_dlq_messages", "gauge", "Mensagens pendentes no Dead Letter Channel por motivo");
+        for (Map.Entry<String, Integer> entry : deadLetterChannel.getCountsByReason().entrySet()) {
+            sample(out, "plugway_dlq_messages", labels("reason", entry.getKey()), entry.getValue());
+        }
+        header(out, "plugway_dlq_dropped_total", "counter", "Mensagens descartadas por limite de capacidade");
+        sample(out, "plugway_dlq_dropped_total", "", deadLetterChannel.getDroppedMessages());
+    }
+    
+    private static String stageLabels(JobMetrics job, JobMetrics.Stage stage) {
+        return labels("job", job.getJobId(), "stage", stage.name().toLowerCase());
+    }
+    
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+    
+    private static void summary(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        for (double quantile : QUANTILES) {
+            String quantileLabels = labels.isEmpty()
+                ? labels("quantile", String.valueOf(quantile))
+                : labels.substring(0, labels.length() - 1) + ",quantile=\"" + quantile + "\"}";
+            sample(out, name, quantileLabels, seconds(histogram.getValueAtPercentile(quantile * 100)));
+        }
+        sample(out, name + "_sum", labels, seconds(histogram.getTotalNanos()));
+        sample(out, name + "_count", labels, histogram.getCount());
+    }
+    
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append(labels).append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+    
+    /**
+     * Monta o bloco de labels a partir de pares nome/valor.
+     */
+    static String labels(String... namesAndValues) {
+        StringBuilder labels = new StringBuilder("{");
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(namesAndValues[i]).append("=\"").append(escape(namesAndValues[i + 1])).append('"');
+        }
+        return labels.append('}').toString();
+    }
+    
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+    
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,126 @@
+package com.plugway.etl.service.monitoring;
+
+import com.plugway.etl.model.EtlMessage;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Trecho cronometrado de um trace: a execução de um job, uma etapa, um filtro, um lote ou uma
+ * requisição HTTP.
+ * 
+ * Spans não amostrados só carregam o contexto para propagação; ao serem finalizados não são
+ * exportados. Atributos e finalização podem ocorrer em threads diferentes (callbacks assíncronos).
+ */
+public class Span {
+    
+    private final Tracer tracer;
+    private final String name;
+    private final TraceContext context;
+    private final String parentSpanId;
+    private final Instant startTime;
+    private final long startNanos;
+    private final Map<String, String> attributes;
+    private long durationNanos;
+    private boolean error;
+    private boolean ended;
+    
+    Span(Tracer tracer, String name, TraceContext context, String parentSpanId) {
+        this.tracer = tracer;
+        this.name = name;
+        this.context = context;
+        this.parentSpanId = parentSpanId;
+        this.startTime = Instant.now();
+        this.startNanos = System.nanoTime();
+        this.attributes = new LinkedHashMap<>();
+    }
+    
+    /**
+     * Adiciona um atributo ao span (ignorado se não amostrado).
+     */
+    public synchronized Span setAttribute(String key, Object value) {
+        if (context.isSampled() && value != null) {
+            attributes.put(key, String.valueOf(value));
+        }
+        return this;
+    }
+    
+    /**
+     * Marca o span como falha, registrando a mensagem no atributo "error".
+     */
+    public synchronized Span setError(String message) {
+        this.error = true;
+        return setAttribute("error", message);
+    }
+    
+    /**
+     * Finaliza o span e o entrega ao exportador. Chamadas repetidas são ignoradas.
+     */
+    public void end() {
+        synchronized (this) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            durationNanos = System.nanoTime() - startNanos;
+        }
+        if (context.isSampled()) {
+            tracer.export(this);
+        }
+    }
+    
+    /**
+     * Grava o contexto deste span na mensagem (header traceparent) e usa o trace id como
+     * correlation id quando a mensagem ainda não tiver um.
+     */
+    public void inject(EtlMessage message) {
+        message.addHeader(TraceContext.TRACEPARENT_HEADER, context.toTraceparent());
+        if (message.getCorrelationId() == null) {
+            message.setCorrelationId(context.getTraceId());
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public TraceContext getContext() {
+        return context;
+    }
+    
+    public String getTraceId() {
+        return context.getTraceId();
+    }
+    
+    public String getSpanId() {
+        return context.getSpanId();
+    }
+    
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+    
+    public Instant getStartTime() {
+        return startTime;
+    }
+    
+    public synchronized long getDurationNanos() {
+        return durationNanos;
+    }
+    
+    public synchronized boolean isError() {
+        return error;
+    }
+    
+    public synchronized Map<String, String> getAttributes() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s [trace=%s span=%s parent=%s] %.1fms%s %s", name, getTraceId(), getSpanId(),
+            parentSpanId, getDurationNanos() / 1_000_000.0, isError() ? " ERRO" : "", getAttributes());
+    }
+}
@@ -0,0 +1,118 @@
+package com.plugway.etl.service.monitoring;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Contexto de rastreamento propagado entre etapas, mensagens e requisições HTTP.
+ * 
+ * Segue o formato do header W3C {@code traceparent}: {@code 00-<trace-id>-<span-id>-<flags>},
+ * com trace id de 32 e span id de 16 dígitos hexadecimais e o flag 01 quando o trace é amostrado.
+ */
+public final class TraceContext {
+    
+    /**
+     * Nome do header HTTP e do header da EtlMessage que carregam o contexto.
+     */
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    
+    private static final String VERSION = "00";
+    
+    private final String traceId;
+    private final String spanId;
+    private final boolean sampled;
+    
+    TraceContext(String traceId, String spanId, boolean sampled) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.sampled = sampled;
+    }
+    
+    /**
+     * Interpreta um header traceparent.
+     * 
+     * @return Contexto lido, ou null se o valor for ausente ou inválido
+     */
+    public static TraceContext parse(String traceparent) {
+        if (traceparent == null) {
+            return null;
+        }
+        String[] parts = traceparent.trim().split("-");
+        if (parts.length < 4 || !VERSION.equals(parts[0])
+            || !isHex(parts[1], 32) || !isHex(parts[2], 16) || !isHex(parts[3], 2)
+            || isZero(parts[1]) || isZero(parts[2])) {
+            return null;
+        }
+        boolean sampled = (Integer.parseInt(parts[3], 16) & 1) == 1;
+        return new TraceContext(parts[1], parts[2], sampled);
+    }
+    
+    /**
+     * Formata o contexto como header traceparent.
+     */
+    public String toTraceparent() {
+        return VERSION + "-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+    
+    public String getTraceId() {
+        return traceId;
+    }
+    
+    public String getSpanId() {
+        return spanId;
+    }
+    
+    public boolean isSampled() {
+        return sampled;
+    }
+    
+    static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high;
+        long low;
+        do {
+            high = random.nextLong();
+            low = random.nextLong();
+        } while (high == 0 && low == 0);
+        return toHex(high) + toHex(low);
+    }
+    
+    static String newSpanId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return toHex(id);
+    }
+    
+    private static String toHex(long value) {
+        String hex = Long.toHexString(value);
+        return hex.length() == 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+    }
+    
+    private static boolean isHex(String value, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isZero(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public String toString() {
+        return toTraceparent();
+    }
+}
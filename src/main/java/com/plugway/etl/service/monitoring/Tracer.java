@@ -0,0 +1,182 @@
+package com.plugway.etl.service.monitoring;
+
+import com.plugway.etl.config.ConfigManager;
+import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.util.JsonUtil;
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Rastreamento leve das execuções: cada execução é um trace, e etapas, filtros, lotes e
+ * requisições HTTP são spans filhos, propagados nas mensagens e nas requisições pelo header
+ * W3C {@code traceparent}.
+ * 
+ * Os spans amostrados ficam num buffer circular em memória (tracing.bufferSize) e, com
+ * tracing.file.enabled=true, também são gravados em JSON Lines (tracing.file.path).
+ * A amostragem é decidida no início do trace (tracing.sampleRate, de 0 a 1) e herdada
+ * pelos spans filhos.
+ */
+public class Tracer {
+    
+    private static final Logger logger = LoggerUtil.getLogger(Tracer.class);
+    
+    private final boolean enabled;
+    private volatile double sampleRate;
+    private final AtomicReferenceArray<Span> buffer;
+    private final AtomicLong position;
+    private final Path file;
+    private BufferedWriter writer;
+    
+    private Tracer() {
+        ConfigManager configManager = ConfigManager.getInstance();
+        this.enabled = configManager.getBoolean("tracing.enabled", true);
+        this.sampleRate = parseSampleRate(configManager.getString("tracing.sampleRate", "1.0"));
+        this.buffer = new AtomicReferenceArray<>(Math.max(1, configManager.getInt("tracing.bufferSize", 2048)));
+        this.position = new AtomicLong();
+        this.file = configManager.getBoolean("tracing.file.enabled", false)
+            ? Paths.get(configManager.getString("tracing.file.path", "logs/traces.jsonl"))
+            : null;
+    }
+    
+    public static Tracer getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final Tracer INSTANCE = new Tracer();
+    }
+    
+    /**
+     * Inicia um novo trace. A decisão de amostragem vale para todos os spans filhos.
+     */
+    public Span startTrace(String name) {
+        boolean sampled = enabled && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+        return new Span(this, name, new TraceContext(TraceContext.newTraceId(), TraceContext.newSpanId(), sampled),
+                        null);
+    }
+    
+    /**
+     * Inicia um span filho do contexto informado, ou um novo trace se não houver contexto.
+     */
+    public Span startSpan(String name, TraceContext parent) {
+        if (parent == null) {
+            return startTrace(name);
+        }
+        boolean sampled = enabled && parent.isSampled();
+        return new Span(this, name, new TraceContext(parent.getTraceId(), TraceContext.newSpanId(), sampled),
+                        parent.getSpanId());
+    }
+    
+    /**
+     * Inicia um span filho do contexto gravado na mensagem (header traceparent).
+     */
+    public Span startSpan(String name, EtlMessage message) {
+        return startSpan(name, TraceContext.parse(message.getHeader(TraceContext.TRACEPARENT_HEADER)));
+    }
+    
+    /**
+     * Retorna os spans mais recentes do buffer, do mais antigo para o mais novo.
+     */
+    public List<Span> getRecentSpans() {
+        long end = position.get();
+        long start = Math.max(0, end - buffer.length());
+        List<Span> spans = new ArrayList<>((int) (end - start));
+        for (long index = start; index < end; index++) {
+            Span span = buffer.get((int) (index % buffer.length()));
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+    
+    /**
+     * Retorna os spans de um trace ainda presentes no buffer.
+     */
+    public List<Span> getTrace(String traceId) {
+        List<Span> spans = new ArrayList<>();
+        for (Span span : getRecentSpans()) {
+            if (span.getTraceId().equals(traceId)) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public double getSampleRate() {
+        return sampleRate;
+    }
+    
+    /**
+     * Altera a taxa de amostragem dos próximos traces.
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+    }
+    
+    /**
+     * Recebe um span amostrado finalizado.
+     */
+    void export(Span span) {
+        long index = position.getAndIncrement();
+        buffer.set((int) (index % buffer.length()), span);
+        if (file != null) {
+            writeToFile(span);
+        }
+    }
+    
+    private synchronized void writeToFile(Span span) {
+        try {
+            if (writer == null) {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                                                 StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                logger.info("Gravando spans em: {}", file.toAbsolutePath());
+            }
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("traceId", span.getTraceId());
+            data.put("spanId", span.getSpanId());
+            data.put("parentSpanId", span.getParentSpanId());
+            data.put("name", span.getName());
+            data.put("start", span.getStartTime().toString());
+            data.put("durationMicros", span.getDurationNanos() / 1000);
+            data.put("error", span.isError());
+            data.put("attributes", span.getAttributes());
+            writer.write(JsonUtil.mapper().writeValueAsString(data));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            logger.warn("Erro ao gravar span em arquivo: {}", e.getMessage());
+        }
+    }
+    
+    private static double parseSampleRate(String value) {
+        try {
+            return Math.max(0, Math.min(1, Double.parseDouble(value.trim())));
+        } catch (NumberFormatException e) {
+            logger.warn("Valor inválido para tracing.sampleRate: {}", value);
+            return 1.0;
+        }
+    }
+}
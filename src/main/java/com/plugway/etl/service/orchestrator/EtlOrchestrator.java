@@ -1,29 +1,49 @@
 package com.plugway.etl.service.orchestrator;
 
+import com.plugway.etl.dao.ConnectionManager;
 import com.plugway.etl.dao.DatabaseEndpoint;
 import com.plugway.etl.dao.DatabaseConnectionFactory;
+import com.plugway.etl.dao.DatabaseWriter;
 import com.plugway.etl.dao.ExtractService;
 import com.plugway.etl.eip.EtlPipeline;
 import com.plugway.etl.eip.MessageTransformer;
 import com.plugway.etl.eip.WireTap;
 import com.plugway.etl.model.*;
+import com.plugway.etl.service.load.IdempotencyKeys;
 import com.plugway.etl.service.load.LoadService;
 import com.plugway.etl.service.load.RestApiEndpoint;
+import com.plugway.etl.service.load.SpillBuffer;
 import com.plugway.etl.service.monitoring.ExecutionMetrics;
+import com.plugway.etl.service.monitoring.JobMetrics;
+import com.plugway.etl.service.monitoring.MetricsRegistry;
+import com.plugway.etl.service.monitoring.Span;
+import com.plugway.etl.service.monitoring.Tracer;
 import com.plugway.etl.service.transform.*;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Orquestrador ETL que coordena Extract → Transform → Load.
  * Implementa o fluxo completo de um job ETL.
+ * 
+ * Cada execução é um trace: as etapas e os lotes são spans filhos, e o contexto segue nas
+ * mensagens (header traceparent, com o trace id como correlation id) até as requisições HTTP.
  */
 public class EtlOrchestrator {
     
     private static final Logger logger = LoggerUtil.getLogger(EtlOrchestrator.class);
     
+    // Threads que consomem os lotes do SpillBuffer na carga em lotes
+    private static final ExecutorService BATCH_LOADER_EXECUTOR = createBatchLoaderExecutor();
+    
     private final ExtractService extractService;
     private final LoadService loadService;
     private final WireTap wireTap;
@@ -54,30 +74,39 @@ public class EtlOrchestrator {
         
         JobExecutionInfo executionInfo = new JobExecutionInfo(job.getId());
         ExecutionMetrics metrics = new ExecutionMetrics(job.getId());
+        Span trace = Tracer.getInstance().startTrace("job-execution");
+        trace.setAttribute("jobId", job.getId()).setAttribute("jobName", job.getName());
+        executionInfo.setTraceId(trace.getTraceId());
         executionInfo.start();
         
-        logger.info("Iniciando execução do job ETL: {} ({})", job.getName(), job.getId());
+        logger.info("Iniciando execução do job ETL: {} ({}) | Trace: {}", job.getName(), job.getId(), trace.getTraceId());
         
         // Wire Tap: intercepta início da execução
         if (wireTap != null) {
             EtlMessage startMessage = new EtlMessage();
+            startMessage.setCorrelationId(trace.getTraceId());
             startMessage.addHeader("jobId", job.getId());
             startMessage.addHeader("jobName", job.getName());
             startMessage.addHeader("action", "job-start");
             wireTap.intercept(startMessage, "orchestrator-start");
         }
         
+        Span stage = null;
         try {
             // ETAPA 1: EXTRACT
             logger.info("ETAPA 1: Extraindo dados do banco de dados...");
-            long extractStart = System.currentTimeMillis();
             metrics.startExtract();
+            stage = Tracer.getInstance().startSpan("extract", trace.getContext());
             
             EtlMessage extractedMessage = extractData(job, executionInfo);
             
-            long extractDuration = System.currentTimeMillis() - extractStart;
             int recordCount = getRecordCount(extractedMessage);
-            metrics.endExtract(extractDuration, recordCount);
+            metrics.endExtract(recordCount);
+            stage.setAttribute("records", recordCount);
+            if (extractedMessage == null) {
+                stage.setError("Falha na extração de dados");
+            }
+            stage.end();
             
             // Wire Tap: intercepta após extração
             if (wireTap != null && extractedMessage != null) {
@@ -87,20 +116,33 @@ public class EtlOrchestrator {
             if (extractedMessage == null) {
                 executionInfo.fail("Falha na extração de dados", null);
                 metrics.markFailure("Falha na extração de dados");
+                trace.setError("Falha na extração de dados");
                 return executionInfo;
             }
             
             // ETAPA 2: TRANSFORM
             logger.info("ETAPA 2: Transformando dados...");
-            long transformStart = System.currentTimeMillis();
             metrics.startTransform();
+            stage = Tracer.getInstance().startSpan("transform", trace.getContext());
+            stage.inject(extractedMessage);
+            
+            ChangeDetectionFilter changeDetector = createChangeDetector(job);
+            DatabaseToJsonTranslator translator = createTranslator(job);
+            int batchSize = getIntConfig(job, "batchSize", 0);
             
-            EtlPipeline pipeline = createPipeline(job);
+            // Na carga em lotes a serialização é feita por lote, durante a carga;
+            // na carga em banco os registros não são serializados
+            boolean serialize = batchSize <= 0 && !job.isDatabaseTarget();
+            EtlPipeline pipeline = createPipeline(job, changeDetector, serialize ? translator : null);
             pipeline.setWireTap(wireTap); // Configura Wire Tap no pipeline
             EtlMessage transformedMessage = pipeline.process(extractedMessage);
             
-            long transformDuration = System.currentTimeMillis() - transformStart;
-            metrics.endTransform(transformDuration, recordCount);
+            metrics.endTransform(recordCount);
+            if (transformedMessage != null && transformedMessage.getPayload() instanceof String) {
+                metrics.addBytes(JobMetrics.Stage.TRANSFORM, ((String) transformedMessage.getPayload()).length());
+            }
+            stage.setAttribute("records", recordCount).setAttribute("filters", pipeline.getFilterCount());
+            stage.end();
             
             // Wire Tap: intercepta após transformação
             if (wireTap != null && transformedMessage != null) {
@@ -108,14 +150,46 @@ public class EtlOrchestrator {
             }
             
             // ETAPA 3: LOAD
-            logger.info("ETAPA 3: Carregando dados para API...");
-            long loadStart = System.currentTimeMillis();
+            logger.info("ETAPA 3: Carregando dados para {}...", job.isDatabaseTarget() ? "banco de dados" : "API");
             metrics.startLoad();
+            stage = Tracer.getInstance().startSpan("load", trace.getContext());
+            stage.setAttribute("target", job.isDatabaseTarget() ? "database" : "api")
+                 .setAttribute("batchSize", batchSize);
+            if (transformedMessage != null) {
+                stage.inject(transformedMessage);
+                // Janela das chaves de idempotência: lotes idênticos de outra execução são reenviados
+                transformedMessage.addHeader(IdempotencyKeys.EXECUTION_HEADER, executionInfo.getExecutionId());
+            }
             
-            boolean loadSuccess = loadData(job, transformedMessage);
+            boolean loadSuccess;
+            int loadedCount = recordCount;
+            if (changeDetector != null && !changeDetector.hasChanges()) {
+                logger.info("Nenhum registro alterado desde a última execução. Carga ignorada.");
+                loadSuccess = true;
+                loadedCount = 0;
+            } else {
+                if (job.isDatabaseTarget()) {
+                    loadSuccess = loadIntoDatabase(job, transformedMessage, batchSize);
+                } else {
+                    loadSuccess = batchSize > 0
+                        ? loadInBatches(job, transformedMessage, translator, batchSize, metrics)
+                        : loadData(job, transformedMessage);
+                }
+                if (changeDetector != null) {
+                    loadedCount = changeDetector.getChangedCount();
+                }
+            }
             
-            long loadDuration = System.currentTimeMillis() - loadStart;
-            metrics.endLoad(loadDuration, recordCount);
+            metrics.endLoad(loadedCount);
+            stage.setAttribute("records", loadedCount);
+            if (!loadSuccess) {
+                stage.setError("Falha na carga");
+            }
+            stage.end();
+            
+            if (changeDetector != null) {
+                commitChangeDetection(changeDetector, loadSuccess);
+            }
             
             if (loadSuccess) {
                 // recordCount já foi calculado anteriormente
@@ -126,6 +200,7 @@ public class EtlOrchestrator {
                 // Wire Tap: intercepta sucesso
                 if (wireTap != null) {
                     EtlMessage successMessage = new EtlMessage();
+                    successMessage.setCorrelationId(trace.getTraceId());
                     successMessage.addHeader("jobId", job.getId());
                     successMessage.addHeader("jobName", job.getName());
                     successMessage.addHeader("action", "job-success");
@@ -135,10 +210,12 @@ public class EtlOrchestrator {
             } else {
                 executionInfo.fail("Falha ao carregar dados para API", null);
                 metrics.markFailure("Falha ao carregar dados para API");
+                trace.setError("Falha ao carregar dados para API");
                 
                 // Wire Tap: intercepta falha
                 if (wireTap != null) {
                     EtlMessage failureMessage = new EtlMessage();
+                    failureMessage.setCorrelationId(trace.getTraceId());
                     failureMessage.addHeader("jobId", job.getId());
                     failureMessage.addHeader("jobName", job.getName());
                     failureMessage.addHeader("action", "job-failure");
@@ -151,16 +228,26 @@ public class EtlOrchestrator {
             logger.error("Erro ao executar job ETL: {}", job.getName(), e);
             executionInfo.fail("Erro durante execução: " + e.getMessage(), e);
             metrics.markFailure("Erro durante execução: " + e.getMessage());
+            if (stage != null) {
+                // Etapa interrompida pela exceção (spans já finalizados ignoram a chamada)
+                stage.setError(e.getMessage());
+                stage.end();
+            }
+            trace.setError(e.getMessage());
             
             // Wire Tap: intercepta exceção
             if (wireTap != null) {
                 EtlMessage errorMessage = new EtlMessage();
+                errorMessage.setCorrelationId(trace.getTraceId());
                 errorMessage.addHeader("jobId", job.getId());
                 errorMessage.addHeader("jobName", job.getName());
                 errorMessage.addHeader("action", "job-error");
                 errorMessage.addHeader("error", e.getMessage());
                 wireTap.intercept(errorMessage, "orchestrator-error");
             }
+        } finally {
+            trace.setAttribute("status", executionInfo.getStatus());
+            trace.end();
         }
         
         return executionInfo;
@@ -194,12 +281,69 @@ public class EtlOrchestrator {
         }
     }
     
+    /**
+     * Cria o filtro de detecção de alterações quando o job envia apenas registros alterados.
+     * 
+     * @return Filtro configurado, ou null se o modo estiver desabilitado
+     */
+    private ChangeDetectionFilter createChangeDetector(EtlJob job) {
+        if (!getBooleanConfig(job, "changedRowsOnly", false)) {
+            return null;
+        }
+        
+        return new ChangeDetectionFilter(job.getId(), getKeyColumns(job));
+    }
+    
+    /**
+     * Colunas da chave primária informadas no job (opção "primaryKeyColumns", separadas por vírgula).
+     */
+    private List<String> getKeyColumns(EtlJob job) {
+        List<String> keyColumns = new java.util.ArrayList<>();
+        String primaryKeyColumns = getStringConfig(job, "primaryKeyColumns", "");
+        for (String column : primaryKeyColumns.split(",")) {
+            if (!column.trim().isEmpty()) {
+                keyColumns.add(column.trim());
+            }
+        }
+        return keyColumns;
+    }
+    
+    /**
+     * Grava os hashes dos registros entregues ou descarta-os se a carga falhou.
+     * Falhas ao gravar o índice não falham o job: os registros serão reenviados na próxima execução.
+     */
+    private void commitChangeDetection(ChangeDetectionFilter changeDetector, boolean loadSuccess) {
+        if (!loadSuccess) {
+            changeDetector.discard();
+            return;
+        }
+        try {
+            changeDetector.commit();
+        } catch (Exception e) {
+            logger.warn("Erro ao atualizar índice de detecção de alterações: {}", e.getMessage());
+        }
+    }
+    
     /**
      * Cria o pipeline de transformação baseado na configuração do job.
+     * O filtro de alterações, quando presente, roda primeiro sobre os registros brutos.
+     * Sem translator, a mensagem transformada mantém a lista de registros.
      */
-    private EtlPipeline createPipeline(EtlJob job) {
+    private EtlPipeline createPipeline(EtlJob job, ChangeDetectionFilter changeDetector,
+                                       DatabaseToJsonTranslator translator) {
         EtlPipeline pipeline = new EtlPipeline("Pipeline-" + job.getId());
         
+        if (changeDetector != null) {
+            pipeline.addFilter(changeDetector);
+        }
+        
+        // Registros gravados em banco mantêm os tipos JDBC da origem
+        if (job.isDatabaseTarget()) {
+            pipeline.addFilter(new ContentEnricher(getBooleanConfig(job, "addMetadata", true),
+                                                   getBooleanConfig(job, "addStatistics", true)));
+            return pipeline;
+        }
+        
         // Adiciona Normalizer
         boolean normalizeDates = getBooleanConfig(job, "normalizeDates", true);
         boolean normalizeDecimals = getBooleanConfig(job, "normalizeDecimals", true);
@@ -223,20 +367,77 @@ public class EtlOrchestrator {
         pipeline.addFilter(enricher);
         
         // Adiciona DatabaseToJsonTranslator
-        boolean prettyPrint = getBooleanConfig(job, "prettyPrint", false);
-        DatabaseToJsonTranslator translator = new DatabaseToJsonTranslator(prettyPrint);
-        pipeline.addFilter(translator);
+        if (translator != null) {
+            pipeline.addFilter(translator);
+        }
         
         return pipeline;
     }
     
+    /**
+     * Cria o translator JSON conforme o formato de saída do job.
+     */
+    private DatabaseToJsonTranslator createTranslator(EtlJob job) {
+        boolean prettyPrint = getBooleanConfig(job, "prettyPrint", false);
+        JsonOutputFormat outputFormat = JsonOutputFormat.fromString(getStringConfig(job, "outputFormat", null));
+        return new DatabaseToJsonTranslator(prettyPrint, outputFormat);
+    }
+    
     /**
      * Carrega dados para a API REST.
      */
     private boolean loadData(EtlJob job, EtlMessage message) {
+        return loadData(job, message, new RestApiEndpoint(job.getTargetConfig()));
+    }
+    
+    /**
+     * Carrega dados para a API REST pelo endpoint da execução, sem bloquear a thread chamadora.
+     * Falhas completam o future com false.
+     */
+    private CompletableFuture<Boolean> loadDataAsync(EtlJob job, EtlMessage message, RestApiEndpoint endpoint) {
+        message.addHeader("jobId", job.getId());
+        return loadService.loadAsync(endpoint, message)
+                .exceptionally(throwable -> {
+                    logger.error("Erro na etapa de carga", throwable);
+                    return false;
+                });
+    }
+    
+    /**
+     * Carrega dados para a API REST pelo endpoint da execução.
+     */
+    private boolean loadData(EtlJob job, EtlMessage message, RestApiEndpoint endpoint) {
+        try {
+            message.addHeader("jobId", job.getId());
+            return loadService.load(endpoint, message);
+            
+        } catch (Exception e) {
+            logger.error("Erro na etapa de carga", e);
+            return false;
+        }
+    }
+    
+    /**
+     * Grava os registros na tabela de destino do job.
+     * A opção "batchSize" define os registros por lote/transação; sem ela vale database.write.batchSize.
+     * Com "writeMode" = "upsert", os registros são inseridos ou atualizados pelas colunas de "primaryKeyColumns".
+     */
+    private boolean loadIntoDatabase(EtlJob job, EtlMessage message, int batchSize) {
         try {
-            ApiConfig targetConfig = job.getTargetConfig();
-            return loadService.load(targetConfig, message);
+            DatabaseWriter writer = batchSize > 0
+                ? new DatabaseWriter(ConnectionManager.getInstance(), batchSize)
+                : new DatabaseWriter(ConnectionManager.getInstance());
+            List<String> upsertKeyColumns = "upsert".equalsIgnoreCase(getStringConfig(job, "writeMode", "insert"))
+                ? getKeyColumns(job)
+                : null;
+            if (upsertKeyColumns != null && upsertKeyColumns.isEmpty()) {
+                logger.error("Modo upsert requer a opção primaryKeyColumns no job {}", job.getId());
+                return false;
+            }
+            DatabaseEndpoint endpoint = new DatabaseEndpoint(job.getTargetDatabaseConfig(), job.getTargetTable(),
+                                                             writer, upsertKeyColumns);
+            message.addHeader("jobId", job.getId());
+            return endpoint.send(message);
             
         } catch (Exception e) {
             logger.error("Erro na etapa de carga", e);
@@ -244,6 +445,133 @@ public class EtlOrchestrator {
         }
     }
     
+    /**
+     * Carrega os registros em lotes, um por requisição.
+     * A serialização dos lotes segue em paralelo à carga: os lotes aguardando envio ficam em um
+     * SpillBuffer, que grava em disco o que exceder o limite de memória do job
+     * (opção "loadBufferMemoryMb"). Uma falha interrompe o envio dos lotes seguintes.
+     */
+    private boolean loadInBatches(EtlJob job, EtlMessage message, DatabaseToJsonTranslator translator,
+                                  int batchSize, ExecutionMetrics metrics) {
+        Object payload = message.getPayload();
+        if (!(payload instanceof List)) {
+            logger.warn("Payload não é uma lista de registros. Carga em lotes ignorada.");
+            try {
+                return loadData(job, translator.transform(message));
+            } catch (Exception e) {
+                logger.error("Erro na etapa de carga", e);
+                return false;
+            }
+        }
+        
+        List<?> records = (List<?>) payload;
+        long memoryLimit = getIntConfig(job, "loadBufferMemoryMb", 32) * 1024L * 1024;
+        
+        // Um endpoint por execução: os lotes compartilham o HttpClient e suas conexões
+        RestApiEndpoint endpoint = new RestApiEndpoint(job.getTargetConfig());
+        
+        try (SpillBuffer buffer = new SpillBuffer(job.getId(), memoryLimit)) {
+            CompletableFuture<Boolean> loader = CompletableFuture.supplyAsync(
+                () -> drainBatches(job, message, translator.getContentType(), buffer, endpoint), BATCH_LOADER_EXECUTOR);
+            
+            try {
+                for (int start = 0; start < records.size() && !loader.isDone(); start += batchSize) {
+                    List<?> batch = records.subList(start, Math.min(start + batchSize, records.size()));
+                    byte[] body = translator.toBatchBody(batch);
+                    metrics.addBytes(JobMetrics.Stage.TRANSFORM, body.length);
+                    buffer.put(body, batch.size());
+                }
+                buffer.finish();
+            } catch (Exception e) {
+                logger.error("Erro ao preparar lotes para carga", e);
+                buffer.close();
+                loader.join();
+                return false;
+            }
+            
+            boolean success = loader.join();
+            logger.info("Carga em lotes concluída: {} registros | Lotes em disco: {} | Pico em memória: {} bytes",
+                       records.size(), buffer.getSpilledBatches(), buffer.getPeakMemoryBytes());
+            return success;
+        }
+    }
+    
+    /**
+     * Consome os lotes do SpillBuffer, enviando cada um pelo LoadService com o endpoint da execução.
+     * Com o limite adaptativo de concorrência da API ativo, até concurrencyLimit.maxLimit lotes ficam
+     * em envio ao mesmo tempo e o ConcurrencyLimiter decide quantos chegam à API; sem ele os lotes
+     * são enviados um a um. Uma falha interrompe o envio dos lotes seguintes.
+     * O tempo de cada lote na fila é registrado nas métricas do job.
+     */
+    private boolean drainBatches(EtlJob job, EtlMessage template, String contentType, SpillBuffer buffer,
+                                 RestApiEndpoint endpoint) {
+        JobMetrics jobMetrics = MetricsRegistry.getInstance().getJobMetrics(job.getId());
+        int maxInFlight = endpoint.getConcurrencyLimiter().isEnabled()
+            ? endpoint.getConfig().getConcurrencyLimit().getMaxLimit()
+            : 1;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicBoolean failed = new AtomicBoolean();
+        int ordinal = 0;
+        try {
+            SpillBuffer.Batch batch;
+            while (!failed.get() && (batch = buffer.take()) != null) {
+                inFlight.acquire();
+                if (failed.get()) {
+                    inFlight.release();
+                    batch.release();
+                    break;
+                }
+                
+                jobMetrics.recordQueueWait(batch.getQueuedNanos());
+                Span span = Tracer.getInstance().startSpan("batch", template);
+                span.setAttribute("ordinal", ordinal)
+                    .setAttribute("records", batch.getRecordCount())
+                    .setAttribute("queueWaitMicros", batch.getQueuedNanos() / 1000);
+                
+                EtlMessage batchMessage = new EtlMessage(batch.toPayload(contentType));
+                batchMessage.setCorrelationId(template.getCorrelationId());
+                batchMessage.setType(template.getType());
+                batchMessage.getHeaders().putAll(template.getHeaders());
+                batchMessage.addHeader("contentType", contentType);
+                batchMessage.addHeader("recordCount", String.valueOf(batch.getRecordCount()));
+                batchMessage.addHeader(IdempotencyKeys.BATCH_ORDINAL_HEADER, String.valueOf(ordinal));
+                span.inject(batchMessage);
+                
+                int batchOrdinal = ordinal;
+                SpillBuffer.Batch sent = batch;
+                loadDataAsync(job, batchMessage, endpoint).whenComplete((success, throwable) -> {
+                    if (throwable != null || !success) {
+                        span.setError("Falha ao carregar lote");
+                        if (failed.compareAndSet(false, true)) {
+                            logger.warn("Falha ao carregar lote {} do job {}. Lotes restantes não serão enviados.",
+                                       batchOrdinal, job.getId());
+                        }
+                    }
+                    span.end();
+                    sent.release();
+                    inFlight.release();
+                });
+                ordinal++;
+            }
+            
+            // Aguarda os lotes ainda em envio
+            inFlight.acquire(maxInFlight);
+            return !failed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private static ExecutorService createBatchLoaderExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "batch-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
     /**
      * Obtém valor booleano da configuração de transformação.
      */
@@ -265,6 +593,23 @@ public class EtlOrchestrator {
         return value != null ? value.toString() : defaultValue;
     }
     
+    /**
+     * Obtém valor inteiro da configuração de transformação.
+     */
+    private int getIntConfig(EtlJob job, String key, int defaultValue) {
+        Object value = job.getTransformations().get(key);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        } else if (value instanceof String) {
+            try {
+                return Integer.parseInt(((String) value).trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Valor inválido para {}: {}", key, value);
+            }
+        }
+        return defaultValue;
+    }
+    
     /**
      * Conta o número de registros na mensagem extraída.
      */
@@ -1,5 +1,7 @@
 package com.plugway.etl.service.scheduler;
 
+import com.plugway.etl.config.ConfigManager;
+import com.plugway.etl.dao.ConnectionManager;
 import com.plugway.etl.eip.ControlBus;
 import com.plugway.etl.model.EtlJob;
 import com.plugway.etl.model.JobStatus;
@@ -12,8 +14,11 @@ import org.quartz.impl.StdSchedulerFactory;
 import org.slf4j.Logger;
 
 import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -23,38 +28,44 @@ import java.util.concurrent.ConcurrentHashMap;
 public class JobScheduler {
     
     private static final Logger logger = LoggerUtil.getLogger(JobScheduler.class);
-    private static JobScheduler instance;
     
-    private Scheduler scheduler;
+    private static final String WARMUP_GROUP = "ETL_WARMUP";
+    
+    // Criado no primeiro agendamento: abrir a tela de agendamento ou encerrar a aplicação
+    // não inicia as threads do Quartz
+    private volatile Scheduler scheduler;
     private final Map<String, EtlJob> scheduledJobs;
-    private final EtlOrchestrator orchestrator;
     
     private JobScheduler() {
         this.scheduledJobs = new ConcurrentHashMap<>();
-        this.orchestrator = new EtlOrchestrator();
-        initializeScheduler();
     }
     
-    public static synchronized JobScheduler getInstance() {
-        if (instance == null) {
-            instance = new JobScheduler();
-        }
-        return instance;
+    public static JobScheduler getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    private static final class Holder {
+        private static final JobScheduler INSTANCE = new JobScheduler();
     }
     
     /**
-     * Inicializa o scheduler do Quartz.
+     * Retorna o scheduler do Quartz, criando e iniciando na primeira chamada.
      */
-    private void initializeScheduler() {
-        try {
-            SchedulerFactory schedulerFactory = new StdSchedulerFactory();
-            scheduler = schedulerFactory.getScheduler();
-            scheduler.start();
-            logger.info("JobScheduler inicializado com sucesso");
-        } catch (SchedulerException e) {
-            logger.error("Erro ao inicializar JobScheduler", e);
-            throw new RuntimeException("Falha ao inicializar scheduler", e);
+    private Scheduler getScheduler() throws SchedulerException {
+        Scheduler current = scheduler;
+        if (current == null) {
+            synchronized (this) {
+                current = scheduler;
+                if (current == null) {
+                    SchedulerFactory schedulerFactory = new StdSchedulerFactory();
+                    current = schedulerFactory.getScheduler();
+                    current.start();
+                    scheduler = current;
+                    logger.info("JobScheduler inicializado com sucesso");
+                }
+            }
         }
+        return current;
     }
     
     /**
@@ -121,7 +132,8 @@ public class JobScheduler {
             }
             
             // Agenda o job
-            scheduler.scheduleJob(jobDetail, trigger);
+            Date firstFireTime = getScheduler().scheduleJob(jobDetail, trigger);
+            scheduleWarmUp(job, firstFireTime);
             
             logger.info("Job agendado com sucesso: {}", jobId);
             return true;
@@ -139,11 +151,17 @@ public class JobScheduler {
      * @return true se foi removido com sucesso
      */
     public boolean unscheduleJob(String jobId) {
+        Scheduler scheduler = this.scheduler;
+        if (scheduler == null) {
+            return false;
+        }
+        
         try {
             JobKey jobKey = JobKey.jobKey(jobId, "ETL_JOBS");
             
             if (scheduler.checkExists(jobKey)) {
                 scheduler.deleteJob(jobKey);
+                scheduler.deleteJob(JobKey.jobKey(jobId + "_warmup", WARMUP_GROUP));
                 scheduledJobs.remove(jobId);
                 logger.info("Agendamento removido: {}", jobId);
                 return true;
@@ -161,6 +179,11 @@ public class JobScheduler {
      * Pausa o agendamento de um job.
      */
     public boolean pauseJob(String jobId) {
+        Scheduler scheduler = this.scheduler;
+        if (scheduler == null) {
+            return false;
+        }
+        
         try {
             JobKey jobKey = JobKey.jobKey(jobId, "ETL_JOBS");
             
@@ -182,6 +205,11 @@ public class JobScheduler {
      * Retoma o agendamento de um job pausado.
      */
     public boolean resumeJob(String jobId) {
+        Scheduler scheduler = this.scheduler;
+        if (scheduler == null) {
+            return false;
+        }
+        
         try {
             JobKey jobKey = JobKey.jobKey(jobId, "ETL_JOBS");
             
@@ -203,6 +231,11 @@ public class JobScheduler {
      * Verifica se um job está agendado.
      */
     public boolean isScheduled(String jobId) {
+        Scheduler scheduler = this.scheduler;
+        if (scheduler == null) {
+            return false;
+        }
+        
         try {
             JobKey jobKey = JobKey.jobKey(jobId, "ETL_JOBS");
             return scheduler.checkExists(jobKey);
@@ -216,6 +249,11 @@ public class JobScheduler {
      * Retorna informações sobre o próximo trigger de um job.
      */
     public String getNextFireTime(String jobId) {
+        Scheduler scheduler = this.scheduler;
+        if (scheduler == null) {
+            return "N/A";
+        }
+        
         try {
             JobKey jobKey = JobKey.jobKey(jobId, "ETL_JOBS");
             
@@ -240,6 +278,50 @@ public class JobScheduler {
         }
     }
     
+    /**
+     * Aquece os pools de conexão do job antes do disparo informado: imediatamente, se ele
+     * ocorre em menos de database.pool.warmup.leadSeconds, ou por um trigger avulso do
+     * Quartz agendado esse tempo antes.
+     */
+    private void scheduleWarmUp(EtlJob job, Date nextFireTime) {
+        ConfigManager configManager = ConfigManager.getInstance();
+        if (nextFireTime == null || !configManager.getBoolean("database.pool.warmup.enabled", true)) {
+            return;
+        }
+        
+        long leadMillis = configManager.getInt("database.pool.warmup.leadSeconds", 60) * 1000L;
+        Date warmUpTime = new Date(nextFireTime.getTime() - leadMillis);
+        if (!warmUpTime.after(new Date())) {
+            warmUpPools(job);
+            return;
+        }
+        
+        try {
+            JobDetail warmUpDetail = JobBuilder.newJob(PoolWarmUpJob.class)
+                    .withIdentity(job.getId() + "_warmup", WARMUP_GROUP)
+                    .usingJobData("jobId", job.getId())
+                    .build();
+            Trigger warmUpTrigger = TriggerBuilder.newTrigger()
+                    .withIdentity(job.getId() + "_warmup_trigger", WARMUP_GROUP)
+                    .startAt(warmUpTime)
+                    .build();
+            
+            // Substitui o aquecimento pendente do disparo anterior, se houver
+            getScheduler().scheduleJob(warmUpDetail, Set.of(warmUpTrigger), true);
+            logger.debug("Aquecimento de pools agendado: {} | Em: {}", job.getId(), warmUpTime);
+            
+        } catch (SchedulerException e) {
+            logger.warn("Erro ao agendar aquecimento de pools para job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Cria em paralelo os pools de origem e destino do job que ainda não estão abertos.
+     */
+    private static void warmUpPools(EtlJob job) {
+        ConnectionManager.getInstance().warmUp(Arrays.asList(job.getSourceConfig(), job.getTargetDatabaseConfig()));
+    }
+    
     /**
      * Retorna todos os jobs agendados.
      */
@@ -251,6 +333,7 @@ public class JobScheduler {
      * Encerra o scheduler.
      */
     public void shutdown() {
+        Scheduler scheduler = this.scheduler;
         try {
             if (scheduler != null && !scheduler.isShutdown()) {
                 scheduler.shutdown(true);
@@ -291,11 +374,33 @@ public class JobScheduler {
                 logger.info("Job agendado executado: {} | Status: {} | Registros: {}", 
                            jobId, executionInfo.getStatus(), executionInfo.getRecordsProcessed());
                 
+                // Prepara o aquecimento para o próximo disparo
+                scheduler.scheduleWarmUp(job, context.getNextFireTime());
+                
             } catch (Exception e) {
                 logger.error("Erro ao executar job agendado: {}", jobId, e);
                 throw new JobExecutionException("Erro ao executar job: " + jobId, e);
             }
         }
     }
+    
+    /**
+     * Job do Quartz que aquece os pools de conexão de um EtlJob antes do próximo disparo.
+     */
+    public static class PoolWarmUpJob implements Job {
+        
+        private static final Logger logger = LoggerUtil.getLogger(PoolWarmUpJob.class);
+        
+        @Override
+        public void execute(JobExecutionContext context) {
+            String jobId = context.getJobDetail().getJobDataMap().getString("jobId");
+            EtlJob job = JobScheduler.getInstance().scheduledJobs.get(jobId);
+            
+            if (job != null) {
+                logger.debug("Aquecendo pools de conexão do job: {}", jobId);
+                warmUpPools(job);
+            }
+        }
+    }
 }
 
@@ -0,0 +1,243 @@
+package com.plugway.etl.service.transform;
+
+import com.plugway.etl.eip.MessageTransformer;
+import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Filtro que descarta registros inalterados desde a última entrega bem-sucedida.
+ * Implementa o padrão Message Filter (EIP).
+ * 
+ * Para cada registro calcula um hash de 64 bits da chave primária e outro do conteúdo,
+ * e compara com o {@link RowHashIndex} persistente do job. Os hashes dos registros
+ * alterados ficam pendentes e só são gravados no índice via {@link #commit()},
+ * após a carga ser confirmada; se a carga falhar, os registros são enviados novamente.
+ * 
+ * Sem colunas de chave primária configuradas, o registro inteiro é usado como chave:
+ * registros novos ou alterados são enviados, mas o índice cresce a cada alteração.
+ */
+public class ChangeDetectionFilter implements MessageTransformer {
+    
+    private static final Logger logger = LoggerUtil.getLogger(ChangeDetectionFilter.class);
+    private static final Path DEFAULT_INDEX_DIRECTORY = Paths.get("data", "change-index");
+    
+    // Índices abertos compartilhados entre execuções do mesmo job
+    private static final Map<Path, RowHashIndex> OPEN_INDEXES = new ConcurrentHashMap<>();
+    
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final char FIELD_SEPARATOR = '\u001f';
+    private static final char NULL_MARKER = '\u0000';
+    
+    private final Path indexFile;
+    private final List<String> keyColumns;
+    private final Map<Long, Long> pendingHashes;
+    private int changedCount;
+    private int skippedCount;
+    
+    public ChangeDetectionFilter(String jobId, List<String> keyColumns) {
+        this(jobId, keyColumns, DEFAULT_INDEX_DIRECTORY);
+    }
+    
+    public ChangeDetectionFilter(String jobId, List<String> keyColumns, Path indexDirectory) {
+        this.indexFile = indexDirectory.resolve(jobId + ".idx").toAbsolutePath().normalize();
+        this.keyColumns = keyColumns != null ? keyColumns : List.of();
+        this.pendingHashes = new HashMap<>();
+        this.changedCount = -1;
+    }
+    
+    @Override
+    public EtlMessage transform(EtlMessage message) throws Exception {
+        if (message == null) {
+            throw new IllegalArgumentException("Message cannot be null");
+        }
+        
+        Object payload = message.getPayload();
+        if (!(payload instanceof List)) {
+            logger.debug("Payload não é uma lista de registros. Detecção de alterações ignorada.");
+            return message;
+        }
+        
+        RowHashIndex index = getIndex();
+        List<?> records = (List<?>) payload;
+        List<Object> changed = new ArrayList<>();
+        pendingHashes.clear();
+        skippedCount = 0;
+        
+        for (Object record : records) {
+            if (!(record instanceof Map)) {
+                changed.add(record);
+                continue;
+            }
+            
+            @SuppressWarnings("unchecked")
+            Map<String, Object> row = (Map<String, Object>) record;
+            long keyHash = hashKey(row);
+            long contentHash = hashContent(row);
+            
+            if (index.get(keyHash) == contentHash) {
+                skippedCount++;
+            } else {
+                changed.add(row);
+                pendingHashes.put(keyHash, contentHash);
+            }
+        }
+        changedCount = changed.size();
+        
+        logger.info("Detecção de alterações: {} registros alterados | {} inalterados", changedCount, skippedCount);
+        
+        EtlMessage filteredMessage = new EtlMessage(changed);
+        filteredMessage.setMessageId(message.getMessageId());
+        filteredMessage.setCorrelationId(message.getCorrelationId());
+        filteredMessage.setType(message.getType());
+        filteredMessage.setTimestamp(message.getTimestamp());
+        filteredMessage.getHeaders().putAll(message.getHeaders());
+        filteredMessage.addHeader("changeDetection.changed", String.valueOf(changedCount));
+        filteredMessage.addHeader("changeDetection.skipped", String.valueOf(skippedCount));
+        
+        return filteredMessage;
+    }
+    
+    /**
+     * Grava no índice os hashes dos registros entregues.
+     * Deve ser chamado somente após a confirmação da carga.
+     */
+    public void commit() throws IOException {
+        if (pendingHashes.isEmpty()) {
+            return;
+        }
+        getIndex().putAll(pendingHashes);
+        logger.debug("Índice de hashes atualizado: {} registros", pendingHashes.size());
+        pendingHashes.clear();
+    }
+    
+    /**
+     * Descarta os hashes pendentes (carga não confirmada).
+     */
+    public void discard() {
+        pendingHashes.clear();
+    }
+    
+    /**
+     * Indica se a última mensagem filtrada possui registros a enviar.
+     * Retorna true quando o payload não pôde ser filtrado.
+     */
+    public boolean hasChanges() {
+        return changedCount != 0;
+    }
+    
+    public int getChangedCount() {
+        return changedCount;
+    }
+    
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+    
+    private RowHashIndex getIndex() throws IOException {
+        RowHashIndex index = OPEN_INDEXES.get(indexFile);
+        if (index == null) {
+            synchronized (OPEN_INDEXES) {
+                index = OPEN_INDEXES.get(indexFile);
+                if (index == null) {
+                    index = RowHashIndex.open(indexFile);
+                    OPEN_INDEXES.put(indexFile, index);
+                }
+            }
+        }
+        return index;
+    }
+    
+    /**
+     * Calcula o hash da chave primária do registro.
+     */
+    long hashKey(Map<String, Object> row) throws Exception {
+        if (keyColumns.isEmpty()) {
+            return hashContent(row);
+        }
+        
+        long hash = FNV_OFFSET_BASIS;
+        for (String column : keyColumns) {
+            hash = update(hash, getColumnValue(row, column));
+            hash = update(hash, FIELD_SEPARATOR);
+        }
+        return finish(hash);
+    }
+    
+    /**
+     * Calcula o hash do conteúdo completo do registro (nomes e valores das colunas).
+     */
+    long hashContent(Map<String, Object> row) {
+        long hash = FNV_OFFSET_BASIS;
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            hash = update(hash, entry.getKey());
+            hash = update(hash, FIELD_SEPARATOR);
+            hash = update(hash, entry.getValue());
+            hash = update(hash, FIELD_SEPARATOR);
+        }
+        return finish(hash);
+    }
+    
+    private Object getColumnValue(Map<String, Object> row, String column) throws Exception {
+        if (row.containsKey(column)) {
+            return row.get(column);
+        }
+        // Drivers como o do Firebird retornam nomes de colunas em maiúsculas
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(column)) {
+                return entry.getValue();
+            }
+        }
+        throw new Exception("Coluna de chave primária não encontrada no registro: " + column);
+    }
+    
+    private static long update(long hash, Object value) {
+        if (value == null) {
+            return update(hash, NULL_MARKER);
+        }
+        if (value instanceof byte[]) {
+            for (byte b : (byte[]) value) {
+                hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+            }
+            return hash;
+        }
+        
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+    
+    private static long update(long hash, char c) {
+        return (hash ^ c) * FNV_PRIME;
+    }
+    
+    /**
+     * Mistura final (fmix64 do MurmurHash3) para distribuir melhor os bits na tabela.
+     * O valor 0 é reservado para "ausente" no índice.
+     */
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93e1a85fe53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+    
+    @Override
+    public String getName() {
+        return "ChangeDetectionFilter";
+    }
+}
@@ -2,13 +2,19 @@ package com.plugway.etl.service.transform;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.plugway.etl.eip.MessageTransformer;
 import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.model.JsonOutputFormat;
+import com.plugway.etl.service.load.StreamingPayload;
+import com.plugway.etl.util.JsonUtil;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -18,44 +24,34 @@ import java.util.Map;
  * 
  * Padrão EIP: Message Translator
  * - Converte mensagens de um formato (List<Map>) para outro (JSON String)
+ * - No formato NDJSON gera um StreamingPayload: os registros são serializados
+ *   um por linha somente quando o body é enviado
  */
 public class DatabaseToJsonTranslator implements MessageTransformer {
     
     private static final Logger logger = LoggerUtil.getLogger(DatabaseToJsonTranslator.class);
     
     private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
     private final boolean prettyPrint;
+    private final JsonOutputFormat outputFormat;
     
     public DatabaseToJsonTranslator() {
         this(false);
     }
     
     public DatabaseToJsonTranslator(boolean prettyPrint) {
-        this.prettyPrint = prettyPrint;
-        this.objectMapper = createObjectMapper();
+        this(prettyPrint, JsonOutputFormat.JSON_ARRAY);
     }
     
-    /**
-     * Cria e configura o ObjectMapper do Jackson.
-     */
-    private ObjectMapper createObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        
-        // Registra módulo para suporte a Java 8 Time API
-        mapper.registerModule(new JavaTimeModule());
-        
-        // Configura formatação de datas
-        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        
-        // Configura pretty print se solicitado
-        if (prettyPrint) {
-            mapper.enable(SerializationFeature.INDENT_OUTPUT);
-        }
-        
-        // Configura tratamento de valores nulos
-        mapper.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
-        
-        return mapper;
+    public DatabaseToJsonTranslator(boolean prettyPrint, JsonOutputFormat outputFormat) {
+        this.prettyPrint = prettyPrint;
+        this.outputFormat = outputFormat != null ? outputFormat : JsonOutputFormat.JSON_ARRAY;
+        // Mapper compartilhado; o pretty print fica no writer desta instância
+        this.objectMapper = JsonUtil.mapper();
+        this.objectWriter = prettyPrint
+            ? objectMapper.writer(SerializationFeature.INDENT_OUTPUT)
+            : objectMapper.writer();
     }
     
     @Override
@@ -73,10 +69,14 @@ public class DatabaseToJsonTranslator implements MessageTransformer {
             payload = List.of();
         }
         
+        if (outputFormat == JsonOutputFormat.NDJSON) {
+            return toNdjsonMessage(message, payload);
+        }
+        
         // Converte payload para JSON
         String jsonString;
         try {
-            jsonString = objectMapper.writeValueAsString(payload);
+            jsonString = objectWriter.writeValueAsString(payload);
         } catch (JsonProcessingException e) {
             logger.error("Erro ao converter payload para JSON", e);
             throw new Exception("Erro ao converter dados para JSON: " + e.getMessage(), e);
@@ -101,18 +101,78 @@ public class DatabaseToJsonTranslator implements MessageTransformer {
         return transformedMessage;
     }
     
+    /**
+     * Cria a mensagem NDJSON. O payload é um StreamingPayload regenerado a cada tentativa
+     * de envio a partir da lista de registros, sem montar o JSON completo em memória.
+     */
+    private EtlMessage toNdjsonMessage(EtlMessage message, Object payload) {
+        List<?> records;
+        if (payload instanceof List) {
+            records = (List<?>) payload;
+        } else if (payload instanceof Collection) {
+            records = new ArrayList<>((Collection<?>) payload);
+        } else {
+            records = List.of(payload);
+        }
+        
+        // Cada registro ocupa exatamente uma linha (sem pretty print)
+        ObjectWriter lineWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        StreamingPayload body = StreamingPayload
+            .of(() -> new NdjsonInputStream(records, lineWriter), -1)
+            .withContentType(JsonOutputFormat.NDJSON.getContentType());
+        
+        EtlMessage transformedMessage = new EtlMessage(body);
+        transformedMessage.setMessageId(message.getMessageId());
+        transformedMessage.setCorrelationId(message.getCorrelationId());
+        transformedMessage.setType(message.getType());
+        transformedMessage.setTimestamp(message.getTimestamp());
+        transformedMessage.getHeaders().putAll(message.getHeaders());
+        
+        transformedMessage.addHeader("contentType", JsonOutputFormat.NDJSON.getContentType());
+        transformedMessage.addHeader("format", "ndjson");
+        transformedMessage.addHeader("recordCount", String.valueOf(records.size()));
+        
+        logger.debug("Transformação concluída. Registros NDJSON: {}", records.size());
+        
+        return transformedMessage;
+    }
+    
+    /**
+     * Serializa um lote de registros no formato de saída configurado (array JSON ou NDJSON).
+     * Usado na carga em lotes, em que cada lote é enviado em uma requisição.
+     */
+    public byte[] toBatchBody(List<?> records) throws Exception {
+        try {
+            if (outputFormat == JsonOutputFormat.NDJSON) {
+                ObjectWriter lineWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+                return new NdjsonInputStream(records, lineWriter).readAllBytes();
+            }
+            return objectWriter.writeValueAsBytes(records);
+        } catch (IOException e) {
+            logger.error("Erro ao converter lote para JSON", e);
+            throw new Exception("Erro ao converter dados para JSON: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Retorna o Content-Type do formato de saída.
+     */
+    public String getContentType() {
+        return outputFormat.getContentType();
+    }
+    
     /**
      * Converte uma lista de mapas diretamente para JSON.
      */
     public String toJson(List<Map<String, Object>> data) throws JsonProcessingException {
-        return objectMapper.writeValueAsString(data);
+        return objectWriter.writeValueAsString(data);
     }
     
     /**
      * Converte um objeto diretamente para JSON.
      */
     public String toJson(Object data) throws JsonProcessingException {
-        return objectMapper.writeValueAsString(data);
+        return objectWriter.writeValueAsString(data);
     }
     
     /**
@@ -130,5 +190,9 @@ public class DatabaseToJsonTranslator implements MessageTransformer {
     public boolean isPrettyPrint() {
         return prettyPrint;
     }
+    
+    public JsonOutputFormat getOutputFormat() {
+        return outputFormat;
+    }
 }
 
@@ -2,6 +2,7 @@ package com.plugway.etl.service.transform;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plugway.etl.util.JsonUtil;
 import com.plugway.etl.util.LoggerUtil;
 import org.slf4j.Logger;
 
@@ -18,7 +19,7 @@ public class JsonSchemaValidator {
     private final ObjectMapper objectMapper;
     
     public JsonSchemaValidator() {
-        this.objectMapper = new ObjectMapper();
+        this.objectMapper = JsonUtil.mapper();
     }
     
     /**
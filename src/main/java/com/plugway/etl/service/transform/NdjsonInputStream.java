@@ -0,0 +1,90 @@
+package com.plugway.etl.service.transform;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * InputStream que serializa registros em NDJSON (um JSON por linha) sob demanda.
+ * Os registros são convertidos em blocos de linhas completas conforme o stream é lido,
+ * de modo que cada bloco entregue ao HttpClient termina em uma quebra de linha
+ * e apenas o bloco atual fica em memória.
+ */
+public class NdjsonInputStream extends InputStream {
+    
+    private static final int CHUNK_SIZE = 64 * 1024;
+    
+    private final Iterator<?> records;
+    private final ObjectWriter writer;
+    private final ChunkBuffer chunk;
+    private int position;
+    
+    public NdjsonInputStream(Iterable<?> records, ObjectWriter writer) {
+        this.records = records.iterator();
+        this.writer = writer;
+        this.chunk = new ChunkBuffer();
+    }
+    
+    @Override
+    public int read() throws IOException {
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        return chunk.bytes()[position++] & 0xff;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureAvailable()) {
+            return -1;
+        }
+        
+        int n = Math.min(len, chunk.size() - position);
+        System.arraycopy(chunk.bytes(), position, b, off, n);
+        position += n;
+        return n;
+    }
+    
+    /**
+     * Serializa o próximo bloco de linhas quando o bloco atual foi consumido.
+     */
+    private boolean ensureAvailable() throws IOException {
+        if (position < chunk.size()) {
+            return true;
+        }
+        
+        chunk.reset();
+        position = 0;
+        while (chunk.size() < CHUNK_SIZE && records.hasNext()) {
+            writer.writeValue(chunk, records.next());
+            chunk.write('\n');
+        }
+        return chunk.size() > 0;
+    }
+    
+    /**
+     * Buffer reutilizável que expõe o array interno sem cópia.
+     * Ignora close() porque o ObjectWriter fecha o stream após cada valor.
+     */
+    private static class ChunkBuffer extends ByteArrayOutputStream {
+        
+        ChunkBuffer() {
+            super(CHUNK_SIZE + 1024);
+        }
+        
+        byte[] bytes() {
+            return buf;
+        }
+        
+        @Override
+        public void close() {
+            // Mantém o buffer aberto entre registros
+        }
+    }
+}
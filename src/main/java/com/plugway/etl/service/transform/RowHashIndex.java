@@ -0,0 +1,211 @@
+package com.plugway.etl.service.transform;
+
+import com.plugway.etl.util.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Índice persistente chave primária → hash do conteúdo (64 bits) da última versão entregue.
+ * 
+ * Tabela hash de endereçamento aberto (sondagem linear) em um arquivo mapeado em memória:
+ * os dados ficam fora do heap e são persistidos pelo próprio sistema operacional.
+ * 
+ * Layout do arquivo:
+ * - Cabeçalho: magic (int), versão (int), capacidade (int), tamanho (int)
+ * - Slots de 16 bytes: hash da chave (long, 0 = vazio) + hash do conteúdo (long)
+ * 
+ * A tabela dobra de capacidade quando a ocupação passa de 70%.
+ */
+public class RowHashIndex implements AutoCloseable {
+    
+    private static final Logger logger = LoggerUtil.getLogger(RowHashIndex.class);
+    
+    private static final int MAGIC = 0x52484958; // "RHIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 16;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double MAX_LOAD_FACTOR = 0.7;
+    
+    private final Path file;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int size;
+    
+    private RowHashIndex(Path file) {
+        this.file = file;
+    }
+    
+    /**
+     * Abre (ou cria) o índice no arquivo informado.
+     */
+    public static RowHashIndex open(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        RowHashIndex index = new RowHashIndex(file);
+        index.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                         StandardOpenOption.WRITE);
+        
+        long fileSize = index.channel.size();
+        if (fileSize >= HEADER_SIZE) {
+            index.buffer = index.channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            int storedCapacity = index.buffer.getInt(8);
+            boolean valid = index.buffer.getInt(0) == MAGIC
+                && index.buffer.getInt(4) == VERSION
+                && storedCapacity > 0 && Integer.bitCount(storedCapacity) == 1
+                && fileSize >= HEADER_SIZE + (long) storedCapacity * SLOT_SIZE;
+            
+            if (valid) {
+                index.capacity = storedCapacity;
+                index.size = index.buffer.getInt(12);
+            } else {
+                logger.warn("Índice de hashes inválido, recriando: {}", file);
+                index.create(INITIAL_CAPACITY);
+            }
+        } else {
+            index.create(INITIAL_CAPACITY);
+        }
+        
+        logger.debug("Índice de hashes aberto: {} | Registros: {}", file, index.size);
+        return index;
+    }
+    
+    /**
+     * Retorna o hash de conteúdo registrado para a chave, ou 0 se ausente.
+     */
+    public synchronized long get(long keyHash) {
+        long key = normalizeKey(keyHash);
+        int slot = findSlot(key);
+        return buffer.getLong(slotOffset(slot)) == key ? buffer.getLong(slotOffset(slot) + 8) : 0;
+    }
+    
+    /**
+     * Registra (ou atualiza) o hash de conteúdo de uma chave.
+     */
+    public synchronized void put(long keyHash, long contentHash) throws IOException {
+        if (size + 1 > capacity * MAX_LOAD_FACTOR) {
+            resize(capacity * 2);
+        }
+        
+        long key = normalizeKey(keyHash);
+        int slot = findSlot(key);
+        int offset = slotOffset(slot);
+        if (buffer.getLong(offset) != key) {
+            buffer.putLong(offset, key);
+            size++;
+            buffer.putInt(12, size);
+        }
+        buffer.putLong(offset + 8, contentHash);
+    }
+    
+    /**
+     * Registra vários hashes e grava as alterações em disco.
+     */
+    public synchronized void putAll(Map<Long, Long> hashes) throws IOException {
+        for (Map.Entry<Long, Long> entry : hashes.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+        buffer.force();
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    public synchronized int capacity() {
+        return capacity;
+    }
+    
+    /**
+     * Localiza o slot da chave ou o primeiro slot vazio da sequência de sondagem.
+     */
+    private int findSlot(long key) {
+        int mask = capacity - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (true) {
+            long current = buffer.getLong(slotOffset(slot));
+            if (current == 0 || current == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+    
+    /**
+     * Aumenta a capacidade da tabela no próprio arquivo e redistribui as entradas.
+     * Uma interrupção no meio do processo só pode perder entradas (as linhas voltam a ser enviadas),
+     * nunca associar um hash à chave errada.
+     */
+    private void resize(int newCapacity) throws IOException {
+        long[] entries = new long[size * 2];
+        int count = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = slotOffset(slot);
+            long key = buffer.getLong(offset);
+            if (key != 0) {
+                entries[count++] = key;
+                entries[count++] = buffer.getLong(offset + 8);
+            }
+        }
+        
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * SLOT_SIZE);
+        for (int offset = HEADER_SIZE; offset < buffer.capacity(); offset += 8) {
+            buffer.putLong(offset, 0);
+        }
+        buffer.putInt(8, newCapacity);
+        buffer.putInt(12, 0);
+        capacity = newCapacity;
+        size = 0;
+        
+        for (int i = 0; i < count; i += 2) {
+            put(entries[i], entries[i + 1]);
+        }
+        logger.debug("Índice de hashes redimensionado: {} | Capacidade: {}", file, capacity);
+    }
+    
+    /**
+     * Inicializa uma tabela vazia no arquivo aberto.
+     */
+    private void create(int newCapacity) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * SLOT_SIZE);
+        for (int offset = HEADER_SIZE; offset < buffer.capacity(); offset += 8) {
+            buffer.putLong(offset, 0);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, newCapacity);
+        buffer.putInt(12, 0);
+        capacity = newCapacity;
+        size = 0;
+    }
+    
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+    
+    /**
+     * O valor 0 marca slot vazio; chaves com hash 0 são remapeadas.
+     */
+    private static long normalizeKey(long keyHash) {
+        return keyHash == 0 ? 1 : keyHash;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -17,6 +17,7 @@ import org.slf4j.Logger;
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ResourceBundle;
 
@@ -89,7 +90,8 @@ public class ConnectionManagerController implements Initializable {
             new javafx.beans.property.SimpleStringProperty(cellData.getValue().getHost()));
         
         // Configura ComboBox de tipos
-        typeComboBox.setItems(FXCollections.observableArrayList(DatabaseType.values()));
+        typeComboBox.setItems(FXCollections.observableArrayList(
+            Arrays.stream(DatabaseType.values()).filter(type -> !type.isEmbedded()).toArray(DatabaseType[]::new)));
         typeComboBox.setCellFactory(param -> new ListCell<DatabaseType>() {
             @Override
             protected void updateItem(DatabaseType item, boolean empty) {
@@ -369,6 +371,12 @@ public class ConnectionManagerController implements Initializable {
         config.setUsername(usernameField.getText());
         config.setPassword(passwordField.getText());
         
+        // Propriedades e perfil do pool não têm campos no formulário; preserva os da conexão editada
+        if (selectedConnection != null) {
+            config.setProperties(selectedConnection.getProperties());
+            config.setPool(selectedConnection.getPool());
+        }
+        
         return config;
     }
     
@@ -64,6 +64,14 @@ public class JobManagerController implements Initializable {
     private ComboBox<String> nullHandlingComboBox;
     @FXML
     private CheckBox prettyPrintCheckBox;
+    @FXML
+    private ComboBox<String> outputFormatComboBox;
+    @FXML
+    private CheckBox changedRowsOnlyCheckBox;
+    @FXML
+    private TextField primaryKeyColumnsField;
+    @FXML
+    private TextField batchSizeField;
     
     @FXML
     private Button newJobButton;
@@ -109,37 +117,7 @@ public class JobManagerController implements Initializable {
         List<EtlJob> savedJobs = jobConfigService.loadJobs();
         
         // Reconstrói referências de DatabaseConfig e ApiConfig nos jobs
-        for (EtlJob job : savedJobs) {
-            // Reconstrói referência de DatabaseConfig
-            if (job.getSourceConfig() != null) {
-                String sourceName = job.getSourceConfig().getName();
-                DatabaseConfig matchedConnection = availableConnections.stream()
-                    .filter(c -> c.getName().equals(sourceName))
-                    .findFirst()
-                    .orElse(null);
-                if (matchedConnection != null) {
-                    job.setSourceConfig(matchedConnection);
-                } else {
-                    logger.warn("Conexão '{}' referenciada no job '{}' não encontrada", 
-                              sourceName, job.getId());
-                }
-            }
-            
-            // Reconstrói referência de ApiConfig
-            if (job.getTargetConfig() != null) {
-                String targetName = job.getTargetConfig().getName();
-                ApiConfig matchedApi = availableApis.stream()
-                    .filter(a -> a.getName().equals(targetName))
-                    .findFirst()
-                    .orElse(null);
-                if (matchedApi != null) {
-                    job.setTargetConfig(matchedApi);
-                } else {
-                    logger.warn("API '{}' referenciada no job '{}' não encontrada", 
-                              targetName, job.getId());
-                }
-            }
-        }
+        jobConfigService.resolveReferences(savedJobs, savedConnections, savedApis);
         
         jobs = FXCollections.observableArrayList(savedJobs);
         jobsTable.setItems(jobs);
@@ -201,11 +179,16 @@ public class JobManagerController implements Initializable {
         nullHandlingComboBox.setItems(FXCollections.observableArrayList("keep", "exclude", "replace"));
         nullHandlingComboBox.setValue("keep");
         
+        outputFormatComboBox.setItems(FXCollections.observableArrayList("JSON_ARRAY", "NDJSON"));
+        outputFormatComboBox.setValue("JSON_ARRAY");
+        
         // Valores padrão
         normalizeDatesCheckBox.setSelected(true);
         normalizeDecimalsCheckBox.setSelected(true);
         normalizeColumnNamesCheckBox.setSelected(true);
         prettyPrintCheckBox.setSelected(false);
+        changedRowsOnlyCheckBox.setSelected(false);
+        batchSizeField.setText("0");
         
         // Seleção na tabela
         jobsTable.getSelectionModel().selectedItemProperty().addListener(
@@ -413,6 +396,18 @@ public class JobManagerController implements Initializable {
         if (prettyPrintCheckBox != null) {
             prettyPrintCheckBox.setDisable(!enable);
         }
+        if (outputFormatComboBox != null) {
+            outputFormatComboBox.setDisable(!enable);
+        }
+        if (changedRowsOnlyCheckBox != null) {
+            changedRowsOnlyCheckBox.setDisable(!enable);
+        }
+        if (primaryKeyColumnsField != null) {
+            primaryKeyColumnsField.setDisable(!enable);
+        }
+        if (batchSizeField != null) {
+            batchSizeField.setDisable(!enable);
+        }
     }
     
     private EtlJob createJobFromForm() {
@@ -426,6 +421,12 @@ public class JobManagerController implements Initializable {
         job.setSqlQuery(sqlQueryField.getText());
         job.setTargetConfig(targetApiComboBox.getValue());
         
+        // Destino em banco não é editado pelo formulário; mantém o do job selecionado
+        if (selectedJob != null && selectedJob.isDatabaseTarget()) {
+            job.setTargetDatabaseConfig(selectedJob.getTargetDatabaseConfig());
+            job.setTargetTable(selectedJob.getTargetTable());
+        }
+        
         // Configurações de transformação
         Map<String, Object> transformations = new HashMap<>();
         transformations.put("normalizeDates", normalizeDatesCheckBox.isSelected());
@@ -433,6 +434,10 @@ public class JobManagerController implements Initializable {
         transformations.put("normalizeColumnNames", normalizeColumnNamesCheckBox.isSelected());
         transformations.put("nullHandling", nullHandlingComboBox.getValue());
         transformations.put("prettyPrint", prettyPrintCheckBox.isSelected());
+        transformations.put("outputFormat", outputFormatComboBox.getValue());
+        transformations.put("changedRowsOnly", changedRowsOnlyCheckBox.isSelected());
+        transformations.put("primaryKeyColumns", primaryKeyColumnsField.getText());
+        transformations.put("batchSize", batchSizeField.getText().trim());
         job.setTransformations(transformations);
         
         return job;
@@ -456,6 +461,10 @@ public class JobManagerController implements Initializable {
             normalizeColumnNamesCheckBox.setSelected(getBoolean(transformations, "normalizeColumnNames", true));
             nullHandlingComboBox.setValue(getString(transformations, "nullHandling", "keep"));
             prettyPrintCheckBox.setSelected(getBoolean(transformations, "prettyPrint", false));
+            outputFormatComboBox.setValue(getString(transformations, "outputFormat", "JSON_ARRAY"));
+            changedRowsOnlyCheckBox.setSelected(getBoolean(transformations, "changedRowsOnly", false));
+            primaryKeyColumnsField.setText(getString(transformations, "primaryKeyColumns", ""));
+            batchSizeField.setText(getString(transformations, "batchSize", "0"));
         }
     }
     
@@ -487,6 +496,10 @@ public class JobManagerController implements Initializable {
         normalizeColumnNamesCheckBox.setSelected(true);
         nullHandlingComboBox.setValue("keep");
         prettyPrintCheckBox.setSelected(false);
+        outputFormatComboBox.setValue("JSON_ARRAY");
+        changedRowsOnlyCheckBox.setSelected(false);
+        primaryKeyColumnsField.clear();
+        batchSizeField.setText("0");
         selectedJob = null;
     }
     
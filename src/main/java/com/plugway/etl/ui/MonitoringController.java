@@ -1,6 +1,15 @@
 package com.plugway.etl.ui;
 
 import com.plugway.etl.model.JobStatus;
+import com.plugway.etl.service.load.CircuitBreaker;
+import com.plugway.etl.service.load.CircuitBreakerRegistry;
+import com.plugway.etl.service.load.CompressionStats;
+import com.plugway.etl.service.load.CompressionStatsRegistry;
+import com.plugway.etl.service.load.ConcurrencyLimiter;
+import com.plugway.etl.service.load.ConcurrencyLimiterRegistry;
+import com.plugway.etl.service.load.DeadLetterChannel;
+import com.plugway.etl.service.monitoring.JobMetrics;
+import com.plugway.etl.service.monitoring.MetricsRegistry;
 import com.plugway.etl.util.LoggerUtil;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -13,7 +22,9 @@ import org.slf4j.Logger;
 
 import java.net.URL;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.stream.Collectors;
 
 /**
  * Controller para monitoramento de execuções de jobs.
@@ -165,13 +176,57 @@ public class MonitoringController implements Initializable {
         details.append("Duração: ").append(record.getFormattedDuration()).append("\n");
         details.append("Registros processados: ").append(record.getRecordsProcessed()).append("\n");
         
+        JobMetrics jobMetrics = MetricsRegistry.getInstance().find(record.getJobId());
+        if (jobMetrics != null) {
+            details.append("\nMétricas acumuladas do job:\n  ").append(jobMetrics).append("\n");
+        }
+        
         if (record.getErrorMessage() != null && !record.getErrorMessage().isEmpty()) {
             details.append("\nErro:\n").append(record.getErrorMessage());
         }
         
+        details.append("\n").append(getApiTargetSummary());
+        
         detailsArea.setText(details.toString());
     }
     
+    /**
+     * Monta o resumo do estado das APIs de destino (Circuit Breakers, limites de concorrência, compressão e Dead Letter Channel).
+     */
+    private String getApiTargetSummary() {
+        List<CircuitBreaker> circuitBreakers = CircuitBreakerRegistry.getInstance().getAll();
+        StringBuilder summary = new StringBuilder("Circuit Breakers:\n");
+        
+        if (circuitBreakers.isEmpty()) {
+            summary.append("  Nenhuma API utilizada ainda\n");
+        }
+        for (CircuitBreaker circuitBreaker : circuitBreakers) {
+            summary.append("  ").append(circuitBreaker).append("\n");
+        }
+        
+        List<ConcurrencyLimiter> concurrencyLimiters = ConcurrencyLimiterRegistry.getInstance().getAll().stream()
+            .filter(ConcurrencyLimiter::isEnabled)
+            .collect(Collectors.toList());
+        if (!concurrencyLimiters.isEmpty()) {
+            summary.append("\nConcorrência adaptativa:\n");
+            for (ConcurrencyLimiter concurrencyLimiter : concurrencyLimiters) {
+                summary.append("  ").append(concurrencyLimiter).append("\n");
+            }
+        }
+        
+        List<CompressionStats> compressionStats = CompressionStatsRegistry.getInstance().getAll();
+        if (!compressionStats.isEmpty()) {
+            summary.append("\nCompressão de requisições:\n");
+            for (CompressionStats stats : compressionStats) {
+                summary.append("  ").append(stats).append("\n");
+            }
+        }
+        
+        summary.append("\n").append(DeadLetterChannel.getInstance()).append("\n");
+        
+        return summary.toString();
+    }
+    
     private void updateStatistics() {
         int total = executions.size();
         long success = executions.stream()
@@ -193,6 +248,13 @@ public class MonitoringController implements Initializable {
     @FXML
     private void handleRefresh() {
         updateStatistics();
+        
+        ExecutionRecord selected = executionsTable.getSelectionModel().getSelectedItem();
+        if (selected != null) {
+            showExecutionDetails(selected);
+        } else {
+            detailsArea.setText(getApiTargetSummary());
+        }
     }
     
     @FXML
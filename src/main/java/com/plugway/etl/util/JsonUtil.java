@@ -0,0 +1,63 @@
+package com.plugway.etl.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * ObjectMapper do Jackson compartilhado pela aplicação.
+ * 
+ * Criar um ObjectMapper é caro e cada instância refaz os caches de serializadores, então os
+ * serviços usam esta instância única, criada no primeiro uso. Ela não deve ser reconfigurada:
+ * variações (pretty print, leitura tolerante) são obtidas com ObjectWriter e ObjectReader,
+ * que são imutáveis e compartilham os caches.
+ */
+public class JsonUtil {
+    
+    private JsonUtil() {
+    }
+    
+    /**
+     * Retorna o ObjectMapper compartilhado (java.time como texto ISO-8601, sem falha em
+     * objetos vazios).
+     */
+    public static ObjectMapper mapper() {
+        return Holder.MAPPER;
+    }
+    
+    /**
+     * Writer dos arquivos de configuração: JSON indentado, sem arrays vazios.
+     */
+    public static ObjectWriter configWriter() {
+        return Holder.CONFIG_WRITER;
+    }
+    
+    /**
+     * Reader dos arquivos de configuração para o tipo informado, ignorando propriedades
+     * desconhecidas (campos que não existem mais).
+     */
+    public static ObjectReader configReader(TypeReference<?> type) {
+        return Holder.CONFIG_READER.forType(type);
+    }
+    
+    private static ObjectMapper createMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+        return mapper;
+    }
+    
+    private static final class Holder {
+        private static final ObjectMapper MAPPER = createMapper();
+        private static final ObjectWriter CONFIG_WRITER = MAPPER.writer()
+            .with(SerializationFeature.INDENT_OUTPUT)
+            .without(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS);
+        private static final ObjectReader CONFIG_READER = MAPPER.reader()
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+}
@@ -0,0 +1,64 @@
+package com.plugway.etl;
+
+import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.model.DatabaseConfig;
+import com.plugway.etl.model.EtlJob;
+import com.plugway.etl.service.JobConfigService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do ponto de entrada headless.
+ */
+@DisplayName("HeadlessMain Tests")
+class HeadlessMainTest {
+    
+    @Test
+    @DisplayName("Referências dos jobs devem ser resolvidas pelo nome das conexões e APIs salvas")
+    void testResolveReferences() {
+        DatabaseConfig savedConnection = new DatabaseConfig();
+        savedConnection.setName("origem");
+        ApiConfig savedApi = new ApiConfig();
+        savedApi.setName("destino");
+        
+        DatabaseConfig staleConnection = new DatabaseConfig();
+        staleConnection.setName("origem");
+        ApiConfig missingApi = new ApiConfig();
+        missingApi.setName("inexistente");
+        
+        EtlJob job = new EtlJob("job-1", "Job 1");
+        job.setSourceConfig(staleConnection);
+        job.setTargetConfig(missingApi);
+        
+        JobConfigService.getInstance().resolveReferences(List.of(job), List.of(savedConnection), List.of(savedApi));
+        
+        assertSame(savedConnection, job.getSourceConfig());
+        assertSame(missingApi, job.getTargetConfig());
+    }
+    
+    @Test
+    @DisplayName("Comandos da console devem validar o job e sinalizar o encerramento")
+    void testHandleCommand() {
+        HeadlessMain runner = new HeadlessMain(List.of(new EtlJob("job-1", "Job 1")));
+        
+        assertEquals("", runner.handleCommand("   "));
+        assertTrue(runner.handleCommand("help").contains("pause <jobId>"));
+        assertEquals("Job não encontrado: job-2", runner.handleCommand("run job-2"));
+        assertTrue(runner.handleCommand("pause").startsWith("Informe o ID do job"));
+        assertTrue(runner.handleCommand("desconhecido").startsWith("Comando desconhecido"));
+        assertEquals("Encerrando...", runner.handleCommand("stop"));
+    }
+    
+    @Test
+    @DisplayName("Execução única deve recusar jobs inexistentes sem iniciar serviços")
+    void testRunOnceUnknownJob() {
+        HeadlessMain runner = new HeadlessMain(List.of(new EtlJob("job-1", "Job 1")));
+        
+        assertEquals(HeadlessMain.EXIT_USAGE, runner.runOnce(List.of()));
+        assertEquals(HeadlessMain.EXIT_USAGE, runner.runOnce(List.of("job-1", "job-2")));
+    }
+}
@@ -0,0 +1,177 @@
+package com.plugway.etl.dao;
+
+import com.plugway.etl.model.DatabaseConfig;
+import com.plugway.etl.model.DatabaseType;
+import com.plugway.etl.model.PoolConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para ConnectionManager (perfis de pool e aquecimento) com H2 em memória.
+ */
+@DisplayName("ConnectionManager Tests")
+class ConnectionManagerTest {
+    
+    private final ConnectionManager connectionManager = ConnectionManager.getInstance();
+    
+    @AfterEach
+    void tearDown() {
+        connectionManager.closeDataSource("pool-profile");
+        connectionManager.closeDataSource("warmup-a");
+        connectionManager.closeDataSource("warmup-b");
+        connectionManager.closeDataSource("single-flight");
+        connectionManager.closeDataSource("rebuild");
+        connectionManager.closeDataSource("idle");
+    }
+    
+    @Test
+    @DisplayName("Perfil do pool deve sobrescrever os padrões globais")
+    void testPoolProfileApplied() throws Exception {
+        DatabaseConfig config = h2Config("pool-profile");
+        config.getPool().setMinSize(1);
+        config.getPool().setMaxSize(3);
+        config.getPool().setReadOnly(true);
+        config.getPool().setIsolationLevel("repeatable read");
+        
+        HikariDataSource dataSource = (HikariDataSource) connectionManager.getDataSource(config);
+        
+        assertEquals(3, dataSource.getMaximumPoolSize());
+        assertEquals(1, dataSource.getMinimumIdle());
+        assertTrue(dataSource.isReadOnly());
+        assertEquals("TRANSACTION_REPEATABLE_READ", dataSource.getTransactionIsolation());
+        try (Connection connection = dataSource.getConnection()) {
+            assertEquals(Connection.TRANSACTION_REPEATABLE_READ, connection.getTransactionIsolation());
+        }
+    }
+    
+    @Test
+    @DisplayName("Perfil vazio deve manter os padrões globais")
+    void testDefaultPoolProfile() {
+        PoolConfig pool = new PoolConfig();
+        pool.setMaxSize(0);
+        pool.setFetchSize(-1);
+        
+        assertNull(pool.getMaxSize());
+        assertNull(pool.getFetchSize());
+        assertNull(pool.getTransactionIsolation());
+        assertFalse(pool.isReadOnly());
+        
+        DatabaseConfig config = h2Config("pool-profile");
+        config.setPool(null);
+        assertNotNull(config.getPool());
+    }
+    
+    @Test
+    @DisplayName("Aquecimento deve criar os pools informados, ignorando nulos e repetidos")
+    void testWarmUp() {
+        DatabaseConfig first = h2Config("warmup-a");
+        DatabaseConfig second = h2Config("warmup-b");
+        
+        connectionManager.warmUp(Arrays.asList(first, second, first, null)).join();
+        
+        assertTrue(connectionManager.getPoolNames().containsAll(Arrays.asList("warmup-a", "warmup-b")));
+        assertNotNull(connectionManager.getPoolMXBean("warmup-a"));
+    }
+    
+    @Test
+    @DisplayName("Chamadas concorrentes devem compartilhar um único pool")
+    void testSingleFlightCreation() throws Exception {
+        DatabaseConfig config = h2Config("single-flight");
+        int callers = 10;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return connectionManager.getDataSource(config);
+                }));
+            }
+            start.countDown();
+            
+            Object first = results.get(0).get(30, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                assertSame(first, result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    @DisplayName("Configuração alterada deve recriar o pool e fechar o antigo após devolver as conexões")
+    void testRebuildOnConfigChange() throws Exception {
+        DatabaseConfig config = h2Config("rebuild");
+        HikariDataSource original = (HikariDataSource) connectionManager.getDataSource(config);
+        assertSame(original, connectionManager.getDataSource(h2Config("rebuild")));
+        
+        try (Connection borrowed = connectionManager.getConnection(config)) {
+            config.getPool().setMaxSize(2);
+            HikariDataSource rebuilt = (HikariDataSource) connectionManager.getDataSource(config);
+            
+            assertNotSame(original, rebuilt);
+            assertEquals(2, rebuilt.getMaximumPoolSize());
+            assertNotEquals(original.getPoolName(), rebuilt.getPoolName());
+            if (rebuilt.isRegisterMbeans()) {
+                // Os dois pools coexistem e cada um publica o próprio MBean
+                assertTrue(ManagementFactory.getPlatformMBeanServer()
+                    .isRegistered(new ObjectName("com.zaxxer.hikari:type=Pool (" + original.getPoolName() + ")")));
+                assertTrue(ManagementFactory.getPlatformMBeanServer()
+                    .isRegistered(new ObjectName("com.zaxxer.hikari:type=Pool (" + rebuilt.getPoolName() + ")")));
+            }
+            assertFalse(original.isClosed(), "Pool antigo ainda tem conexão emprestada");
+            assertTrue(borrowed.isValid(1));
+        }
+        
+        connectionManager.closeIdlePools(Long.MAX_VALUE);
+        assertTrue(original.isClosed());
+    }
+    
+    @Test
+    @DisplayName("Pools ociosos devem ser fechados e recriados no próximo uso")
+    void testIdleShutdown() throws Exception {
+        DatabaseConfig config = h2Config("idle");
+        HikariDataSource original;
+        try (Connection connection = connectionManager.getConnection(config)) {
+            original = (HikariDataSource) connectionManager.getDataSource(config);
+            assertEquals(0, connectionManager.closeIdlePools(0), "Pool com conexão emprestada não é ocioso");
+        }
+        
+        Thread.sleep(5);
+        assertEquals(1, connectionManager.closeIdlePools(0));
+        assertTrue(original.isClosed());
+        assertFalse(connectionManager.getPoolNames().contains("idle"));
+        
+        try (Connection connection = connectionManager.getConnection(config)) {
+            assertTrue(connection.isValid(1));
+        }
+        assertTrue(connectionManager.getPoolNames().contains("idle"));
+    }
+    
+    private static DatabaseConfig h2Config(String name) {
+        DatabaseConfig config = new DatabaseConfig();
+        config.setName(name);
+        config.setType(DatabaseType.H2);
+        config.setDatabase("mem:" + name);
+        config.setUsername("sa");
+        config.setPassword("");
+        return config;
+    }
+}
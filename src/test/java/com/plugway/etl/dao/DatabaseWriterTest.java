@@ -0,0 +1,166 @@
+package com.plugway.etl.dao;
+
+import com.plugway.etl.model.DatabaseConfig;
+import com.plugway.etl.model.DatabaseType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para DatabaseWriter.
+ */
+@DisplayName("DatabaseWriter Tests")
+class DatabaseWriterTest {
+    
+    private ConnectionManager connectionManager;
+    private Connection connection;
+    private PreparedStatement statement;
+    private DatabaseConfig config;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        connectionManager = mock(ConnectionManager.class);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        when(connectionManager.getConnection(any())).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        
+        config = new DatabaseConfig("target-db", DatabaseType.FIREBIRD, "localhost", 3050, "test", "test", "test");
+    }
+    
+    @Test
+    @DisplayName("Registros devem ser gravados em lotes com commit por lote")
+    void testWritesInBatches() throws SQLException {
+        DatabaseWriter writer = new DatabaseWriter(connectionManager, 2);
+        
+        int written = writer.write(config, "CLIENTES", rows(5));
+        
+        assertEquals(5, written);
+        verify(connection).prepareStatement("INSERT INTO CLIENTES (ID, NOME) VALUES (?, ?)");
+        verify(statement, times(5)).addBatch();
+        verify(statement, times(3)).executeBatch();
+        verify(connection, times(3)).commit();
+        verify(connection).setAutoCommit(false);
+        verify(connection).setAutoCommit(true);
+    }
+    
+    @Test
+    @DisplayName("Falha em um lote deve desfazer apenas o lote corrente")
+    void testFailedBatchRollsBack() throws SQLException {
+        when(statement.executeBatch()).thenReturn(new int[2]).thenThrow(new SQLException("duplicate key"));
+        DatabaseWriter writer = new DatabaseWriter(connectionManager, 2);
+        
+        SQLException error = assertThrows(SQLException.class, () -> writer.write(config, "CLIENTES", rows(5)));
+        
+        assertTrue(error.getMessage().contains("após 2 registros confirmados"));
+        verify(connection, times(1)).commit();
+        verify(connection).rollback();
+        verify(connection).setAutoCommit(true);
+    }
+    
+    @Test
+    @DisplayName("Identificadores inválidos devem ser rejeitados antes de abrir conexão")
+    void testRejectsInvalidIdentifiers() throws SQLException {
+        DatabaseWriter writer = new DatabaseWriter(connectionManager, 10);
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("ID; DROP TABLE X", 1);
+        
+        assertThrows(SQLException.class, () -> writer.write(config, "CLIENTES", List.of(row)));
+        assertThrows(SQLException.class, () -> writer.write(config, "CLIENTES x", rows(1)));
+        verify(connectionManager, never()).getConnection(any());
+        verify(statement, never()).setObject(anyInt(), any());
+    }
+    
+    @Test
+    @DisplayName("Linha CSV do COPY deve distinguir NULL de string vazia e escapar aspas")
+    void testCsvRow() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("a", null);
+        row.put("b", "");
+        row.put("c", "diz \"oi\", tchau");
+        row.put("d", new byte[] {0x0A, (byte) 0xFF});
+        row.put("e", 42);
+        
+        StringBuilder csv = new StringBuilder();
+        DatabaseWriter.appendCsvRow(csv, Arrays.asList("a", "b", "c", "d", "e"), row);
+        
+        assertEquals(",\"\",\"diz \"\"oi\"\", tchau\",\"\\x0aff\",\"42\"\n", csv.toString());
+    }
+    
+    @Test
+    @DisplayName("Upsert deve gerar statement multi-linha específico de cada banco")
+    void testBuildUpsert() {
+        List<String> columns = Arrays.asList("ID", "NOME");
+        List<String> keys = List.of("ID");
+        
+        assertEquals("INSERT INTO CLIENTES (ID, NOME) VALUES (?, ?), (?, ?) ON CONFLICT (ID) DO UPDATE SET NOME = EXCLUDED.NOME",
+                     DatabaseWriter.buildUpsert(DatabaseType.POSTGRESQL, "CLIENTES", columns, keys, 2));
+        assertEquals("INSERT INTO CLIENTES (ID, NOME) VALUES (?, ?), (?, ?) AS new ON DUPLICATE KEY UPDATE NOME = new.NOME",
+                     DatabaseWriter.buildUpsert(DatabaseType.MYSQL, "CLIENTES", columns, keys, 2));
+        assertEquals("MERGE INTO CLIENTES AS target USING (VALUES (?, ?), (?, ?)) AS source (ID, NOME) ON target.ID = source.ID"
+                     + " WHEN MATCHED THEN UPDATE SET target.NOME = source.NOME"
+                     + " WHEN NOT MATCHED THEN INSERT (ID, NOME) VALUES (source.ID, source.NOME);",
+                     DatabaseWriter.buildUpsert(DatabaseType.SQLSERVER, "CLIENTES", columns, keys, 2));
+        assertEquals("UPDATE OR INSERT INTO CLIENTES (ID, NOME) VALUES (?, ?) MATCHING (ID)",
+                     DatabaseWriter.buildUpsert(DatabaseType.FIREBIRD, "CLIENTES", columns, keys, 1));
+        assertEquals("INSERT INTO CLIENTES (ID) VALUES (?) ON CONFLICT (ID) DO NOTHING",
+                     DatabaseWriter.buildUpsert(DatabaseType.POSTGRESQL, "CLIENTES", List.of("ID"), keys, 1));
+    }
+    
+    @Test
+    @DisplayName("Linhas por statement devem respeitar o limite de parâmetros do banco")
+    void testRowsPerStatement() {
+        assertEquals(1000, DatabaseWriter.rowsPerStatement(DatabaseType.POSTGRESQL, 10, 1000));
+        assertEquals(3276, DatabaseWriter.rowsPerStatement(DatabaseType.POSTGRESQL, 10, 5000));
+        assertEquals(209, DatabaseWriter.rowsPerStatement(DatabaseType.SQLSERVER, 10, 5000));
+        assertEquals(1000, DatabaseWriter.rowsPerStatement(DatabaseType.SQLSERVER, 1, 5000));
+    }
+    
+    @Test
+    @DisplayName("Upsert deve remover chaves repetidas e enviar um statement por lote")
+    void testUpsertMultiRow() throws SQLException {
+        DatabaseConfig postgres = new DatabaseConfig("pg", DatabaseType.POSTGRESQL, "localhost", 5432, "test", "test", "test");
+        DatabaseWriter writer = new DatabaseWriter(connectionManager, 2);
+        List<Map<String, Object>> rows = rows(5);
+        Map<String, Object> duplicate = new LinkedHashMap<>();
+        duplicate.put("ID", 1);
+        duplicate.put("NOME", "Cliente 1 atualizado");
+        rows.add(duplicate);
+        
+        int written = writer.upsert(postgres, "CLIENTES", List.of("id"), rows);
+        
+        assertEquals(5, written);
+        verify(connection, times(2)).prepareStatement(anyString()); // Lotes de 2 e o último de 1
+        verify(statement, times(3)).executeUpdate();
+        verify(connection, times(3)).commit();
+        verify(statement).setString(2, "Cliente 1 atualizado");
+        verify(statement, never()).setString(2, "Cliente 1");
+    }
+    
+    private List<Map<String, Object>> rows(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("ID", i);
+            row.put("NOME", "Cliente " + i);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -6,6 +6,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -68,5 +71,31 @@ class QueryExecutorTest {
         invalidConfig.setType(DatabaseType.MYSQL);
         assertFalse(invalidConfig.isValid()); // Ainda falta host
     }
+    
+    @Test
+    @DisplayName("Deve executar consultas em banco H2 embarcado sem host e porta")
+    void testEmbeddedH2Query() throws Exception {
+        DatabaseConfig h2Config = new DatabaseConfig();
+        h2Config.setName("test-h2");
+        h2Config.setType(DatabaseType.H2);
+        h2Config.setDatabase("mem:query-executor-test");
+        h2Config.setUsername("sa");
+        h2Config.setPassword("");
+        
+        assertTrue(h2Config.isValid());
+        assertTrue(h2Config.buildJdbcUrl().startsWith("jdbc:h2:mem:query-executor-test;MODE=PostgreSQL"));
+        
+        try {
+            queryExecutor.executeUpdate(h2Config, "CREATE TABLE clientes (id INTEGER, nome VARCHAR(50))");
+            queryExecutor.executeUpdate(h2Config, "INSERT INTO clientes VALUES (?, ?)", List.of(1, "Ana"));
+            
+            List<Map<String, Object>> rows = queryExecutor.executeQuery(h2Config, "SELECT id, nome FROM clientes");
+            
+            assertEquals(1, rows.size());
+            assertEquals(1, rows.get(0).get("id"));
+            assertEquals("Ana", rows.get(0).get("nome"));
+        } finally {
+            ConnectionManager.getInstance().closeDataSource("test-h2");
+        }
+    }
 }
-
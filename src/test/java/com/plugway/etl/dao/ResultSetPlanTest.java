@@ -0,0 +1,104 @@
+package com.plugway.etl.dao;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para ResultSetPlan.
+ */
+@DisplayName("ResultSetPlan Tests")
+class ResultSetPlanTest {
+    
+    @Test
+    @DisplayName("Metadados devem ser consultados uma única vez por ResultSet")
+    void testMetadataResolvedOnce() throws Exception {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(3);
+        when(metaData.getColumnLabel(1)).thenReturn("ID");
+        when(metaData.getColumnLabel(2)).thenReturn("VALOR");
+        when(metaData.getColumnLabel(3)).thenReturn("CRIADO_EM");
+        when(metaData.getColumnType(1)).thenReturn(Types.INTEGER);
+        when(metaData.getColumnType(2)).thenReturn(Types.DECIMAL);
+        when(metaData.getColumnType(3)).thenReturn(Types.TIMESTAMP);
+        when(metaData.isSigned(1)).thenReturn(true);
+        
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenReturn(1, 2);
+        when(rs.getBigDecimal(2)).thenReturn(new BigDecimal("10.50"), (BigDecimal) null);
+        when(rs.getTimestamp(3)).thenReturn(Timestamp.valueOf("2024-01-15 10:30:00"), (Timestamp) null);
+        
+        ResultSetPlan plan = ResultSetPlan.of(metaData, 1024);
+        Map<String, Object> first = plan.readRow(rs);
+        Map<String, Object> second = plan.readRow(rs);
+        
+        assertEquals(List.of("ID", "VALOR", "CRIADO_EM"), List.copyOf(first.keySet()));
+        assertEquals(new BigDecimal("10.50"), first.get("VALOR"));
+        assertEquals(LocalDateTime.of(2024, 1, 15, 10, 30), first.get("CRIADO_EM"));
+        assertEquals(2, second.get("ID"));
+        assertNull(second.get("VALOR"));
+        assertNull(second.get("CRIADO_EM"));
+        
+        verify(metaData, times(1)).getColumnLabel(1);
+        verify(metaData, times(1)).getColumnType(3);
+        verify(rs, never()).getObject(anyInt()); // Cada coluna é lida uma única vez
+    }
+    
+    @Test
+    @DisplayName("Colunas numéricas devem usar getters primitivos respeitando NULL")
+    void testPrimitiveGetters() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(4000000000L, 0L);
+        when(rs.wasNull()).thenReturn(false, true);
+        
+        ResultSetPlan.ColumnReader unsignedInt = ResultSetPlan.readerFor(Types.INTEGER, false, "ID", 1024);
+        
+        assertEquals(4000000000L, unsignedInt.read(rs, 1));
+        assertNull(unsignedInt.read(rs, 1));
+    }
+    
+    @Test
+    @DisplayName("LOB acima do tamanho máximo deve gerar erro e ser liberado")
+    void testLobSizeCap() throws Exception {
+        Blob blob = mock(Blob.class);
+        when(blob.getBinaryStream()).thenReturn(new ByteArrayInputStream(new byte[16]));
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getBlob(1)).thenReturn(blob);
+        
+        ResultSetPlan.ColumnReader reader = ResultSetPlan.readerFor(Types.BLOB, false, "FOTO", 8);
+        
+        SQLException error = assertThrows(SQLException.class, () -> reader.read(rs, 1));
+        assertTrue(error.getMessage().contains("FOTO"));
+        verify(blob).free();
+        verify(blob, never()).length();
+        
+        when(blob.getBinaryStream()).thenReturn(new ByteArrayInputStream(new byte[8]));
+        assertEquals(8, ((byte[]) reader.read(rs, 1)).length);
+    }
+    
+    @Test
+    @DisplayName("Colunas binárias devem ser lidas com getBytes")
+    void testBinaryColumn() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getBytes(1)).thenReturn(new byte[] {1, 2, 3});
+        
+        Object value = ResultSetPlan.readerFor(Types.VARBINARY, false, "DADOS", 1024).read(rs, 1);
+        
+        assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) value);
+        verify(rs, never()).getBlob(1);
+    }
+}
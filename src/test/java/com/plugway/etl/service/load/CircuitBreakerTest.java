@@ -0,0 +1,160 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.CircuitBreakerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para CircuitBreaker.
+ */
+@DisplayName("CircuitBreaker Tests")
+class CircuitBreakerTest {
+    
+    private CircuitBreakerConfig config;
+    private AtomicLong clock;
+    private CircuitBreaker circuitBreaker;
+    
+    @BeforeEach
+    void setUp() {
+        config = new CircuitBreakerConfig();
+        config.setSlidingWindowSize(10);
+        config.setMinimumNumberOfCalls(4);
+        config.setFailureRateThreshold(50);
+        config.setSlowCallDurationThreshold(1000);
+        config.setWaitDurationInOpenState(5000);
+        config.setPermittedCallsInHalfOpenState(2);
+        
+        clock = new AtomicLong();
+        circuitBreaker = new CircuitBreaker("test-api", config, clock::get);
+    }
+    
+    @Test
+    @DisplayName("Circuito deve iniciar fechado e permitir chamadas")
+    void testInitialState() {
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.isRejecting());
+    }
+    
+    @Test
+    @DisplayName("Mínimo de chamadas maior que a janela deve ser limitado ao tamanho da janela")
+    void testMinimumCallsClampedToWindow() {
+        config.setSlidingWindowSize(10);
+        config.setMinimumNumberOfCalls(20);
+        circuitBreaker = new CircuitBreaker("test-api", config, clock::get);
+        
+        for (int i = 0; i < 9; i++) {
+            circuitBreaker.onError(0);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        
+        circuitBreaker.onError(0);
+        
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+    
+    @Test
+    @DisplayName("Circuito deve abrir quando a taxa de falhas atinge o limite")
+    void testOpensOnFailureRate() {
+        circuitBreaker.onSuccess(0);
+        circuitBreaker.onError(0);
+        circuitBreaker.onSuccess(0);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState()); // Abaixo do mínimo de chamadas
+        
+        circuitBreaker.onError(0);
+        
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.isRejecting());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(1, circuitBreaker.getRejectedCalls());
+    }
+    
+    @Test
+    @DisplayName("Circuito deve abrir quando todas as chamadas são lentas")
+    void testOpensOnSlowCalls() {
+        long slow = TimeUnit.MILLISECONDS.toNanos(2000);
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onSuccess(slow);
+        }
+        
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+    
+    @Test
+    @DisplayName("Circuito deve ir para HALF_OPEN e fechar após chamadas de teste bem-sucedidas")
+    void testHalfOpenToClosed() {
+        openCircuit();
+        
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(5000));
+        
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission()); // Limite de chamadas de teste
+        
+        circuitBreaker.onSuccess(0);
+        circuitBreaker.onSuccess(0);
+        
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getBufferedCalls());
+    }
+    
+    @Test
+    @DisplayName("Circuito deve reabrir quando chamadas de teste falham")
+    void testHalfOpenToOpen() {
+        openCircuit();
+        
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(5000));
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        
+        circuitBreaker.onError(0);
+        circuitBreaker.onSuccess(0);
+        
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.isRejecting());
+    }
+    
+    @Test
+    @DisplayName("Janela deslizante deve descartar resultados antigos")
+    void testSlidingWindow() {
+        config.setMinimumNumberOfCalls(10);
+        CircuitBreaker breaker = new CircuitBreaker("window-api", config, clock::get);
+        
+        for (int i = 0; i < 4; i++) {
+            breaker.onError(0);
+        }
+        for (int i = 0; i < 10; i++) {
+            breaker.onSuccess(0);
+        }
+        
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(10, breaker.getBufferedCalls());
+        assertEquals(0, breaker.getFailureRate());
+    }
+    
+    @Test
+    @DisplayName("Circuito desabilitado deve sempre permitir chamadas")
+    void testDisabled() {
+        config.setEnabled(false);
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.onError(0);
+        }
+        
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+    
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onError(0);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+}
@@ -0,0 +1,100 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.RequestCompression;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para CompressingInputStream.
+ */
+@DisplayName("CompressingInputStream Tests")
+class CompressingInputStreamTest {
+    
+    @Test
+    @DisplayName("Saída gzip deve ser descomprimida para o JSON original")
+    void testGzipRoundTrip() throws IOException {
+        byte[] json = sampleJson();
+        CompressionStats stats = new CompressionStats("gzip-api");
+        
+        byte[] compressed = compress(json, RequestCompression.GZIP, stats);
+        
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(json, in.readAllBytes());
+        }
+        assertEquals(1, stats.getCompressedRequests());
+        assertEquals(json.length, stats.getUncompressedBytes());
+        assertEquals(compressed.length, stats.getCompressedBytes());
+        assertTrue(stats.getCompressionRatio() > 5, "Razão inesperada: " + stats.getCompressionRatio());
+    }
+    
+    @Test
+    @DisplayName("Saída deflate deve ser descomprimida para o JSON original")
+    void testDeflateRoundTrip() throws IOException {
+        byte[] json = sampleJson();
+        
+        byte[] compressed = compress(json, RequestCompression.DEFLATE, new CompressionStats("deflate-api"));
+        
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(json, in.readAllBytes());
+        }
+    }
+    
+    @Test
+    @DisplayName("Payload vazio deve gerar gzip válido")
+    void testEmptyPayload() throws IOException {
+        byte[] compressed = compress(new byte[0], RequestCompression.GZIP, null);
+        
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(0, in.readAllBytes().length);
+        }
+    }
+    
+    @Test
+    @DisplayName("String deve ser codificada em UTF-8 sob demanda, igual a getBytes")
+    void testUtf8InputStream() throws IOException {
+        String json = new String(sampleJson(), StandardCharsets.UTF_8);
+        for (String text : List.of("", json, "€ \uD83D\uDE00 ok", "\uD800x", "x\uD800")) {
+            try (InputStream in = new Utf8InputStream(text)) {
+                assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), in.readAllBytes(), text);
+            }
+        }
+        
+        CompressionStats stats = new CompressionStats("string-api");
+        byte[] compressed;
+        try (InputStream in = new CompressingInputStream(new Utf8InputStream(json), RequestCompression.GZIP, stats)) {
+            compressed = in.readAllBytes();
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(json, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(json.getBytes(StandardCharsets.UTF_8).length, stats.getUncompressedBytes());
+    }
+    
+    private byte[] compress(byte[] data, RequestCompression compression, CompressionStats stats) throws IOException {
+        try (InputStream in = new CompressingInputStream(new ByteArrayInputStream(data), compression, stats)) {
+            return in.readAllBytes();
+        }
+    }
+    
+    private byte[] sampleJson() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i).append(",\"nome\":\"Cliente ").append(i)
+                .append("\",\"ativo\":true,\"cidade\":\"São Paulo\"}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
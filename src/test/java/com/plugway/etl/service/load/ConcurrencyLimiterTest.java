@@ -0,0 +1,133 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.ConcurrencyLimitConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para ConcurrencyLimiter.
+ */
+@DisplayName("ConcurrencyLimiter Tests")
+class ConcurrencyLimiterTest {
+    
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    private ConcurrencyLimitConfig config;
+    
+    @BeforeEach
+    void setUp() {
+        config = new ConcurrencyLimitConfig();
+        config.setEnabled(true);
+        config.setInitialLimit(2);
+        config.setMinLimit(1);
+        config.setMaxLimit(16);
+    }
+    
+    @Test
+    @DisplayName("Requisições acima do limite devem aguardar na fila")
+    void testQueueing() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test-api", config);
+        
+        assertTrue(limiter.acquire().isDone());
+        assertTrue(limiter.acquire().isDone());
+        CompletableFuture<Void> queued = limiter.acquire();
+        
+        assertFalse(queued.isDone());
+        assertEquals(1, limiter.getQueued());
+        
+        limiter.release(LATENCY, ConcurrencyLimiter.Outcome.SUCCESS);
+        
+        assertTrue(queued.isDone());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+    
+    @Test
+    @DisplayName("Limite deve crescer com latência estável e limite utilizado")
+    void testAdditiveIncrease() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("increase-api", config);
+        
+        runWindow(limiter, LATENCY);
+        runWindow(limiter, LATENCY);
+        
+        assertEquals(4, limiter.getLimit());
+    }
+    
+    @Test
+    @DisplayName("Limite deve ser reduzido à metade com respostas 429/5xx")
+    void testMultiplicativeDecreaseOnDrop() {
+        config.setInitialLimit(8);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("drop-api", config);
+        
+        limiter.acquire();
+        limiter.acquire();
+        limiter.release(LATENCY, ConcurrencyLimiter.Outcome.DROPPED);
+        limiter.release(LATENCY, ConcurrencyLimiter.Outcome.DROPPED);
+        
+        assertEquals(4, limiter.getLimit()); // Apenas uma redução por janela
+        assertEquals(2, limiter.getDroppedCalls());
+    }
+    
+    @Test
+    @DisplayName("Limite deve ser reduzido quando a latência p50 inflaciona")
+    void testDecreaseOnLatencyInflation() {
+        config.setInitialLimit(8);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("latency-api", config);
+        
+        runWindow(limiter, LATENCY);
+        int limitBefore = limiter.getLimit();
+        
+        runWindow(limiter, LATENCY * 5);
+        
+        assertEquals(limitBefore / 2, limiter.getLimit());
+        assertEquals(100, limiter.getBaselineLatencyMillis(), 30);
+    }
+    
+    @Test
+    @DisplayName("Limite nunca deve ficar abaixo do mínimo")
+    void testMinLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("min-api", config);
+        
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+            limiter.release(LATENCY, ConcurrencyLimiter.Outcome.DROPPED);
+            runWindow(limiter, LATENCY * 10);
+        }
+        
+        assertEquals(1, limiter.getLimit());
+    }
+    
+    @Test
+    @DisplayName("Controle desabilitado não deve limitar requisições")
+    void testDisabled() {
+        config.setEnabled(false);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("disabled-api", config);
+        
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.acquire().isDone());
+        }
+        assertEquals(0, limiter.getInFlight());
+    }
+    
+    /**
+     * Executa uma janela completa de amostras mantendo o limite totalmente utilizado.
+     */
+    private void runWindow(ConcurrencyLimiter limiter, long latency) {
+        for (int i = 0; i < 10; i++) {
+            int limit = limiter.getLimit();
+            for (int j = 0; j < limit; j++) {
+                limiter.acquire();
+            }
+            limiter.release(latency, ConcurrencyLimiter.Outcome.SUCCESS);
+            for (int j = 1; j < limit; j++) {
+                limiter.release(latency, ConcurrencyLimiter.Outcome.IGNORED);
+            }
+        }
+    }
+}
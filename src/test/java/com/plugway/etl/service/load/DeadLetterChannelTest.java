@@ -0,0 +1,145 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.model.EtlMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para DeadLetterChannel.
+ */
+@DisplayName("DeadLetterChannel Tests")
+class DeadLetterChannelTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Mensagens pendentes e contagens devem sobreviver à reinicialização")
+    void testRecovery() throws Exception {
+        DeadLetterChannel channel = new DeadLetterChannel(tempDir, 1024 * 1024, 8);
+        channel.send("api-a", message("job-1", "[{\"id\":1}]"), "HTTP 503 (após retries): indisponível");
+        channel.send("api-a", message("job-2", "[{\"id\":2}]"), "HTTP 400: inválido");
+        channel.send("api-b", message("job-1", "[{\"id\":3}]"), "HttpTimeoutException: timeout");
+        
+        channel.acknowledge(channel.list("api-a", "job-2", null, 10).get(0));
+        
+        DeadLetterChannel reloaded = new DeadLetterChannel(tempDir, 1024 * 1024, 8);
+        
+        assertEquals(2, reloaded.getFailedMessageCount());
+        assertEquals(1, reloaded.countByTarget("api-a"));
+        assertEquals(2, reloaded.countByJob("job-1"));
+        assertEquals(1, reloaded.getCountsByReason().get("HTTP 503"));
+        assertNull(reloaded.getCountsByReason().get("HTTP 400"));
+        
+        DeadLetterChannel.FailedMessage failed = reloaded.list(null, null, "HttpTimeoutException", 10).get(0);
+        EtlMessage restored = reloaded.readMessage(failed);
+        assertEquals("[{\"id\":3}]", restored.getPayload());
+        assertEquals("job-1", restored.getHeader("jobId"));
+    }
+    
+    @Test
+    @DisplayName("Registro incompleto no final do segmento deve ser descartado")
+    void testTruncatedTail() throws Exception {
+        DeadLetterChannel channel = new DeadLetterChannel(tempDir, 1024 * 1024, 8);
+        channel.send("api-a", message("job-1", "[1]"), "HTTP 500: erro");
+        
+        Path segment = Files.list(tempDir).findFirst().orElseThrow();
+        Files.writeString(segment, "{\"type\":\"entry\",\"seq\":9,\"length\":100}\n[2", StandardOpenOption.APPEND);
+        
+        DeadLetterChannel reloaded = new DeadLetterChannel(tempDir, 1024 * 1024, 8);
+        assertEquals(1, reloaded.getFailedMessageCount());
+        
+        reloaded.send("api-a", message("job-1", "[3]"), "HTTP 500: erro");
+        assertEquals(2, new DeadLetterChannel(tempDir, 1024 * 1024, 8).getFailedMessageCount());
+    }
+    
+    @Test
+    @DisplayName("Segmentos sem mensagens pendentes devem ser removidos")
+    void testSegmentCleanup() throws Exception {
+        DeadLetterChannel channel = new DeadLetterChannel(tempDir, 64, 8);
+        for (int i = 0; i < 5; i++) {
+            channel.send("api-a", message("job-1", "[" + i + "]"), "HTTP 500: erro");
+        }
+        assertTrue(Files.list(tempDir).count() >= 4);
+        
+        for (DeadLetterChannel.FailedMessage failed : channel.getFailedMessages()) {
+            channel.acknowledge(failed);
+        }
+        channel.send("api-a", message("job-1", "[9]"), "HTTP 500: erro");
+        
+        assertEquals(1, Files.list(tempDir).count());
+        assertEquals(1, new DeadLetterChannel(tempDir, 64, 8).getFailedMessageCount());
+    }
+    
+    @Test
+    @DisplayName("Reprocessamento deve confirmar entregas e interromper com a API indisponível")
+    void testReplay() throws Exception {
+        DeadLetterChannel channel = new DeadLetterChannel(tempDir, 1024 * 1024, 8);
+        channel.send("api-a", message("job-1", "ok"), "HTTP 503: erro");
+        channel.send("api-a", message("job-1", "falha"), "HTTP 503: erro");
+        channel.send("api-a", message("job-1", "ok"), "HTTP 503: erro");
+        channel.send("api-a", message("job-1", "indisponivel"), "HTTP 503: erro");
+        channel.send("api-a", message("job-1", "ok"), "HTTP 503: erro");
+        
+        ApiConfig config = new ApiConfig();
+        config.setName("api-a");
+        
+        DeadLetterChannel.ReplayResult result = channel.replay(config, null, null, 1000, 10, (api, message) -> {
+            String payload = (String) message.getPayload();
+            if (payload.equals("falha")) {
+                channel.send(api.getName(), message, "HTTP 400: inválido"); // Caminho de carga registra a falha
+                return false;
+            }
+            if (payload.equals("indisponivel")) {
+                throw new CircuitBreakerOpenException(api.getName());
+            }
+            return true;
+        });
+        
+        assertEquals(2, result.getDelivered());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.isAborted());
+        
+        List<DeadLetterChannel.FailedMessage> remaining = channel.getFailedMessages();
+        assertEquals(3, remaining.size()); // indisponivel, ok (não tentado) e a nova falha
+        assertEquals("HTTP 400", remaining.get(2).getReasonCategory());
+        assertEquals("1", channel.readMessage(remaining.get(2)).getHeader(DeadLetterChannel.REPLAY_COUNT_HEADER));
+    }
+    
+    @Test
+    @DisplayName("Payload em streaming deve ser copiado para o log e relido no reprocessamento")
+    void testStreamingPayload() throws Exception {
+        DeadLetterChannel channel = new DeadLetterChannel(tempDir.resolve("dlq"), 1024 * 1024, 8);
+        byte[] body = "{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8);
+        StreamingPayload payload = StreamingPayload.of(() -> new ByteArrayInputStream(body), -1)
+            .withContentType("application/x-ndjson");
+        
+        channel.send("api-a", message("job-1", payload), "HTTP 502: erro");
+        
+        EtlMessage restored = channel.readMessage(channel.getFailedMessages().get(0));
+        StreamingPayload restoredPayload = (StreamingPayload) restored.getPayload();
+        assertEquals(body.length, restoredPayload.getLength());
+        assertEquals("application/x-ndjson", restoredPayload.getContentType());
+        try (InputStream in = restoredPayload.openStream()) {
+            assertArrayEquals(body, in.readAllBytes());
+        }
+    }
+    
+    private EtlMessage message(String jobId, Object payload) {
+        EtlMessage message = new EtlMessage(payload);
+        message.addHeader("jobId", jobId);
+        return message;
+    }
+}
@@ -0,0 +1,66 @@
+package com.plugway.etl.service.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para DeliveryLedger e IdempotencyKeys.
+ */
+@DisplayName("DeliveryLedger Tests")
+class DeliveryLedgerTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Lotes entregues devem sobreviver à reinicialização")
+    void testPersistence() {
+        DeliveryLedger ledger = new DeliveryLedger(tempDir, Duration.ofDays(30));
+        ledger.markDelivered("api-a", "job-1:0:abc");
+        ledger.markDelivered("api-a", "job-1:0:abc"); // Duplicado não é gravado novamente
+        
+        DeliveryLedger reloaded = new DeliveryLedger(tempDir, Duration.ofDays(30));
+        
+        assertTrue(reloaded.isDelivered("api-a", "job-1:0:abc"));
+        assertFalse(reloaded.isDelivered("api-b", "job-1:0:abc")); // Chave é por API
+        assertEquals(1, reloaded.size());
+    }
+    
+    @Test
+    @DisplayName("Registros expirados devem ser descartados ao carregar")
+    void testRetention() throws Exception {
+        long old = System.currentTimeMillis() - Duration.ofDays(40).toMillis();
+        Files.writeString(tempDir.resolve("delivered-batches.log"),
+            old + "\tapi-a\told-key\n" + System.currentTimeMillis() + "\tapi-a\tnew-key\n");
+        
+        DeliveryLedger ledger = new DeliveryLedger(tempDir, Duration.ofDays(30));
+        
+        assertFalse(ledger.isDelivered("api-a", "old-key"));
+        assertTrue(ledger.isDelivered("api-a", "new-key"));
+        assertEquals(1, Files.readAllLines(tempDir.resolve("delivered-batches.log")).size());
+    }
+    
+    @Test
+    @DisplayName("Chave de idempotência deve ser determinística para o mesmo conteúdo")
+    void testDeterministicKeys() throws Exception {
+        String json = "[{\"id\":1}]";
+        StreamingPayload streaming = StreamingPayload.of(
+            () -> new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), -1);
+        
+        String hash = IdempotencyKeys.contentHash(json);
+        
+        assertEquals(hash, IdempotencyKeys.contentHash(json));
+        assertEquals(hash, IdempotencyKeys.contentHash(streaming));
+        assertNotEquals(hash, IdempotencyKeys.contentHash("[{\"id\":2}]"));
+        assertEquals("job-1:exec-1:3:" + hash, IdempotencyKeys.forBatch("job-1", "exec-1", 3, hash));
+    }
+}
@@ -0,0 +1,74 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.model.EtlMessage;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para LoadService (entrega idempotente por execução).
+ */
+@DisplayName("LoadService Tests")
+class LoadServiceTest {
+    
+    private static final String JSON = "[{\"id\":1,\"nome\":\"João\"}]";
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Lotes idênticos devem ser entregues em cada execução e descartados no reenvio da mesma execução")
+    void testIdempotentDeliveryPerExecution() throws Exception {
+        List<String> keys = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            keys.add(exchange.getRequestHeaders().getFirst(IdempotencyKeys.HEADER_NAME));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        
+        try {
+            ApiConfig config = new ApiConfig();
+            config.setName("idempotent-api");
+            config.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+            config.setEndpoint("/data");
+            config.setIdempotentDelivery(true);
+            
+            LoadService loadService = new LoadService(new DeliveryLedger(tempDir.resolve("ledger"), Duration.ofDays(30)));
+            RestApiEndpoint endpoint = new RestApiEndpoint(config,
+                new DeadLetterChannel(tempDir.resolve("dead-letter"), 1024 * 1024, 8));
+            
+            assertTrue(loadService.load(endpoint, batch("exec-1")));
+            assertTrue(loadService.load(endpoint, batch("exec-2")));
+            assertEquals(2, keys.size(), "Execuções diferentes devem entregar os mesmos dados");
+            assertNotEquals(keys.get(0), keys.get(1));
+            
+            // Reenvio do mesmo lote dentro da execução já entregue
+            assertTrue(loadService.load(endpoint, batch("exec-1")));
+            assertEquals(2, keys.size(), "Reenvio na mesma execução deve ser descartado");
+        } finally {
+            server.stop(0);
+            CircuitBreakerRegistry.getInstance().remove("idempotent-api");
+        }
+    }
+    
+    private static EtlMessage batch(String executionId) {
+        EtlMessage message = new EtlMessage(JSON);
+        message.addHeader("jobId", "job-idempotente");
+        message.addHeader(IdempotencyKeys.EXECUTION_HEADER, executionId);
+        message.addHeader(IdempotencyKeys.BATCH_ORDINAL_HEADER, "0");
+        return message;
+    }
+}
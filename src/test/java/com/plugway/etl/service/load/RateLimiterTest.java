@@ -0,0 +1,103 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.RateLimitConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para RateLimiter.
+ */
+@DisplayName("RateLimiter Tests")
+class RateLimiterTest {
+    
+    private RateLimitConfig config;
+    private AtomicLong clock;
+    
+    @BeforeEach
+    void setUp() {
+        config = new RateLimitConfig();
+        config.setEnabled(true);
+        config.setRequestsPerSecond(10);
+        config.setRequestBurst(2);
+        
+        clock = new AtomicLong();
+    }
+    
+    @Test
+    @DisplayName("Deve permitir o burst e espaçar as requisições seguintes")
+    void testBurstAndSpacing() {
+        RateLimiter limiter = new RateLimiter("test-api", config, clock::get);
+        
+        assertEquals(0, limiter.reserve(0));
+        assertEquals(0, limiter.reserve(0));
+        assertEquals(millis(100), limiter.reserve(0));
+        assertEquals(millis(200), limiter.reserve(0));
+        
+        clock.addAndGet(millis(1000));
+        assertEquals(0, limiter.reserve(0));
+    }
+    
+    @Test
+    @DisplayName("Deve limitar a taxa de bytes por segundo")
+    void testBytesPerSecond() {
+        config.setRequestsPerSecond(0);
+        config.setBytesPerSecond(1000);
+        RateLimiter limiter = new RateLimiter("bytes-api", config, clock::get);
+        
+        assertEquals(0, limiter.reserve(1000));
+        assertEquals(millis(500), limiter.reserve(500));
+    }
+    
+    @Test
+    @DisplayName("Resposta 429 deve pausar os envios e reduzir a taxa")
+    void testThrottledResponse() {
+        RateLimiter limiter = new RateLimiter("throttled-api", config, clock::get);
+        
+        limiter.onResponse(429, 3000);
+        
+        assertEquals(millis(3000), limiter.reserve(0));
+        assertEquals(0.5, limiter.getRateFactor());
+        assertEquals(5.0, limiter.getCurrentRequestsPerSecond());
+        assertEquals(1, limiter.getThrottledResponses());
+    }
+    
+    @Test
+    @DisplayName("Respostas de sucesso devem recuperar a taxa gradualmente")
+    void testRateRecovery() {
+        RateLimiter limiter = new RateLimiter("recovery-api", config, clock::get);
+        limiter.onResponse(429, 0);
+        
+        for (int i = 0; i < 5; i++) {
+            limiter.onResponse(200, 0);
+        }
+        assertEquals(0.75, limiter.getRateFactor(), 0.0001);
+        
+        for (int i = 0; i < 20; i++) {
+            limiter.onResponse(200, 0);
+        }
+        assertEquals(1.0, limiter.getRateFactor());
+    }
+    
+    @Test
+    @DisplayName("Limitador desabilitado não deve atrasar requisições")
+    void testDisabled() {
+        config.setEnabled(false);
+        RateLimiter limiter = new RateLimiter("disabled-api", config, clock::get);
+        
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.acquire(1000).isDone());
+        }
+        limiter.onResponse(429, 1000);
+        assertEquals(0, limiter.getThrottledResponses());
+    }
+    
+    private long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+}
@@ -0,0 +1,181 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.service.monitoring.JobMetrics;
+import com.plugway.etl.service.monitoring.MetricsRegistry;
+import com.plugway.etl.service.monitoring.Span;
+import com.plugway.etl.service.monitoring.TraceContext;
+import com.plugway.etl.service.monitoring.Tracer;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para RestApiEndpoint.
+ */
+@DisplayName("RestApiEndpoint Tests")
+class RestApiEndpointTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Envio deve registrar lote, requisições e retries nas métricas do job")
+    void testSendRecordsJobMetrics() throws Exception {
+        AtomicInteger posts = new AtomicInteger();
+        AtomicInteger otherRequests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            boolean post = "POST".equals(exchange.getRequestMethod());
+            if (!post) {
+                otherRequests.incrementAndGet();
+            }
+            // Primeiro POST falha com 503 para forçar um retry
+            int status = post && posts.getAndIncrement() == 0 ? 503 : 200;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        
+        String jobId = "test-job-endpoint-metrics";
+        MetricsRegistry.getInstance().remove(jobId);
+        try {
+            ApiConfig config = new ApiConfig();
+            config.setName("metrics-api");
+            config.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+            config.setEndpoint("/data");
+            config.setRetryDelay(1);
+            config.setMaxRetryDelay(5);
+            
+            EtlMessage message = new EtlMessage("[{\"id\":1}]");
+            message.addHeader("jobId", jobId);
+            
+            assertTrue(newEndpoint(config).send(message));
+            
+            JobMetrics jobMetrics = MetricsRegistry.getInstance().find(jobId);
+            assertNotNull(jobMetrics);
+            assertEquals(1, jobMetrics.getBatches());
+            assertEquals(0, jobMetrics.getFailedBatches());
+            assertEquals(2, jobMetrics.getRequests());
+            assertEquals(1, jobMetrics.getFailedRequests());
+            assertEquals(1, jobMetrics.getRetries());
+            assertEquals(2, jobMetrics.getThrottleWait().getCount());
+            assertEquals(2 * "[{\"id\":1}]".length(), jobMetrics.getStage(JobMetrics.Stage.LOAD).getBytes());
+            assertTrue(jobMetrics.getBatchLatency().getMaxNanos() >= jobMetrics.getRequestLatency().getMaxNanos());
+            assertEquals(0, otherRequests.get(), "Envio não deve fazer requisições de teste de conexão");
+        } finally {
+            server.stop(0);
+            CircuitBreakerRegistry.getInstance().remove("metrics-api");
+        }
+    }
+    
+    @Test
+    @DisplayName("Cada tentativa deve enviar traceparent filho do contexto da mensagem")
+    void testSendPropagatesTraceparent() throws Exception {
+        List<String> traceparents = new CopyOnWriteArrayList<>();
+        AtomicInteger posts = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            boolean post = "POST".equals(exchange.getRequestMethod());
+            if (post) {
+                traceparents.add(exchange.getRequestHeaders().getFirst("traceparent"));
+            }
+            int status = post && posts.getAndIncrement() == 0 ? 503 : 200;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        
+        try {
+            ApiConfig config = new ApiConfig();
+            config.setName("trace-api");
+            config.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+            config.setEndpoint("/data");
+            config.setRetryDelay(1);
+            config.setMaxRetryDelay(5);
+            
+            Span batch = Tracer.getInstance().startTrace("batch");
+            EtlMessage message = new EtlMessage("[{\"id\":1}]");
+            batch.inject(message);
+            
+            assertTrue(newEndpoint(config).send(message));
+            batch.end();
+            
+            assertEquals(2, traceparents.size());
+            TraceContext first = TraceContext.parse(traceparents.get(0));
+            TraceContext second = TraceContext.parse(traceparents.get(1));
+            assertNotNull(first);
+            assertNotNull(second);
+            assertEquals(batch.getTraceId(), first.getTraceId());
+            assertEquals(batch.getTraceId(), second.getTraceId());
+            assertNotEquals(first.getSpanId(), second.getSpanId());
+            
+            List<Span> spans = Tracer.getInstance().getTrace(batch.getTraceId());
+            assertEquals(3, spans.size());
+            assertTrue(spans.stream()
+                .filter(span -> "http-request".equals(span.getName()))
+                .allMatch(span -> batch.getSpanId().equals(span.getParentSpanId())));
+        } finally {
+            server.stop(0);
+            CircuitBreakerRegistry.getInstance().remove("trace-api");
+        }
+    }
+    
+    @Test
+    @DisplayName("Falha não recuperável deve enviar a mensagem para o Dead Letter Channel do endpoint")
+    void testSendFailureGoesToDeadLetterChannel() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+        });
+        server.start();
+        
+        try {
+            ApiConfig config = new ApiConfig();
+            config.setName("failure-api");
+            config.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+            config.setEndpoint("/data");
+            
+            DeadLetterChannel deadLetterChannel = new DeadLetterChannel(tempDir, 1024 * 1024, 8);
+            EtlMessage message = new EtlMessage("[{\"id\":1}]");
+            
+            assertFalse(new RestApiEndpoint(config, deadLetterChannel).send(message));
+            
+            assertEquals(1, deadLetterChannel.countByTarget("failure-api"));
+            assertEquals(message.getMessageId(), deadLetterChannel.getFailedMessages().get(0).getMessageId());
+        } finally {
+            server.stop(0);
+            CircuitBreakerRegistry.getInstance().remove("failure-api");
+        }
+    }
+    
+    @Test
+    @DisplayName("Tamanho do body para o Rate Limiter deve ser contado em bytes UTF-8")
+    void testUtf8Length() {
+        for (String text : List.of("", "[{\"id\":1}]", "{\"nome\":\"João Conceição\"}", "€ 10", "\uD83D\uDE00 ok", "\uD800x")) {
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, RestApiEndpoint.utf8Length(text), text);
+        }
+    }
+    
+    /**
+     * Endpoint com Dead Letter Channel em diretório temporário, para não gravar em data/.
+     */
+    private RestApiEndpoint newEndpoint(ApiConfig config) {
+        return new RestApiEndpoint(config, new DeadLetterChannel(tempDir, 1024 * 1024, 8));
+    }
+}
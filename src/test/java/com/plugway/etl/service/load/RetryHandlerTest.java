@@ -0,0 +1,159 @@
+package com.plugway.etl.service.load;
+
+import com.plugway.etl.model.ApiConfig;
+import com.plugway.etl.model.RetryJitter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testes unitários para RetryHandler.
+ */
+@DisplayName("RetryHandler Tests")
+class RetryHandlerTest {
+    
+    private ApiConfig config;
+    
+    @BeforeEach
+    void setUp() {
+        config = new ApiConfig();
+        config.setName("test-api");
+        config.setBaseUrl("http://localhost");
+        config.setMaxRetries(3);
+        config.setRetryDelay(1);
+    }
+    
+    @Test
+    @DisplayName("Backoff sem jitter deve ser exponencial e limitado")
+    void testExponentialBackoffWithoutJitter() {
+        config.setRetryJitter(RetryJitter.NONE);
+        config.setRetryDelay(1000);
+        config.setMaxRetryDelay(5000);
+        RetryHandler handler = new RetryHandler(config);
+        
+        assertEquals(1000, handler.calculateDelay(0, 1000));
+        assertEquals(2000, handler.calculateDelay(1, 1000));
+        assertEquals(4000, handler.calculateDelay(2, 1000));
+        assertEquals(5000, handler.calculateDelay(3, 1000));
+        assertEquals(5000, handler.calculateDelay(40, 1000));
+    }
+    
+    @Test
+    @DisplayName("Full jitter deve ficar entre zero e o backoff exponencial")
+    void testFullJitter() {
+        config.setRetryJitter(RetryJitter.FULL);
+        config.setRetryDelay(1000);
+        RetryHandler handler = new RetryHandler(config);
+        
+        for (int i = 0; i < 100; i++) {
+            long delay = handler.calculateDelay(2, 1000);
+            assertTrue(delay >= 0 && delay <= 4000, "Delay fora do intervalo: " + delay);
+        }
+    }
+    
+    @Test
+    @DisplayName("Decorrelated jitter deve ficar entre o delay base e o limite")
+    void testDecorrelatedJitter() {
+        config.setRetryJitter(RetryJitter.DECORRELATED);
+        config.setRetryDelay(1000);
+        config.setMaxRetryDelay(10000);
+        RetryHandler handler = new RetryHandler(config);
+        
+        long previous = 1000;
+        for (int i = 0; i < 100; i++) {
+            long delay = handler.calculateDelay(i, previous);
+            assertTrue(delay >= 1000 && delay <= 10000, "Delay fora do intervalo: " + delay);
+            previous = delay;
+        }
+    }
+    
+    @Test
+    @DisplayName("Deve classificar status recuperáveis e não recuperáveis")
+    void testRetryableStatusClassification() {
+        assertTrue(RetryHandler.isRetryableStatus(429));
+        assertTrue(RetryHandler.isRetryableStatus(503));
+        assertTrue(RetryHandler.isRetryableStatus(408));
+        assertFalse(RetryHandler.isRetryableStatus(400));
+        assertFalse(RetryHandler.isRetryableStatus(404));
+        assertFalse(RetryHandler.isRetryableStatus(200));
+    }
+    
+    @Test
+    @DisplayName("Deve ler o header Retry-After em segundos")
+    void testParseRetryAfter() {
+        assertEquals(2000, RetryHandler.parseRetryAfter(response(429, "2")));
+        assertEquals(0, RetryHandler.parseRetryAfter(response(429, null)));
+        assertEquals(0, RetryHandler.parseRetryAfter(response(429, "invalid")));
+    }
+    
+    @Test
+    @DisplayName("Modo assíncrono deve reenviar status 5xx até obter sucesso")
+    void testAsyncRetryOnServerError() throws Exception {
+        RetryHandler handler = new RetryHandler(config);
+        AtomicInteger calls = new AtomicInteger();
+        
+        HttpResponse<String> result = handler.<String>executeWithRetryAsync(() -> {
+            int call = calls.incrementAndGet();
+            return CompletableFuture.completedFuture(response(call < 3 ? 503 : 200, null));
+        }).get(5, TimeUnit.SECONDS);
+        
+        assertEquals(200, result.statusCode());
+        assertEquals(3, calls.get());
+    }
+    
+    @Test
+    @DisplayName("Modo assíncrono não deve consumir retries com status 4xx")
+    void testAsyncNoRetryOnClientError() throws Exception {
+        RetryHandler handler = new RetryHandler(config);
+        AtomicInteger calls = new AtomicInteger();
+        
+        HttpResponse<String> result = handler.<String>executeWithRetryAsync(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(response(400, null));
+        }).get(5, TimeUnit.SECONDS);
+        
+        assertEquals(400, result.statusCode());
+        assertEquals(1, calls.get());
+    }
+    
+    @Test
+    @DisplayName("Modo assíncrono deve falhar após esgotar as tentativas")
+    void testAsyncExhaustsRetries() {
+        RetryHandler handler = new RetryHandler(config);
+        AtomicInteger calls = new AtomicInteger();
+        
+        CompletableFuture<HttpResponse<String>> future = handler.executeWithRetryAsync(() -> {
+            calls.incrementAndGet();
+            return CompletableFuture.failedFuture(new IOException("connection refused"));
+        });
+        
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause().getMessage().contains("4 tentativas"));
+        assertEquals(4, calls.get());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private HttpResponse<String> response(int status, String retryAfter) {
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        Map<String, List<String>> headers = retryAfter != null
+            ? Map.of("Retry-After", List.of(retryAfter))
+            : Map.of();
+        when(response.headers()).thenReturn(HttpHeaders.of(headers, (name, value) -> true));
+        return response;
+    }
+}
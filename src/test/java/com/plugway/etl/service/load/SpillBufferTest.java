@@ -0,0 +1,113 @@
+package com.plugway.etl.service.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para SpillBuffer.
+ */
+@DisplayName("SpillBuffer Tests")
+class SpillBufferTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Lotes acima do limite de memória devem ir para disco mantendo a ordem")
+    void testSpillKeepsOrder() throws Exception {
+        try (SpillBuffer buffer = new SpillBuffer("job-1", 10, tempDir, 12)) {
+            for (int i = 0; i < 6; i++) {
+                buffer.put(body(i), 1);
+            }
+            buffer.finish();
+            
+            assertEquals(10, buffer.getMemoryBytes()); // Apenas os dois primeiros lotes no heap
+            assertEquals(4, buffer.getSpilledBatches());
+            assertEquals(2, buffer.getSegmentCount());
+            
+            List<String> bodies = new ArrayList<>();
+            SpillBuffer.Batch batch;
+            while ((batch = buffer.take()) != null) {
+                bodies.add(read(batch.toPayload("application/json")));
+                batch.release();
+            }
+            
+            assertEquals(List.of("lote0", "lote1", "lote2", "lote3", "lote4", "lote5"), bodies);
+            assertEquals(0, buffer.getMemoryBytes());
+            assertEquals(1, buffer.getSegmentCount()); // Segmento ativo é removido ao fechar
+        }
+        
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+    
+    @Test
+    @DisplayName("Payload do lote deve poder ser lido novamente a cada tentativa")
+    void testPayloadIsReReadable() throws Exception {
+        try (SpillBuffer buffer = new SpillBuffer("job-2", 0, tempDir, 64)) {
+            buffer.put(body(7), 3);
+            buffer.finish();
+            
+            SpillBuffer.Batch batch = buffer.take();
+            StreamingPayload payload = batch.toPayload("application/x-ndjson");
+            
+            assertTrue(batch.isSpilled());
+            assertEquals(3, batch.getRecordCount());
+            assertEquals(5, payload.getLength());
+            assertEquals("lote7", read(payload));
+            assertEquals("lote7", read(payload));
+            assertEquals("application/x-ndjson", payload.getContentType());
+        }
+    }
+    
+    @Test
+    @DisplayName("Consumidor deve aguardar lotes do produtor até a finalização")
+    void testProducerConsumer() throws Exception {
+        try (SpillBuffer buffer = new SpillBuffer("job-3", 32, tempDir, 128)) {
+            CompletableFuture<Integer> consumer = CompletableFuture.supplyAsync(() -> {
+                int count = 0;
+                try {
+                    SpillBuffer.Batch batch;
+                    while ((batch = buffer.take()) != null) {
+                        assertEquals("lote" + count, read(batch.toPayload("application/json")));
+                        batch.release();
+                        count++;
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return count;
+            });
+            
+            for (int i = 0; i < 100; i++) {
+                buffer.put(body(i), 1);
+            }
+            buffer.finish();
+            
+            assertEquals(100, consumer.get());
+            assertTrue(buffer.getPeakMemoryBytes() <= 32);
+        }
+    }
+    
+    private byte[] body(int index) {
+        return ("lote" + index).getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private String read(StreamingPayload payload) throws Exception {
+        try (InputStream in = payload.openStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
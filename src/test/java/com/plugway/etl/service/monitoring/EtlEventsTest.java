@@ -0,0 +1,116 @@
+package com.plugway.etl.service.monitoring;
+
+import com.plugway.etl.eip.EtlPipeline;
+import com.plugway.etl.eip.MessageTransformer;
+import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.model.MessageType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes dos eventos customizados do JFR.
+ */
+@DisplayName("EtlEvents Tests")
+class EtlEventsTest {
+    
+    private static final String JOB_ID = "jfr-events-job";
+    
+    @TempDir
+    Path tempDir;
+    
+    @AfterEach
+    void tearDown() {
+        MetricsRegistry.getInstance().remove(JOB_ID);
+    }
+    
+    @Test
+    @DisplayName("Execução, etapas e filtros devem gerar eventos JFR com gravação ativa")
+    void testEventsRecorded() throws Exception {
+        Path file = tempDir.resolve("etl.jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : List.of("JobExecution", "StageExecution", "FilterApply")) {
+                recording.enable("com.plugway.etl." + event).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            
+            ExecutionMetrics metrics = new ExecutionMetrics(JOB_ID);
+            metrics.startExtract();
+            metrics.endExtract(10);
+            
+            EtlPipeline pipeline = new EtlPipeline("jfr-pipeline");
+            pipeline.setWireTap(null);
+            pipeline.addFilter(new MessageTransformer() {
+                @Override
+                public EtlMessage transform(EtlMessage message) {
+                    return message;
+                }
+                
+                @Override
+                public String getName() {
+                    return "identity";
+                }
+            });
+            metrics.startTransform();
+            pipeline.process(new EtlMessage(MessageType.DOCUMENT, "payload"));
+            metrics.endTransform(10);
+            metrics.addBytes(JobMetrics.Stage.TRANSFORM, 256);
+            metrics.markSuccess();
+            
+            recording.stop();
+            recording.dump(file);
+        }
+        
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        
+        RecordedEvent job = single(events, "com.plugway.etl.JobExecution");
+        assertEquals(JOB_ID, job.getString("jobId"));
+        assertTrue(job.getBoolean("success"));
+        assertEquals(10, job.getLong("records"));
+        
+        List<RecordedEvent> stages = byType(events, "com.plugway.etl.StageExecution");
+        assertEquals(2, stages.size());
+        RecordedEvent transform = stages.stream()
+            .filter(event -> "TRANSFORM".equals(event.getString("stage")))
+            .findFirst().orElseThrow();
+        assertEquals(256, transform.getLong("bytes"));
+        
+        RecordedEvent filter = single(events, "com.plugway.etl.FilterApply");
+        assertEquals("jfr-pipeline", filter.getString("pipeline"));
+        assertEquals("identity", filter.getString("filter"));
+        assertTrue(filter.getBoolean("success"));
+    }
+    
+    @Test
+    @DisplayName("Eventos não devem ser gravados sem gravação ativa")
+    void testEventsDisabledWithoutRecording() {
+        EtlEvents.HttpSend event = new EtlEvents.HttpSend();
+        event.begin();
+        event.end();
+        
+        assertFalse(event.shouldCommit());
+    }
+    
+    private static List<RecordedEvent> byType(List<RecordedEvent> events, String type) {
+        return events.stream()
+            .filter(event -> event.getEventType().getName().equals(type))
+            .collect(Collectors.toList());
+    }
+    
+    private static RecordedEvent single(List<RecordedEvent> events, String type) {
+        List<RecordedEvent> matching = byType(events, type);
+        assertEquals(1, matching.size(), type);
+        return matching.get(0);
+    }
+}
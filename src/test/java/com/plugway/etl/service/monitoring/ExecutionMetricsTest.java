@@ -31,32 +31,35 @@ class ExecutionMetricsTest {
     
     @Test
     @DisplayName("ExecutionMetrics deve rastrear etapas de extração")
-    void testExtractMetrics() {
+    void testExtractMetrics() throws InterruptedException {
         metrics.startExtract();
-        metrics.endExtract(1000, 50);
+        Thread.sleep(5);
+        metrics.endExtract(50);
         
-        assertEquals(1000, metrics.getExtractDuration());
+        assertTrue(metrics.getExtractDuration() >= 5);
         assertEquals(50, metrics.getRecordsExtracted());
         assertEquals(50, metrics.getRecordsProcessed());
     }
     
     @Test
     @DisplayName("ExecutionMetrics deve rastrear etapas de transformação")
-    void testTransformMetrics() {
+    void testTransformMetrics() throws InterruptedException {
         metrics.startTransform();
-        metrics.endTransform(500, 50);
+        Thread.sleep(5);
+        metrics.endTransform(50);
         
-        assertEquals(500, metrics.getTransformDuration());
+        assertTrue(metrics.getTransformDuration() >= 5);
         assertEquals(50, metrics.getRecordsTransformed());
     }
     
     @Test
     @DisplayName("ExecutionMetrics deve rastrear etapas de carga")
-    void testLoadMetrics() {
+    void testLoadMetrics() throws InterruptedException {
         metrics.startLoad();
-        metrics.endLoad(800, 50);
+        Thread.sleep(5);
+        metrics.endLoad(50);
         
-        assertEquals(800, metrics.getLoadDuration());
+        assertTrue(metrics.getLoadDuration() >= 5);
         assertEquals(50, metrics.getRecordsLoaded());
     }
     
@@ -100,21 +103,54 @@ class ExecutionMetricsTest {
     @DisplayName("ExecutionMetrics deve rastrear múltiplas etapas")
     void testMultipleStages() {
         metrics.startExtract();
-        metrics.endExtract(1000, 100);
+        metrics.endExtract(100);
         
         metrics.startTransform();
-        metrics.endTransform(500, 100);
+        metrics.endTransform(100);
         
         metrics.startLoad();
-        metrics.endLoad(800, 100);
+        metrics.endLoad(100);
         
         metrics.markSuccess();
         
-        assertEquals(1000, metrics.getExtractDuration());
-        assertEquals(500, metrics.getTransformDuration());
-        assertEquals(800, metrics.getLoadDuration());
+        assertTrue(metrics.getStageNanos(JobMetrics.Stage.EXTRACT) > 0);
+        assertTrue(metrics.getStageNanos(JobMetrics.Stage.TRANSFORM) > 0);
+        assertTrue(metrics.getStageNanos(JobMetrics.Stage.LOAD) > 0);
         assertEquals(100, metrics.getRecordsProcessed());
+        assertEquals(100, metrics.getRecordsLoaded());
         assertTrue(metrics.isSuccess());
     }
+    
+    @Test
+    @DisplayName("Execuções finalizadas devem ser acumuladas nas métricas do job")
+    void testAggregatesExecutionsInRegistry() {
+        String jobId = "test-job-registry";
+        MetricsRegistry.getInstance().remove(jobId);
+        
+        for (int execution = 0; execution < 3; execution++) {
+            ExecutionMetrics executionMetrics = new ExecutionMetrics(jobId);
+            executionMetrics.startTransform();
+            executionMetrics.endTransform(10);
+            executionMetrics.addBytes(JobMetrics.Stage.TRANSFORM, 100);
+            if (execution < 2) {
+                executionMetrics.markSuccess();
+            } else {
+                executionMetrics.markFailure("Falha");
+            }
+            executionMetrics.markFailure("Ignorada"); // Já publicada
+        }
+        
+        JobMetrics jobMetrics = MetricsRegistry.getInstance().find(jobId);
+        assertNotNull(jobMetrics);
+        assertEquals(3, jobMetrics.getExecutions());
+        assertEquals(1, jobMetrics.getFailures());
+        assertEquals(3, jobMetrics.getExecutionLatency().getCount());
+        
+        JobMetrics.StageMetrics transform = jobMetrics.getStage(JobMetrics.Stage.TRANSFORM);
+        assertEquals(30, transform.getRecords());
+        assertEquals(300, transform.getBytes());
+        assertTrue(transform.getRecordsPerSecond() > 0);
+        assertEquals(0, jobMetrics.getStage(JobMetrics.Stage.LOAD).getDuration().getCount());
+    }
 }
 
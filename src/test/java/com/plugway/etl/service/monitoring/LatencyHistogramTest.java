@@ -0,0 +1,56 @@
+package com.plugway.etl.service.monitoring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para LatencyHistogram.
+ */
+@DisplayName("LatencyHistogram Tests")
+class LatencyHistogramTest {
+    
+    @Test
+    @DisplayName("Histograma vazio deve retornar zero")
+    void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMeanNanos());
+    }
+    
+    @Test
+    @DisplayName("Percentis devem ter erro relativo de no máximo ~1,6%")
+    void testPercentilePrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+        
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_000_000L, histogram.getValueAtPercentile(50), 500_000_000L * 0.016);
+        assertEquals(990_000_000L, histogram.getValueAtPercentile(99), 990_000_000L * 0.016);
+        assertEquals(1_000_000_000L, histogram.getValueAtPercentile(100));
+        assertEquals(1_000_000_000L, histogram.getMaxNanos());
+        assertEquals(500_500_000L, histogram.getMeanNanos());
+    }
+    
+    @Test
+    @DisplayName("Buckets devem cobrir todo o intervalo de valores sem sobreposição")
+    void testBucketBoundaries() {
+        for (long value : new long[] {0, 1, 127, 128, 129, 1_000, 123_456_789L, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestEquivalentValue(index - 1) < value);
+            }
+        }
+        
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+}
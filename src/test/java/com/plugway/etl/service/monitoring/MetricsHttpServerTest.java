@@ -0,0 +1,76 @@
+package com.plugway.etl.service.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do endpoint de métricas (formato Prometheus) e da publicação via JMX.
+ */
+@DisplayName("MetricsHttpServer Tests")
+class MetricsHttpServerTest {
+    
+    private static final String JOB_ID = "metrics-endpoint-job";
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        JobMetrics jobMetrics = MetricsRegistry.getInstance().getJobMetrics(JOB_ID);
+        jobMetrics.recordBatch(2_000_000, true);
+        jobMetrics.recordRequest(1_500_000, 512, true);
+        jobMetrics.recordRetry();
+        MetricsHttpServer.getInstance().start("127.0.0.1", 0);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        MetricsHttpServer.getInstance().stop();
+        MetricsRegistry.getInstance().remove(JOB_ID);
+    }
+    
+    @Test
+    @DisplayName("GET /metrics deve retornar as métricas do job no formato texto do Prometheus")
+    void testScrapeEndpoint() throws Exception {
+        int port = MetricsHttpServer.getInstance().getPort();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/metrics")).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+        
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain; version=0.0.4"));
+        String body = response.body();
+        assertTrue(body.contains("# TYPE plugway_load_batches_total counter"));
+        assertTrue(body.contains("plugway_load_batches_total{job=\"" + JOB_ID + "\"} 1"));
+        assertTrue(body.contains("plugway_http_retries_total{job=\"" + JOB_ID + "\"} 1"));
+        assertTrue(body.contains("plugway_stage_bytes_total{job=\"" + JOB_ID + "\",stage=\"load\"} 512"));
+        assertTrue(body.contains("plugway_http_request_seconds_count{job=\"" + JOB_ID + "\"} 1"));
+        assertTrue(body.contains("plugway_load_batch_seconds{job=\"" + JOB_ID + "\",quantile=\"0.99\"}"));
+    }
+    
+    @Test
+    @DisplayName("Métricas do job devem ser publicadas como MBean")
+    void testJobMBean() throws Exception {
+        ObjectName name = JmxExporter.objectName("Job", JOB_ID);
+        
+        assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Batches"));
+        assertEquals(512L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "LoadBytes"));
+        
+        MetricsRegistry.getInstance().remove(JOB_ID);
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+    
+    @Test
+    @DisplayName("Valores de labels devem ser escapados")
+    void testLabelEscaping() {
+        assertEquals("{job=\"a\\\"b\\\\c\\nd\"}", PrometheusExporter.labels("job", "a\"b\\c\nd"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.plugway.etl.service.monitoring;
+
+import com.plugway.etl.eip.EtlPipeline;
+import com.plugway.etl.eip.MessageTransformer;
+import com.plugway.etl.model.EtlMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para Tracer, Span e TraceContext.
+ */
+@DisplayName("Tracer Tests")
+class TracerTest {
+    
+    private final Tracer tracer = Tracer.getInstance();
+    
+    @AfterEach
+    void tearDown() {
+        tracer.setSampleRate(1.0);
+    }
+    
+    @Test
+    @DisplayName("traceparent deve ser formatado e interpretado no formato W3C")
+    void testTraceparentRoundTrip() {
+        TraceContext context = TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        
+        assertNotNull(context);
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", context.getTraceId());
+        assertEquals("00f067aa0ba902b7", context.getSpanId());
+        assertTrue(context.isSampled());
+        assertEquals("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01", context.toTraceparent());
+        
+        assertNull(TraceContext.parse(null));
+        assertNull(TraceContext.parse("invalido"));
+        assertNull(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01"));
+        assertFalse(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00").isSampled());
+    }
+    
+    @Test
+    @DisplayName("Spans filhos devem herdar o trace id e ser exportados ao finalizar")
+    void testChildSpansExported() {
+        Span root = tracer.startTrace("job-execution");
+        Span child = tracer.startSpan("extract", root.getContext());
+        child.setAttribute("records", 10);
+        child.end();
+        root.end();
+        
+        assertEquals(root.getTraceId(), child.getTraceId());
+        assertEquals(root.getSpanId(), child.getParentSpanId());
+        assertNull(root.getParentSpanId());
+        
+        List<Span> spans = tracer.getTrace(root.getTraceId());
+        assertEquals(2, spans.size());
+        assertEquals("extract", spans.get(0).getName());
+        assertEquals("10", spans.get(0).getAttributes().get("records"));
+    }
+    
+    @Test
+    @DisplayName("Traces não amostrados devem propagar o contexto sem exportar spans")
+    void testUnsampledTrace() {
+        tracer.setSampleRate(0);
+        
+        Span root = tracer.startTrace("job-execution");
+        Span child = tracer.startSpan("load", root.getContext());
+        child.end();
+        root.end();
+        
+        assertFalse(child.getContext().isSampled());
+        assertTrue(child.getContext().toTraceparent().endsWith("-00"));
+        assertTrue(tracer.getTrace(root.getTraceId()).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Pipeline deve criar spans por filtro e manter o contexto em mensagens novas")
+    void testPipelinePropagatesContext() throws Exception {
+        Span stage = tracer.startTrace("transform");
+        EtlMessage message = new EtlMessage("payload");
+        stage.inject(message);
+        
+        EtlPipeline pipeline = new EtlPipeline("trace-pipeline");
+        pipeline.setWireTap(null);
+        pipeline.addFilter(new MessageTransformer() {
+            @Override
+            public EtlMessage transform(EtlMessage input) {
+                // Filtro que cria uma mensagem nova sem copiar correlation id nem headers
+                return new EtlMessage(input.getPayload());
+            }
+            
+            @Override
+            public String getName() {
+                return "fresh-message";
+            }
+        });
+        
+        EtlMessage result = pipeline.process(message);
+        stage.end();
+        
+        assertEquals(stage.getTraceId(), result.getCorrelationId());
+        assertEquals(stage.getContext().toTraceparent(), result.getHeader(TraceContext.TRACEPARENT_HEADER));
+        
+        Span filterSpan = tracer.getTrace(stage.getTraceId()).get(0);
+        assertEquals("filter:fresh-message", filterSpan.getName());
+        assertEquals(stage.getSpanId(), filterSpan.getParentSpanId());
+    }
+}
@@ -0,0 +1,103 @@
+package com.plugway.etl.service.transform;
+
+import com.plugway.etl.model.EtlMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para ChangeDetectionFilter e RowHashIndex.
+ */
+@DisplayName("ChangeDetectionFilter Tests")
+class ChangeDetectionFilterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Registros inalterados devem ser descartados após commit")
+    void testSkipsUnchangedRows() throws Exception {
+        ChangeDetectionFilter filter = new ChangeDetectionFilter("job-1", List.of("id"), tempDir);
+        
+        EtlMessage first = filter.transform(new EtlMessage(List.of(row(1, "Ana"), row(2, "Bruno"))));
+        assertEquals(2, ((List<?>) first.getPayload()).size());
+        filter.commit();
+        
+        EtlMessage second = filter.transform(new EtlMessage(List.of(row(1, "Ana"), row(2, "Bruna"), row(3, "Carla"))));
+        List<?> changed = (List<?>) second.getPayload();
+        
+        assertEquals(2, changed.size());
+        assertEquals("Bruna", ((Map<?, ?>) changed.get(0)).get("nome"));
+        assertEquals("1", second.getHeader("changeDetection.skipped"));
+        assertTrue(filter.hasChanges());
+    }
+    
+    @Test
+    @DisplayName("Registros não confirmados devem ser reenviados")
+    void testDiscardKeepsRowsPending() throws Exception {
+        ChangeDetectionFilter filter = new ChangeDetectionFilter("job-2", List.of("ID"), tempDir);
+        
+        filter.transform(new EtlMessage(List.of(row(1, "Ana"))));
+        filter.discard(); // Carga falhou
+        
+        EtlMessage retry = filter.transform(new EtlMessage(List.of(row(1, "Ana"))));
+        assertEquals(1, ((List<?>) retry.getPayload()).size());
+        filter.commit();
+        
+        // Nova instância (nova execução) usa o índice persistido
+        ChangeDetectionFilter next = new ChangeDetectionFilter("job-2", List.of("ID"), tempDir);
+        next.transform(new EtlMessage(List.of(row(1, "Ana"))));
+        assertFalse(next.hasChanges());
+    }
+    
+    @Test
+    @DisplayName("Índice deve crescer e persistir entradas após reabertura")
+    void testIndexResizeAndReopen() throws Exception {
+        Path file = tempDir.resolve("resize.idx");
+        Map<Long, Long> hashes = new HashMap<>();
+        for (long i = 1; i <= 5000; i++) {
+            hashes.put(i, i * 31 + 7);
+        }
+        
+        try (RowHashIndex index = RowHashIndex.open(file)) {
+            index.putAll(hashes);
+            assertEquals(5000, index.size());
+            assertTrue(index.capacity() > 5000);
+        }
+        
+        try (RowHashIndex index = RowHashIndex.open(file)) {
+            assertEquals(5000, index.size());
+            for (long i = 1; i <= 5000; i++) {
+                assertEquals(i * 31 + 7, index.get(i));
+            }
+            assertEquals(0, index.get(-42L));
+        }
+    }
+    
+    @Test
+    @DisplayName("Chave primária ausente deve gerar erro")
+    void testMissingKeyColumn() {
+        ChangeDetectionFilter filter = new ChangeDetectionFilter("job-3", List.of("codigo"), tempDir);
+        
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(row(1, "Ana"));
+        
+        assertThrows(Exception.class, () -> filter.transform(new EtlMessage(rows)));
+    }
+    
+    private Map<String, Object> row(int id, String nome) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        row.put("nome", nome);
+        return row;
+    }
+}
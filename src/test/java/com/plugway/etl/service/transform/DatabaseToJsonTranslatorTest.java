@@ -1,11 +1,18 @@
 package com.plugway.etl.service.transform;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.plugway.etl.model.EtlMessage;
+import com.plugway.etl.model.JsonOutputFormat;
 import com.plugway.etl.model.MessageType;
+import com.plugway.etl.service.load.StreamingPayload;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -68,5 +75,61 @@ class DatabaseToJsonTranslatorTest {
         assertNotNull(transformed);
         assertNotNull(transformed.getPayload());
     }
+    
+    @Test
+    @DisplayName("Formato NDJSON deve gerar um registro por linha em streaming")
+    void testNdjsonOutput() throws Exception {
+        DatabaseToJsonTranslator ndjsonTranslator = new DatabaseToJsonTranslator(true, JsonOutputFormat.NDJSON);
+        List<Map<String, Object>> data = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("id", i);
+            record.put("name", "Test " + i);
+            data.add(record);
+        }
+        
+        EtlMessage transformed = ndjsonTranslator.transform(new EtlMessage(data));
+        
+        assertTrue(transformed.getPayload() instanceof StreamingPayload);
+        StreamingPayload payload = (StreamingPayload) transformed.getPayload();
+        assertEquals("application/x-ndjson", payload.getContentType());
+        assertEquals("3", transformed.getHeader("recordCount"));
+        
+        String expected = "{\"id\":0,\"name\":\"Test 0\"}\n"
+            + "{\"id\":1,\"name\":\"Test 1\"}\n"
+            + "{\"id\":2,\"name\":\"Test 2\"}\n";
+        assertEquals(expected, read(payload));
+        assertEquals(expected, read(payload)); // Regenerado a cada tentativa
+    }
+    
+    @Test
+    @DisplayName("Blocos NDJSON devem terminar em quebra de linha")
+    void testNdjsonChunksOnLineBoundaries() throws Exception {
+        List<Map<String, Object>> data = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            data.add(Map.of("id", i, "description", "Registro de teste número " + i));
+        }
+        ObjectWriter writer = new ObjectMapper().writer();
+        
+        try (InputStream in = new NdjsonInputStream(data, writer)) {
+            byte[] buffer = new byte[1024 * 1024];
+            int lines = 0;
+            int n;
+            while ((n = in.read(buffer, 0, buffer.length)) > 0) {
+                assertEquals('\n', buffer[n - 1]);
+                for (int i = 0; i < n; i++) {
+                    if (buffer[i] == '\n') {
+                        lines++;
+                    }
+                }
+            }
+            assertEquals(5000, lines);
+        }
+    }
+    
+    private String read(StreamingPayload payload) throws IOException {
+        try (InputStream in = payload.openStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
 }
-
@@ -0,0 +1,41 @@
+package com.plugway.etl.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.plugway.etl.model.ApiConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do ObjectMapper compartilhado.
+ */
+@DisplayName("JsonUtil Tests")
+class JsonUtilTest {
+    
+    @Test
+    @DisplayName("Mapper compartilhado deve ser único e serializar datas em ISO-8601")
+    void testSharedMapper() throws Exception {
+        assertSame(JsonUtil.mapper(), JsonUtil.mapper());
+        assertEquals("{\"data\":\"2024-01-31\"}",
+                     JsonUtil.mapper().writeValueAsString(Map.of("data", LocalDate.of(2024, 1, 31))));
+    }
+    
+    @Test
+    @DisplayName("Arquivos de configuração devem ignorar campos desconhecidos e ser gravados indentados")
+    void testConfigReaderAndWriter() throws Exception {
+        List<ApiConfig> apis = JsonUtil.configReader(new TypeReference<List<ApiConfig>>() {})
+            .readValue("[{\"name\":\"destino\",\"campoRemovido\":true}]");
+        
+        assertEquals(1, apis.size());
+        assertEquals("destino", apis.get(0).getName());
+        
+        String json = JsonUtil.configWriter().writeValueAsString(apis);
+        assertTrue(json.startsWith("[ {"));
+        assertTrue(json.contains("\"name\" : \"destino\""));
+    }
+}